@@ -17,6 +17,14 @@ java {
     toolchain.languageVersion.set(JavaLanguageVersion.of(21))
 }
 
+// JMH benchmarks live in src/jmh/java and see the main classes + their dependencies.
+// Run with: ./gradlew jmh            (all benchmarks, GC profiler on)
+//           ./gradlew jmh -PjmhArgs="RateLimiter -t 8"
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += output + compileClasspath + sourceSets.main.get().runtimeClasspath
+}
+
 // Paper 1.21.1+ ships Mojang-mapped runtime — no re-obfuscation needed
 paperweight.reobfArtifactConfiguration = ReobfArtifactConfiguration.MOJANG_PRODUCTION
 
@@ -46,6 +54,7 @@ dependencies {
     }
     implementation("com.github.ben-manes.caffeine:caffeine:3.2.0")
     implementation("de.mkammerer:argon2-jvm:2.11")
+    implementation("at.favre.lib:bcrypt:0.10.2")                         // verifies imported BCrypt hashes
     implementation("dev.samstevens.totp:totp:1.7.1")
     implementation("com.sun.mail:jakarta.mail:2.0.1")
     implementation("com.maxmind.geoip2:geoip2:4.3.1")
@@ -63,6 +72,10 @@ dependencies {
     testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.12.2")
     testImplementation("org.mockito:mockito-core:5.17.0")
     testImplementation("com.github.seeseemelk:MockBukkit-v1.21:3.114.0")
+
+    // ── Benchmarks (never shaded) ──────────────────────────────────────────────
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks {
@@ -82,6 +95,24 @@ tasks {
         options.release.set(21)
     }
 
+    named<JavaCompile>("compileJmhJava") {
+        options.release.set(21)
+        options.encoding = "UTF-8"
+    }
+
+    // Allocation rates come from the GC profiler (gc.alloc.rate.norm = bytes/op).
+    register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs JMH benchmarks from src/jmh (pass -PjmhArgs=\"<regex> <jmh flags>\")."
+        dependsOn("jmhClasses")
+        classpath = jmh.runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        val resultFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+        doFirst { resultFile.parentFile.mkdirs() }
+        args = (project.findProperty("jmhArgs")?.toString()?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()) +
+            listOf("-prof", "gc", "-rf", "json", "-rff", resultFile.absolutePath)
+    }
+
     // paperweight auto-detects Shadow and wires reobfJar → shadowJar automatically.
     // Only shadowJar itself needs configuration here.
     named<ShadowJar>("shadowJar") {
@@ -95,6 +126,7 @@ tasks {
         relocate("com.zaxxer.hikari",            "dev.n1xend.secureauth.libs.hikari")
         relocate("com.github.benmanes.caffeine", "dev.n1xend.secureauth.libs.caffeine")
         relocate("de.mkammerer.argon2",          "dev.n1xend.secureauth.libs.argon2")
+        relocate("at.favre.lib",                 "dev.n1xend.secureauth.libs.favre")
         relocate("dev.samstevens.totp",          "dev.n1xend.secureauth.libs.totp")
         relocate("com.maxmind",                  "dev.n1xend.secureauth.libs.maxmind")
         relocate("org.xerial.sqlite",            "dev.n1xend.secureauth.libs.sqlite")
@@ -0,0 +1,70 @@
+package dev.n1xend.secureauth.bench;
+
+import de.mkammerer.argon2.Argon2;
+import de.mkammerer.argon2.Argon2Factory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one Argon2id hash/verify at several {@code security.argon2} settings — the
+ * exact call {@code PasswordService} makes per login/register.
+ *
+ * <p>The {@code contended} variants run one hash per core to show how throughput and
+ * latency degrade when the memory bandwidth is shared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class Argon2Benchmark {
+
+    @Param({ "16384", "65536" })
+    public int memory;
+
+    @Param({ "2", "3" })
+    public int iterations;
+
+    @Param({ "1", "4" })
+    public int parallelism;
+
+    private static final char[] PASSWORD = "correct horse battery staple".toCharArray();
+
+    private Argon2 argon2;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        argon2 = Argon2Factory.create(Argon2Factory.Argon2Types.ARGON2id);
+        hash = argon2.hash(iterations, memory, parallelism, PASSWORD);
+    }
+
+    @Benchmark
+    public String hash() {
+        return argon2.hash(iterations, memory, parallelism, PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return argon2.verify(hash, PASSWORD);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean verifyContended() {
+        return argon2.verify(hash, PASSWORD);
+    }
+}
@@ -0,0 +1,75 @@
+package dev.n1xend.secureauth.bench;
+
+import dev.n1xend.secureauth.util.CooldownManager;
+import dev.n1xend.secureauth.util.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CooldownManager} read ({@code isOnCooldown}) and write ({@code set}) paths for an
+ * online-sized population of players.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CooldownBenchmark {
+
+    private static final int PLAYERS = 1_024;
+
+    private CooldownManager cooldowns;
+    private UUID[] players;
+
+    @Setup
+    public void setup() {
+        cooldowns = new CooldownManager(new TimingWheel(), Duration.ofSeconds(5));
+        players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+            if ((i & 1) == 0)
+                cooldowns.set(players[i]);
+        }
+    }
+
+    private UUID next() {
+        return players[ThreadLocalRandom.current().nextInt(PLAYERS)];
+    }
+
+    @Benchmark
+    public boolean isOnCooldown() {
+        return cooldowns.isOnCooldown(next());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean isOnCooldownContended() {
+        return cooldowns.isOnCooldown(next());
+    }
+
+    @Benchmark
+    public void set() {
+        cooldowns.set(next());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void setContended() {
+        cooldowns.set(next());
+    }
+}
@@ -0,0 +1,106 @@
+package dev.n1xend.secureauth.bench;
+
+import com.maxmind.db.Reader;
+import com.maxmind.geoip2.DatabaseReader;
+import dev.n1xend.secureauth.geoip.GeoIpLookup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Country lookup on connect: the raw MaxMind reader versus {@link GeoIpLookup}'s /24 cache.
+ *
+ * <p>Needs a GeoLite2-Country database, which is not redistributable:
+ * {@code ./gradlew jmh -PjmhArgs="GeoIp -p database=/path/to/GeoLite2-Country.mmdb"}.
+ * {@code networks} is the number of distinct /24s in the probe set — a flood from a thousand
+ * networks is almost all hits, a million-network spray mostly misses the 64k-slot cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoIpBenchmark {
+
+    @Param("GeoLite2-Country.mmdb")
+    public String database;
+
+    @Param({ "1000", "1000000" })
+    public int networks;
+
+    private DatabaseReader reader;
+    private GeoIpLookup lookup;
+    private InetAddress[] probes;
+
+    @Setup
+    public void setup() throws Exception {
+        Path file = Path.of(database);
+        if (!Files.isRegularFile(file))
+            throw new IllegalStateException("GeoLite2 database not found: " + file.toAbsolutePath());
+        reader = new DatabaseReader.Builder(file.toFile()).fileMode(Reader.FileMode.MEMORY_MAPPED).build();
+        lookup = new GeoIpLookup(file, new GeoIpLookup.Settings(65536), NOPLogger.NOP_LOGGER);
+        lookup.open();
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int[] nets = new int[networks];
+        for (int i = 0; i < networks; i++)
+            nets[i] = rnd.nextInt(1, 224) << 24 | rnd.nextInt(1 << 16) << 8;
+        // At least one probe per network, so the large set cannot settle into the cache
+        probes = new InetAddress[Math.max(16_384, networks)];
+        for (int i = 0; i < probes.length; i++) {
+            int ip = nets[rnd.nextInt(networks)] | rnd.nextInt(256);
+            probes[i] = InetAddress.getByAddress(
+                    new byte[] { (byte) (ip >>> 24), (byte) (ip >>> 16), (byte) (ip >>> 8), (byte) ip });
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        reader.close();
+        lookup.close();
+    }
+
+    @Benchmark
+    public String uncached() throws Exception {
+        return reader.tryCountry(probe()).map(r -> r.getCountry().getIsoCode()).orElse(null);
+    }
+
+    @Benchmark
+    public String cached() {
+        return lookup.countryCode(probe());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String uncachedContended() throws Exception {
+        return reader.tryCountry(probe()).map(r -> r.getCountry().getIsoCode()).orElse(null);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String cachedContended() {
+        return lookup.countryCode(probe());
+    }
+
+    private InetAddress probe() {
+        return probes[ThreadLocalRandom.current().nextInt(probes.length)];
+    }
+}
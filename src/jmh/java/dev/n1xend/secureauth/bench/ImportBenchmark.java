@@ -0,0 +1,156 @@
+package dev.n1xend.secureauth.bench;
+
+import dev.n1xend.secureauth.database.SqliteEngine;
+import dev.n1xend.secureauth.importer.AccountImporter;
+import dev.n1xend.secureauth.importer.ImportSource;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end import of a generated AuthMe SQLite table ({@code rows} accounts, a mix of BCrypt,
+ * SHA256 and PBKDF2 hashes plus a few unusable rows) into an empty {@code sa_players} behind
+ * {@link SqliteEngine}.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="Import"}; each measurement is one full import, so
+ * divide {@code rows} by the reported time for rows per second. Generating the 1M-row source
+ * takes a while and happens once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ImportBenchmark {
+
+    @Param({ "1000000" })
+    public int rows;
+
+    @Param({ "1000", "5000" })
+    public int chunkSize;
+
+    @Param({ "1", "4" })
+    public int writers;
+
+    private Path dir;
+    private Path source;
+    private SqliteEngine engine;
+
+    @Setup(Level.Trial)
+    public void generateSource() throws IOException, SQLException {
+        dir = Files.createTempDirectory("secureauth-import-bench");
+        source = dir.resolve("authme.db");
+        try (Connection c = DriverManager.getConnection("jdbc:sqlite:" + source);
+                Statement st = c.createStatement()) {
+            st.executeUpdate("PRAGMA journal_mode=OFF");
+            st.executeUpdate("CREATE TABLE authme (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT,"
+                    + " realname TEXT, password TEXT, ip TEXT, lastlogin BIGINT, regdate BIGINT)");
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO authme (username, realname, password, ip,"
+                    + " lastlogin, regdate) VALUES (?, ?, ?, ?, ?, ?)")) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < rows; i++) {
+                    String name = "Player" + i;
+                    ps.setString(1, name.toLowerCase());
+                    ps.setString(2, name);
+                    ps.setString(3, fakeHash(i, random));
+                    ps.setString(4, "10." + random.nextInt(256) + '.' + random.nextInt(256) + '.'
+                            + random.nextInt(256));
+                    ps.setLong(5, now - random.nextLong(TimeUnit.DAYS.toMillis(30)));
+                    ps.setLong(6, now - random.nextLong(TimeUnit.DAYS.toMillis(900)));
+                    ps.addBatch();
+                    if (i % 10_000 == 9_999)
+                        ps.executeBatch();
+                }
+                ps.executeBatch();
+            }
+            c.commit();
+        }
+    }
+
+    /** Shapes of the formats {@code HashFormat} detects; the import never verifies them. */
+    private static String fakeHash(int i, ThreadLocalRandom random) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String hex = HexFormat.of().formatHex(bytes);
+        return switch (i % 20) {
+            case 0 -> "md5:" + hex.substring(0, 32); // unknown — rejected
+            case 1, 2, 3 -> "pbkdf2_sha256$10000$" + hex.substring(0, 12) + '$' + hex;
+            case 4, 5, 6, 7, 8, 9 -> "$2y$10$" + (hex + hex).substring(0, 53);
+            default -> "$SHA$" + hex.substring(0, 16) + '$' + hex;
+        };
+    }
+
+    @Setup(Level.Invocation)
+    public void openTarget() throws SQLException {
+        Path target = dir.resolve("data-" + System.nanoTime() + ".db");
+        engine = new SqliteEngine(target, SqliteEngine.Settings.fromConfig(null), new MetricsRegistry(),
+                NOPLogger.NOP_LOGGER);
+        engine.write(c -> {
+            try (Statement st = c.createStatement()) {
+                return st.executeUpdate("CREATE TABLE sa_players (uuid TEXT PRIMARY KEY, name TEXT NOT NULL UNIQUE"
+                        + " COLLATE NOCASE, password_hash TEXT NOT NULL, registered_at TEXT, last_login TEXT,"
+                        + " last_ip TEXT)");
+            }
+        });
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeTarget() {
+        engine.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long importAll() throws Exception {
+        AccountImporter importer = new AccountImporter(engine,
+                new AccountImporter.Settings(chunkSize, writers, writers * 2, TimeUnit.HOURS.toNanos(1)),
+                NOPLogger.NOP_LOGGER);
+        ImportSource authme = new ImportSource("bench", ImportSource.Type.SQLITE, source.toString(), "", "",
+                "authme", ImportSource.Columns.AUTHME, true);
+        CompletableFuture<AccountImporter.Progress> done = new CompletableFuture<>();
+        importer.start(authme, true, p -> {
+            if (!p.running())
+                done.complete(p);
+        });
+        AccountImporter.Progress result = done.get();
+        if (result.failure() != null)
+            throw result.failure();
+        return result.imported();
+    }
+}
@@ -0,0 +1,76 @@
+package dev.n1xend.secureauth.bench;
+
+import dev.n1xend.secureauth.antibot.IpBanIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-login ban check ({@code AntiBotService.isBanned}) against an {@link IpBanIndex} holding
+ * a mix of single-IP bans, /24 ranges and IPv6 /64 ranges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpBanBenchmark {
+
+    private static final int PROBES = 4_096;
+
+    @Param({ "100", "10000" })
+    public int bans;
+
+    private IpBanIndex index;
+    private String[] probes;
+
+    @Setup
+    public void setup() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        List<IpBanIndex.Ban> all = new ArrayList<>();
+        for (int i = 0; i < bans; i++) {
+            String cidr = switch (i % 3) {
+                case 0 -> rnd.nextInt(256) + "." + rnd.nextInt(256) + "." + rnd.nextInt(256) + "." + rnd.nextInt(256);
+                case 1 -> rnd.nextInt(256) + "." + rnd.nextInt(256) + "." + rnd.nextInt(256) + ".0/24";
+                default -> "2001:db8:" + Integer.toHexString(rnd.nextInt(65536)) + ":"
+                        + Integer.toHexString(rnd.nextInt(65536)) + "::/64";
+            };
+            all.add(IpBanIndex.Ban.of(cidr, "bench", IpBanIndex.PERMANENT));
+        }
+        index = new IpBanIndex();
+        index.replaceAll(all);
+
+        probes = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = (i & 3) == 0
+                    ? "2001:db8:" + Integer.toHexString(rnd.nextInt(65536)) + "::" + Integer.toHexString(i)
+                    : rnd.nextInt(256) + "." + rnd.nextInt(256) + "." + rnd.nextInt(256) + "." + rnd.nextInt(256);
+        }
+    }
+
+    @Benchmark
+    public boolean isBanned() {
+        return index.isBanned(probes[ThreadLocalRandom.current().nextInt(PROBES)]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean isBannedContended() {
+        return index.isBanned(probes[ThreadLocalRandom.current().nextInt(PROBES)]);
+    }
+}
@@ -0,0 +1,178 @@
+package dev.n1xend.secureauth.bench;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.n1xend.secureauth.player.UnauthenticatedPlayers;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.RegisteredListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event dispatch cost of a movement event for {@value #ONLINE} online players of whom
+ * {@code unauthenticated} have not logged in, with {@code otherPlugins} foreign listeners on the
+ * same event.
+ *
+ * <p>Each benchmark fires the event through a real Bukkit {@link HandlerList} and
+ * {@link RegisteredListener}s, the way {@code SimplePluginManager.callEvent} walks the baked
+ * handler array:
+ * <ul>
+ *   <li>{@code alwaysRegistered} — the old guard, registered for good, resolving the player's
+ *       auth state on every event;</li>
+ *   <li>{@code gated} — the guard behind {@code ProtectionGate}: registered with the set lookup
+ *       while someone is unauthenticated, absent from the handler list otherwise.</li>
+ * </ul>
+ *
+ * <p>The auth-state store mirrors {@code PlayerDataService.getAuthState}: the per-player state
+ * object held in the Caffeine cache that backs the service, read on every event. The service
+ * itself needs a live database and is not constructed here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtectionCheckBenchmark {
+
+    private static final int ONLINE = 300;
+
+    @Param({"0", "1", "30"})
+    public int unauthenticated;
+
+    @Param({"0", "4"})
+    public int otherPlugins;
+
+    /** Mutable per-player stage, as returned by {@code getAuthState}. */
+    private static final class AuthState {
+        private volatile boolean authenticated = true;
+
+        boolean isAuthenticated() {
+            return authenticated;
+        }
+    }
+
+    private static final class MoveEvent extends Event implements Cancellable {
+        private static final HandlerList HANDLERS = new HandlerList();
+        UUID player;
+        private boolean cancelled;
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancel) {
+            this.cancelled = cancel;
+        }
+
+        @Override
+        public HandlerList getHandlers() {
+            return HANDLERS;
+        }
+
+        public static HandlerList getHandlerList() {
+            return HANDLERS;
+        }
+    }
+
+    /** A listener from another plugin that reads the event and does nothing. */
+    private static final class Bystander implements Listener {
+        int seen;
+
+        void onMove(MoveEvent event) {
+            if (event.player != null)
+                seen++;
+        }
+    }
+
+    private final class AuthStateGuard implements Listener {
+        void onMove(MoveEvent event) {
+            AuthState state = authStates.getIfPresent(event.player);
+            if (state == null || !state.isAuthenticated())
+                event.setCancelled(true);
+        }
+    }
+
+    private final class SetGuard implements Listener {
+        void onMove(MoveEvent event) {
+            if (set.contains(event.player))
+                event.setCancelled(true);
+        }
+    }
+
+    private final Cache<UUID, AuthState> authStates = Caffeine.newBuilder().maximumSize(1_000).build();
+    private final UnauthenticatedPlayers set = new UnauthenticatedPlayers();
+    private final MoveEvent event = new MoveEvent();
+    private UUID[] online;
+    private HandlerList alwaysRegistered;
+    private HandlerList gated;
+
+    @Setup
+    public void setup() {
+        online = new UUID[ONLINE];
+        for (int i = 0; i < ONLINE; i++) {
+            online[i] = UUID.randomUUID();
+            AuthState state = new AuthState();
+            if (i < unauthenticated) {
+                state.authenticated = false;
+                set.add(online[i]);
+            }
+            authStates.put(online[i], state);
+        }
+
+        alwaysRegistered = new HandlerList();
+        gated = new HandlerList();
+        for (int i = 0; i < otherPlugins; i++) {
+            Bystander other = new Bystander();
+            alwaysRegistered.register(listener(other, (l, e) -> ((Bystander) l).onMove((MoveEvent) e)));
+            gated.register(listener(other, (l, e) -> ((Bystander) l).onMove((MoveEvent) e)));
+        }
+        alwaysRegistered.register(listener(new AuthStateGuard(), (l, e) -> ((AuthStateGuard) l).onMove((MoveEvent) e)));
+        // What ProtectionGate leaves behind: the guard only while the set is non-empty
+        if (!set.isEmpty())
+            gated.register(listener(new SetGuard(), (l, e) -> ((SetGuard) l).onMove((MoveEvent) e)));
+    }
+
+    private static RegisteredListener listener(Listener listener, EventExecutor executor) {
+        return new RegisteredListener(listener, executor, EventPriority.LOWEST, null, false);
+    }
+
+    private boolean fire(HandlerList handlers) throws EventException {
+        event.player = online[ThreadLocalRandom.current().nextInt(ONLINE)];
+        event.setCancelled(false);
+        for (RegisteredListener registration : handlers.getRegisteredListeners())
+            registration.callEvent(event);
+        return event.isCancelled();
+    }
+
+    @Benchmark
+    public boolean alwaysRegistered() throws EventException {
+        return fire(alwaysRegistered);
+    }
+
+    @Benchmark
+    public boolean gated() throws EventException {
+        return fire(gated);
+    }
+}
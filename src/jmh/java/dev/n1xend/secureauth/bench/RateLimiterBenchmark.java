@@ -0,0 +1,79 @@
+package dev.n1xend.secureauth.bench;
+
+import dev.n1xend.secureauth.util.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimiter#tryAcquire} on a single hot key (one player spamming /login) and on
+ * a rotating set of keys (bot flood), single-threaded and with all cores hammering the
+ * same limiter, plus a per-IP limiter under a flood of unique addresses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 65_536;
+
+    private RateLimiter limiter;
+    private RateLimiter ipLimiter;
+    private UUID hotKey;
+    private UUID[] keys;
+
+    @Setup
+    public void setup() {
+        limiter = new RateLimiter(10, Duration.ofSeconds(60));
+        ipLimiter = new RateLimiter(10, Duration.ofSeconds(1), 1 << 20);
+        hotKey = UUID.randomUUID();
+        keys = new UUID[KEYS];
+        for (int i = 0; i < KEYS; i++)
+            keys[i] = UUID.randomUUID();
+    }
+
+    @Benchmark
+    public boolean hotKey() {
+        return limiter.tryAcquire(hotKey);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean hotKeyContended() {
+        return limiter.tryAcquire(hotKey);
+    }
+
+    @Benchmark
+    public boolean distinctKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean distinctKeysContended() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    /** Bot flood: every attempt comes from a never-seen IPv4 address. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean ipv4FloodContended() {
+        return ipLimiter.tryAcquireIpv4(ThreadLocalRandom.current().nextInt());
+    }
+}
@@ -0,0 +1,116 @@
+package dev.n1xend.secureauth.bench;
+
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import dev.n1xend.secureauth.session.SessionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SessionIndex#hasValidSession} as the join path, the API and placeholders call it:
+ * {@value #PLAYERS} players of whom every other one has a session, looked up single-threaded
+ * and with all cores reading at once, on random players and on one hot player.
+ *
+ * <p>Lookups never touch the database. The store below only absorbs the write-behind flushes of
+ * the sessions created in setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionIndexBenchmark {
+
+    private static final int PLAYERS = 10_000;
+    private static final String IP = "203.0.113.7";
+
+    private SessionIndex sessions;
+    private UUID[] players;
+    private UUID hotPlayer;
+
+    @Setup
+    public void setup() {
+        SqlStore discard = new SqlStore() {
+            @Override
+            public Connection read() throws SQLException {
+                throw new SQLException("no database in this benchmark");
+            }
+
+            @Override
+            public <T> T write(Transaction<T> tx) {
+                return null;
+            }
+
+            @Override
+            public boolean isMysql() {
+                return false;
+            }
+        };
+        sessions = new SessionIndex(discard, new MetricsRegistry(), NOPLogger.NOP_LOGGER);
+        players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+            if (i % 2 == 0)
+                sessions.create(players[i], IP, Duration.ofHours(1));
+        }
+        hotPlayer = players[0];
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessions.shutdown();
+    }
+
+    private UUID randomPlayer() {
+        return players[ThreadLocalRandom.current().nextInt(PLAYERS)];
+    }
+
+    @Benchmark
+    public boolean anyIp() {
+        return sessions.hasValidSession(randomPlayer());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean anyIpContended() {
+        return sessions.hasValidSession(randomPlayer());
+    }
+
+    /** The join path: the session must also be bound to the joining address. */
+    @Benchmark
+    public boolean boundIp() {
+        return sessions.hasValidSession(randomPlayer(), IP);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean boundIpContended() {
+        return sessions.hasValidSession(randomPlayer(), IP);
+    }
+
+    /** Every thread asks about the same player, e.g. a placeholder refreshed on every scoreboard. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean hotPlayerContended() {
+        return sessions.hasValidSession(hotPlayer);
+    }
+}
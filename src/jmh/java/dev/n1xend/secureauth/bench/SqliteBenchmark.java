@@ -0,0 +1,165 @@
+package dev.n1xend.secureauth.bench;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.database.SqliteEngine;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent audit-style inserts and session lookups on a SQLite file, through the previous
+ * setup ({@code hikari}: HikariCP pool, default rollback journal, every connection writes) and
+ * through {@link SqliteEngine} ({@code engine}: WAL, one group-committing writer, read pool).
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhArgs="Sqlite"}; the interesting number is
+ * {@code write} throughput under {@link Threads#MAX}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqliteBenchmark {
+
+    private static final int PLAYERS = 10_000;
+
+    @Param({ "hikari", "engine" })
+    public String backend;
+
+    private Path dir;
+    private HikariDataSource pool;
+    private SqliteEngine engine;
+    private SqlStore store;
+    private String[] uuids;
+
+    @Setup
+    public void setup() throws IOException, SQLException {
+        dir = Files.createTempDirectory("secureauth-sqlite-bench");
+        Path file = dir.resolve("data.db");
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:" + file);
+        config.setMaximumPoolSize(10);
+        pool = new HikariDataSource(config);
+        try (Connection c = pool.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("CREATE TABLE sa_audit_log (id INTEGER PRIMARY KEY AUTOINCREMENT, event TEXT,"
+                    + " uuid TEXT, name TEXT, ip TEXT, details TEXT)");
+            st.executeUpdate("CREATE TABLE sa_sessions (uuid TEXT PRIMARY KEY, ip_hash TEXT, expires_at TEXT)");
+        }
+        uuids = new String[PLAYERS];
+        try (Connection c = pool.getConnection();
+                PreparedStatement ps = c.prepareStatement(
+                        "INSERT INTO sa_sessions VALUES (?, 'hash', datetime('now', '+1 day'))")) {
+            c.setAutoCommit(false);
+            for (int i = 0; i < PLAYERS; i++) {
+                uuids[i] = UUID.randomUUID().toString();
+                ps.setString(1, uuids[i]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            c.commit();
+        }
+
+        if ("engine".equals(backend)) {
+            pool.close();
+            engine = new SqliteEngine(file, SqliteEngine.Settings.fromConfig(null), new MetricsRegistry(),
+                    NOPLogger.NOP_LOGGER);
+            store = engine;
+        } else {
+            store = new SqlStore() {
+                @Override
+                public Connection read() throws SQLException {
+                    return pool.getConnection();
+                }
+
+                @Override
+                public <T> T write(Transaction<T> tx) throws SQLException {
+                    // What the writers did before: own connection, own transaction, own fsync
+                    try (Connection c = pool.getConnection()) {
+                        c.setAutoCommit(false);
+                        try {
+                            T result = tx.run(c);
+                            c.commit();
+                            return result;
+                        } catch (SQLException e) {
+                            c.rollback();
+                            throw e;
+                        } finally {
+                            c.setAutoCommit(true);
+                        }
+                    }
+                }
+
+                @Override
+                public boolean isMysql() {
+                    return false;
+                }
+            };
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (engine != null)
+            engine.close();
+        pool.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int write() throws SQLException {
+        String uuid = uuids[ThreadLocalRandom.current().nextInt(PLAYERS)];
+        return store.write(c -> {
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO sa_audit_log (event, uuid, name, ip, details) VALUES ('LOGIN', ?, 'bench', ?, NULL)")) {
+                ps.setString(1, uuid);
+                ps.setString(2, "10.0.0.1");
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean read() throws SQLException {
+        try (Connection c = store.read();
+                PreparedStatement ps = c.prepareStatement(
+                        "SELECT 1 FROM sa_sessions WHERE uuid = ? AND expires_at > datetime('now')")) {
+            ps.setString(1, uuids[ThreadLocalRandom.current().nextInt(PLAYERS)]);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.n1xend.secureauth.bench;
+
+import dev.n1xend.secureauth.util.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TimingWheel} under a join storm: {@code pending} players each hold a login timeout and
+ * a reminder. Measures a join (two schedules), a login (two cancels) and an empty server tick.
+ * Run with {@code -prof gc} to confirm the schedule/cancel path does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingWheelBenchmark {
+
+    private static final TimingWheel.Expiry TIMEOUT = uuid -> {};
+    private static final TimingWheel.Expiry REMINDER = uuid -> {};
+
+    @Param({"1000", "10000"})
+    public int pending;
+
+    private TimingWheel wheel;
+    private UUID[] players;
+
+    @Setup
+    public void setup() {
+        wheel = new TimingWheel(pending * 2);
+        players = new UUID[pending];
+        for (int i = 0; i < pending; i++) {
+            players[i] = UUID.randomUUID();
+            wheel.schedule(TIMEOUT, players[i], 60_000);
+            wheel.schedule(REMINDER, players[i], 3_000);
+        }
+    }
+
+    private UUID next() {
+        return players[ThreadLocalRandom.current().nextInt(pending)];
+    }
+
+    @Benchmark
+    public void join() {
+        UUID uuid = next();
+        wheel.schedule(TIMEOUT, uuid, 60_000);
+        wheel.schedule(REMINDER, uuid, 3_000);
+    }
+
+    @Benchmark
+    public void loginThenRejoin() {
+        UUID uuid = next();
+        wheel.cancel(TIMEOUT, uuid);
+        wheel.cancel(REMINDER, uuid);
+        wheel.schedule(TIMEOUT, uuid, 60_000);
+        wheel.schedule(REMINDER, uuid, 3_000);
+    }
+
+    @Benchmark
+    public long remaining() {
+        return wheel.remainingMillis(TIMEOUT, next());
+    }
+
+    @Benchmark
+    public void tick() {
+        wheel.tick();
+    }
+}
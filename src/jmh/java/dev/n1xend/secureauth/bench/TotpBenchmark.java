@@ -0,0 +1,90 @@
+package dev.n1xend.secureauth.bench;
+
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import dev.n1xend.secureauth.twofa.TotpVerifier;
+import dev.samstevens.totp.code.CodeGenerator;
+import dev.samstevens.totp.code.DefaultCodeGenerator;
+import dev.samstevens.totp.code.DefaultCodeVerifier;
+import dev.samstevens.totp.code.HashingAlgorithm;
+import dev.samstevens.totp.exceptions.CodeGenerationException;
+import dev.samstevens.totp.secret.DefaultSecretGenerator;
+import dev.samstevens.totp.time.SystemTimeProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TOTP code verification with the library's {@link DefaultCodeVerifier} and with
+ * {@link TotpVerifier}, both with a ±1 period window, for a valid and an invalid code. The
+ * {@code cached*} benchmarks call {@link TotpVerifier#matchStep}, which skips replay
+ * bookkeeping so the same valid code can be checked repeatedly; run with {@code -prof gc} to
+ * compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotpBenchmark {
+
+    private DefaultCodeVerifier verifier;
+    private TotpVerifier cached;
+    private final UUID player = UUID.randomUUID();
+    private String secret;
+    private String validCode;
+
+    @Setup
+    public void setup() throws CodeGenerationException {
+        CodeGenerator generator = new DefaultCodeGenerator(HashingAlgorithm.SHA1);
+        SystemTimeProvider time = new SystemTimeProvider();
+        verifier = new DefaultCodeVerifier(generator, time);
+        verifier.setAllowedTimePeriodDiscrepancy(1);
+        cached = new TotpVerifier(new MetricsRegistry());
+        secret = new DefaultSecretGenerator().generate();
+        validCode = generator.generate(secret, Math.floorDiv(time.getTime(), 30));
+    }
+
+    @Benchmark
+    public boolean verifyValid() {
+        return verifier.isValidCode(secret, validCode);
+    }
+
+    @Benchmark
+    public boolean verifyInvalid() {
+        return verifier.isValidCode(secret, "000000");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean verifyInvalidContended() {
+        return verifier.isValidCode(secret, "000000");
+    }
+
+    @Benchmark
+    public long cachedVerifyValid() {
+        return cached.matchStep(player, secret, validCode, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public long cachedVerifyInvalid() {
+        return cached.matchStep(player, secret, "000000", System.currentTimeMillis());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long cachedVerifyInvalidContended() {
+        return cached.matchStep(player, secret, "000000", System.currentTimeMillis());
+    }
+}
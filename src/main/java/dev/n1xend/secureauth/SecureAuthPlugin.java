@@ -1,39 +1,83 @@
 package dev.n1xend.secureauth;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.n1xend.secureauth.api.PlayerLookupApi;
 import dev.n1xend.secureauth.api.SecureAuthApi;
+import dev.n1xend.secureauth.api.StatsApi;
 import dev.n1xend.secureauth.api.impl.AntiBotApiImpl;
 import dev.n1xend.secureauth.api.impl.AuthApiImpl;
+import dev.n1xend.secureauth.api.impl.PlayerLookupApiImpl;
 import dev.n1xend.secureauth.api.impl.SecureAuthApiImpl;
 import dev.n1xend.secureauth.api.impl.SessionApiImpl;
+import dev.n1xend.secureauth.api.impl.StatsApiImpl;
 import dev.n1xend.secureauth.api.impl.TotpApiImpl;
 import dev.n1xend.secureauth.antibot.AntiBotService;
+import dev.n1xend.secureauth.antibot.IpBanService;
+import dev.n1xend.secureauth.audit.AuditEvent;
+import dev.n1xend.secureauth.audit.AuditHistory;
 import dev.n1xend.secureauth.audit.AuditLogService;
+import dev.n1xend.secureauth.audit.AuditLogWriter;
+import dev.n1xend.secureauth.audit.AuthStats;
+import dev.n1xend.secureauth.cluster.ClusterEventBus;
 import dev.n1xend.secureauth.command.AdminCommand;
 import dev.n1xend.secureauth.command.AuthCommand;
 import dev.n1xend.secureauth.config.PluginConfig;
 import dev.n1xend.secureauth.database.DatabaseManager;
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.database.SqliteEngine;
 import dev.n1xend.secureauth.debug.DebugLogger;
 import dev.n1xend.secureauth.email.EmailService;
+import dev.n1xend.secureauth.email.MailQueue;
+import dev.n1xend.secureauth.geoip.GeoIpLookup;
 import dev.n1xend.secureauth.geoip.GeoIpService;
 import dev.n1xend.secureauth.i18n.LanguageManager;
+import dev.n1xend.secureauth.importer.AccountImporter;
 import dev.n1xend.secureauth.integration.LuckPermsIntegration;
 import dev.n1xend.secureauth.integration.VaultIntegration;
 import dev.n1xend.secureauth.listener.AuthListener;
+import dev.n1xend.secureauth.listener.LoginTimer;
+import dev.n1xend.secureauth.listener.PreLoginPrefetcher;
+import dev.n1xend.secureauth.listener.ProtectionGate;
 import dev.n1xend.secureauth.listener.ProtectionListener;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import dev.n1xend.secureauth.metrics.PrometheusEndpoint;
 import dev.n1xend.secureauth.module.ModuleManager;
-import dev.n1xend.secureauth.papi.SecureAuthExpansion;
+import dev.n1xend.secureauth.papi.PlaceholderSnapshots;
+import dev.n1xend.secureauth.papi.SnapshotExpansion;
+import dev.n1xend.secureauth.player.AccountRow;
+import dev.n1xend.secureauth.player.PlayerBulkLookup;
 import dev.n1xend.secureauth.player.PlayerDataService;
+import dev.n1xend.secureauth.player.RegistrationIndex;
+import dev.n1xend.secureauth.player.UnauthenticatedPlayers;
+import dev.n1xend.secureauth.security.HashingEngine;
+import dev.n1xend.secureauth.security.Argon2Calibrator;
 import dev.n1xend.secureauth.security.PasswordService;
+import dev.n1xend.secureauth.security.PasswordUpgrader;
+import dev.n1xend.secureauth.session.SessionIndex;
 import dev.n1xend.secureauth.session.SessionService;
 import dev.n1xend.secureauth.shutdown.ShutdownManager;
+import dev.n1xend.secureauth.twofa.BackupCodes;
 import dev.n1xend.secureauth.twofa.TotpService;
+import dev.n1xend.secureauth.twofa.TotpVerifier;
 import dev.n1xend.secureauth.update.UpdateChecker;
+import dev.n1xend.secureauth.util.RateLimiter;
+import dev.n1xend.secureauth.util.StartupGraph;
 import dev.n1xend.secureauth.util.StartupTimer;
+import dev.n1xend.secureauth.util.TimingWheel;
+import dev.n1xend.secureauth.webhook.WebhookDispatcher;
+import dev.n1xend.secureauth.webhook.WebhookRelay;
 import dev.n1xend.secureauth.webhook.WebhookService;
 import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * SecureAuth — Modern authentication plugin for Paper 1.21.1+.
@@ -47,21 +91,48 @@ public final class SecureAuthPlugin extends JavaPlugin {
     private PluginConfig pluginConfig;
     private LanguageManager lang;
     private DatabaseManager database;
+    private SqlStore sqlStore;
+    private SqliteEngine sqliteEngine;
     private PasswordService passwordService;
+    private HashingEngine hashingEngine;
+    private Argon2Calibrator argon2Calibrator;
+    private PasswordUpgrader passwordUpgrader;
     private SessionService sessionService;
+    private SessionIndex sessionIndex;
     private PlayerDataService playerDataService;
+    private PlayerBulkLookup<AccountRow> playerLookup;
+    private RegistrationIndex registrationIndex;
+    private PlaceholderSnapshots placeholders;
     private TotpService totpService;
+    private TotpVerifier totpVerifier;
+    private BackupCodes backupCodes;
     private EmailService emailService;
+    private MailQueue mailQueue;
     private GeoIpService geoIpService;
+    private GeoIpLookup geoIpLookup;
     private AntiBotService antiBotService;
+    private IpBanService ipBanService;
+    private PreLoginPrefetcher preLoginPrefetcher;
+    private final UnauthenticatedPlayers unauthenticatedPlayers = new UnauthenticatedPlayers();
+    private ProtectionGate protectionGate;
     private ModuleManager moduleManager;
     private DebugLogger debugLogger;
     private VaultIntegration vault;
     private LuckPermsIntegration luckPerms;
     private ShutdownManager shutdownManager;
     private AuthApiImpl authApiImpl;
-    private WebhookService webhookService;
+    private volatile WebhookRelay webhookRelay;
+    private volatile WebhookService webhookService;
     private AuditLogService auditLogService;
+    private AuditLogWriter auditLogWriter;
+    private AuthStats authStats;
+    private AuditHistory auditHistory;
+    private AccountImporter accountImporter;
+    private ClusterEventBus clusterEvents;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final TimingWheel timingWheel = new TimingWheel(1024);
+    private LoginTimer loginTimer;
+    private PrometheusEndpoint metricsEndpoint;
     private UpdateChecker updateChecker;
 
     /** Executes tasks on the main server thread. */
@@ -88,40 +159,43 @@ public final class SecureAuthPlugin extends JavaPlugin {
         // Debug logger (zero-cost when disabled)
         debugLogger = new DebugLogger(getSLF4JLogger(), pluginConfig.isDebug());
 
-        // Language
-        timer.stage("Language");
-        lang = new LanguageManager(this, pluginConfig.getLanguage());
-        lang.loadAll();
-        timer.end("Language");
-
-        // Database
-        timer.stage("Database");
-        database = new DatabaseManager(this, pluginConfig, getSLF4JLogger());
-        if (!database.connect()) {
-            getSLF4JLogger().error("[SecureAuth] Database connection failed — disabling.");
+        // Independent stages run in parallel; everything that touches the Bukkit API waits below
+        StartupGraph startup = new StartupGraph(timer)
+                .stage("Language", () -> {
+                    lang = new LanguageManager(this, pluginConfig.getLanguage());
+                    lang.loadAll();
+                })
+                .stage("Database", () -> {
+                    database = new DatabaseManager(this, pluginConfig, getSLF4JLogger());
+                    if (!database.connect())
+                        throw new IllegalStateException("database connection failed");
+                    openSqlStore();
+                })
+                .stage("GeoIP", () -> {
+                    geoIpService = new GeoIpService(pluginConfig, getSLF4JLogger());
+                    startGeoIpLookup();
+                })
+                .stage("Email", () -> {
+                    startMailQueue();
+                    emailService = new EmailService(pluginConfig, getSLF4JLogger());
+                })
+                .stage("Migrations", () -> database.migrate(), "Database")
+                .stage("Services", this::createServices, "Migrations")
+                // Warm-up reads of independent tables
+                .stage("Sessions", () -> sessionIndex.load(), "Services")
+                .stage("IP bans", () -> ipBanService.load(), "Services")
+                .stage("Backup codes", () -> backupCodes.createTable(), "Services")
+                .stage("Cluster", () -> clusterEvents.start(), "Services")
+                // Full sa_players scan: runs in the background, lookups use the database until it is done
+                .stage("Registration filter", () -> registrationIndex.rebuildAsync("startup"), "Services");
+        try {
+            startup.run();
+        } catch (StartupGraph.StageFailedException e) {
+            getSLF4JLogger().error("[SecureAuth] {} — disabling.", e.getMessage(), e.getCause());
             getServer().getPluginManager().disablePlugin(this);
             return;
         }
-        timer.end("Database");
-
-        timer.stage("Migrations");
-        database.migrate();
-        timer.end("Migrations");
-
-        // Audit log
-        auditLogService = new AuditLogService(database, getSLF4JLogger());
-
-        // Core services — constructor injection, explicit dependency order
-        timer.stage("Services");
-        passwordService = new PasswordService(pluginConfig);
-        sessionService = new SessionService(database, pluginConfig);
-        playerDataService = new PlayerDataService(database, getSLF4JLogger());
-        totpService = new TotpService(database, pluginConfig);
-        emailService = new EmailService(pluginConfig, getSLF4JLogger());
-        geoIpService = new GeoIpService(pluginConfig, getSLF4JLogger());
-        antiBotService = new AntiBotService(pluginConfig, getSLF4JLogger());
-        antiBotService.setDatabase(database);
-        timer.end("Services");
+        scheduleMaintenance();
 
         // Soft-depend integrations
         timer.stage("Integrations");
@@ -132,7 +206,8 @@ public final class SecureAuthPlugin extends JavaPlugin {
         timer.end("Integrations");
 
         // Webhooks
-        webhookService = new WebhookService(pluginConfig.getWebhooks(), getPluginMeta().getVersion(), getSLF4JLogger());
+        webhookRelay = createWebhookRelay();
+        webhookService = createWebhookService();
         var wh = pluginConfig.getWebhooks();
         if (!wh.isEmpty()) {
             getSLF4JLogger().info("[SecureAuth] Webhooks: {} target(s) configured.", wh.size());
@@ -147,7 +222,7 @@ public final class SecureAuthPlugin extends JavaPlugin {
 
         // PlaceholderAPI expansion (soft-depend)
         if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
-            new SecureAuthExpansion(playerDataService, totpService, sessionService).register();
+            new SnapshotExpansion(getPluginMeta().getVersion(), placeholders).register();
             getSLF4JLogger().info("[SecureAuth] PlaceholderAPI expansion registered.");
         }
 
@@ -172,9 +247,16 @@ public final class SecureAuthPlugin extends JavaPlugin {
 
         // Public API — register via ServicesManager (Paper Plugin Standards §20)
         authApiImpl = new AuthApiImpl(playerDataService, sessionService, this);
+        authApiImpl.addListener((uuid, from, to) -> placeholders.onStage(uuid, to.name()));
+        authApiImpl.addListener((uuid, from, to) -> protectionGate.onStage(uuid, to.name()));
+        authApiImpl.addListener((uuid, from, to) -> loginTimer.onStage(uuid, from.name(), to.name()));
         SecureAuthApi api = new SecureAuthApiImpl(getPluginMeta().getVersion(), authApiImpl,
                 new SessionApiImpl(sessionService), new TotpApiImpl(totpService), new AntiBotApiImpl(antiBotService));
         getServer().getServicesManager().register(SecureAuthApi.class, api, this, ServicePriority.Normal);
+        getServer().getServicesManager().register(StatsApi.class, new StatsApiImpl(authStats, getServer()), this,
+                ServicePriority.Normal);
+        getServer().getServicesManager().register(PlayerLookupApi.class,
+                new PlayerLookupApiImpl(playerLookup, Thread::startVirtualThread), this, ServicePriority.Normal);
         getSLF4JLogger().info("[SecureAuth] Public API registered via ServicesManager.");
 
         timer.printSummary();
@@ -192,16 +274,209 @@ public final class SecureAuthPlugin extends JavaPlugin {
     @Override
     public void onDisable() {
         getSLF4JLogger().info("[SecureAuth] Shutting down...");
+        if (webhookRelay != null)
+            webhookRelay.shutdown(5000);
         if (webhookService != null)
             webhookService.shutdown();
+        // Let a running import commit its last chunks and checkpoint; it resumes on the next start
+        if (accountImporter != null)
+            accountImporter.shutdown(10_000);
+        // Finish pending hash upgrades and ban writes, then flush buffered audit events and
+        // sessions, all while the pool is still open
+        if (hashingEngine != null)
+            hashingEngine.shutdown();
+        if (ipBanService != null)
+            ipBanService.shutdown();
+        if (auditLogWriter != null)
+            auditLogWriter.shutdown(5000);
+        if (sessionIndex != null)
+            sessionIndex.shutdown();
+        // After the session flush, so its notices still reach the other servers
+        if (clusterEvents != null)
+            clusterEvents.shutdown();
         if (shutdownManager != null) {
             shutdownManager.shutdown();
         }
+        if (preLoginPrefetcher != null)
+            preLoginPrefetcher.shutdown();
+        if (geoIpLookup != null)
+            geoIpLookup.close();
+        if (mailQueue != null)
+            mailQueue.shutdown(5000);
+        if (luckPerms != null)
+            luckPerms.shutdown();
+        if (metricsEndpoint != null)
+            metricsEndpoint.stop();
+        // Last: everything above may still have queued writes
+        if (sqliteEngine != null)
+            sqliteEngine.close();
         getSLF4JLogger().info("[SecureAuth] Disabled.");
     }
 
     // ── Private helpers ───────────────────────────────────────────────────────
 
+    /**
+     * Picks the write path for the background writers: the dedicated SQLite engine unless it is
+     * disabled in {@code database.sqlite}, otherwise the connection pool.
+     */
+    private void openSqlStore() throws SQLException {
+        var sqlite = getConfig().getConfigurationSection("database.sqlite");
+        if (database.isMysql() || (sqlite != null && !sqlite.getBoolean("dedicated-engine", true))) {
+            sqlStore = SqlStore.pooled(database);
+            return;
+        }
+        sqliteEngine = new SqliteEngine(sqliteFile(), SqliteEngine.Settings.fromConfig(sqlite), metrics,
+                getSLF4JLogger());
+        sqlStore = sqliteEngine;
+    }
+
+    /** The file {@link DatabaseManager} actually opened, read back from its JDBC URL. */
+    private Path sqliteFile() throws SQLException {
+        String url;
+        try (var c = database.getConnection()) {
+            url = c.getMetaData().getURL();
+        }
+        if (url == null || !url.startsWith("jdbc:sqlite:"))
+            throw new SQLException("Not a SQLite URL: " + url);
+        String file = url.substring("jdbc:sqlite:".length());
+        int query = file.indexOf('?');
+        return Path.of(query < 0 ? file : file.substring(0, query));
+    }
+
+    /** Builds the database-backed services. Runs on a startup thread, after migrations. */
+    private void createServices() {
+        // Audit log
+        auditLogService = new AuditLogService(database, getSLF4JLogger());
+        authStats = new AuthStats();
+        authStats.setLoginFailures(metrics.counter(MetricsRegistry.LOGIN_FAILURES));
+        authStats.seedAsync(sqlStore, getSLF4JLogger());
+        auditLogWriter = new AuditLogWriter(sqlStore,
+                AuditLogWriter.Settings.fromConfig(getConfig().getConfigurationSection("audit")), metrics,
+                getSLF4JLogger());
+        auditHistory = new AuditHistory(sqlStore);
+        accountImporter = new AccountImporter(sqlStore,
+                AccountImporter.Settings.fromConfig(getConfig().getConfigurationSection("import")), getSLF4JLogger());
+
+        // Core services — constructor injection, explicit dependency order
+        passwordService = new PasswordService(pluginConfig);
+        hashingEngine = new HashingEngine(
+                HashingEngine.Settings.fromConfig(getConfig().getConfigurationSection("security.argon2")), metrics,
+                getSLF4JLogger());
+        var calibration = getConfig().getConfigurationSection("security.argon2.calibration");
+        argon2Calibrator = new Argon2Calibrator(Argon2Calibrator.Settings.fromConfig(calibration), getSLF4JLogger());
+        passwordUpgrader = new PasswordUpgrader(hashingEngine, sqlStore, metrics, getSLF4JLogger());
+        sessionService = new SessionService(database, pluginConfig);
+        sessionIndex = new SessionIndex(sqlStore, metrics, getSLF4JLogger());
+        authStats.setActiveSessions(sessionIndex::size);
+        playerDataService = new PlayerDataService(database, getSLF4JLogger());
+        // Own account cache: audit rows and other servers invalidate it, the expiry bounds everything else
+        playerLookup = new PlayerBulkLookup<>(sqlStore, Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .maximumSize(10_000)
+                .<UUID, AccountRow>build(), AccountRow::map, Thread::startVirtualThread, metrics);
+        registrationIndex = new RegistrationIndex(sqlStore, playerLookup, metrics, getSLF4JLogger());
+        // Imports write no REGISTER audit row, so the total and the filter are told directly
+        accountImporter.setImportedListener(uuid -> {
+            registrationIndex.onRegistered(uuid);
+            authStats.onImported(uuid);
+        });
+        totpService = new TotpService(database, pluginConfig);
+        totpVerifier = new TotpVerifier(metrics);
+        backupCodes = new BackupCodes(sqlStore);
+        antiBotService = new AntiBotService(pluginConfig, getSLF4JLogger());
+        antiBotService.setDatabase(database);
+        ipBanService = new IpBanService(sqlStore, metrics, getSLF4JLogger());
+        authStats.setActiveBans(ipBanService::size);
+
+        // Cross-server invalidation (several backends on one MySQL database)
+        clusterEvents = new ClusterEventBus(sqlStore,
+                ClusterEventBus.Settings.fromConfig(getConfig().getConfigurationSection("cluster")), metrics,
+                getSLF4JLogger());
+        clusterEvents.on(ClusterEventBus.Type.PLAYER_CHANGED, e -> {
+            playerDataService.invalidate(e.uuid());
+            playerLookup.invalidate(e.uuid());
+            // May be a registration on another server; a stale "maybe" is harmless
+            registrationIndex.onRegistered(e.uuid());
+        });
+        clusterEvents.on(ClusterEventBus.Type.SESSION_CHANGED, e -> sessionIndex.reload(e.uuid()));
+        sessionIndex.setPersistListener(uuid -> clusterEvents.publish(ClusterEventBus.Type.SESSION_CHANGED, uuid));
+        passwordUpgrader.setUpgradeListener(uuid -> {
+            playerDataService.invalidate(uuid);
+            clusterEvents.publish(ClusterEventBus.Type.PLAYER_CHANGED, uuid);
+        });
+
+        // Pre-rendered placeholder values, rebuilt from the same change events
+        placeholders = new PlaceholderSnapshots(uuid -> {
+            AccountRow row = playerLookup.findAllByUuid(List.of(uuid)).get(uuid);
+            return row == null ? null
+                    : new PlaceholderSnapshots.Account(row.registeredAt(), row.lastLogin(), row.lastIp());
+        }, totpService, sessionIndex, getSLF4JLogger());
+        sessionIndex.setChangeListener(placeholders::onSessionChanged);
+        // Polled rows cover every writer of sa_audit_log on every server: every registration reaches the filter
+        var registered = registrationIndex.registrationHook();
+        authStats.setEventListener((event, uuid) -> {
+            if (uuid == null)
+                return;
+            playerLookup.invalidate(uuid);
+            placeholders.onAudit(event, uuid);
+            if (event == AuditEvent.REGISTER)
+                registered.accept(uuid);
+        });
+        auditLogWriter.setEventListener((event, uuid, name, ip) -> {
+            // Also here so the filter learns of a registration at once; adding twice is harmless
+            registrationIndex.onAudit(event, uuid);
+            var relay = webhookRelay;
+            if (relay != null)
+                relay.notify(event.name(), name, uuid, ip);
+        });
+    }
+
+    /** Periodic background jobs; scheduled from the main thread once startup has joined. */
+    private void scheduleMaintenance() {
+        var scheduler = getServer().getAsyncScheduler();
+        // Login timeouts, reminders and cooldowns all run off this one task
+        getServer().getScheduler().runTaskTimer(this, timingWheel::tick, 1, 1);
+        // Measured after startup so it does not compete with it
+        if (argon2Calibrator.settings().enabled())
+            Thread.ofPlatform().name("SecureAuth-Calibrate").daemon(true)
+                    .uncaughtExceptionHandler((t, e) -> getSLF4JLogger().error(
+                            "[SecureAuth] Argon2 calibration failed — keeping {}: {}", hashingEngine.params(),
+                            e.getMessage(), e))
+                    .start(() -> applyArgon2Calibration(argon2Calibrator.calibrate(hashingEngine)));
+        scheduler.runAtFixedRate(this, t -> ipBanService.sweep(), 1, 1, TimeUnit.MINUTES);
+        scheduler.runAtFixedRate(this, t -> metrics.rotate(), 1, 1, TimeUnit.MINUTES);
+        scheduler.runAtFixedRate(this, t -> authStats.poll(), 5, 5, TimeUnit.SECONDS);
+        if (geoIpLookup != null) {
+            long every = Math.max(10, getConfig().getLong("geoip.reload-check-seconds", 60));
+            scheduler.runAtFixedRate(this, t -> geoIpLookup.reloadIfChanged(), every, every, TimeUnit.SECONDS);
+        }
+        var http = getConfig().getConfigurationSection("metrics.http");
+        if (http != null && http.getBoolean("enabled", false)) {
+            metricsEndpoint = new PrometheusEndpoint(metrics, getSLF4JLogger());
+            metricsEndpoint.start(http);
+        }
+    }
+
+    private void startMailQueue() {
+        var email = getConfig().getConfigurationSection("email");
+        if (email == null || !email.getBoolean("enabled", false))
+            return;
+        try {
+            mailQueue = new MailQueue(MailQueue.Settings.fromConfig(email), metrics, getSLF4JLogger());
+        } catch (IllegalArgumentException | UnsupportedEncodingException e) {
+            getSLF4JLogger().error("[SecureAuth] Email delivery disabled: {}", e.getMessage());
+        }
+    }
+
+    private void startGeoIpLookup() {
+        var geoip = getConfig().getConfigurationSection("geoip");
+        if (geoip == null || !geoip.getBoolean("enabled", false))
+            return;
+        Path file = Path.of(geoip.getString("database-path", "plugins/SecureAuth/GeoLite2-Country.mmdb"));
+        geoIpLookup = new GeoIpLookup(file, GeoIpLookup.Settings.fromConfig(geoip), getSLF4JLogger());
+        geoIpLookup.open();
+    }
+
     private void registerCommands() {
         var authCmd = new AuthCommand(this, lang, pluginConfig, playerDataService, passwordService, sessionService,
                 totpService, emailService);
@@ -219,9 +494,31 @@ public final class SecureAuthPlugin extends JavaPlugin {
 
     private void registerListeners() {
         var pm = getServer().getPluginManager();
+        preLoginPrefetcher = new PreLoginPrefetcher(registrationIndex,
+                uuid -> !playerLookup.findAllByUuid(List.of(uuid)).isEmpty(), totpService, sessionIndex, ipBanService,
+                geoIpLookup, PreLoginPrefetcher.CountryRules.fromConfig(getConfig().getConfigurationSection("geoip")),
+                () -> lang.get("kick.banned"), () -> lang.get("kick.country-blocked"), metrics, getSLF4JLogger());
+        pm.registerEvents(preLoginPrefetcher, this);
+        placeholders.setRegistrationHint(uuid -> {
+            var prefetched = preLoginPrefetcher.peek(uuid);
+            return prefetched != null && prefetched.registered();
+        });
+        pm.registerEvents(placeholders, this);
         pm.registerEvents(new AuthListener(this, lang, pluginConfig, playerDataService, sessionService, antiBotService,
                 geoIpService), this);
-        pm.registerEvents(new ProtectionListener(playerDataService, lang), this);
+        // Per-event protection handlers are registered only while someone is unauthenticated
+        protectionGate = new ProtectionGate(this, unauthenticatedPlayers, mainThreadExecutor, getSLF4JLogger());
+        protectionGate.addGuard(new ProtectionListener(playerDataService, lang));
+        pm.registerEvents(protectionGate, this);
+        protectionGate.seedOnline();
+        // Login timeouts and reminders on the shared wheel instead of two tasks per joining player
+        loginTimer = new LoginTimer(getServer(), unauthenticatedPlayers, timingWheel,
+                LoginTimer.Settings.fromConfig(getConfig().getConfigurationSection("auth")),
+                () -> lang.get("kick.timeout"),
+                secondsLeft -> secondsLeft < 0 ? lang.get("actionbar.login-reminder-no-timeout")
+                        : lang.get("actionbar.login-reminder").replaceText(b -> b.matchLiteral("{seconds}")
+                                .replacement(String.valueOf(secondsLeft))));
+        pm.registerEvents(loginTimer, this);
     }
 
     // ── Public accessors (for other classes and API) ──────────────────────────
@@ -238,26 +535,93 @@ public final class SecureAuthPlugin extends JavaPlugin {
         return database;
     }
 
+    public SqlStore getSqlStore() {
+        return sqlStore;
+    }
+
     public PasswordService getPasswordService() {
         return passwordService;
     }
 
+    /** All {@link PasswordService} hash/verify calls must go through this engine. */
+    public HashingEngine getHashingEngine() {
+        return hashingEngine;
+    }
+
+    public Argon2Calibrator getArgon2Calibrator() {
+        return argon2Calibrator;
+    }
+
+    /** Login verification — use this so outdated and imported hashes are upgraded to the current Argon2id. */
+    /**
+     * Switches new hashes to the calibrated parameters, but only once the login path verifies
+     * through {@link PasswordUpgrader}: before that, {@code /register} and {@code /changepassword}
+     * still hash with the configured {@code security.argon2} values and nothing would upgrade
+     * existing hashes, so the result is only reported.
+     *
+     * @return whether the parameters were applied
+     */
+    public boolean applyArgon2Calibration(Argon2Calibrator.Result result) {
+        if (!passwordUpgrader.isLoginWired()) {
+            getSLF4JLogger().info("[SecureAuth] Argon2 calibration recommends {} (now {}); set security.argon2"
+                    + " memory/iterations to use it.", result.chosen(), hashingEngine.params());
+            return false;
+        }
+        hashingEngine.apply(result.chosen());
+        return true;
+    }
+
+    public PasswordUpgrader getPasswordUpgrader() {
+        return passwordUpgrader;
+    }
+
     public PlayerDataService getPlayerDataService() {
         return playerDataService;
     }
 
+    public PlayerBulkLookup<AccountRow> getPlayerLookup() {
+        return playerLookup;
+    }
+
+    public PlaceholderSnapshots getPlaceholders() {
+        return placeholders;
+    }
+
     public SessionService getSessionService() {
         return sessionService;
     }
 
+    /** Authoritative session state; {@link SessionService} reads and writes go through here. */
+    public SessionIndex getSessionIndex() {
+        return sessionIndex;
+    }
+
     public TotpService getTotpService() {
         return totpService;
     }
 
+    /** Code checks with replay protection, given the player's stored secret. */
+    public TotpVerifier getTotpVerifier() {
+        return totpVerifier;
+    }
+
+    public BackupCodes getBackupCodes() {
+        return backupCodes;
+    }
+
+    /** Auth state resolved during AsyncPlayerPreLoginEvent; consumed by {@link AuthListener} on join. */
+    public PreLoginPrefetcher getPreLoginPrefetcher() {
+        return preLoginPrefetcher;
+    }
+
     public AntiBotService getAntiBotService() {
         return antiBotService;
     }
 
+    public IpBanService getIpBanService() {
+        return ipBanService;
+    }
+
     public DebugLogger getDebugLogger() {
         return debugLogger;
     }
@@ -278,6 +642,16 @@ public final class SecureAuthPlugin extends JavaPlugin {
         return authApiImpl;
     }
 
+    /** Webhook targets; fed from {@link AuditLogWriter}, so anything audited there is delivered. */
+    public WebhookRelay getWebhookRelay() {
+        return webhookRelay;
+    }
+
+    /**
+     * Per-event webhook sender still used by the auth paths, whose events go through
+     * {@link AuditLogService} rather than {@link AuditLogWriter}. Goes away once those events
+     * reach the writer and with it {@link #getWebhookRelay()}.
+     */
     public WebhookService getWebhookService() {
         return webhookService;
     }
@@ -287,17 +661,91 @@ public final class SecureAuthPlugin extends JavaPlugin {
     }
 
     /**
-     * Shuts down the current {@link WebhookService} executor and creates a new one
-     * with targets freshly read from config.
+     * Drains the current webhook queues in the background and creates new ones with targets and
+     * {@code webhook-delivery} settings freshly read from config; restarts {@link WebhookService}
+     * with the same targets.
      * Called by {@link dev.n1xend.secureauth.module.ModuleManager} during {@code /saadmin reload}.
      */
     public void reloadWebhookService() {
-        if (webhookService != null)
-            webhookService.shutdown();
-        webhookService = new WebhookService(pluginConfig.getWebhooks(), getPluginMeta().getVersion(), getSLF4JLogger());
+        var old = webhookRelay;
+        webhookRelay = createWebhookRelay();
+        if (old != null)
+            Thread.startVirtualThread(() -> old.shutdown(5000));
+        var oldService = webhookService;
+        webhookService = createWebhookService();
+        if (oldService != null)
+            oldService.shutdown();
+    }
+
+    private WebhookService createWebhookService() {
+        return new WebhookService(pluginConfig.getWebhooks(), getPluginMeta().getVersion(), getSLF4JLogger());
+    }
+
+    private WebhookRelay createWebhookRelay() {
+        return new WebhookRelay(pluginConfig.getWebhooks(),
+                WebhookDispatcher.Settings.fromConfig(getConfig().getConfigurationSection("webhook-delivery")),
+                getPluginMeta().getVersion(), metrics, getSLF4JLogger());
     }
 
     public AuditLogService getAuditLogService() {
         return auditLogService;
     }
+
+    public AuthStats getAuthStats() {
+        return authStats;
+    }
+
+    /** Online players not logged in yet; a membership check is one set lookup. */
+    public UnauthenticatedPlayers getUnauthenticatedPlayers() {
+        return unauthenticatedPlayers;
+    }
+
+    /** Registration checks that skip the database for unknown UUIDs. */
+    public RegistrationIndex getRegistrationIndex() {
+        return registrationIndex;
+    }
+
+    /** Paged history and exports — use this instead of {@code AuditLogService.getHistory}. */
+    public AuditHistory getAuditHistory() {
+        return auditHistory;
+    }
+
+    public AccountImporter getAccountImporter() {
+        return accountImporter;
+    }
+
+    /** Batched audit writer — use this instead of per-event {@code AuditLogService.logAsync}. */
+    public AuditLogWriter getAuditLogWriter() {
+        return auditLogWriter;
+    }
+
+    public ClusterEventBus getClusterEvents() {
+        return clusterEvents;
+    }
+
+    /** Cached, hot-swappable country lookups; {@code null} when GeoIP is disabled. */
+    public GeoIpLookup getGeoIpLookup() {
+        return geoIpLookup;
+    }
+
+    /** Background SMTP delivery; {@code null} when email is disabled. */
+    public MailQueue getMailQueue() {
+        return mailQueue;
+    }
+
+    /** Rate limiter whose refusals count towards {@code rate_limited_total} on {@code /saadmin perf}. */
+    public RateLimiter createRateLimiter(int maxAttempts, Duration window) {
+        return new RateLimiter(maxAttempts, window, RateLimiter.DEFAULT_CAPACITY,
+                metrics.counter(MetricsRegistry.RATE_LIMITED));
+    }
+
+    /** Shared timer for per-player deadlines; build {@code CooldownManager}s on it. */
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    /** Latency histograms and counters; record with {@code getMetrics().timer(name).recordSince(start)}. */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
 }
@@ -0,0 +1,363 @@
+package dev.n1xend.secureauth.antibot;
+
+import dev.n1xend.secureauth.util.IpAddresses;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of IP and CIDR bans.
+ *
+ * <p>Lookups read an immutable snapshot: for every prefix length that has at least one ban,
+ * a sorted array of network addresses (IPv4 as unsigned ints in a {@code long[]}, IPv6 as
+ * parallel high/low {@code long[]}s) plus a parallel expiry array. Checking an address is one
+ * binary search per distinct prefix length in use — typically two or three — with no
+ * allocation and no locking.
+ *
+ * <p>Writes ({@link #put}, {@link #remove}, {@link #purgeExpired}) are rare and rebuild the
+ * snapshot under a lock. Expired bans are dropped in expiry order from a priority queue;
+ * lookups ignore them even before they are purged.
+ *
+ * <p>Every {@link #put} and {@link #remove} is stamped with a new {@link #version()}. A reload
+ * from the database is applied with {@link #merge}, which keeps the local state of any key
+ * changed after the reload's stamp, so a ban or unban made while the query ran is not undone.
+ */
+public final class IpBanIndex {
+
+    /** Expiry value for permanent bans. */
+    public static final long PERMANENT = Long.MAX_VALUE;
+
+    private static final ThreadLocal<long[]> SCRATCH = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final Map<String, Ban> bans = new HashMap<>();
+    private final PriorityQueue<Ban> byExpiry = new PriorityQueue<>(Comparator.comparingLong(Ban::expiresAt));
+    /** Canonical IP/CIDR -> version of its last local change; pruned by {@link #merge}. */
+    private final Map<String, Long> changed = new HashMap<>();
+    private long version;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // ── Lookups (lock-free) ───────────────────────────────────────────────────
+
+    /** @return {@code true} if {@code ip} is covered by an active ban; {@code false} for malformed input */
+    public boolean isBanned(CharSequence ip) {
+        long[] addr = SCRATCH.get();
+        return switch (IpAddresses.parse(ip, addr)) {
+            case IpAddresses.IPV4 -> isBannedIpv4((int) addr[1]);
+            case IpAddresses.IPV6 -> isBannedIpv6(addr[0], addr[1]);
+            default -> false;
+        };
+    }
+
+    public boolean isBanned(InetAddress ip) {
+        long[] addr = SCRATCH.get();
+        return IpAddresses.parse(ip, addr) == IpAddresses.IPV4
+                ? isBannedIpv4((int) addr[1])
+                : isBannedIpv6(addr[0], addr[1]);
+    }
+
+    public boolean isBannedIpv4(int ip) {
+        Snapshot s = snapshot;
+        long now = System.currentTimeMillis();
+        long addr = ip & 0xFFFFFFFFL;
+        for (int k = 0; k < s.v4Prefixes.length; k++) {
+            int prefix = s.v4Prefixes[k];
+            long network = prefix == 0 ? 0 : addr & (0xFFFFFFFFL << (32 - prefix)) & 0xFFFFFFFFL;
+            int idx = Arrays.binarySearch(s.v4Networks[k], network);
+            if (idx >= 0 && s.v4Expiry[k][idx] > now)
+                return true;
+        }
+        return false;
+    }
+
+    public boolean isBannedIpv6(long high, long low) {
+        Snapshot s = snapshot;
+        long now = System.currentTimeMillis();
+        for (int k = 0; k < s.v6Prefixes.length; k++) {
+            int prefix = s.v6Prefixes[k];
+            int idx = search(s.v6High[k], s.v6Low[k], high & highMask(prefix), low & lowMask(prefix));
+            if (idx >= 0 && s.v6Expiry[k][idx] > now)
+                return true;
+        }
+        return false;
+    }
+
+    // ── Mutations ─────────────────────────────────────────────────────────────
+
+    /** Adds or replaces the ban on {@code ban.cidr()}. */
+    public synchronized void put(Ban ban) {
+        changed.put(ban.cidr(), ++version);
+        putQuietly(ban);
+        rebuild();
+    }
+
+    /** Replaces the whole index, e.g. after loading from the database at startup. */
+    public synchronized void replaceAll(Collection<Ban> all) {
+        bans.clear();
+        byExpiry.clear();
+        changed.clear();
+        for (Ban ban : all)
+            putQuietly(ban);
+        rebuild();
+    }
+
+    /**
+     * Applies a database reload taken after {@link #version()} returned {@code stamp}. Keys changed
+     * locally after the stamp keep their local state; every other key takes the database state,
+     * so bans added or lifted elsewhere show up and local changes made during the reload survive.
+     *
+     * @return number of networks that were not banned here before
+     */
+    public synchronized int merge(Collection<Ban> fromDatabase, long stamp) {
+        Map<String, Ban> loaded = new HashMap<>();
+        for (Ban ban : fromDatabase)
+            loaded.put(ban.cidr(), ban);
+        for (Ban ban : List.copyOf(bans.values())) {
+            if (!loaded.containsKey(ban.cidr()) && changed.getOrDefault(ban.cidr(), 0L) <= stamp) {
+                bans.remove(ban.cidr());
+                byExpiry.remove(ban);
+            }
+        }
+        int added = 0;
+        for (Ban ban : loaded.values()) {
+            if (changed.getOrDefault(ban.cidr(), 0L) > stamp)
+                continue;
+            Ban old = bans.get(ban.cidr());
+            if (old == null)
+                added++;
+            if (!ban.equals(old))
+                putQuietly(ban);
+        }
+        changed.values().removeIf(v -> v <= stamp);
+        rebuild();
+        return added;
+    }
+
+    /** Stamp of the latest local change; pass it to {@link #merge} with a reload started afterwards. */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Removes the ban with exactly this IP/CIDR (after canonicalisation).
+     *
+     * @return the removed ban, or {@code null} if there was none
+     */
+    public synchronized Ban remove(String ipOrCidr) {
+        String key = Ban.canonical(ipOrCidr);
+        Ban removed = bans.remove(key);
+        if (removed != null) {
+            changed.put(key, ++version);
+            byExpiry.remove(removed);
+            rebuild();
+        }
+        return removed;
+    }
+
+    /**
+     * Drops every ban whose expiry has passed, oldest first.
+     *
+     * @return the number of bans removed
+     */
+    public synchronized int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        while (!byExpiry.isEmpty() && byExpiry.peek().expiresAt() <= now) {
+            Ban ban = byExpiry.poll();
+            if (bans.remove(ban.cidr(), ban))
+                removed++;
+        }
+        if (removed > 0)
+            rebuild();
+        return removed;
+    }
+
+    /** @return active bans, soonest expiry first */
+    public synchronized List<Ban> list() {
+        long now = System.currentTimeMillis();
+        List<Ban> out = new ArrayList<>(bans.size());
+        for (Ban ban : bans.values()) {
+            if (ban.expiresAt() > now)
+                out.add(ban);
+        }
+        out.sort(Comparator.comparingLong(Ban::expiresAt));
+        return out;
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    // ── Snapshot ──────────────────────────────────────────────────────────────
+
+    private void putQuietly(Ban ban) {
+        Ban previous = bans.put(ban.cidr(), ban);
+        if (previous != null)
+            byExpiry.remove(previous);
+        byExpiry.add(ban);
+    }
+
+    private void rebuild() {
+        // prefix length -> bans with that length, most specific first
+        TreeMap<Integer, List<Ban>> v4 = new TreeMap<>(Comparator.reverseOrder());
+        TreeMap<Integer, List<Ban>> v6 = new TreeMap<>(Comparator.reverseOrder());
+        for (Ban ban : bans.values())
+            (ban.ipv6() ? v6 : v4).computeIfAbsent(ban.prefix(), p -> new ArrayList<>()).add(ban);
+
+        Comparator<Ban> order = (a, b) -> a.high() != b.high()
+                ? Long.compareUnsigned(a.high(), b.high())
+                : Long.compareUnsigned(a.low(), b.low());
+
+        int[] v4Prefixes = new int[v4.size()];
+        long[][] v4Networks = new long[v4.size()][];
+        long[][] v4Expiry = new long[v4.size()][];
+        int k = 0;
+        for (var e : v4.entrySet()) {
+            List<Ban> list = e.getValue();
+            list.sort(order);
+            v4Prefixes[k] = e.getKey();
+            v4Networks[k] = new long[list.size()];
+            v4Expiry[k] = new long[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                v4Networks[k][i] = list.get(i).low();
+                v4Expiry[k][i] = list.get(i).expiresAt();
+            }
+            k++;
+        }
+
+        int[] v6Prefixes = new int[v6.size()];
+        long[][] v6High = new long[v6.size()][];
+        long[][] v6Low = new long[v6.size()][];
+        long[][] v6Expiry = new long[v6.size()][];
+        k = 0;
+        for (var e : v6.entrySet()) {
+            List<Ban> list = e.getValue();
+            list.sort(order);
+            v6Prefixes[k] = e.getKey();
+            v6High[k] = new long[list.size()];
+            v6Low[k] = new long[list.size()];
+            v6Expiry[k] = new long[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                v6High[k][i] = list.get(i).high();
+                v6Low[k][i] = list.get(i).low();
+                v6Expiry[k][i] = list.get(i).expiresAt();
+            }
+            k++;
+        }
+
+        snapshot = new Snapshot(v4Prefixes, v4Networks, v4Expiry, v6Prefixes, v6High, v6Low, v6Expiry,
+                bans.size());
+    }
+
+    /** Binary search over (high, low) pairs sorted as unsigned 128-bit values. */
+    private static int search(long[] highs, long[] lows, long high, long low) {
+        int lo = 0;
+        int hi = highs.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = highs[mid] != high
+                    ? Long.compareUnsigned(highs[mid], high)
+                    : Long.compareUnsigned(lows[mid], low);
+            if (cmp < 0)
+                lo = mid + 1;
+            else if (cmp > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    private static long highMask(int prefix) {
+        if (prefix == 0)
+            return 0;
+        return prefix >= 64 ? -1L : -1L << (64 - prefix);
+    }
+
+    private static long lowMask(int prefix) {
+        return prefix <= 64 ? 0 : -1L << (128 - prefix);
+    }
+
+    private record Snapshot(int[] v4Prefixes, long[][] v4Networks, long[][] v4Expiry, int[] v6Prefixes,
+            long[][] v6High, long[][] v6Low, long[][] v6Expiry, int size) {
+
+        static final Snapshot EMPTY = new Snapshot(new int[0], new long[0][], new long[0][], new int[0],
+                new long[0][], new long[0][], new long[0][], 0);
+    }
+
+    // ── Ban ───────────────────────────────────────────────────────────────────
+
+    /**
+     * A single-address or CIDR ban.
+     *
+     * @param cidr      canonical form: {@code 1.2.3.4}, {@code 1.2.3.0/24}, {@code 2001:db8:0:0:0:0:0:0/64}
+     * @param ipv6      address family
+     * @param high      upper 64 bits of the network address (always 0 for IPv4)
+     * @param low       lower 64 bits of the network address (the IPv4 address for IPv4)
+     * @param prefix    prefix length; 32/128 for a single address
+     * @param reason    free-text reason, may be {@code null}
+     * @param expiresAt epoch millis, or {@link #PERMANENT}
+     */
+    public record Ban(String cidr, boolean ipv6, long high, long low, int prefix, String reason, long expiresAt) {
+
+        /**
+         * Parses {@code "1.2.3.4"}, {@code "1.2.3.0/24"} or {@code "2001:db8::/64"}. Host bits below
+         * the prefix are cleared.
+         *
+         * @throws IllegalArgumentException if the address or prefix length is malformed
+         */
+        public static Ban of(String ipOrCidr, String reason, long expiresAt) {
+            String s = ipOrCidr.trim();
+            int slash = s.indexOf('/');
+            long[] addr = new long[2];
+            int family = IpAddresses.parse(s, 0, slash < 0 ? s.length() : slash, addr);
+            if (family == IpAddresses.INVALID)
+                throw new IllegalArgumentException("Not an IP address: " + ipOrCidr);
+
+            boolean v6 = family == IpAddresses.IPV6;
+            int max = v6 ? 128 : 32;
+            int prefix = max;
+            if (slash >= 0) {
+                try {
+                    prefix = Integer.parseInt(s.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad prefix length: " + ipOrCidr);
+                }
+                if (prefix < 0 || prefix > max)
+                    throw new IllegalArgumentException("Bad prefix length: " + ipOrCidr);
+            }
+
+            long high;
+            long low;
+            if (v6) {
+                high = addr[0] & highMask(prefix);
+                low = addr[1] & lowMask(prefix);
+            } else {
+                high = 0;
+                low = prefix == 0 ? 0 : addr[1] & (0xFFFFFFFFL << (32 - prefix)) & 0xFFFFFFFFL;
+            }
+            String text = IpAddresses.format(family, high, low);
+            return new Ban(prefix == max ? text : text + "/" + prefix, v6, high, low, prefix, reason, expiresAt);
+        }
+
+        /** Canonical key for {@code ipOrCidr}, or the trimmed input if it is not parseable. */
+        static String canonical(String ipOrCidr) {
+            try {
+                return of(ipOrCidr, null, PERMANENT).cidr();
+            } catch (IllegalArgumentException e) {
+                return ipOrCidr.trim();
+            }
+        }
+
+        public boolean isPermanent() {
+            return expiresAt == PERMANENT;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package dev.n1xend.secureauth.antibot;
+
+import dev.n1xend.secureauth.database.SqlStore;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to {@code sa_ip_bans} for {@link IpBanService}.
+ *
+ * <p>The {@code ip} column holds the canonical IP or CIDR string. {@code expires_at} is
+ * computed and compared on the database side (as in {@code SessionRepository}); rows are read
+ * back as "seconds remaining" so no timezone conversion happens in Java. {@code NULL} means
+ * permanent.
+ */
+public final class IpBanRepository {
+
+    private final SqlStore database;
+
+    public IpBanRepository(SqlStore database) {
+        this.database = database;
+    }
+
+    /** Loads every ban that has not expired yet. */
+    public List<IpBanIndex.Ban> findActive() throws SQLException {
+        String remaining = database.isMysql()
+                ? "TIMESTAMPDIFF(SECOND, NOW(), expires_at)"
+                : "CAST(strftime('%s', expires_at) - strftime('%s', 'now') AS INTEGER)";
+        String sql = "SELECT ip, reason, " + remaining + " AS remaining FROM sa_ip_bans"
+                + " WHERE expires_at IS NULL OR expires_at > " + now();
+
+        long loadedAt = System.currentTimeMillis();
+        List<IpBanIndex.Ban> bans = new ArrayList<>();
+        try (Connection c = database.read();
+                PreparedStatement ps = c.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                long seconds = rs.getLong("remaining");
+                long expiresAt = rs.wasNull() ? IpBanIndex.PERMANENT : loadedAt + seconds * 1000L;
+                try {
+                    bans.add(IpBanIndex.Ban.of(rs.getString("ip"), rs.getString("reason"), expiresAt));
+                } catch (IllegalArgumentException ignored) {
+                    // Malformed legacy row — skip rather than fail the whole load
+                }
+            }
+        }
+        return bans;
+    }
+
+    /** Inserts or replaces the row for {@code ban.cidr()}. */
+    public void upsert(IpBanIndex.Ban ban) throws SQLException {
+        String expires;
+        if (ban.isPermanent()) {
+            expires = "NULL";
+        } else {
+            expires = database.isMysql()
+                    ? "DATE_ADD(NOW(), INTERVAL ? SECOND)"
+                    : "datetime('now', '+' || ? || ' seconds')";
+        }
+        database.write(c -> {
+            try (PreparedStatement del = c.prepareStatement("DELETE FROM sa_ip_bans WHERE ip = ?");
+                    PreparedStatement ins = c.prepareStatement(
+                            "INSERT INTO sa_ip_bans (ip, reason, expires_at) VALUES (?, ?, " + expires + ")")) {
+                del.setString(1, ban.cidr());
+                del.executeUpdate();
+                ins.setString(1, ban.cidr());
+                ins.setString(2, ban.reason());
+                if (!ban.isPermanent())
+                    ins.setLong(3, Math.max(1, (ban.expiresAt() - System.currentTimeMillis()) / 1000L));
+                return ins.executeUpdate();
+            }
+        });
+    }
+
+    public void delete(String cidr) throws SQLException {
+        database.write(c -> {
+            try (PreparedStatement ps = c.prepareStatement("DELETE FROM sa_ip_bans WHERE ip = ?")) {
+                ps.setString(1, cidr);
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    /** @return number of expired rows removed */
+    public int deleteExpired() throws SQLException {
+        return database.write(c -> {
+            try (PreparedStatement ps = c.prepareStatement(
+                    "DELETE FROM sa_ip_bans WHERE expires_at IS NOT NULL AND expires_at <= " + now())) {
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    private String now() {
+        return database.isMysql() ? "NOW()" : "datetime('now')";
+    }
+}
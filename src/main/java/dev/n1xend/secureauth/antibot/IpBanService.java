@@ -0,0 +1,158 @@
+package dev.n1xend.secureauth.antibot;
+
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+
+import java.net.InetAddress;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IP/CIDR bans: an in-memory {@link IpBanIndex} backed by {@code sa_ip_bans}.
+ *
+ * <p>Every check is answered from memory. Changes are applied to the index immediately
+ * and written to the database on a virtual thread. {@link #sweep()} runs periodically:
+ * it deletes expired rows and reloads the table, so bans written by other code paths or by
+ * other servers sharing the database show up within one sweep interval. The reload is merged
+ * per key ({@link IpBanIndex#merge}), so it never undoes a change made while it ran.
+ */
+public final class IpBanService {
+
+    private final IpBanIndex index = new IpBanIndex();
+    private final IpBanRepository repository;
+    private final Logger log;
+    private final LongAdder bansCounter;
+    private final LatencyHistogram upsertTimer;
+    private final ExecutorService writer = Executors
+            .newSingleThreadExecutor(Thread.ofVirtual().name("SecureAuth-IpBans").factory());
+    /** Held while a change is applied and its write queued, so the two are ordered alike for a sweep. */
+    private final Object writeOrder = new Object();
+
+    public IpBanService(SqlStore database, MetricsRegistry metrics, Logger log) {
+        this.repository = new IpBanRepository(database);
+        this.log = log;
+        this.bansCounter = metrics.counter(MetricsRegistry.IP_BANS);
+        this.upsertTimer = metrics.timer(MetricsRegistry.QUERY_PREFIX + "ip_ban_upsert");
+    }
+
+    /** Loads all active bans from the database. Call once at startup. */
+    public void load() {
+        try {
+            index.replaceAll(repository.findActive());
+            log.info("[AntiBot] Loaded {} IP ban(s).", index.size());
+        } catch (SQLException e) {
+            log.error("[AntiBot] Could not load IP bans: {}", e.getMessage(), e);
+        }
+    }
+
+    // ── Checks (memory only, allocation-free) ────────────────────────────────
+
+    public boolean isBanned(CharSequence ip) {
+        return index.isBanned(ip);
+    }
+
+    public boolean isBanned(InetAddress ip) {
+        return index.isBanned(ip);
+    }
+
+    // ── Mutations ─────────────────────────────────────────────────────────────
+
+    /**
+     * Bans a single IP or a CIDR range.
+     *
+     * @param duration {@code null} for a permanent ban
+     * @throws IllegalArgumentException if {@code ipOrCidr} is malformed
+     */
+    public IpBanIndex.Ban ban(String ipOrCidr, String reason, Duration duration) {
+        long expiresAt = duration == null ? IpBanIndex.PERMANENT : System.currentTimeMillis() + duration.toMillis();
+        IpBanIndex.Ban ban = IpBanIndex.Ban.of(ipOrCidr, reason, expiresAt);
+        bansCounter.increment();
+        synchronized (writeOrder) {
+            index.put(ban);
+            writer.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    repository.upsert(ban);
+                    upsertTimer.recordSince(start);
+                } catch (SQLException e) {
+                    log.warn("[AntiBot] Could not persist ban {}: {}", ban.cidr(), e.getMessage());
+                }
+            });
+        }
+        return ban;
+    }
+
+    /**
+     * Removes the ban on exactly {@code ipOrCidr}.
+     *
+     * @return {@code true} if a ban was removed
+     */
+    public boolean unban(String ipOrCidr) {
+        synchronized (writeOrder) {
+            IpBanIndex.Ban removed = index.remove(ipOrCidr);
+            if (removed == null)
+                return false;
+            writer.execute(() -> {
+                try {
+                    repository.delete(removed.cidr());
+                } catch (SQLException e) {
+                    log.warn("[AntiBot] Could not delete ban {}: {}", removed.cidr(), e.getMessage());
+                }
+            });
+        }
+        return true;
+    }
+
+    /** @return number of bans in the index (expired ones drop out on the next sweep) */
+    public int size() {
+        return index.size();
+    }
+
+    /** @return active bans, soonest expiry first */
+    public List<IpBanIndex.Ban> list() {
+        return index.list();
+    }
+
+    /**
+     * Drops expired bans and resyncs with the database. Changes up to the stamp taken here are
+     * queued ahead of the reload and therefore in its result; changes after it are newer than
+     * the reload and keep their in-memory state when it is merged.
+     */
+    public void sweep() {
+        index.purgeExpired();
+        synchronized (writeOrder) {
+            long stamp = index.version();
+            writer.execute(() -> {
+                try {
+                    repository.deleteExpired();
+                    // Bans written by AntiBotService or another server count when they first show up here
+                    bansCounter.add(index.merge(repository.findActive(), stamp));
+                } catch (SQLException e) {
+                    log.warn("[AntiBot] IP ban sweep failed: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    /** Flushes pending writes. Called from {@code onDisable}. */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS))
+                log.warn("[AntiBot] IP ban writer did not finish within 5s.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public IpBanRepository getRepository() {
+        return repository;
+    }
+}
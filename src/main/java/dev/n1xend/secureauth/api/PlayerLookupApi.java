@@ -0,0 +1,23 @@
+package dev.n1xend.secureauth.api;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Account lookups for many players at once — scoreboards, tab lists, admin tools.
+ *
+ * <p>Every call runs off the calling thread and batches the whole collection into a few
+ * queries; results already cached are answered without touching the database. Futures
+ * complete on a SecureAuth thread, so switch back to the main thread before using the Bukkit
+ * API.
+ */
+public interface PlayerLookupApi {
+
+    /** @return whether {@code uuid} has a registered account */
+    CompletableFuture<Boolean> isRegistered(UUID uuid);
+
+    /** @return an entry for every UUID in {@code uuids}; {@code true} if an account exists */
+    CompletableFuture<Map<UUID, Boolean>> isRegisteredAll(Collection<UUID> uuids);
+}
@@ -0,0 +1,25 @@
+package dev.n1xend.secureauth.api;
+
+/**
+ * Server-wide authentication statistics.
+ *
+ * <p>All figures are served from in-memory counters; calling {@link #snapshot()} never
+ * touches the database and is safe from any thread.
+ */
+public interface StatsApi {
+
+    /** Current statistics. */
+    Snapshot snapshot();
+
+    /**
+     * @param onlinePlayers      players currently online
+     * @param totalPlayers       registered accounts
+     * @param activeSessions     sessions that are currently valid
+     * @param activeBans         active IP bans
+     * @param failsLastHour      failed logins in the last 60 minutes
+     * @param registrationsToday registrations since midnight (server time)
+     */
+    record Snapshot(int onlinePlayers, long totalPlayers, int activeSessions, int activeBans, long failsLastHour,
+            long registrationsToday) {
+    }
+}
@@ -0,0 +1,41 @@
+package dev.n1xend.secureauth.api.impl;
+
+import dev.n1xend.secureauth.api.PlayerLookupApi;
+import dev.n1xend.secureauth.player.PlayerBulkLookup;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+public final class PlayerLookupApiImpl implements PlayerLookupApi {
+
+    private final PlayerBulkLookup<?> lookup;
+    private final Executor executor;
+
+    public PlayerLookupApiImpl(PlayerBulkLookup<?> lookup, Executor executor) {
+        this.lookup = lookup;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isRegistered(UUID uuid) {
+        return isRegisteredAll(List.of(uuid)).thenApply(m -> m.get(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Boolean>> isRegisteredAll(Collection<UUID> uuids) {
+        List<UUID> copy = List.copyOf(uuids);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return lookup.isRegisteredAll(copy);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
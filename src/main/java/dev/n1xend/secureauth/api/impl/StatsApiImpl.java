@@ -0,0 +1,23 @@
+package dev.n1xend.secureauth.api.impl;
+
+import dev.n1xend.secureauth.api.StatsApi;
+import dev.n1xend.secureauth.audit.AuthStats;
+import org.bukkit.Server;
+
+public final class StatsApiImpl implements StatsApi {
+
+    private final AuthStats stats;
+    private final Server server;
+
+    public StatsApiImpl(AuthStats stats, Server server) {
+        this.stats = stats;
+        this.server = server;
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        AuthStats.Snapshot s = stats.snapshot(server.getOnlinePlayers().size());
+        return new Snapshot(s.onlinePlayers(), s.totalPlayers(), s.activeSessions(), s.activeBans(),
+                s.failsLastHour(), s.registrationsToday());
+    }
+}
@@ -0,0 +1,393 @@
+package dev.n1xend.secureauth.audit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.n1xend.secureauth.database.SqlStore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read side of {@code sa_audit_log} for admins and SIEM exports.
+ *
+ * <p>History is paged by keyset: each page is {@code WHERE ... AND id < :cursor ORDER BY id DESC
+ * LIMIT n}, which walks the {@code uuid} index (it carries the row id) and costs the same for
+ * page 1 and page 500. Page numbers are mapped to cursors through a small cache, so walking
+ * forward costs one query per page; a jump to an unseen page skips ahead from the nearest known
+ * cursor reading ids only. A new row shifts every page by one, so cached cursors are keyed by
+ * the newest matching id they were counted from: once it changes, the old cursors no longer
+ * match and pages are counted again from the top.
+ *
+ * <p>{@link #export} reads oldest first in keyset chunks of {@value #EXPORT_CHUNK} rows, each on
+ * its own short read, and streams them into a gzipped NDJSON file. Memory use does not depend on
+ * the size of the table, and no read transaction stays open long enough to keep SQLite from
+ * checkpointing its WAL or MySQL from purging undo history.
+ */
+public final class AuditHistory {
+
+    /** Cursor value meaning "start from the newest row". */
+    public static final long FIRST = Long.MAX_VALUE;
+
+    private static final DateTimeFormatter DB_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int EXPORT_CHUNK = 1000;
+
+    private final SqlStore database;
+    private final Cache<PageKey, Long> cursors = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .maximumSize(1_000)
+            .build();
+
+    public AuditHistory(SqlStore database) {
+        this.database = database;
+    }
+
+    /**
+     * Loads page {@code page} (1-based) of {@code pageSize} rows, newest first.
+     *
+     * @return the page; empty if the history has fewer pages
+     */
+    public Page page(Filter filter, int page, int pageSize) throws SQLException {
+        if (page == 1) {
+            Page first = pageAfter(filter, FIRST, pageSize);
+            if (first.next() != 0)
+                cursors.put(new PageKey(filter, pageSize, first.rows().get(0).id(), 2), first.next());
+            return first;
+        }
+        long newest = newestId(filter);
+        if (newest == 0)
+            return new Page(List.of(), 0);
+        long cursor = FIRST;
+        int from = 1;
+        for (int p = page; p > 1; p--) {
+            Long known = cursors.getIfPresent(new PageKey(filter, pageSize, newest, p));
+            if (known != null) {
+                cursor = known;
+                from = p;
+                break;
+            }
+        }
+        if (from < page) {
+            cursor = skip(filter, cursor, page - from, pageSize);
+            if (cursor == 0)
+                return new Page(List.of(), 0);
+            cursors.put(new PageKey(filter, pageSize, newest, page), cursor);
+        }
+        Page result = pageAfter(filter, cursor, pageSize);
+        if (result.next() != 0)
+            cursors.put(new PageKey(filter, pageSize, newest, page + 1), result.next());
+        return result;
+    }
+
+    /** @return the id of the newest row matching {@code filter}, or 0 if there is none */
+    private long newestId(Filter filter) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT id FROM sa_audit_log" + where(filter, params) + " ORDER BY id DESC LIMIT 1";
+        try (Connection c = database.read(); PreparedStatement ps = c.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Loads up to {@code limit} rows older than {@code cursor}, newest first.
+     *
+     * @param cursor {@link #FIRST} or the {@link Page#next()} of the previous page
+     */
+    public Page pageAfter(Filter filter, long cursor, int limit) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT id, event, uuid, name, ip, details, created_at FROM sa_audit_log"
+                + where(filter, params) + before(cursor, params) + " ORDER BY id DESC LIMIT " + (limit + 1);
+        List<Row> rows = new ArrayList<>(limit);
+        boolean more = false;
+        try (Connection c = database.read(); PreparedStatement ps = c.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rows.size() == limit) {
+                        more = true;
+                        break;
+                    }
+                    rows.add(Row.read(rs));
+                }
+            }
+        }
+        return new Page(rows, more ? rows.get(rows.size() - 1).id() : 0);
+    }
+
+    /**
+     * Skips {@code pages} pages of {@code pageSize} rows from {@code cursor} reading only ids.
+     *
+     * @return the cursor of the page after the skipped ones, or 0 if the history ends first
+     */
+    public long skip(Filter filter, long cursor, int pages, int pageSize) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT id FROM sa_audit_log" + where(filter, params) + before(cursor, params)
+                + " ORDER BY id DESC LIMIT " + ((long) pages * pageSize + 1);
+        long last = 0;
+        long seen = 0;
+        try (Connection c = database.read(); PreparedStatement ps = c.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (seen++ == (long) pages * pageSize)
+                        return last;
+                    last = rs.getLong(1);
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes every matching row, oldest first, to {@code file} as gzipped NDJSON. The file is
+     * written under a temporary name and moved into place when complete. Rows added while the
+     * export runs are included.
+     *
+     * @param progress called after each chunk of {@value #EXPORT_CHUNK} rows with the count so far
+     * @return rows written
+     */
+    public long export(Filter filter, Path file, LongConsumer progress) throws SQLException, IOException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT id, event, uuid, name, ip, details, created_at FROM sa_audit_log"
+                + where(filter, params) + " AND id > ? ORDER BY id LIMIT " + EXPORT_CHUNK;
+        params.add(0L);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        long count = 0;
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024);
+                    Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                StringBuilder line = new StringBuilder(256);
+                long after = 0;
+                int read;
+                do {
+                    read = 0;
+                    params.set(params.size() - 1, after);
+                    // One short read per chunk: the snapshot is released before the next one starts
+                    try (Connection c = database.read(); PreparedStatement ps = c.prepareStatement(sql)) {
+                        bind(ps, params);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                Row row = Row.read(rs);
+                                line.setLength(0);
+                                row.appendJson(line).append('\n');
+                                w.append(line);
+                                after = row.id();
+                                read++;
+                            }
+                        }
+                    }
+                    count += read;
+                    if (read > 0)
+                        progress.accept(count);
+                } while (read == EXPORT_CHUNK);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        return count;
+    }
+
+    // ── SQL ───────────────────────────────────────────────────────────────────
+
+    private static String where(Filter f, List<Object> params) {
+        StringBuilder sb = new StringBuilder(" WHERE 1 = 1");
+        if (f.uuid() != null) {
+            sb.append(" AND uuid = ?");
+            params.add(f.uuid().toString());
+        }
+        if (!f.events().isEmpty()) {
+            sb.append(" AND event IN (");
+            int i = 0;
+            for (AuditEvent e : f.events()) {
+                sb.append(i++ == 0 ? "?" : ", ?");
+                params.add(e.name());
+            }
+            sb.append(')');
+        }
+        // created_at is UTC on both dialects (SQLite datetime('now'), MySQL with serverTimezone=UTC)
+        if (f.since() != null) {
+            sb.append(" AND created_at >= ?");
+            params.add(DB_TIME.format(LocalDateTime.ofInstant(f.since(), ZoneOffset.UTC)));
+        }
+        if (f.until() != null) {
+            sb.append(" AND created_at < ?");
+            params.add(DB_TIME.format(LocalDateTime.ofInstant(f.until(), ZoneOffset.UTC)));
+        }
+        return sb.toString();
+    }
+
+    private static String before(long cursor, List<Object> params) {
+        if (cursor == FIRST)
+            return "";
+        params.add(cursor);
+        return " AND id < ?";
+    }
+
+    private static void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            if (params.get(i) instanceof Long l)
+                ps.setLong(i + 1, l);
+            else
+                ps.setString(i + 1, (String) params.get(i));
+        }
+    }
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Which rows to return; every part is optional.
+     *
+     * @param uuid   only this player, or {@code null} for everyone
+     * @param events only these events, or empty for all
+     * @param since  inclusive lower bound, or {@code null}
+     * @param until  exclusive upper bound, or {@code null}
+     */
+    public record Filter(UUID uuid, Set<AuditEvent> events, Instant since, Instant until) {
+
+        public static Filter of(UUID uuid) {
+            return new Filter(uuid, Set.of(), null, null);
+        }
+
+        /**
+         * Parses command arguments of the form {@code event:LOGIN_FAIL,REGISTER},
+         * {@code since:<time>} and {@code until:<time>}, where a time is a duration back from now
+         * ({@code 30m}, {@code 12h}, {@code 7d}; whole minutes, so repeated commands share page
+         * cursors) or a date ({@code 2025-01-31}, server time zone).
+         *
+         * @throws IllegalArgumentException on an unknown key, event or time
+         */
+        public static Filter parse(UUID uuid, List<String> args) {
+            Set<AuditEvent> events = EnumSet.noneOf(AuditEvent.class);
+            Instant since = null;
+            Instant until = null;
+            for (String arg : args) {
+                int colon = arg.indexOf(':');
+                if (colon < 0)
+                    throw new IllegalArgumentException("Expected key:value, got " + arg);
+                String value = arg.substring(colon + 1);
+                switch (arg.substring(0, colon).toLowerCase(Locale.ROOT)) {
+                    case "event" -> {
+                        for (String e : value.split(","))
+                            events.add(AuditEvent.valueOf(e.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    case "since" -> since = parseTime(value);
+                    case "until" -> until = parseTime(value);
+                    default -> throw new IllegalArgumentException("Unknown filter " + arg);
+                }
+            }
+            return new Filter(uuid, events, since, until);
+        }
+
+        private static Instant parseTime(String value) {
+            if (value.length() > 1) {
+                char unit = Character.toLowerCase(value.charAt(value.length() - 1));
+                String digits = value.substring(0, value.length() - 1);
+                if (digits.chars().allMatch(Character::isDigit)) {
+                    long n = Long.parseLong(digits);
+                    Duration back = switch (unit) {
+                        case 'm' -> Duration.ofMinutes(n);
+                        case 'h' -> Duration.ofHours(n);
+                        case 'd' -> Duration.ofDays(n);
+                        default -> null;
+                    };
+                    if (back != null)
+                        return Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(back);
+                }
+            }
+            try {
+                return LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Bad time " + value + " (use 30m, 12h, 7d or yyyy-MM-dd)");
+            }
+        }
+    }
+
+    /** One {@code sa_audit_log} row; {@code createdAt} as stored (UTC). */
+    public record Row(long id, String event, String uuid, String name, String ip, String details,
+            String createdAt) {
+
+        static Row read(ResultSet rs) throws SQLException {
+            return new Row(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                    rs.getString(6), rs.getString(7));
+        }
+
+        StringBuilder appendJson(StringBuilder sb) {
+            sb.append("{\"id\":").append(id);
+            field(sb, "event", event);
+            field(sb, "uuid", uuid);
+            field(sb, "name", name);
+            field(sb, "ip", ip);
+            field(sb, "details", details);
+            field(sb, "created_at", createdAt);
+            return sb.append('}');
+        }
+
+        private static void field(StringBuilder sb, String key, String value) {
+            sb.append(",\"").append(key).append("\":");
+            if (value == null) {
+                sb.append("null");
+                return;
+            }
+            sb.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                switch (ch) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (ch < 0x20)
+                            sb.append(String.format("\\u%04x", (int) ch));
+                        else
+                            sb.append(ch);
+                    }
+                }
+            }
+            sb.append('"');
+        }
+    }
+
+    /** @param newest id of the newest matching row when the pages were counted */
+    private record PageKey(Filter filter, int pageSize, long newest, int page) {
+    }
+
+    /**
+     * @param rows newest first
+     * @param next cursor for the following page, or 0 if this is the last one
+     */
+    public record Page(List<Row> rows, long next) {
+    }
+}
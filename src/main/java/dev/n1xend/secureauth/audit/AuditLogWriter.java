@@ -0,0 +1,258 @@
+package dev.n1xend.secureauth.audit;
+
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group-committing writer for {@code sa_audit_log}.
+ *
+ * <p>{@link #log} only enqueues into a bounded buffer and never blocks; when the buffer is
+ * full the event is dropped and counted. A single writer thread drains the buffer into JDBC
+ * batches of up to {@code batch-size} rows and commits once per batch, so a join storm costs a
+ * handful of transactions instead of one per event.
+ *
+ * <p>Per-player pruning (keep the newest {@code max-entries-per-player} rows) no longer runs
+ * after every insert: players written since the last sweep are remembered and pruned by the
+ * writer thread every {@code prune-interval-minutes}.
+ */
+public final class AuditLogWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO sa_audit_log (event, uuid, name, ip, details)"
+            + " VALUES (?, ?, ?, ?, ?)";
+    // Derived table keeps MariaDB happy (LIMIT inside IN-subquery), see 1.3.1
+    private static final String PRUNE_SQL = "DELETE FROM sa_audit_log WHERE uuid = ? AND id NOT IN"
+            + " (SELECT id FROM (SELECT id FROM sa_audit_log WHERE uuid = ? ORDER BY id DESC LIMIT ?) AS kept)";
+
+    private static final Entry SHUTDOWN = new Entry(null, null, null, null, null);
+
+    private final SqlStore database;
+    private final Logger log;
+    private final Settings settings;
+    private final BlockingQueue<Entry> buffer;
+    private final LatencyHistogram writeTimer;
+    private final Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private final Thread writerThread;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile EventListener eventListener = (event, uuid, name, ip) -> {
+    };
+    private long nextPruneNanos;
+
+    public AuditLogWriter(SqlStore database, Settings settings, MetricsRegistry metrics, Logger log) {
+        this.database = database;
+        this.settings = settings;
+        this.writeTimer = metrics.timer(MetricsRegistry.AUDIT_WRITE);
+        this.log = log;
+        this.buffer = new ArrayBlockingQueue<>(settings.queueCapacity());
+        this.nextPruneNanos = System.nanoTime() + settings.pruneIntervalNanos();
+        this.writerThread = Thread.ofPlatform().name("SecureAuth-AuditWriter").daemon(true).start(this::drainLoop);
+    }
+
+    // ── Public API ────────────────────────────────────────────────────────────
+
+    /**
+     * Queues an audit event. Never blocks and never touches the database on the caller's thread.
+     * {@link AuthStats} picks the row up once it is written.
+     *
+     * @return {@code false} if the buffer was full and the event was dropped
+     */
+    public boolean log(AuditEvent event, UUID uuid, String name, String ip, String details) {
+        eventListener.onEvent(event, uuid, name, ip);
+        if (buffer.offer(new Entry(event, uuid, name, ip, details)))
+            return true;
+        if (dropped.incrementAndGet() % 1000 == 1)
+            log.warn("[Audit] Buffer full ({} events) — dropping audit events ({} so far).",
+                    settings.queueCapacity(), dropped.get());
+        return false;
+    }
+
+    /** Callback for every logged event, run on the caller's thread before it is queued. Must not block. */
+    @FunctionalInterface
+    public interface EventListener {
+        void onEvent(AuditEvent event, UUID uuid, String name, String ip);
+    }
+
+    public void setEventListener(EventListener listener) {
+        this.eventListener = listener;
+    }
+
+    public Stats stats() {
+        return new Stats(written.get(), dropped.get(), failed.get(), batches.get(), buffer.size());
+    }
+
+    /**
+     * Writes everything still buffered, runs a final prune, and stops the writer thread.
+     * Waits at most {@code timeoutMillis}.
+     */
+    public void shutdown(long timeoutMillis) {
+        try {
+            // Wait for room: the pill must get in even if the buffer is momentarily full
+            if (!buffer.offer(SHUTDOWN, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                writerThread.interrupt();
+                return;
+            }
+            writerThread.join(timeoutMillis);
+            if (writerThread.isAlive()) {
+                log.warn("[Audit] Writer did not flush within {}ms; {} event(s) lost.", timeoutMillis, buffer.size());
+                writerThread.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ── Writer thread ─────────────────────────────────────────────────────────
+
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(settings.batchSize());
+        boolean running = true;
+        while (running) {
+            try {
+                Entry first = buffer.poll(pollTimeoutNanos(), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, settings.batchSize() - 1);
+                    // Identity, not equals: the pill is recognised by reference only
+                    running = !batch.removeIf(e -> e == SHUTDOWN);
+                    // Anything queued behind the pill by late callers still gets written
+                    if (!running) {
+                        buffer.drainTo(batch);
+                        batch.removeIf(e -> e == SHUTDOWN);
+                    }
+                    try {
+                        writeBatch(batch);
+                    } finally {
+                        batch.clear();
+                    }
+                }
+                if (!running || System.nanoTime() - nextPruneNanos >= 0) {
+                    pruneDirty();
+                    nextPruneNanos = System.nanoTime() + settings.pruneIntervalNanos();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // One bad batch or listener must not take the writer thread down with it
+                log.warn("[Audit] Writer iteration failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private long pollTimeoutNanos() {
+        return Math.max(0, nextPruneNanos - System.nanoTime());
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        if (batch.isEmpty())
+            return;
+        long start = System.nanoTime();
+        try {
+            database.write(c -> {
+                try (PreparedStatement ps = c.prepareStatement(INSERT_SQL)) {
+                    for (Entry e : batch) {
+                        ps.setString(1, e.event().name());
+                        ps.setString(2, e.uuid() != null ? e.uuid().toString() : null);
+                        ps.setString(3, e.name());
+                        ps.setString(4, e.ip());
+                        ps.setString(5, e.details());
+                        ps.addBatch();
+                    }
+                    return ps.executeBatch();
+                }
+            });
+            writeTimer.recordSince(start);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            for (Entry e : batch) {
+                if (e.uuid() != null)
+                    dirtyPlayers.add(e.uuid());
+            }
+        } catch (SQLException | RuntimeException ex) {
+            failed.addAndGet(batch.size());
+            log.warn("[Audit] Failed to write batch of {} event(s): {}", batch.size(), ex.getMessage());
+        }
+    }
+
+    private void pruneDirty() {
+        if (dirtyPlayers.isEmpty())
+            return;
+        // Taken out before the write so players touched meanwhile stay dirty; put back if it fails
+        List<UUID> players = new ArrayList<>(dirtyPlayers);
+        dirtyPlayers.removeAll(players);
+        try {
+            database.write(c -> {
+                try (PreparedStatement ps = c.prepareStatement(PRUNE_SQL)) {
+                    for (UUID player : players) {
+                        String uuid = player.toString();
+                        ps.setString(1, uuid);
+                        ps.setString(2, uuid);
+                        ps.setInt(3, settings.maxEntriesPerPlayer());
+                        ps.executeUpdate();
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException | RuntimeException e) {
+            dirtyPlayers.addAll(players);
+            log.warn("[Audit] Prune sweep failed, retrying {} player(s) next sweep: {}", players.size(),
+                    e.getMessage());
+        }
+    }
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    private record Entry(AuditEvent event, UUID uuid, String name, String ip, String details) {
+    }
+
+    /**
+     * @param queueCapacity        events buffered before new ones are dropped
+     * @param batchSize            maximum rows per INSERT batch / transaction
+     * @param pruneIntervalMinutes how often touched players are pruned
+     * @param maxEntriesPerPlayer  rows kept per player
+     */
+    public record Settings(int queueCapacity, int batchSize, int pruneIntervalMinutes, int maxEntriesPerPlayer) {
+
+        /** Reads the {@code audit} section of {@code config.yml}; {@code null} yields defaults. */
+        public static Settings fromConfig(ConfigurationSection audit) {
+            if (audit == null)
+                return new Settings(8192, 256, 5, 200);
+            return new Settings(Math.max(16, audit.getInt("queue-capacity", 8192)),
+                    Math.max(1, audit.getInt("batch-size", 256)),
+                    Math.max(1, audit.getInt("prune-interval-minutes", 5)),
+                    Math.max(1, audit.getInt("max-entries-per-player", 200)));
+        }
+
+        long pruneIntervalNanos() {
+            return TimeUnit.MINUTES.toNanos(pruneIntervalMinutes);
+        }
+    }
+
+    /**
+     * @param written rows committed
+     * @param dropped events discarded because the buffer was full
+     * @param failed  rows lost to database errors
+     * @param batches transactions committed
+     * @param queued  events currently buffered
+     */
+    public record Stats(long written, long dropped, long failed, long batches, int queued) {
+    }
+}
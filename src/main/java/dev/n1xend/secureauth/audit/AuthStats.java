@@ -0,0 +1,291 @@
+package dev.n1xend.secureauth.audit;
+
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.util.RollingCounter;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Live authentication statistics for {@code /saadmin stats} and the public API.
+ *
+ * <p>Replaces the COUNT queries of {@code AuditLogService.getStats}: counters are seeded from
+ * the database once at startup and then advanced by {@link #poll()}, which reads only the
+ * {@code sa_audit_log} rows added since the last poll (a primary-key range), so
+ * {@link #snapshot} is O(1). Rows are counted whichever code path wrote them.
+ *
+ * <p>The seed records the highest audit id it counted and polling starts after it. Auto-increment
+ * ids can become visible out of order on MySQL, so polling tails the table the way
+ * {@code ClusterEventBus} does: it keeps a contiguous position, remembers ids seen above it, and
+ * waits up to {@value #GAP_TIMEOUT_MS} ms for a hole before treating it as a rolled-back insert.
+ * Failed logins over the last hour use a {@link RollingCounter} (1-minute buckets); registrations
+ * are counted since local midnight and reset when the date changes.
+ *
+ * <p>The player total grows with REGISTER rows and with {@link #onImported imported} accounts,
+ * which write no audit row. Deletions write none either, so the total is recounted from
+ * {@code sa_players} every {@value #RECOUNT_MINUTES} minutes.
+ *
+ * <p>Every polled row is also handed to the {@link EventListener}, so consumers see the events
+ * of every writer (the audit service, {@link AuditLogWriter}, other servers) within one poll.
+ */
+public final class AuthStats {
+
+    private static final int POLL_LIMIT = 10_000;
+    private static final long GAP_TIMEOUT_MS = 5000;
+    private static final long RECOUNT_MINUTES = 5;
+    private static final String COUNT_PLAYERS = "SELECT COUNT(*) FROM sa_players";
+
+    private final AtomicLong totalPlayers = new AtomicLong();
+    private final RollingCounter failsLastHour = new RollingCounter(Duration.ofHours(1), 60);
+    private final AtomicLong registrationsToday = new AtomicLong();
+    private final AtomicLong seededSessions = new AtomicLong();
+    private volatile LocalDate today = LocalDate.now();
+    private volatile IntSupplier activeSessions = () -> (int) seededSessions.get();
+    private volatile IntSupplier activeBans = () -> 0;
+    private volatile LongAdder loginFailures = new LongAdder();
+    private volatile boolean seeded;
+    private volatile EventListener eventListener = (event, uuid) -> {
+    };
+
+    private SqlStore database;
+    private Logger log;
+    // Reader state — guarded by this
+    /** Every {@code sa_audit_log.id} up to here has been counted or given up on. */
+    private long contiguous;
+    private final TreeSet<Long> seenAbove = new TreeSet<>();
+    private long gapSinceNanos;
+    private long nextRecountNanos;
+
+    /** Gauge for sessions that are currently valid. Until set, the count seeded at startup is reported. */
+    public void setActiveSessions(IntSupplier source) {
+        this.activeSessions = source;
+    }
+
+    /** Gauge for IP bans that are currently active. */
+    public void setActiveBans(IntSupplier source) {
+        this.activeBans = source;
+    }
+
+    /** Counter advanced by every LOGIN_FAIL row polled after startup, e.g. {@code login_failures_total}. */
+    public void setLoginFailures(LongAdder counter) {
+        this.loginFailures = counter;
+    }
+
+    /** Importer callback: an imported account counts towards the total until the next recount. */
+    public void onImported(UUID uuid) {
+        if (seeded)
+            totalPlayers.incrementAndGet();
+    }
+
+    /** Callback for every audit row polled after the seed, in id order, on the polling thread. */
+    @FunctionalInterface
+    public interface EventListener {
+        /** @param uuid the player of the row, or {@code null} if it has none */
+        void onEvent(AuditEvent event, UUID uuid);
+    }
+
+    public void setEventListener(EventListener listener) {
+        this.eventListener = listener;
+    }
+
+    public Snapshot snapshot(int onlinePlayers) {
+        rollDay();
+        return new Snapshot(onlinePlayers, totalPlayers.get(), activeSessions.getAsInt(), activeBans.getAsInt(),
+                failsLastHour.sum(), registrationsToday.get(), seeded);
+    }
+
+    // ── Seeding and polling ───────────────────────────────────────────────────
+
+    /** Seeds the counters from the database on a virtual thread; {@link #poll()} starts counting after it. */
+    public void seedAsync(SqlStore database, Logger log) {
+        Thread.startVirtualThread(() -> seed(database, log));
+    }
+
+    private synchronized void seed(SqlStore database, Logger log) {
+        this.database = database;
+        this.log = log;
+        long start = System.currentTimeMillis();
+        try (Connection c = database.read()) {
+            long watermark = maxId(c);
+            totalPlayers.set(count(c, COUNT_PLAYERS));
+            seededSessions.set(count(c, "SELECT COUNT(*) FROM sa_sessions WHERE expires_at > "
+                    + (database.isMysql() ? "NOW()" : "datetime('now')")));
+            count(c, watermark);
+            contiguous = watermark;
+            nextRecountNanos = System.nanoTime() + TimeUnit.MINUTES.toNanos(RECOUNT_MINUTES);
+            seeded = true;
+            log.info("[SecureAuth] Stats seeded in {}ms.", System.currentTimeMillis() - start);
+        } catch (SQLException e) {
+            log.warn("[SecureAuth] Could not seed stats: {}", e.getMessage());
+        }
+    }
+
+    /** Counts audit rows added since the last poll. No-op until {@link #seed} has succeeded. */
+    public void poll() {
+        if (!seeded)
+            return;
+        rollDay();
+        synchronized (this) {
+            try (Connection c = database.read()) {
+                if (System.nanoTime() - nextRecountNanos >= 0) {
+                    totalPlayers.set(count(c, COUNT_PLAYERS));
+                    nextRecountNanos = System.nanoTime() + TimeUnit.MINUTES.toNanos(RECOUNT_MINUTES);
+                }
+                readNew(c);
+            } catch (SQLException e) {
+                log.warn("[SecureAuth] Could not update stats: {}", e.getMessage());
+            }
+            advance();
+        }
+    }
+
+    /** Counts every row above {@link #contiguous} not seen yet; all events, so counted ids leave no holes. */
+    private void readNew(Connection c) throws SQLException {
+        long minutesToday = minutesToday();
+        long now = System.currentTimeMillis();
+        String sql = "SELECT id, event, " + ageMinutes() + ", uuid FROM sa_audit_log WHERE id > ? ORDER BY id"
+                + " LIMIT " + POLL_LIMIT;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, contiguous);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (!seenAbove.add(rs.getLong(1)))
+                        continue;
+                    String event = rs.getString(2);
+                    if (event.equals("REGISTER"))
+                        totalPlayers.incrementAndGet();
+                    add(event, rs.getLong(3), 1, now, minutesToday, true);
+                    dispatch(event, rs.getString(4));
+                }
+            }
+        }
+    }
+
+    private void dispatch(String event, String uuid) {
+        AuditEvent e;
+        try {
+            e = AuditEvent.valueOf(event);
+        } catch (IllegalArgumentException ex) {
+            return; // written by a newer plugin version
+        }
+        try {
+            eventListener.onEvent(e, uuid != null ? UUID.fromString(uuid) : null);
+        } catch (RuntimeException ex) {
+            // The row is counted either way; one failing consumer must not stall the tail
+            log.warn("[SecureAuth] Audit event listener failed on {}: {}", event, ex.getMessage());
+        }
+    }
+
+    /** Moves {@link #contiguous} forward over seen ids, skipping holes older than the gap timeout. */
+    private void advance() {
+        while (true) {
+            while (seenAbove.remove(contiguous + 1))
+                contiguous++;
+            if (seenAbove.isEmpty()) {
+                gapSinceNanos = 0;
+                return;
+            }
+            long now = System.nanoTime();
+            if (gapSinceNanos == 0) {
+                gapSinceNanos = now;
+                return;
+            }
+            if (now - gapSinceNanos < TimeUnit.MILLISECONDS.toNanos(GAP_TIMEOUT_MS))
+                return;
+            contiguous = seenAbove.first() - 1;
+            gapSinceNanos = 0;
+        }
+    }
+
+    private static long maxId(Connection c) throws SQLException {
+        return count(c, "SELECT COALESCE(MAX(id), 0) FROM sa_audit_log");
+    }
+
+    private static long count(Connection c, String sql) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Seeds the windows from the REGISTER and LOGIN_FAIL rows with {@code id <= upToId}, grouped by
+     * age in minutes so the hourly window keeps sliding correctly after a restart. The player
+     * total is not touched: it was just counted from {@code sa_players}.
+     */
+    private void count(Connection c, long upToId) throws SQLException {
+        String age = ageMinutes();
+        long minutesToday = minutesToday();
+        // One query serves both windows: SQL bounds by the longer one, registrations are cut in add()
+        String sql = "SELECT event, " + age + " AS age, COUNT(*) FROM sa_audit_log WHERE id <= ?"
+                + " AND event IN ('REGISTER', 'LOGIN_FAIL') AND " + age + " < ? GROUP BY event, age";
+        long now = System.currentTimeMillis();
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, upToId);
+            ps.setLong(2, Math.max(60, minutesToday));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next())
+                    add(rs.getString(1), rs.getLong(2), rs.getInt(3), now, minutesToday, false);
+            }
+        }
+    }
+
+    /**
+     * Adds {@code n} rows of {@code event} written {@code minutes} ago to the windows.
+     *
+     * @param live {@code true} when polling, so failures also advance the login-failure counter
+     */
+    private void add(String event, long minutes, int n, long now, long minutesToday, boolean live) {
+        if (event.equals("LOGIN_FAIL")) {
+            failsLastHour.add(now - minutes * 60_000L, n);
+            if (live)
+                loginFailures.add(n);
+        } else if (event.equals("REGISTER") && minutes < minutesToday) {
+            registrationsToday.addAndGet(n);
+        }
+    }
+
+    private String ageMinutes() {
+        return database.isMysql()
+                ? "TIMESTAMPDIFF(MINUTE, created_at, NOW())"
+                : "CAST((julianday('now') - julianday(created_at)) * 1440 AS INTEGER)";
+    }
+
+    private static long minutesToday() {
+        return Duration.between(LocalTime.MIDNIGHT, LocalTime.now()).toMinutes() + 1;
+    }
+
+    private void rollDay() {
+        LocalDate now = LocalDate.now(ZoneId.systemDefault());
+        if (now.equals(today))
+            return;
+        synchronized (registrationsToday) {
+            if (!now.equals(today)) {
+                registrationsToday.set(0);
+                today = now;
+            }
+        }
+    }
+
+    /**
+     * Point-in-time statistics.
+     *
+     * @param registrationsToday registrations since local midnight
+     * @param complete           {@code false} until the startup seed has completed
+     */
+    public record Snapshot(int onlinePlayers, long totalPlayers, int activeSessions, int activeBans,
+            long failsLastHour, long registrationsToday, boolean complete) {
+    }
+}
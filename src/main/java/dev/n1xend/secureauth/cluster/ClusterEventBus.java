@@ -0,0 +1,294 @@
+package dev.n1xend.secureauth.cluster;
+
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Brokerless cache-invalidation channel for several servers sharing one database.
+ *
+ * <p>Each node appends change notices to {@code sa_events} and tails the table by keyset
+ * position ({@code WHERE id > ?}) every {@code poll-interval-ms}. Notices from other nodes are
+ * dispatched to the handler registered for their {@link Type}, which drops or reloads just the
+ * affected player. Own notices are skipped by origin id.
+ *
+ * <p>Auto-increment ids can become visible out of order (a transaction that took id 10 may
+ * commit after the one that took id 11), so the reader keeps a "contiguous" position and
+ * remembers ids seen above it. A hole is waited for up to {@value #GAP_TIMEOUT_MS} ms before it
+ * is treated as a rolled-back insert and skipped.
+ */
+public final class ClusterEventBus {
+
+    private static final long GAP_TIMEOUT_MS = 5000;
+    private static final int POLL_LIMIT = 500;
+
+    /** What changed for the player in {@link ClusterEvent#uuid()}. */
+    public enum Type {
+        /** Account row changed (password reset, deletion, TOTP) — drop cached player data. */
+        PLAYER_CHANGED,
+        /** Session created or invalidated — reload the player's session. */
+        SESSION_CHANGED
+    }
+
+    public record ClusterEvent(Type type, UUID uuid) {
+    }
+
+    private final SqlStore database;
+    private final Logger log;
+    private final Settings settings;
+    private final LatencyHistogram pollTimer;
+    private final String origin;
+    private final Map<Type, Consumer<ClusterEvent>> handlers = new EnumMap<>(Type.class);
+    private final ConcurrentLinkedQueue<ClusterEvent> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    // Reader state — touched only by the poller thread
+    private long contiguous;
+    private final TreeSet<Long> seenAbove = new TreeSet<>();
+    private long gapSinceNanos;
+    private long nextCleanupNanos;
+
+    private volatile boolean running;
+    private Thread poller;
+
+    public ClusterEventBus(SqlStore database, Settings settings, MetricsRegistry metrics, Logger log) {
+        this.database = database;
+        this.pollTimer = metrics.timer(MetricsRegistry.CLUSTER_POLL);
+        this.settings = settings;
+        this.log = log;
+        this.origin = settings.serverId().isBlank() ? UUID.randomUUID().toString() : settings.serverId();
+    }
+
+    /** Registers the handler for {@code type}. Handlers run on the poller thread and must be thread-safe. */
+    public void on(Type type, Consumer<ClusterEvent> handler) {
+        handlers.put(type, handler);
+    }
+
+    /**
+     * Queues a notice for the other nodes. No-op when the cluster channel is disabled. Notices that
+     * cannot be written stay queued until the database accepts them.
+     */
+    public void publish(Type type, UUID uuid) {
+        if (running)
+            outbox.add(new ClusterEvent(type, uuid));
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    public long received() {
+        return received.get();
+    }
+
+    public long published() {
+        return published.get();
+    }
+
+    // ── Lifecycle ─────────────────────────────────────────────────────────────
+
+    /** Creates {@code sa_events} if needed, starts tailing from the current end of the table. */
+    public void start() {
+        if (!settings.enabled())
+            return;
+        try {
+            contiguous = database.write(c -> {
+                try (Statement st = c.createStatement()) {
+                    st.executeUpdate(database.isMysql()
+                            ? "CREATE TABLE IF NOT EXISTS sa_events (id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                                    + " origin VARCHAR(64) NOT NULL, type VARCHAR(32) NOT NULL,"
+                                    + " uuid VARCHAR(36) NOT NULL, created_at TIMESTAMP NOT NULL DEFAULT"
+                                    + " CURRENT_TIMESTAMP, INDEX idx_events_created (created_at))"
+                            : "CREATE TABLE IF NOT EXISTS sa_events (id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                                    + " origin TEXT NOT NULL, type TEXT NOT NULL, uuid TEXT NOT NULL,"
+                                    + " created_at TEXT NOT NULL DEFAULT (datetime('now')))");
+                    try (ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM sa_events")) {
+                        return rs.next() ? rs.getLong(1) : 0L;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            log.error("[Cluster] Could not initialise sa_events — cross-server invalidation disabled: {}",
+                    e.getMessage());
+            return;
+        }
+        running = true;
+        nextCleanupNanos = System.nanoTime();
+        poller = Thread.ofPlatform().name("SecureAuth-Cluster").daemon(true).start(this::pollLoop);
+        log.info("[Cluster] Tailing sa_events every {}ms as node {}.", settings.pollInterval().toMillis(), origin);
+    }
+
+    public void shutdown() {
+        if (!running)
+            return;
+        running = false;
+        LockSupport.unpark(poller);
+        try {
+            poller.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ── Poller thread ─────────────────────────────────────────────────────────
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                long start = System.nanoTime();
+                flushOutbox();
+                poll();
+                pollTimer.recordSince(start);
+                if (System.nanoTime() - nextCleanupNanos >= 0) {
+                    cleanup();
+                    nextCleanupNanos = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+                }
+            } catch (SQLException e) {
+                log.warn("[Cluster] sa_events poll failed: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("[Cluster] Event handler failed: {}", e.getMessage(), e);
+            }
+            LockSupport.parkNanos(settings.pollInterval().toNanos());
+        }
+        // Let the other nodes know about our last changes
+        try {
+            flushOutbox();
+        } catch (SQLException e) {
+            log.warn("[Cluster] Could not publish final events: {}", e.getMessage());
+        }
+    }
+
+    private void flushOutbox() throws SQLException {
+        if (outbox.isEmpty())
+            return;
+        List<ClusterEvent> batch = new ArrayList<>();
+        for (ClusterEvent e; (e = outbox.poll()) != null;)
+            batch.add(e);
+        try {
+            database.write(c -> {
+                try (PreparedStatement ps = c
+                        .prepareStatement("INSERT INTO sa_events (origin, type, uuid) VALUES (?, ?, ?)")) {
+                    for (ClusterEvent e : batch) {
+                        ps.setString(1, origin);
+                        ps.setString(2, e.type().name());
+                        ps.setString(3, e.uuid().toString());
+                        ps.addBatch();
+                    }
+                    return ps.executeBatch();
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            // Rolled back as a whole; retried on the next poll. Notices are invalidations, order is irrelevant
+            outbox.addAll(batch);
+            throw e;
+        }
+        published.addAndGet(batch.size());
+    }
+
+    private void poll() throws SQLException {
+        try (Connection c = database.read();
+                PreparedStatement ps = c.prepareStatement(
+                        "SELECT id, origin, type, uuid FROM sa_events WHERE id > ? ORDER BY id LIMIT " + POLL_LIMIT)) {
+            ps.setLong(1, contiguous);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long id = rs.getLong(1);
+                    if (!seenAbove.add(id))
+                        continue;
+                    if (origin.equals(rs.getString(2)))
+                        continue;
+                    dispatch(rs.getString(3), rs.getString(4));
+                }
+            }
+        }
+        advance();
+    }
+
+    private void dispatch(String type, String uuid) {
+        Type t;
+        try {
+            t = Type.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            return; // written by a newer plugin version
+        }
+        Consumer<ClusterEvent> handler = handlers.get(t);
+        if (handler != null) {
+            received.incrementAndGet();
+            handler.accept(new ClusterEvent(t, UUID.fromString(uuid)));
+        }
+    }
+
+    /** Moves {@link #contiguous} forward over seen ids, skipping holes older than the gap timeout. */
+    private void advance() {
+        while (true) {
+            while (seenAbove.remove(contiguous + 1))
+                contiguous++;
+            if (seenAbove.isEmpty()) {
+                gapSinceNanos = 0;
+                return;
+            }
+            long now = System.nanoTime();
+            if (gapSinceNanos == 0) {
+                gapSinceNanos = now;
+                return;
+            }
+            if (now - gapSinceNanos < TimeUnit.MILLISECONDS.toNanos(GAP_TIMEOUT_MS))
+                return;
+            contiguous = seenAbove.first() - 1;
+            gapSinceNanos = 0;
+        }
+    }
+
+    private void cleanup() throws SQLException {
+        String cutoff = database.isMysql()
+                ? "DATE_SUB(NOW(), INTERVAL ? MINUTE)"
+                : "datetime('now', '-' || ? || ' minutes')";
+        database.write(c -> {
+            try (PreparedStatement ps = c.prepareStatement("DELETE FROM sa_events WHERE created_at < " + cutoff)) {
+                ps.setLong(1, settings.retention().toMinutes());
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    // ── Settings ──────────────────────────────────────────────────────────────
+
+    /**
+     * @param enabled      whether this node takes part in the channel
+     * @param serverId     stable node id; blank = random per start
+     * @param pollInterval how often {@code sa_events} is tailed
+     * @param retention    how long notices are kept
+     */
+    public record Settings(boolean enabled, String serverId, Duration pollInterval, Duration retention) {
+
+        /** Reads the {@code cluster} section of {@code config.yml}; {@code null} = disabled. */
+        public static Settings fromConfig(ConfigurationSection cluster) {
+            if (cluster == null)
+                return new Settings(false, "", Duration.ofMillis(500), Duration.ofMinutes(10));
+            return new Settings(cluster.getBoolean("enabled", false), cluster.getString("server-id", ""),
+                    Duration.ofMillis(Math.max(50, cluster.getLong("poll-interval-ms", 500))),
+                    Duration.ofMinutes(Math.max(1, cluster.getLong("retention-minutes", 10))));
+        }
+    }
+}
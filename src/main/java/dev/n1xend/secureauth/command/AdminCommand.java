@@ -2,21 +2,35 @@ package dev.n1xend.secureauth.command;
 
 import dev.n1xend.secureauth.SecureAuthPlugin;
 import dev.n1xend.secureauth.antibot.AntiBotService;
-import dev.n1xend.secureauth.audit.AuditEntry;
+import dev.n1xend.secureauth.antibot.IpBanIndex;
 import dev.n1xend.secureauth.audit.AuditEvent;
-import dev.n1xend.secureauth.audit.AuditLogService;
+import dev.n1xend.secureauth.audit.AuditHistory;
+import dev.n1xend.secureauth.audit.AuthStats;
+import dev.n1xend.secureauth.cluster.ClusterEventBus;
 import dev.n1xend.secureauth.debug.DebugLogger;
 import dev.n1xend.secureauth.i18n.LanguageManager;
+import dev.n1xend.secureauth.importer.AccountImporter;
+import dev.n1xend.secureauth.importer.ImportSource;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
 import dev.n1xend.secureauth.module.ModuleManager;
 import dev.n1xend.secureauth.module.ReloadResult;
 import dev.n1xend.secureauth.player.PlayerDataService;
+import dev.n1xend.secureauth.player.RegistrationIndex;
+import dev.n1xend.secureauth.security.Argon2Calibrator;
+import dev.n1xend.secureauth.security.HashingEngine;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 /**
  * Admin command: /saadmin
@@ -25,6 +39,14 @@ import java.util.UUID;
  */
 public final class AdminCommand {
 
+    private static final DateTimeFormatter BAN_EXPIRY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter EXPORT_FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneId.systemDefault());
+    private static final int HISTORY_PAGE_SIZE = 10;
+    /** Far past any real history; keeps a typo like {@code 99999999999} from walking the cursor cache. */
+    private static final int MAX_HISTORY_PAGE = 1_000;
+
     private final SecureAuthPlugin plugin;
     private final LanguageManager lang;
     private final PlayerDataService playerData;
@@ -50,7 +72,8 @@ public final class AdminCommand {
                     return true;
 
                 if (args.length == 0) {
-                    sender.sendMessage("/saadmin reload|forcelogin|resetpassword|unban|debug|history|stats|listbans");
+                    sender.sendMessage("/saadmin reload|forcelogin|resetpassword|unban|debug|history|audit|import"
+                            + "|calibrate|stats|listbans|perf");
                     return true;
                 }
 
@@ -61,8 +84,12 @@ public final class AdminCommand {
                     case "unban" -> handleUnban(sender, args);
                     case "debug" -> handleDebug(sender);
                     case "history" -> handleHistory(sender, args);
+                    case "audit" -> handleAudit(sender, args);
+                    case "import" -> handleImport(sender, args);
+                    case "calibrate" -> handleCalibrate(sender);
                     case "stats" -> handleStats(sender);
                     case "listbans" -> handleListBans(sender);
+                    case "perf" -> handlePerf(sender);
                     default -> sender.sendMessage("Unknown subcommand: " + args[0]);
                 }
                 return true;
@@ -107,11 +134,12 @@ public final class AdminCommand {
         }
 
         playerData.getAuthState(target.getUniqueId()).markAuthenticated();
+        plugin.getUnauthenticatedPlayers().remove(target.getUniqueId());
         target.removePotionEffect(org.bukkit.potion.PotionEffectType.BLINDNESS);
         lang.send(sender, "admin.forcelogin.success", "player", target.getName());
-        if (plugin.getAuditLogService() != null && target.getAddress() != null) {
+        if (plugin.getAuditLogWriter() != null && target.getAddress() != null) {
             String adminName = (sender instanceof Player p) ? p.getName() : "Console";
-            plugin.getAuditLogService().logAsync(AuditEvent.FORCE_LOGIN, target.getUniqueId(), target.getName(),
+            plugin.getAuditLogWriter().log(AuditEvent.FORCE_LOGIN, target.getUniqueId(), target.getName(),
                     target.getAddress().getAddress().getHostAddress(), "by " + adminName);
         }
     }
@@ -140,12 +168,21 @@ public final class AdminCommand {
                         .execute(() -> lang.send(sender, "admin.resetpassword.not-found", "player", targetName));
                 return;
             }
-            String newHash = plugin.getPasswordService().hash(newPassword);
+            String newHash;
+            try {
+                newHash = plugin.getHashingEngine().hash(newPassword).join();
+            } catch (CompletionException e) {
+                plugin.getMainThreadExecutor().execute(() -> lang.send(sender, "admin.resetpassword.error", "error",
+                        String.valueOf(e.getCause().getMessage())));
+                plugin.getSLF4JLogger().warn("[Admin] /saadmin resetpassword failed: {}", e.getCause().getMessage());
+                return;
+            }
             playerData.getRepository().updatePassword(targetUuid, newHash);
             playerData.invalidate(targetUuid);
-            if (plugin.getAuditLogService() != null) {
+            plugin.getClusterEvents().publish(ClusterEventBus.Type.PLAYER_CHANGED, targetUuid);
+            if (plugin.getAuditLogWriter() != null) {
                 String adminName = (sender instanceof Player p) ? p.getName() : "Console";
-                plugin.getAuditLogService().logAsync(AuditEvent.PASSWORD_RESET, targetUuid, targetName, "admin",
+                plugin.getAuditLogWriter().log(AuditEvent.PASSWORD_RESET, targetUuid, targetName, "admin",
                         "by " + adminName);
             }
             plugin.getMainThreadExecutor().execute(() -> {
@@ -165,9 +202,14 @@ public final class AdminCommand {
             return;
         }
 
+        // Accepts a single IP or the exact CIDR range that was banned (e.g. 1.2.3.0/24)
         String ip = args[1];
+        boolean removed = plugin.getIpBanService().unban(ip);
         if (antiBot.isBanned(ip)) {
             antiBot.unbanIp(ip);
+            removed = true;
+        }
+        if (removed) {
             lang.send(sender, "admin.unban.success", "ip", ip);
         } else {
             lang.send(sender, "admin.unban.not-banned", "ip", ip);
@@ -190,6 +232,15 @@ public final class AdminCommand {
         }
 
         String targetName = args[1];
+        int filterFrom = 2;
+        int page = 1;
+        int parsed = args.length > 2 ? parsePage(args[2]) : -1;
+        if (parsed > 0) {
+            page = parsed;
+            filterFrom = 3;
+        }
+        List<String> filterArgs = List.of(args).subList(filterFrom, args.length);
+        int pageNumber = page;
 
         Thread.startVirtualThread(() -> {
             try {
@@ -200,23 +251,30 @@ public final class AdminCommand {
                     return;
                 }
 
-                AuditLogService al = plugin.getAuditLogService();
-                List<AuditEntry> entries = al.getHistory(targetUuid);
+                AuditHistory.Filter filter = AuditHistory.Filter.parse(targetUuid, filterArgs);
+                AuditHistory.Page result = plugin.getAuditHistory().page(filter, pageNumber, HISTORY_PAGE_SIZE);
 
                 plugin.getMainThreadExecutor().execute(() -> {
-                    if (entries.isEmpty()) {
+                    if (result.rows().isEmpty()) {
                         lang.send(sender, "admin.history.empty", "player", targetName);
                         return;
                     }
                     lang.send(sender, "admin.history.header", "player", targetName, "count",
-                            String.valueOf(entries.size()));
-                    for (AuditEntry e : entries) {
+                            String.valueOf(result.rows().size()));
+                    for (AuditHistory.Row e : result.rows()) {
                         String detail = e.details() != null ? " <gray>(" + e.details() + ")</gray>" : "";
                         String ts = e.createdAt().length() > 16 ? e.createdAt().substring(0, 16) : e.createdAt();
-                        lang.send(sender, "admin.history.entry", "time", ts, "event", e.event().name(), "ip", e.ip(),
+                        lang.send(sender, "admin.history.entry", "time", ts, "event", e.event(), "ip", e.ip(),
                                 "detail", detail);
                     }
+                    if (result.next() != 0)
+                        lang.send(sender, "admin.history.footer", "page", String.valueOf(pageNumber), "next",
+                                "/saadmin history " + targetName + " " + (pageNumber + 1)
+                                        + (filterArgs.isEmpty() ? "" : " " + String.join(" ", filterArgs)));
                 });
+            } catch (IllegalArgumentException e) {
+                plugin.getMainThreadExecutor()
+                        .execute(() -> lang.send(sender, "admin.history.bad-filter", "error", e.getMessage()));
             } catch (Exception e) {
                 plugin.getMainThreadExecutor()
                         .execute(() -> sender.sendMessage("[SecureAuth] history error: " + e.getMessage()));
@@ -225,55 +283,236 @@ public final class AdminCommand {
         });
     }
 
-    private void handleStats(CommandSender sender) {
-        if (!requirePermission(sender, "secureauth.admin.stats"))
+    private void handleAudit(CommandSender sender, String[] args) {
+        if (!requirePermission(sender, "secureauth.admin.audit"))
             return;
+        if (args.length < 2 || !args[1].equalsIgnoreCase("export")) {
+            lang.send(sender, "admin.audit.usage");
+            return;
+        }
 
-        int online = plugin.getServer().getOnlinePlayers().size();
+        String targetName = args.length > 2 && !args[2].contains(":") ? args[2] : "*";
+        List<String> filterArgs = List.of(args).subList(args.length > 2 && !args[2].contains(":") ? 3 : 2,
+                args.length);
+        Path file = plugin.getDataFolder().toPath().resolve("exports")
+                .resolve("audit-" + EXPORT_FILE_TIME.format(Instant.now()) + ".ndjson.gz");
 
         Thread.startVirtualThread(() -> {
             try {
-                AuditLogService.Stats s = plugin.getAuditLogService().getStats(online);
-                plugin.getMainThreadExecutor().execute(() -> {
-                    lang.send(sender, "admin.stats.header");
-                    lang.send(sender, "admin.stats.players", "online", String.valueOf(s.onlinePlayers()), "total",
-                            String.valueOf(s.totalPlayers()));
-                    lang.send(sender, "admin.stats.sessions", "active", String.valueOf(s.activeSessions()));
-                    lang.send(sender, "admin.stats.bans", "active", String.valueOf(s.activeBans()));
-                    lang.send(sender, "admin.stats.fails", "count", String.valueOf(s.failsLastHour()));
-                    lang.send(sender, "admin.stats.registrations", "count", String.valueOf(s.registrationsToday()));
+                UUID targetUuid = null;
+                if (!targetName.equals("*")) {
+                    targetUuid = plugin.getServer().getPlayerUniqueId(targetName);
+                    if (targetUuid == null) {
+                        plugin.getMainThreadExecutor()
+                                .execute(() -> lang.send(sender, "admin.history.not-found", "player", targetName));
+                        return;
+                    }
+                }
+                AuditHistory.Filter filter = AuditHistory.Filter.parse(targetUuid, filterArgs);
+                plugin.getMainThreadExecutor()
+                        .execute(() -> lang.send(sender, "admin.audit.export-start", "file", file.toString()));
+
+                long start = System.currentTimeMillis();
+                long rows = plugin.getAuditHistory().export(filter, file, n -> {
+                    if (n % 100_000 == 0)
+                        plugin.getMainThreadExecutor().execute(
+                                () -> lang.send(sender, "admin.audit.export-progress", "rows", String.valueOf(n)));
                 });
+                long took = System.currentTimeMillis() - start;
+                plugin.getMainThreadExecutor().execute(() -> lang.send(sender, "admin.audit.export-done", "rows",
+                        String.valueOf(rows), "file", file.getFileName().toString(), "ms", String.valueOf(took)));
+                plugin.getSLF4JLogger().info("[Admin] {} exported {} audit rows to {}", sender.getName(), rows, file);
+            } catch (IllegalArgumentException e) {
+                plugin.getMainThreadExecutor()
+                        .execute(() -> lang.send(sender, "admin.audit.bad-filter", "error", e.getMessage()));
             } catch (Exception e) {
                 plugin.getMainThreadExecutor()
-                        .execute(() -> sender.sendMessage("[SecureAuth] stats error: " + e.getMessage()));
-                plugin.getSLF4JLogger().warn("[Admin] /saadmin stats failed: {}", e.getMessage(), e);
+                        .execute(() -> sender.sendMessage("[SecureAuth] audit export error: " + e.getMessage()));
+                plugin.getSLF4JLogger().warn("[Admin] /saadmin audit export failed: {}", e.getMessage(), e);
             }
         });
     }
 
-    private void handleListBans(CommandSender sender) {
-        if (!requirePermission(sender, "secureauth.admin.listbans"))
+    private void handleImport(CommandSender sender, String[] args) {
+        if (!requirePermission(sender, "secureauth.admin.import"))
             return;
+        if (args.length < 2) {
+            lang.send(sender, "admin.import.usage");
+            return;
+        }
 
-        Thread.startVirtualThread(() -> {
-            List<AuditLogService.BanEntry> bans = plugin.getAuditLogService().getActiveBans();
-
-            plugin.getMainThreadExecutor().execute(() -> {
-                if (bans.isEmpty()) {
-                    lang.send(sender, "admin.listbans.empty");
+        AccountImporter importer = plugin.getAccountImporter();
+        switch (args[1].toLowerCase()) {
+            case "status" -> {
+                AccountImporter.Job job = importer.current();
+                if (job == null)
+                    lang.send(sender, "admin.import.none");
+                else
+                    sendProgress(sender, job.progress());
+            }
+            case "cancel" -> lang.send(sender, importer.cancel() ? "admin.import.cancelling" : "admin.import.none");
+            default -> {
+                // Imported hashes are only checked by PasswordUpgrader; until /login goes through it
+                // the imported players could neither log in nor register again
+                if (!plugin.getPasswordUpgrader().isLoginWired()) {
+                    lang.send(sender, "admin.import.login-not-ready");
                     return;
                 }
-                lang.send(sender, "admin.listbans.header", "count", String.valueOf(bans.size()));
-                for (AuditLogService.BanEntry b : bans) {
-                    String expires = b.expiresAt() != null
-                            ? b.expiresAt().substring(0, Math.min(16, b.expiresAt().length()))
-                            : "∞";
-                    lang.send(sender, "admin.listbans.entry", "ip", b.ip(), "reason", b.reason(), "expires", expires);
+                String name = args[1];
+                boolean restart = args.length > 2 && args[2].equalsIgnoreCase("restart");
+                ImportSource source;
+                try {
+                    source = ImportSource.fromConfig(name,
+                            plugin.getConfig().getConfigurationSection("import.sources." + name));
+                } catch (IllegalArgumentException e) {
+                    lang.send(sender, "admin.import.bad-source", "error", e.getMessage());
+                    return;
                 }
-            });
+                Thread.startVirtualThread(() -> {
+                    try {
+                        importer.start(source, restart, p -> plugin.getMainThreadExecutor()
+                                .execute(() -> sendProgress(sender, p)));
+                        plugin.getMainThreadExecutor().execute(() -> lang.send(sender,
+                                restart ? "admin.import.restarted" : "admin.import.started", "source", name));
+                    } catch (IllegalStateException e) {
+                        plugin.getMainThreadExecutor()
+                                .execute(() -> lang.send(sender, "admin.import.not-started", "error", e.getMessage()));
+                    } catch (Exception e) {
+                        plugin.getMainThreadExecutor()
+                                .execute(() -> sender.sendMessage("[SecureAuth] import error: " + e.getMessage()));
+                        plugin.getSLF4JLogger().warn("[Admin] /saadmin import failed: {}", e.getMessage(), e);
+                    }
+                });
+            }
+        }
+    }
+
+    /** One progress line; the key names the job state, the counters are the same for all of them. */
+    private void sendProgress(CommandSender sender, AccountImporter.Progress p) {
+        String key;
+        if (p.failure() != null)
+            key = "admin.import.progress-failed";
+        else if (p.running())
+            key = "admin.import.progress-running";
+        else if (p.cancelled())
+            key = "admin.import.progress-stopped";
+        else
+            key = "admin.import.progress-finished";
+        lang.send(sender, key, "source", p.source(), "checkpoint", String.valueOf(p.checkpoint()), "error",
+                p.failure() != null ? String.valueOf(p.failure().getMessage()) : "", "read", String.valueOf(p.read()),
+                "rate", String.valueOf(p.rowsPerSecond()), "imported", String.valueOf(p.imported()), "existing",
+                String.valueOf(p.existing()), "rejected", String.valueOf(p.rejected()), "formats", p.formats());
+    }
+
+    private void handleCalibrate(CommandSender sender) {
+        if (!requirePermission(sender, "secureauth.admin.calibrate"))
+            return;
+
+        HashingEngine engine = plugin.getHashingEngine();
+        Argon2Calibrator calibrator = plugin.getArgon2Calibrator();
+        if (calibrator.isRunning()) {
+            lang.send(sender, "admin.calibrate.busy");
+            return;
+        }
+        lang.send(sender, "admin.calibrate.start", "params", engine.params().toString());
+        Thread.ofPlatform().name("SecureAuth-Calibrate").daemon(true).start(() -> {
+            try {
+                Argon2Calibrator.Result r = calibrator.calibrate(engine);
+                boolean applied = plugin.applyArgon2Calibration(r);
+                plugin.getMainThreadExecutor().execute(() -> {
+                    for (Argon2Calibrator.Trial t : r.trials())
+                        lang.send(sender, "admin.calibrate.trial", "params", t.params().toString(), "concurrency",
+                                String.valueOf(t.concurrency()), "p50", millis(t.p50Millis()), "p99",
+                                millis(t.p99Millis()));
+                    lang.send(sender, r.metTarget() ? "admin.calibrate.done" : "admin.calibrate.done-missed",
+                            "params", r.chosen().toString(), "ms", String.valueOf(r.elapsedMillis()));
+                    if (!applied)
+                        lang.send(sender, "admin.calibrate.not-applied", "params", r.chosen().toString());
+                });
+            } catch (IllegalStateException e) {
+                // Started elsewhere between the check above and here
+                plugin.getMainThreadExecutor().execute(() -> lang.send(sender, "admin.calibrate.busy"));
+            } catch (RuntimeException e) {
+                plugin.getMainThreadExecutor()
+                        .execute(() -> sender.sendMessage("[SecureAuth] calibration error: " + e.getMessage()));
+                plugin.getSLF4JLogger().warn("[Admin] /saadmin calibrate failed: {}", e.getMessage(), e);
+            }
         });
     }
 
+    private void handleStats(CommandSender sender) {
+        if (!requirePermission(sender, "secureauth.admin.stats"))
+            return;
+
+        // In-memory counters — O(1), safe on the main thread
+        AuthStats.Snapshot s = plugin.getAuthStats().snapshot(plugin.getServer().getOnlinePlayers().size());
+        lang.send(sender, "admin.stats.header");
+        lang.send(sender, "admin.stats.players", "online", String.valueOf(s.onlinePlayers()), "total",
+                String.valueOf(s.totalPlayers()));
+        lang.send(sender, "admin.stats.sessions", "active", String.valueOf(s.activeSessions()));
+        lang.send(sender, "admin.stats.bans", "active", String.valueOf(s.activeBans()));
+        lang.send(sender, "admin.stats.fails", "count", String.valueOf(s.failsLastHour()));
+        lang.send(sender, "admin.stats.registrations", "count", String.valueOf(s.registrationsToday()));
+        RegistrationIndex.Stats r = plugin.getRegistrationIndex().stats();
+        if (r.ready())
+            lang.send(sender, "admin.stats.registration-filter", "lookups", String.valueOf(r.lookups()),
+                    "percent", String.format(Locale.ROOT, "%.1f", r.hitRatio() * 100), "false-positives",
+                    String.valueOf(r.falsePositives()), "db-lookups", String.valueOf(r.databaseLookups()));
+        else
+            lang.send(sender, "admin.stats.registration-filter-not-ready");
+    }
+
+    private void handleListBans(CommandSender sender) {
+        if (!requirePermission(sender, "secureauth.admin.listbans"))
+            return;
+
+        // Served from the in-memory ban index — no DB round trip
+        List<IpBanIndex.Ban> bans = plugin.getIpBanService().list();
+        if (bans.isEmpty()) {
+            lang.send(sender, "admin.listbans.empty");
+            return;
+        }
+        lang.send(sender, "admin.listbans.header", "count", String.valueOf(bans.size()));
+        for (IpBanIndex.Ban b : bans) {
+            String expires = b.isPermanent() ? "∞" : BAN_EXPIRY_FORMAT.format(Instant.ofEpochMilli(b.expiresAt()));
+            lang.send(sender, "admin.listbans.entry", "ip", b.cidr(), "reason", b.reason() != null ? b.reason() : "",
+                    "expires", expires);
+        }
+    }
+
+    private void handlePerf(CommandSender sender) {
+        if (!requirePermission(sender, "secureauth.admin.perf"))
+            return;
+
+        // Percentiles cover the last 1-2 minutes; counts are since startup
+        lang.send(sender, "admin.perf.timers-header");
+        for (var e : plugin.getMetrics().timerSnapshots().entrySet()) {
+            LatencyHistogram.Snapshot s = e.getValue();
+            if (s.count() == 0)
+                continue;
+            lang.send(sender, "admin.perf.timer", "name", e.getKey(), "count", String.valueOf(s.count()),
+                    "p50", millis(s.p50Millis()), "p99", millis(s.p99Millis()), "max", millis(s.maxMillis()));
+        }
+        lang.send(sender, "admin.perf.counters-header");
+        for (var e : plugin.getMetrics().counterValues().entrySet())
+            lang.send(sender, "admin.perf.counter", "name", e.getKey(), "value", String.valueOf(e.getValue()));
+    }
+
+    /** @return the page number in {@code arg}, clamped to 1..{@value #MAX_HISTORY_PAGE}, or -1 if it is not one */
+    private static int parsePage(String arg) {
+        if (arg.isEmpty() || !arg.chars().allMatch(c -> c >= '0' && c <= '9'))
+            return -1;
+        try {
+            return Math.clamp(Integer.parseInt(arg), 1, MAX_HISTORY_PAGE);
+        } catch (NumberFormatException e) {
+            return MAX_HISTORY_PAGE; // all digits, only too long for an int
+        }
+    }
+
+    private static String millis(double ms) {
+        return String.format(Locale.ROOT, "%.2f", ms);
+    }
+
     private boolean requirePermission(CommandSender sender, String permission) {
         if (!sender.hasPermission(permission)) {
             lang.send(sender, "admin.no-permission");
@@ -0,0 +1,65 @@
+package dev.n1xend.secureauth.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Read and write access for the background writers (sessions, audit log, IP bans, cluster events).
+ *
+ * <p>Reads borrow a connection and close it when done. Writes are handed over as a
+ * {@link Transaction} so the backend decides how they reach the database: {@link #pooled} runs
+ * each one on its own pooled connection, {@link SqliteEngine} funnels all of them through a
+ * single writer thread and commits them in groups.
+ */
+public interface SqlStore {
+
+    /** @return a connection for queries; close it to give it back */
+    Connection read() throws SQLException;
+
+    /**
+     * Runs {@code tx} in a transaction and commits it. If {@code tx} throws, its changes are
+     * rolled back and the exception is rethrown to the caller.
+     */
+    <T> T write(Transaction<T> tx) throws SQLException;
+
+    /** @return {@code true} for MySQL/MariaDB, {@code false} for SQLite */
+    boolean isMysql();
+
+    /** Work done inside a write transaction. Must not commit, roll back or close {@code c}. */
+    @FunctionalInterface
+    interface Transaction<T> {
+        T run(Connection c) throws SQLException;
+    }
+
+    /** One pooled connection per read and per transaction — the MySQL path. */
+    static SqlStore pooled(DatabaseManager database) {
+        return new SqlStore() {
+            @Override
+            public Connection read() throws SQLException {
+                return database.getConnection();
+            }
+
+            @Override
+            public <T> T write(Transaction<T> tx) throws SQLException {
+                try (Connection c = database.getConnection()) {
+                    c.setAutoCommit(false);
+                    try {
+                        T result = tx.run(c);
+                        c.commit();
+                        return result;
+                    } catch (SQLException | RuntimeException e) {
+                        c.rollback();
+                        throw e;
+                    } finally {
+                        c.setAutoCommit(true);
+                    }
+                }
+            }
+
+            @Override
+            public boolean isMysql() {
+                return database.isMysql();
+            }
+        };
+    }
+}
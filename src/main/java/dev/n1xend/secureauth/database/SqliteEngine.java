@@ -0,0 +1,412 @@
+package dev.n1xend.secureauth.database;
+
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+import org.sqlite.SQLiteConfig;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SQLite backend for {@link SqlStore}: WAL journal, one writer thread, a pool of read-only
+ * connections.
+ *
+ * <p>SQLite allows a single writer at a time. Going through HikariCP, every pooled connection
+ * may try to write and the losers spin on {@code busy_timeout} ("database is locked") while the
+ * winner fsyncs. Here every {@link SqlStore} write is queued to the
+ * {@code SecureAuth-SqliteWriter} thread, which drains up to {@code max-batch} queued
+ * transactions, runs each inside its own {@code SAVEPOINT} and commits them together, so a
+ * burst of session, audit and ban writes costs one fsync instead of one per caller. A
+ * transaction that throws is rolled back to its savepoint without affecting the others in the
+ * group.
+ *
+ * <p>This is the only writer among the {@link SqlStore} users, not for the file: code that still
+ * writes through {@link DatabaseManager#getConnection()} (HikariCP) opens its own write
+ * transactions on the same file and competes with this thread through {@code busy_timeout}. Both
+ * sides wait rather than fail, but only writes queued here are grouped.
+ *
+ * <p>In WAL mode readers never block the writer and vice versa, so {@link #read} hands out
+ * connections opened read-only. {@code journal_mode=WAL} is persistent in the file, so the
+ * HikariCP connections run in WAL mode as well.
+ */
+public final class SqliteEngine implements SqlStore {
+
+    private static final Write<?> SHUTDOWN = new Write<>(null);
+
+    private final String url;
+    private final Settings settings;
+    private final Logger log;
+    private final Connection writer;
+    private final BlockingQueue<Write<?>> queue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Connection> readers;
+    private final List<Connection> allReaders = new ArrayList<>();
+    private final LatencyHistogram commitTimer;
+    private final LatencyHistogram waitTimer;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /** Opens the writer and the read pool; the writer switches the file to WAL first. */
+    public SqliteEngine(Path file, Settings settings, MetricsRegistry metrics, Logger log) throws SQLException {
+        this.url = "jdbc:sqlite:" + file.toAbsolutePath();
+        this.settings = settings;
+        this.log = log;
+        this.commitTimer = metrics.timer(MetricsRegistry.SQLITE_COMMIT);
+        this.waitTimer = metrics.timer(MetricsRegistry.SQLITE_WRITE_WAIT);
+        this.writer = open(false);
+        this.readers = new ArrayBlockingQueue<>(settings.readConnections());
+        try {
+            for (int i = 0; i < settings.readConnections(); i++) {
+                Connection c = open(true);
+                allReaders.add(c);
+                readers.add(c);
+            }
+        } catch (SQLException e) {
+            closeConnections();
+            throw e;
+        }
+        this.writerThread = Thread.ofPlatform().name("SecureAuth-SqliteWriter").daemon(true).start(this::writeLoop);
+        log.info("[SecureAuth] SQLite engine: WAL, synchronous={}, mmap={}MiB, {} reader(s).",
+                settings.synchronous(), settings.mmapSizeBytes() >> 20, settings.readConnections());
+    }
+
+    private Connection open(boolean readOnly) throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(settings.busyTimeoutMillis());
+        config.setSynchronous(settings.synchronous());
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        // Negative = KiB rather than pages
+        config.setCacheSize(-settings.cacheSizeKib());
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(settings.mmapSizeBytes()));
+        if (readOnly)
+            config.setReadOnly(true);
+        else
+            config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        return config.createConnection(url);
+    }
+
+    // ── SqlStore ──────────────────────────────────────────────────────────────
+
+    @Override
+    public Connection read() throws SQLException {
+        Connection c;
+        try {
+            c = readers.poll(settings.busyTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a SQLite read connection", e);
+        }
+        if (c == null)
+            throw new SQLException("No SQLite read connection free within " + settings.busyTimeoutMillis() + "ms");
+        return lease(c);
+    }
+
+    /**
+     * Queues {@code tx} and waits for the group it lands in to commit, at most
+     * {@code write-timeout-ms}. A transaction that times out while still queued is withdrawn; one
+     * the writer has already started may still commit after the caller gave up.
+     */
+    @Override
+    public <T> T write(Transaction<T> tx) throws SQLException {
+        // A transaction that writes again joins the one already open instead of deadlocking
+        if (Thread.currentThread() == writerThread)
+            return tx.run(writer);
+        Write<T> w = enqueue(tx);
+        try {
+            return w.future.get(settings.writeTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            boolean withdrawn = queue.remove(w);
+            throw new SQLTimeoutException("SQLite writer did not commit within " + settings.writeTimeoutMillis()
+                    + "ms" + (withdrawn ? "" : " (the write may still be applied)"));
+        } catch (InterruptedException e) {
+            queue.remove(w);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the SQLite writer", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sql)
+                throw sql;
+            if (cause instanceof RuntimeException re)
+                throw re;
+            throw new SQLException(cause);
+        }
+    }
+
+    /** Queues {@code tx} without waiting; the future completes once its group has committed. */
+    public <T> CompletableFuture<T> submit(Transaction<T> tx) {
+        return enqueue(tx).future;
+    }
+
+    private <T> Write<T> enqueue(Transaction<T> tx) {
+        Write<T> w = new Write<>(tx);
+        if (!running) {
+            w.future.completeExceptionally(new SQLException("SQLite engine is closed"));
+            return w;
+        }
+        queue.add(w);
+        // Lost the race with close(): the writer may already have drained its last batch
+        if (!running && queue.remove(w))
+            w.future.completeExceptionally(new SQLException("SQLite engine is closed"));
+        return w;
+    }
+
+    @Override
+    public boolean isMysql() {
+        return false;
+    }
+
+    public Stats stats() {
+        return new Stats(writes.get(), commits.get(), failed.get(), queue.size(), readers.size());
+    }
+
+    // ── Writer thread ─────────────────────────────────────────────────────────
+
+    private void writeLoop() {
+        List<Write<?>> batch = new ArrayList<>(settings.maxBatch());
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue; // only close() may stop the writer
+            }
+            queue.drainTo(batch, settings.maxBatch() - 1);
+            stopping = batch.remove(SHUTDOWN);
+            if (stopping)
+                queue.drainTo(batch);
+            try {
+                commit(batch);
+            } catch (Throwable t) {
+                // The writer must outlive any transaction: fail this group, keep serving the queue
+                rollbackQuietly();
+                failed.addAndGet(batch.size());
+                log.error("[SecureAuth] SQLite writer failed on a group of {} write(s).", batch.size(), t);
+                for (Write<?> w : batch)
+                    w.future.completeExceptionally(t);
+            }
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Write<?>> batch) {
+        if (batch.isEmpty())
+            return;
+        long start = System.nanoTime();
+        List<Write<?>> applied = new ArrayList<>(batch.size());
+        try (Statement st = writer.createStatement()) {
+            st.execute("BEGIN IMMEDIATE");
+            for (Write<?> w : batch) {
+                waitTimer.record(start - w.queuedAt);
+                st.execute("SAVEPOINT sa_write");
+                try {
+                    w.apply(writer);
+                    st.execute("RELEASE sa_write");
+                    applied.add(w);
+                } catch (SQLException | RuntimeException e) {
+                    st.execute("ROLLBACK TO sa_write");
+                    st.execute("RELEASE sa_write");
+                    failed.incrementAndGet();
+                    w.future.completeExceptionally(e);
+                }
+            }
+            st.execute("COMMIT");
+        } catch (SQLException e) {
+            rollbackQuietly();
+            failed.addAndGet(applied.size());
+            log.warn("[SecureAuth] SQLite group commit of {} write(s) failed: {}", applied.size(), e.getMessage());
+            for (Write<?> w : applied)
+                w.future.completeExceptionally(e);
+            return;
+        }
+        commitTimer.recordSince(start);
+        commits.incrementAndGet();
+        writes.addAndGet(applied.size());
+        for (Write<?> w : applied)
+            w.complete();
+    }
+
+    private void rollbackQuietly() {
+        try (Statement st = writer.createStatement()) {
+            st.execute("ROLLBACK");
+        } catch (SQLException ignored) {
+            // No transaction left open — nothing to undo
+        }
+    }
+
+    // ── Read pool ─────────────────────────────────────────────────────────────
+
+    /** Wraps a pooled reader so that {@code close()} returns it instead of closing it. */
+    private Connection lease(Connection c) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(SqliteEngine.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (returned.compareAndSet(false, true))
+                                release(c);
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            if (returned.get())
+                                return true;
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            if (returned.get())
+                                throw new SQLException("Connection has already been closed");
+                        }
+                    }
+                    try {
+                        return method.invoke(c, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void release(Connection c) {
+        try {
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.warn("[SecureAuth] Could not reset SQLite read connection: {}", e.getMessage());
+        }
+        if (running)
+            readers.add(c);
+    }
+
+    // ── Shutdown ──────────────────────────────────────────────────────────────
+
+    /**
+     * Commits everything still queued, checkpoints the WAL into the main file and closes all
+     * connections. Call after every component that writes through this engine has shut down.
+     */
+    public void close() {
+        if (!running)
+            return;
+        running = false;
+        queue.add(SHUTDOWN);
+        try {
+            writerThread.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Write<?> w; (w = queue.poll()) != null;)
+            w.future.completeExceptionally(new SQLException("SQLite engine is closed"));
+        try (Statement st = writer.createStatement()) {
+            st.execute("PRAGMA optimize");
+            st.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+        } catch (SQLException e) {
+            log.warn("[SecureAuth] SQLite checkpoint on shutdown failed: {}", e.getMessage());
+        }
+        closeConnections();
+    }
+
+    private void closeConnections() {
+        for (Connection c : allReaders)
+            closeQuietly(c);
+        closeQuietly(writer);
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException ignored) {
+            // Closing anyway
+        }
+    }
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    private static final class Write<T> {
+
+        final Transaction<T> tx;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long queuedAt = System.nanoTime();
+        T result;
+
+        Write(Transaction<T> tx) {
+            this.tx = tx;
+        }
+
+        void apply(Connection c) throws SQLException {
+            result = tx.run(c);
+        }
+
+        void complete() {
+            future.complete(result);
+        }
+    }
+
+    /**
+     * @param readConnections   size of the read-only pool
+     * @param maxBatch          transactions committed together at most
+     * @param synchronous       {@code PRAGMA synchronous}; NORMAL is durable against crashes of
+     *                          the process in WAL mode and only loses the last commits on power loss
+     * @param mmapSizeBytes     {@code PRAGMA mmap_size}; 0 disables memory-mapped reads
+     * @param cacheSizeKib      page cache per connection
+     * @param busyTimeoutMillis  how long to wait for a lock held by another connection, and for a free reader
+     * @param writeTimeoutMillis how long {@link #write} waits for its group to commit
+     */
+    public record Settings(int readConnections, int maxBatch, SQLiteConfig.SynchronousMode synchronous,
+            long mmapSizeBytes, int cacheSizeKib, int busyTimeoutMillis, long writeTimeoutMillis) {
+
+        /** Reads the {@code database.sqlite} section of {@code config.yml}; {@code null} yields defaults. */
+        public static Settings fromConfig(ConfigurationSection sqlite) {
+            if (sqlite == null)
+                return new Settings(4, 256, SQLiteConfig.SynchronousMode.NORMAL, 256L << 20, 16_384, 5000, 30_000);
+            SQLiteConfig.SynchronousMode sync;
+            try {
+                sync = SQLiteConfig.SynchronousMode
+                        .valueOf(sqlite.getString("synchronous", "NORMAL").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                sync = SQLiteConfig.SynchronousMode.NORMAL;
+            }
+            return new Settings(Math.max(1, sqlite.getInt("read-connections", 4)),
+                    Math.max(1, sqlite.getInt("max-batch", 256)), sync,
+                    Math.max(0, sqlite.getLong("mmap-size-mb", 256)) << 20,
+                    Math.max(512, sqlite.getInt("cache-size-kb", 16_384)),
+                    Math.max(100, sqlite.getInt("busy-timeout-ms", 5000)),
+                    Math.max(1000, sqlite.getLong("write-timeout-ms", 30_000)));
+        }
+    }
+
+    /**
+     * @param writes      transactions committed
+     * @param commits     group commits (fsyncs)
+     * @param failed      transactions rolled back
+     * @param queued      transactions waiting for the writer
+     * @param idleReaders read connections currently free
+     */
+    public record Stats(long writes, long commits, long failed, int queued, int idleReaders) {
+    }
+}
@@ -0,0 +1,295 @@
+package dev.n1xend.secureauth.email;
+
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import jakarta.mail.Authenticator;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.PasswordAuthentication;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.slf4j.Logger;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background SMTP delivery over a small pool of persistent connections.
+ *
+ * <p>{@link #submit} only enqueues and returns a future, so a caller such as {@code /recover} can
+ * answer the player immediately. Each worker thread owns one {@link Transport} and keeps it open
+ * between messages: the TCP connect, STARTTLS handshake and AUTH — most of the cost of a mail on
+ * Gmail — are paid once per connection instead of once per message. An idle connection is
+ * closed after {@code idle-seconds}; a broken one is reopened on the next attempt.
+ *
+ * <p>Failed sends are retried with exponential backoff up to {@code max-retries} times. The
+ * queue is bounded; when it is full, {@link #submit} fails fast instead of piling up work.
+ * Every delivery reports how long it waited in the queue and how long SMTP took.
+ */
+public final class MailQueue {
+
+    private static final Job SHUTDOWN = new Job(null, null, null, null, 0);
+
+    private final Settings settings;
+    private final Logger log;
+    private final Session session;
+    private final InternetAddress from;
+    private final BlockingQueue<Job> queue;
+    private final Thread[] workers;
+    private final LatencyHistogram deliveryTimer;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public MailQueue(Settings settings, MetricsRegistry metrics, Logger log) throws UnsupportedEncodingException {
+        this.settings = settings;
+        this.log = log;
+        this.deliveryTimer = metrics.timer(MetricsRegistry.MAIL_DELIVERY);
+        this.session = createSession(settings);
+        this.from = new InternetAddress(settings.from(), settings.fromName(), "UTF-8");
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        this.workers = new Thread[settings.connections()];
+        for (int i = 0; i < workers.length; i++)
+            workers[i] = Thread.ofPlatform().name("SecureAuth-Mail-" + (i + 1)).daemon(true).start(this::workLoop);
+    }
+
+    // ── Public API ────────────────────────────────────────────────────────────
+
+    /**
+     * Queues an HTML mail. Never blocks.
+     *
+     * @return completes with the delivery timings, or exceptionally with the last
+     *         {@link MessagingException} once retries are exhausted, or with
+     *         {@link RejectedExecutionException} if the queue is full
+     */
+    public CompletableFuture<Delivery> submit(String to, String subject, String html) {
+        CompletableFuture<Delivery> future = new CompletableFuture<>();
+        if (!queue.offer(new Job(to, subject, html, future, System.nanoTime()))) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(
+                    new RejectedExecutionException("Mail queue full (" + settings.queueCapacity() + ")"));
+        }
+        return future;
+    }
+
+    public Stats stats() {
+        long count = sent.get();
+        return new Stats(count, failed.get(), rejected.get(), retries.get(), queue.size(),
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / count),
+                TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+    }
+
+    /** Delivers what is queued, then closes every connection. Waits at most {@code timeoutMillis}. */
+    public void shutdown(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            for (int i = 0; i < workers.length; i++) {
+                if (!queue.offer(SHUTDOWN, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS))
+                    break;
+            }
+            for (Thread worker : workers)
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Thread worker : workers) {
+            if (worker.isAlive())
+                worker.interrupt();
+        }
+        for (Job job; (job = queue.poll()) != null;) {
+            if (job != SHUTDOWN)
+                job.future().completeExceptionally(new RejectedExecutionException("Mail queue shut down"));
+        }
+    }
+
+    // ── Worker threads ────────────────────────────────────────────────────────
+
+    private void workLoop() {
+        Transport transport = null;
+        try {
+            while (true) {
+                Job job = queue.poll(settings.idleTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                if (job == null) {
+                    transport = close(transport);
+                    continue;
+                }
+                if (job == SHUTDOWN)
+                    return;
+                transport = deliver(job, transport);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(transport);
+        }
+    }
+
+    /** Sends {@code job}, retrying with backoff. @return the connection to keep using */
+    private Transport deliver(Job job, Transport transport) throws InterruptedException {
+        MimeMessage message;
+        try {
+            message = new MimeMessage(session);
+            message.setFrom(from);
+            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(job.to(), true));
+            message.setSubject(job.subject(), "UTF-8");
+            message.setContent(job.html(), "text/html; charset=UTF-8");
+            message.saveChanges();
+        } catch (MessagingException e) {
+            // Malformed address or content — retrying cannot help
+            failed.incrementAndGet();
+            job.future().completeExceptionally(e);
+            return transport;
+        }
+
+        for (int attempt = 0;; attempt++) {
+            long start = System.nanoTime();
+            try {
+                if (transport == null || !transport.isConnected()) {
+                    transport = session.getTransport("smtp");
+                    transport.connect(settings.host(), settings.port(), settings.username(), settings.password());
+                }
+                transport.sendMessage(message, message.getAllRecipients());
+                long end = System.nanoTime();
+                record(end - job.enqueuedNanos());
+                sent.incrementAndGet();
+                Delivery delivery = new Delivery(attempt + 1, start - job.enqueuedNanos(), end - start);
+                log.debug("[SecureAuth] Mail to {} delivered in {}ms (queued {}ms, attempt {}).", job.to(),
+                        TimeUnit.NANOSECONDS.toMillis(delivery.sendNanos()),
+                        TimeUnit.NANOSECONDS.toMillis(delivery.queuedNanos()), delivery.attempts());
+                job.future().complete(delivery);
+                return transport;
+            } catch (MessagingException e) {
+                transport = close(transport);
+                if (attempt >= settings.maxRetries()) {
+                    failed.incrementAndGet();
+                    log.warn("[SecureAuth] Mail to {} failed after {} attempt(s): {}", job.to(), attempt + 1,
+                            e.getMessage());
+                    job.future().completeExceptionally(e);
+                    return null;
+                }
+                retries.incrementAndGet();
+                try {
+                    Thread.sleep(settings.retryBackoff().toMillis() << attempt);
+                } catch (InterruptedException ie) {
+                    failed.incrementAndGet();
+                    job.future().completeExceptionally(e);
+                    throw ie;
+                }
+            }
+        }
+    }
+
+    private void record(long latencyNanos) {
+        deliveryTimer.record(latencyNanos);
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("[SecureAuth] Closing SMTP connection: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static Session createSession(Settings settings) {
+        Properties props = new Properties();
+        props.put("mail.smtp.host", settings.host());
+        props.put("mail.smtp.port", String.valueOf(settings.port()));
+        props.put("mail.smtp.auth", String.valueOf(!settings.username().isEmpty()));
+        if (settings.tls()) {
+            props.put("mail.smtp.starttls.enable", "true");
+            props.put("mail.smtp.starttls.required", "true");
+            props.put("mail.smtp.ssl.protocols", "TLSv1.2 TLSv1.3");
+        }
+        String timeout = String.valueOf(settings.timeout().toMillis());
+        props.put("mail.smtp.connectiontimeout", timeout);
+        props.put("mail.smtp.timeout", timeout);
+        props.put("mail.smtp.writetimeout", timeout);
+        return Session.getInstance(props, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(settings.username(), settings.password());
+            }
+        });
+    }
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    private record Job(String to, String subject, String html, CompletableFuture<Delivery> future,
+            long enqueuedNanos) {
+    }
+
+    /**
+     * @param attempts    SMTP attempts it took
+     * @param queuedNanos time from {@link #submit} until the successful attempt started
+     * @param sendNanos   time the successful attempt took, including a reconnect if one was needed
+     */
+    public record Delivery(int attempts, long queuedNanos, long sendNanos) {
+    }
+
+    /**
+     * @param sent         mails delivered
+     * @param failed       mails given up on
+     * @param rejected     mails refused because the queue was full
+     * @param retries      retried attempts
+     * @param queued       mails waiting
+     * @param avgLatencyMs mean submit-to-delivered time
+     * @param maxLatencyMs worst submit-to-delivered time
+     */
+    public record Stats(long sent, long failed, long rejected, long retries, int queued, long avgLatencyMs,
+            long maxLatencyMs) {
+    }
+
+    /**
+     * SMTP account from {@code email.smtp} plus pool tuning from {@code email.delivery}.
+     *
+     * @param connections   persistent SMTP connections (= worker threads)
+     * @param queueCapacity mails buffered before {@link #submit} rejects
+     * @param maxRetries    attempts after the first
+     * @param retryBackoff  delay before the first retry, doubled each time
+     * @param idleTimeout   an unused connection is closed after this long
+     * @param timeout       connect / read / write timeout
+     */
+    public record Settings(String host, int port, String username, String password, String from, String fromName,
+            boolean tls, int connections, int queueCapacity, int maxRetries, Duration retryBackoff,
+            Duration idleTimeout, Duration timeout) {
+
+        /** Reads the {@code email} section of {@code config.yml}. */
+        public static Settings fromConfig(ConfigurationSection email) {
+            ConfigurationSection smtp = email.getConfigurationSection("smtp");
+            if (smtp == null)
+                throw new IllegalArgumentException("email.smtp section missing");
+            ConfigurationSection delivery = email.getConfigurationSection("delivery");
+            if (delivery == null)
+                delivery = new MemoryConfiguration();
+            return new Settings(smtp.getString("host", "localhost"), smtp.getInt("port", 587),
+                    smtp.getString("username", ""), smtp.getString("password", ""),
+                    smtp.getString("from", "noreply@example.com"), smtp.getString("from-name", "SecureAuth"),
+                    smtp.getBoolean("tls", true), Math.max(1, delivery.getInt("connections", 2)),
+                    Math.max(1, delivery.getInt("queue-capacity", 256)), Math.max(0, delivery.getInt("max-retries", 3)),
+                    Duration.ofMillis(Math.max(100, delivery.getLong("retry-backoff-ms", 2000))),
+                    Duration.ofSeconds(Math.max(5, delivery.getLong("idle-seconds", 60))),
+                    Duration.ofSeconds(Math.max(1, delivery.getLong("timeout-seconds", 15))));
+        }
+    }
+}
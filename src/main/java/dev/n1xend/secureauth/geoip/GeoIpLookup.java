@@ -0,0 +1,269 @@
+package dev.n1xend.secureauth.geoip;
+
+import com.maxmind.db.Network;
+import com.maxmind.db.Reader;
+import com.maxmind.geoip2.DatabaseReader;
+import com.maxmind.geoip2.exception.GeoIp2Exception;
+import com.maxmind.geoip2.model.CountryResponse;
+import dev.n1xend.secureauth.util.IpAddresses;
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Country lookups against a memory-mapped GeoLite2-Country database, fronted by a compact cache.
+ *
+ * <p>Results are cached per network as the database reports it ({@code Traits.getNetwork()}),
+ * as a two-letter code packed into 16 bits. A network of /24 or wider is stored under its /24,
+ * which every address in it shares; a narrower IPv4 network is stored per address (/32). IPv6
+ * networks of /48 or wider are stored under their /48; narrower ones are not cached, as a /64
+ * key leaves no room for the code. Each cache is a direct-mapped {@link AtomicLongArray} whose
+ * entries carry the key next to the code, so a hit is at most two array reads and key compares
+ * with no allocation and no locking; a colliding key simply overwrites the slot.
+ *
+ * <p>The reader and its caches form one immutable {@link Generation} behind a volatile field.
+ * {@link #reloadIfChanged} opens a changed {@code .mmdb} next to the live one and swaps the
+ * generation in a single write, so lookups never wait. The replaced reader is closed on the
+ * following check, long after any in-flight lookup on it has finished.
+ */
+public final class GeoIpLookup {
+
+    /** Packed code for addresses the database has no country for. */
+    private static final int UNKNOWN = 0xFFFF;
+    /** Prefix length reported for addresses without a record; cached per address only. */
+    private static final int NO_NETWORK = 128;
+    /** Tags per-address IPv4 keys so they cannot equal a /24 key. */
+    private static final long EXACT = 1L << 62;
+
+    private static final ThreadLocal<long[]> SCRATCH = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final Path file;
+    private final Settings settings;
+    private final Logger log;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile Generation current;
+    /** Reader replaced by the last swap, closed on the next check. Touched by the reload caller only. */
+    private DatabaseReader retired;
+
+    public GeoIpLookup(Path file, Settings settings, Logger log) {
+        this.file = file;
+        this.settings = settings;
+        this.log = log;
+    }
+
+    // ── Lookups ───────────────────────────────────────────────────────────────
+
+    /**
+     * @return the ISO 3166-1 alpha-2 code for {@code ip}, or {@code null} if it is unknown or no
+     *         database is loaded
+     */
+    public String countryCode(InetAddress ip) {
+        Generation g = current;
+        if (g == null)
+            return null;
+
+        long[] addr = SCRATCH.get();
+        if (IpAddresses.parse(ip, addr) == IpAddresses.IPV4) {
+            // keys are shifted left 16 to make room for the code
+            long wide = (addr[1] >>> 8) << 16;
+            long exact = EXACT | (addr[1] & 0xFFFFFFFFL) << 16;
+            int code = cached(g.v4Cache, wide);
+            if (code == 0)
+                code = cached(g.v4Cache, exact);
+            if (code != 0)
+                return hit(code);
+            misses.increment();
+            int resolved = resolve(g.reader, ip);
+            code = resolved & 0xFFFF;
+            store(g.v4Cache, (resolved >>> 16) <= 24 ? wide : exact, code);
+            return decode(code);
+        }
+
+        long wide = (addr[0] >>> 16) << 16;
+        int code = cached(g.v6Cache, wide);
+        if (code != 0)
+            return hit(code);
+        misses.increment();
+        int resolved = resolve(g.reader, ip);
+        code = resolved & 0xFFFF;
+        if ((resolved >>> 16) <= 48)
+            store(g.v6Cache, wide, code);
+        return decode(code);
+    }
+
+    private String hit(int code) {
+        hits.increment();
+        return decode(code);
+    }
+
+    /** @return the code cached under {@code key}, or 0 */
+    private static int cached(AtomicLongArray cache, long key) {
+        long entry = cache.get(slot(key, cache.length()));
+        return (entry & ~0xFFFFL) == key ? (int) (entry & 0xFFFF) : 0;
+    }
+
+    private static void store(AtomicLongArray cache, long key, int code) {
+        cache.lazySet(slot(key, cache.length()), key | code);
+    }
+
+    /** @return the network's prefix length in the high 16 bits, the packed code in the low 16 */
+    private int resolve(DatabaseReader reader, InetAddress ip) {
+        try {
+            Optional<CountryResponse> response = reader.tryCountry(ip);
+            if (response.isEmpty())
+                return NO_NETWORK << 16 | UNKNOWN;
+            Network network = response.get().getTraits().getNetwork();
+            int prefix = network == null ? NO_NETWORK : network.getPrefixLength();
+            return prefix << 16 | encode(response.get().getCountry().getIsoCode());
+        } catch (IOException | GeoIp2Exception e) {
+            return NO_NETWORK << 16 | UNKNOWN;
+        }
+    }
+
+    // ── Loading / hot swap ────────────────────────────────────────────────────
+
+    /** Opens the database. @return {@code false} if the file is missing or unreadable */
+    public boolean open() {
+        return reloadIfChanged() || current != null;
+    }
+
+    /**
+     * Swaps in a fresh reader if the {@code .mmdb} changed on disk since the last load. Call
+     * periodically from a background thread.
+     *
+     * <p>Replace the file by writing a temporary copy and renaming it over the original: the
+     * live mapping then keeps pointing at the old inode. Overwriting the file in place would
+     * corrupt lookups that are running against the mapping.
+     *
+     * @return {@code true} if a new database was loaded
+     */
+    public synchronized boolean reloadIfChanged() {
+        closeRetired();
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            if (current == null)
+                log.warn("[SecureAuth] GeoIP database not found at {} — country checks disabled.", file);
+            return false;
+        }
+        Generation g = current;
+        long modified = attrs.lastModifiedTime().toMillis();
+        if (g != null && g.modified == modified && g.size == attrs.size())
+            return false;
+
+        DatabaseReader reader;
+        try {
+            reader = new DatabaseReader.Builder(file.toFile()).fileMode(Reader.FileMode.MEMORY_MAPPED).build();
+        } catch (IOException e) {
+            log.warn("[SecureAuth] Could not open GeoIP database {}: {}", file, e.getMessage());
+            return false;
+        }
+        current = new Generation(reader, modified, attrs.size(), new AtomicLongArray(settings.cacheSlots()),
+                new AtomicLongArray(settings.cacheSlots()));
+        if (g != null) {
+            retired = g.reader;
+            log.info("[SecureAuth] GeoIP database reloaded ({}, build {}).", file.getFileName(),
+                    reader.getMetadata().getBuildDate());
+        } else {
+            log.info("[SecureAuth] GeoIP database loaded ({}, build {}).", file.getFileName(),
+                    reader.getMetadata().getBuildDate());
+        }
+        return true;
+    }
+
+    public synchronized void close() {
+        closeRetired();
+        Generation g = current;
+        current = null;
+        if (g != null)
+            closeQuietly(g.reader);
+    }
+
+    private void closeRetired() {
+        if (retired != null) {
+            closeQuietly(retired);
+            retired = null;
+        }
+    }
+
+    private void closeQuietly(DatabaseReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.debug("[SecureAuth] Closing GeoIP reader: {}", e.getMessage());
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), current != null);
+    }
+
+    // ── Encoding ──────────────────────────────────────────────────────────────
+
+    private static int slot(long key, int length) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & (length - 1);
+    }
+
+    /** Two ASCII letters in 16 bits; never 0, so 0 marks an empty slot. */
+    private static int encode(String iso) {
+        if (iso == null || iso.length() != 2 || !isLetter(iso.charAt(0)) || !isLetter(iso.charAt(1)))
+            return UNKNOWN;
+        return (iso.charAt(0) << 8) | iso.charAt(1);
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static String decode(int code) {
+        return code == UNKNOWN ? null : COUNTRY_CODES[code >>> 8 & 0x1F][code & 0x1F];
+    }
+
+    /** Interned codes so decoding a hit does not allocate. Indexed by the low five bits of each letter. */
+    private static final String[][] COUNTRY_CODES = new String[32][32];
+
+    static {
+        for (char a = 'A'; a <= 'Z'; a++) {
+            for (char b = 'A'; b <= 'Z'; b++)
+                COUNTRY_CODES[a & 0x1F][b & 0x1F] = ("" + a + b).intern();
+        }
+    }
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    /** One loaded database together with the caches filled from it. */
+    private record Generation(DatabaseReader reader, long modified, long size, AtomicLongArray v4Cache,
+            AtomicLongArray v6Cache) {
+    }
+
+    /**
+     * @param cacheSlots slots per address family, rounded up to a power of two
+     */
+    public record Settings(int cacheSlots) {
+
+        /** Reads the {@code geoip} section of {@code config.yml}; {@code null} yields defaults. */
+        public static Settings fromConfig(ConfigurationSection geoip) {
+            int slots = geoip == null ? 65536 : geoip.getInt("cache-size", 65536);
+            return new Settings(Math.max(1024, Integer.highestOneBit(Math.max(1, slots - 1)) << 1));
+        }
+    }
+
+    /**
+     * @param hits   lookups answered from the cache
+     * @param misses lookups that went to the database
+     * @param loaded whether a database is currently open
+     */
+    public record Stats(long hits, long misses, boolean loaded) {
+    }
+}
@@ -0,0 +1,424 @@
+package dev.n1xend.secureauth.importer;
+
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.security.HashFormat;
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Bulk import of accounts from other auth plugins into {@code sa_players}.
+ *
+ * <p>A reader thread streams the source and cuts it into chunks of {@code chunk-size} rows; a
+ * bounded queue hands the chunks to {@code writers} threads, each of which inserts a chunk with
+ * one JDBC batch in one transaction. Password hashes are copied as they are — the format is
+ * only detected to skip unusable rows (including PBKDF2 hashes with a round count or key that
+ * could not be verified) and for the report; legacy hashes are upgraded to Argon2id on the
+ * player's next login (see {@link HashFormat}), which needs the login path to verify through
+ * {@code PasswordUpgrader}. Existing accounts are never overwritten ({@code INSERT OR IGNORE} /
+ * {@code INSERT IGNORE}).
+ *
+ * <p>Progress is checkpointed in {@code sa_import_progress} as the highest source key below
+ * which every chunk has committed. Chunks commit out of order, so the checkpoint trails the
+ * fastest writer; after an interruption the import resumes from it, and rows that were already
+ * written are ignored by the insert.
+ */
+public final class AccountImporter {
+
+    private static final Chunk END = new Chunk(-1, List.of());
+
+    private final SqlStore database;
+    private final Settings settings;
+    private final Logger log;
+    private final AtomicReference<Job> current = new AtomicReference<>();
+    private volatile Consumer<UUID> importedListener = uuid -> {};
+
+    public AccountImporter(SqlStore database, Settings settings, Logger log) {
+        this.database = database;
+        this.settings = settings;
+        this.log = log;
+    }
+
+    /** Called from a writer thread with the UUID of every account inserted, once its chunk has committed. */
+    public void setImportedListener(Consumer<UUID> listener) {
+        this.importedListener = listener;
+    }
+
+    /**
+     * Starts importing {@code source} in the background, resuming from its checkpoint unless
+     * {@code restart} is set.
+     *
+     * @param progress called from a background thread every {@code progress-interval-seconds}
+     *                 and once more when the job ends
+     * @throws IllegalStateException if an import is already running
+     */
+    public Job start(ImportSource source, boolean restart, Consumer<Progress> progress) throws SQLException {
+        Job job = new Job(source, progress);
+        if (!current.compareAndSet(null, job))
+            throw new IllegalStateException("An import of '" + current.get().source.name() + "' is already running");
+        try {
+            createProgressTable();
+            job.checkpoint = restart ? 0 : loadCheckpoint(source.name());
+        } catch (SQLException | RuntimeException e) {
+            current.set(null);
+            throw e;
+        }
+        job.startKey = job.checkpoint;
+        job.reader = Thread.ofPlatform().name("SecureAuth-Import").daemon(true).start(job::run);
+        return job;
+    }
+
+    /** @return the running import, or {@code null} */
+    public Job current() {
+        return current.get();
+    }
+
+    /** Asks the running import to stop after the chunks it already read. */
+    public boolean cancel() {
+        Job job = current.get();
+        if (job == null)
+            return false;
+        job.cancelled = true;
+        return true;
+    }
+
+    /** Stops a running import and waits for its in-flight chunks, so it resumes cleanly next time. */
+    public void shutdown(long timeoutMillis) {
+        Job job = current.get();
+        if (job == null)
+            return;
+        job.cancelled = true;
+        try {
+            job.reader.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ── Checkpoint table ──────────────────────────────────────────────────────
+
+    private void createProgressTable() throws SQLException {
+        database.write(c -> {
+            try (Statement st = c.createStatement()) {
+                return st.executeUpdate(database.isMysql()
+                        ? "CREATE TABLE IF NOT EXISTS sa_import_progress (source VARCHAR(64) PRIMARY KEY,"
+                                + " last_key BIGINT NOT NULL, imported BIGINT NOT NULL, finished BOOLEAN NOT NULL,"
+                                + " updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)"
+                        : "CREATE TABLE IF NOT EXISTS sa_import_progress (source TEXT PRIMARY KEY,"
+                                + " last_key INTEGER NOT NULL, imported INTEGER NOT NULL, finished INTEGER NOT NULL,"
+                                + " updated_at TEXT NOT NULL DEFAULT (datetime('now')))");
+            }
+        });
+    }
+
+    private long loadCheckpoint(String source) throws SQLException {
+        try (Connection c = database.read();
+                PreparedStatement ps = c.prepareStatement("SELECT last_key FROM sa_import_progress WHERE source = ?")) {
+            ps.setString(1, source);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void saveCheckpoint(String source, long lastKey, long imported, boolean finished) throws SQLException {
+        String sql = database.isMysql()
+                ? "INSERT INTO sa_import_progress (source, last_key, imported, finished) VALUES (?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE last_key = VALUES(last_key), imported = VALUES(imported),"
+                        + " finished = VALUES(finished), updated_at = CURRENT_TIMESTAMP"
+                : "INSERT INTO sa_import_progress (source, last_key, imported, finished) VALUES (?, ?, ?, ?)"
+                        + " ON CONFLICT(source) DO UPDATE SET last_key = excluded.last_key,"
+                        + " imported = excluded.imported, finished = excluded.finished,"
+                        + " updated_at = datetime('now')";
+        database.write(c -> {
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setString(1, source);
+                ps.setLong(2, lastKey);
+                ps.setLong(3, imported);
+                ps.setBoolean(4, finished);
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    // ── Job ───────────────────────────────────────────────────────────────────
+
+    private record Chunk(long seq, List<ImportSource.Row> rows) {
+
+        long lastKey() {
+            return rows.get(rows.size() - 1).key();
+        }
+    }
+
+    /** One running import; counters are safe to read from any thread. */
+    public final class Job {
+
+        private final ImportSource source;
+        private final Consumer<Progress> progress;
+        private final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(settings.queueChunks());
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong existing = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLongArray formats = new AtomicLongArray(HashFormat.values().length);
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+        /** Committed chunks above the checkpoint, by sequence number; guarded by {@code this}. */
+        private final Map<Long, Long> committedAbove = new TreeMap<>();
+        private final long startNanos = System.nanoTime();
+        private long nextSeq;
+        private volatile long checkpoint;
+        private volatile boolean cancelled;
+        private volatile boolean ended;
+        private long startKey;
+        private Thread reader;
+
+        private Job(ImportSource source, Consumer<Progress> progress) {
+            this.source = source;
+            this.progress = progress;
+        }
+
+        public ImportSource source() {
+            return source;
+        }
+
+        public Progress progress() {
+            long[] byFormat = new long[formats.length()];
+            for (int i = 0; i < byFormat.length; i++)
+                byFormat[i] = formats.get(i);
+            return new Progress(source.name(), read.get(), imported.get(), existing.get(), rejected.get(), byFormat,
+                    checkpoint, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    !ended, cancelled, failure.get());
+        }
+
+        /** Reader: streams the source into chunks, then waits for the writers to drain them. */
+        private void run() {
+            List<Thread> writers = new ArrayList<>(settings.writers());
+            for (int i = 0; i < settings.writers(); i++)
+                writers.add(Thread.ofPlatform().name("SecureAuth-Import-Writer-" + (i + 1)).daemon(true)
+                        .start(this::writeLoop));
+            log.info("[SecureAuth] Importing accounts from '{}' ({}) after key {} with {} writer(s).", source.name(),
+                    source.type(), startKey, settings.writers());
+
+            long nextReport = System.nanoTime() + settings.progressIntervalNanos();
+            boolean complete = false;
+            try (ImportSource.Cursor cursor = source.open(startKey)) {
+                List<ImportSource.Row> rows = new ArrayList<>(settings.chunkSize());
+                long seq = 0;
+                ImportSource.Row row;
+                while (!cancelled && failure.get() == null && (row = cursor.next()) != null) {
+                    read.incrementAndGet();
+                    HashFormat format = HashFormat.detect(row.hash());
+                    formats.incrementAndGet(format.ordinal());
+                    if (format == HashFormat.UNKNOWN || row.name() == null || row.name().isBlank()) {
+                        rejected.incrementAndGet();
+                        continue;
+                    }
+                    rows.add(row);
+                    if (rows.size() == settings.chunkSize()) {
+                        queue.put(new Chunk(seq++, rows));
+                        rows = new ArrayList<>(settings.chunkSize());
+                    }
+                    if (System.nanoTime() - nextReport >= 0) {
+                        progress.accept(progress());
+                        nextReport = System.nanoTime() + settings.progressIntervalNanos();
+                    }
+                }
+                if (!rows.isEmpty() && failure.get() == null)
+                    queue.put(new Chunk(seq, rows));
+                complete = !cancelled && failure.get() == null;
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+                if (e instanceof InterruptedException)
+                    Thread.currentThread().interrupt();
+            } finally {
+                finish(writers, complete);
+            }
+        }
+
+        private void finish(List<Thread> writers, boolean readAll) {
+            try {
+                for (int i = 0; i < writers.size(); i++)
+                    queue.put(END);
+                for (Thread w : writers)
+                    w.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            boolean finished = readAll && failure.get() == null;
+            try {
+                saveCheckpoint(source.name(), checkpoint, imported.get(), finished);
+            } catch (SQLException e) {
+                failure.compareAndSet(null, e);
+            }
+            ended = true;
+            Progress p = progress();
+            if (p.failure() != null)
+                log.error("[SecureAuth] Import of '{}' failed at key {}: {}", source.name(), checkpoint,
+                        p.failure().getMessage());
+            else
+                log.info("[SecureAuth] Import of '{}' {}: {} read, {} imported, {} already present, {} rejected in"
+                        + " {}ms.", source.name(), finished ? "finished" : "stopped", p.read(), p.imported(),
+                        p.existing(), p.rejected(), p.elapsedMillis());
+            current.compareAndSet(this, null);
+            progress.accept(p);
+        }
+
+        private void writeLoop() {
+            String sql = (database.isMysql() ? "INSERT IGNORE" : "INSERT OR IGNORE")
+                    + " INTO sa_players (uuid, name, password_hash, registered_at, last_login, last_ip)"
+                    + " VALUES (?, ?, ?, ?, ?, ?)";
+            try {
+                for (Chunk chunk; (chunk = queue.take()) != END;) {
+                    if (failure.get() != null)
+                        continue; // drain without writing; the checkpoint stays below the failed chunk
+                    Chunk batch = chunk;
+                    try {
+                        int[] counts = database.write(c -> {
+                            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                                for (ImportSource.Row r : batch.rows()) {
+                                    ps.setString(1, r.uuid().toString());
+                                    ps.setString(2, r.name());
+                                    ps.setString(3, r.hash());
+                                    setTimestamp(ps, 4, r.registeredAt() != null ? r.registeredAt()
+                                            : new Timestamp(System.currentTimeMillis()));
+                                    setTimestamp(ps, 5, r.lastLogin());
+                                    ps.setString(6, r.lastIp());
+                                    ps.addBatch();
+                                }
+                                return ps.executeBatch();
+                            }
+                        });
+                        count(counts);
+                        notifyImported(chunk, counts);
+                        committed(chunk);
+                    } catch (SQLException | RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void count(int[] counts) {
+            long inserted = 0;
+            long ignored = 0;
+            for (int n : counts) {
+                if (n == 0)
+                    ignored++;
+                else
+                    inserted++; // 1, or SUCCESS_NO_INFO from a rewritten MySQL batch
+            }
+            imported.addAndGet(inserted);
+            existing.addAndGet(ignored);
+        }
+
+        private void notifyImported(Chunk chunk, int[] counts) {
+            Consumer<UUID> listener = importedListener;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0)
+                    listener.accept(chunk.rows().get(i).uuid());
+            }
+        }
+
+        /** Moves the checkpoint over every chunk that has committed without a gap below it. */
+        private void committed(Chunk chunk) throws SQLException {
+            long advancedTo;
+            synchronized (this) {
+                committedAbove.put(chunk.seq(), chunk.lastKey());
+                Long key;
+                advancedTo = -1;
+                while ((key = committedAbove.remove(nextSeq)) != null) {
+                    advancedTo = key;
+                    nextSeq++;
+                }
+                if (advancedTo < 0)
+                    return;
+                checkpoint = advancedTo;
+                // Written under the lock so checkpoints never go backwards
+                saveCheckpoint(source.name(), advancedTo, imported.get(), false);
+            }
+        }
+
+        private static void setTimestamp(PreparedStatement ps, int index, Timestamp value)
+                throws SQLException {
+            if (value == null)
+                ps.setNull(index, Types.TIMESTAMP);
+            else
+                ps.setTimestamp(index, value);
+        }
+    }
+
+    /**
+     * Import counters.
+     *
+     * @param read       source rows read in this run
+     * @param imported   rows inserted into {@code sa_players}
+     * @param existing   rows skipped because the UUID or name already has an account
+     * @param rejected   rows skipped because the hash format is unknown, the name is missing or
+     *                   no UUID could be assigned
+     * @param byFormat   rows read per {@link HashFormat}, indexed by ordinal
+     * @param checkpoint the source key up to which everything is committed
+     * @param running    {@code false} once the job has ended
+     * @param failure    the error that stopped the job, or {@code null}
+     */
+    public record Progress(String source, long read, long imported, long existing, long rejected, long[] byFormat,
+            long checkpoint, long elapsedMillis, boolean running, boolean cancelled, Exception failure) {
+
+        public long rowsPerSecond() {
+            return elapsedMillis == 0 ? 0 : read * 1000 / elapsedMillis;
+        }
+
+        /** {@code "BCRYPT=12, SHA256_SALTED=3"} for the formats that occurred. */
+        public String formats() {
+            StringBuilder sb = new StringBuilder();
+            HashFormat[] all = HashFormat.values();
+            for (int i = 0; i < byFormat.length; i++) {
+                if (byFormat[i] == 0)
+                    continue;
+                if (!sb.isEmpty())
+                    sb.append(", ");
+                sb.append(all[i]).append('=').append(byFormat[i]);
+            }
+            return sb.toString();
+        }
+    }
+
+    // ── Settings ──────────────────────────────────────────────────────────────
+
+    /**
+     * @param chunkSize   rows per batch insert and transaction
+     * @param writers     concurrent writer threads
+     * @param queueChunks chunks read ahead of the writers
+     */
+    public record Settings(int chunkSize, int writers, int queueChunks, long progressIntervalNanos) {
+
+        /** Reads the {@code import} section of {@code config.yml}; {@code null} = defaults. */
+        public static Settings fromConfig(ConfigurationSection section) {
+            if (section == null)
+                return new Settings(2000, 4, 8, TimeUnit.SECONDS.toNanos(5));
+            int writers = Math.max(1, section.getInt("writers", 4));
+            return new Settings(Math.max(100, section.getInt("chunk-size", 2000)), writers, writers * 2,
+                    TimeUnit.SECONDS.toNanos(Math.max(1, section.getInt("progress-interval-seconds", 5))));
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package dev.n1xend.secureauth.importer;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Where {@link AccountImporter} reads accounts from: a table of another auth plugin (SQLite
+ * file or MySQL) or a CSV file with a header row.
+ *
+ * <p>Rows are read in ascending order of a numeric key — the table's auto-increment id, or the
+ * line number for CSV — so an interrupted import can continue after the last key that was
+ * committed. JDBC sources are read with a forward-only streaming cursor.
+ *
+ * @param name     the name under {@code import.sources}, also the resume key
+ * @param type     storage of the source
+ * @param location SQLite/CSV file path or MySQL JDBC URL
+ * @param columns      source column (or CSV header) for each account field
+ * @param offlineUuids rows without a UUID get the offline-mode UUID of their name; when
+ *                     {@code false} (online-mode servers) such rows are rejected instead
+ */
+public record ImportSource(String name, Type type, String location, String username, String password, String table,
+        Columns columns, boolean offlineUuids) {
+
+    public enum Type {
+        SQLITE, MYSQL, CSV
+    }
+
+    /**
+     * Source column names; {@code uuid}, {@code registered}, {@code lastLogin} and {@code lastIp}
+     * may be blank when the source has no such column. Without a UUID column, the offline-mode
+     * UUID is derived from the name if {@link ImportSource#offlineUuids} allows it.
+     */
+    public record Columns(String key, String name, String uuid, String password, String registered,
+            String lastLogin, String lastIp) {
+
+        public static final Columns AUTHME = new Columns("id", "realname", "", "password", "regdate", "lastlogin",
+                "ip");
+        public static final Columns NLOGIN = new Columns("ai", "last_name", "unique_id", "password", "creation_date",
+                "last_seen", "last_ip");
+
+        Columns with(ConfigurationSection overrides) {
+            if (overrides == null)
+                return this;
+            return new Columns(overrides.getString("key", key), overrides.getString("name", name),
+                    overrides.getString("uuid", uuid), overrides.getString("password", password),
+                    overrides.getString("registered", registered), overrides.getString("last-login", lastLogin),
+                    overrides.getString("last-ip", lastIp));
+        }
+    }
+
+    /** One source account, already mapped to {@code sa_players} fields. */
+    public record Row(long key, UUID uuid, String name, String hash, Timestamp registeredAt, Timestamp lastLogin,
+            String lastIp) {
+    }
+
+    /** Streams rows with a key above the resume point; {@link #next} returns {@code null} at the end. */
+    public interface Cursor extends AutoCloseable {
+
+        Row next() throws SQLException, IOException;
+
+        @Override
+        void close() throws SQLException, IOException;
+    }
+
+    /**
+     * Reads {@code import.sources.<name>}. A {@code preset} of {@code authme} or {@code nlogin}
+     * supplies the usual table and columns; {@code table} and {@code columns.*} override them.
+     *
+     * @throws IllegalArgumentException if the section is missing or incomplete
+     */
+    public static ImportSource fromConfig(String name, ConfigurationSection section) {
+        if (section == null)
+            throw new IllegalArgumentException("No import source '" + name + "' in config.yml (import.sources)");
+        String preset = section.getString("preset", "").toLowerCase(Locale.ROOT);
+        Columns columns = switch (preset) {
+            case "authme" -> Columns.AUTHME;
+            case "nlogin" -> Columns.NLOGIN;
+            default -> new Columns("", "name", "uuid", "password", "", "", "");
+        };
+        columns = columns.with(section.getConfigurationSection("columns"));
+        Type type;
+        try {
+            type = Type.valueOf(section.getString("type", "sqlite").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown import type '" + section.getString("type")
+                    + "' (sqlite, mysql or csv)");
+        }
+        String location = type == Type.MYSQL ? section.getString("url", "") : section.getString("path", "");
+        if (location.isBlank())
+            throw new IllegalArgumentException("Import source '" + name + "' needs a "
+                    + (type == Type.MYSQL ? "url" : "path"));
+        if (type != Type.CSV && columns.key().isBlank())
+            throw new IllegalArgumentException("Import source '" + name + "' needs columns.key (an ascending id)");
+        return new ImportSource(name, type, location, section.getString("username", ""),
+                section.getString("password", ""), section.getString("table", preset.isEmpty() ? "" : preset),
+                columns, section.getBoolean("offline-uuids", true));
+    }
+
+    /** Opens a cursor over the rows whose key is greater than {@code afterKey}. */
+    public Cursor open(long afterKey) throws SQLException, IOException {
+        return type == Type.CSV ? new CsvCursor(Path.of(location), columns, offlineUuids, afterKey)
+                : new JdbcCursor(this, afterKey);
+    }
+
+    /**
+     * Maps raw values; a row with an unparseable UUID or date, or without a UUID when
+     * {@code offlineUuids} is off, comes back without a hash and is rejected.
+     */
+    static Row row(long key, String uuid, String name, String hash, Object registered, Object lastLogin,
+            String lastIp, boolean offlineUuids) {
+        try {
+            return new Row(key, parseUuid(uuid, name, offlineUuids), name, hash, toTimestamp(registered),
+                    toTimestamp(lastLogin), lastIp);
+        } catch (IllegalArgumentException e) {
+            return new Row(key, null, name, null, null, null, null);
+        }
+    }
+
+    static UUID offlineUuid(String name) {
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UUID parseUuid(String value, String name, boolean offlineUuids) {
+        if (value == null || value.isBlank()) {
+            if (!offlineUuids)
+                throw new IllegalArgumentException("No UUID for " + name);
+            return offlineUuid(name);
+        }
+        String v = value.trim();
+        if (v.length() == 32)
+            v = v.substring(0, 8) + '-' + v.substring(8, 12) + '-' + v.substring(12, 16) + '-' + v.substring(16, 20)
+                    + '-' + v.substring(20);
+        return UUID.fromString(v);
+    }
+
+    /** Epoch millis or seconds (AuthMe), SQL timestamps (nLogin) and {@code yyyy-MM-dd HH:mm:ss} text. */
+    static Timestamp toTimestamp(Object value) {
+        if (value == null)
+            return null;
+        if (value instanceof Timestamp ts)
+            return ts;
+        if (value instanceof java.util.Date d)
+            return new Timestamp(d.getTime());
+        String s = value.toString().trim();
+        if (s.isEmpty())
+            return null;
+        if (s.chars().allMatch(Character::isDigit)) {
+            long n = Long.parseLong(s);
+            if (n <= 0)
+                return null;
+            return new Timestamp(n < 100_000_000_000L ? n * 1000 : n);
+        }
+        return Timestamp.valueOf(s.length() > 19 ? s.substring(0, 19) : s);
+    }
+
+    // ── JDBC ──────────────────────────────────────────────────────────────────
+
+    private static final class JdbcCursor implements Cursor {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet rs;
+        private final boolean offlineUuids;
+
+        JdbcCursor(ImportSource source, long afterKey) throws SQLException {
+            this.offlineUuids = source.offlineUuids();
+            Columns col = source.columns();
+            String url = source.type() == Type.SQLITE ? "jdbc:sqlite:" + source.location() : source.location();
+            this.connection = DriverManager.getConnection(url, source.username(), source.password());
+            try {
+                connection.setReadOnly(true);
+                StringBuilder sql = new StringBuilder("SELECT ").append(col.key()).append(", ").append(col.name())
+                        .append(", ").append(col.password());
+                for (String optional : List.of(col.uuid(), col.registered(), col.lastLogin(), col.lastIp()))
+                    sql.append(", ").append(optional.isBlank() ? "NULL" : optional);
+                sql.append(" FROM ").append(source.table()).append(" WHERE ").append(col.key()).append(" > ? ORDER BY ")
+                        .append(col.key());
+                this.statement = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                // Connector/J streams row by row only with MIN_VALUE
+                statement.setFetchSize(source.type() == Type.MYSQL ? Integer.MIN_VALUE : 1000);
+                statement.setLong(1, afterKey);
+                this.rs = statement.executeQuery();
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public Row next() throws SQLException {
+            if (!rs.next())
+                return null;
+            return row(rs.getLong(1), rs.getString(4), rs.getString(2), rs.getString(3), rs.getObject(5),
+                    rs.getObject(6), rs.getString(7), offlineUuids);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try (connection; statement; rs) {
+                // closed in reverse order
+            }
+        }
+    }
+
+    // ── CSV ───────────────────────────────────────────────────────────────────
+
+    private static final class CsvCursor implements Cursor {
+
+        private final BufferedReader reader;
+        private final int name;
+        private final int uuid;
+        private final int password;
+        private final int registered;
+        private final int lastLogin;
+        private final int lastIp;
+        private final boolean offlineUuids;
+        private long line;
+
+        CsvCursor(Path file, Columns col, boolean offlineUuids, long afterKey) throws IOException {
+            this.offlineUuids = offlineUuids;
+            this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            try {
+                String header = reader.readLine();
+                if (header == null)
+                    throw new IOException("Empty CSV file " + file);
+                Map<String, Integer> index = new HashMap<>();
+                List<String> names = split(header);
+                for (int i = 0; i < names.size(); i++)
+                    index.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+                this.name = required(index, col.name());
+                this.password = required(index, col.password());
+                this.uuid = optional(index, col.uuid());
+                this.registered = optional(index, col.registered());
+                this.lastLogin = optional(index, col.lastLogin());
+                this.lastIp = optional(index, col.lastIp());
+                while (line < afterKey && reader.readLine() != null)
+                    line++;
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null)
+                    return null;
+                line++;
+            } while (text.isBlank());
+            List<String> f = split(text);
+            return row(line, field(f, uuid), field(f, name), field(f, password), field(f, registered),
+                    field(f, lastLogin), field(f, lastIp), offlineUuids);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+
+        private static int required(Map<String, Integer> index, String column) throws IOException {
+            Integer i = index.get(column.toLowerCase(Locale.ROOT));
+            if (i == null)
+                throw new IOException("CSV header has no column '" + column + "'");
+            return i;
+        }
+
+        private static int optional(Map<String, Integer> index, String column) {
+            return column.isBlank() ? -1 : index.getOrDefault(column.toLowerCase(Locale.ROOT), -1);
+        }
+
+        /** RFC 4180 fields on one line: comma separated, optional double quotes, {@code ""} escapes. */
+        static List<String> split(String line) {
+            List<String> out = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char ch = line.charAt(i);
+                if (quoted) {
+                    if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else if (ch == '"') {
+                        quoted = false;
+                    } else {
+                        sb.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    out.add(sb.toString());
+                    sb.setLength(0);
+                } else {
+                    sb.append(ch);
+                }
+            }
+            out.add(sb.toString());
+            return out;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package dev.n1xend.secureauth.integration;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.slf4j.Logger;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -40,7 +46,7 @@ public final class LuckPermsIntegration {
         }
         // Only NOW do we load LuckPermsDelegate (and therefore any LP API classes)
         try {
-            delegate = new LuckPermsDelegate();
+            delegate = new LuckPermsDelegate(plugin);
             delegate.init();
             log.info("[LuckPerms] Integration enabled.");
             return true;
@@ -54,7 +60,12 @@ public final class LuckPermsIntegration {
         return delegate != null;
     }
 
-    /** Returns the player's primary group. Falls back to {@code "default"} if LP absent. */
+    /**
+     * Returns the player's primary group. Falls back to {@code "default"} if LP absent.
+     *
+     * <p>Answered from a cache that LuckPerms events keep current; only the first lookup of an
+     * offline player loads the user.
+     */
     public CompletableFuture<String> getPrimaryGroup(UUID uuid) {
         if (!isAvailable())
             return CompletableFuture.completedFuture("default");
@@ -63,9 +74,26 @@ public final class LuckPermsIntegration {
 
     /** Grants a temporary permission. No-op if LP absent. */
     public CompletableFuture<Void> grantPermissionTemporary(UUID uuid, String permission, Duration duration) {
-        if (!isAvailable())
+        return grantPermissionsTemporary(List.of(uuid), Map.of(permission, duration));
+    }
+
+    /**
+     * Grants several temporary permissions to each of {@code users} with one load/modify/save per
+     * user instead of one per permission. No-op if LP absent.
+     *
+     * @param permissions permission node → how long it lasts from now
+     */
+    public CompletableFuture<Void> grantPermissionsTemporary(Collection<UUID> users,
+            Map<String, Duration> permissions) {
+        if (!isAvailable() || users.isEmpty() || permissions.isEmpty())
             return CompletableFuture.completedFuture(null);
-        return delegate.grantPermissionTemporary(uuid, permission, duration);
+        return delegate.grantPermissionsTemporary(users, permissions);
+    }
+
+    /** Unsubscribes from LuckPerms events. */
+    public void shutdown() {
+        if (delegate != null)
+            delegate.close();
     }
 
     // ── Inner delegate — LP API classes referenced only here ─────────────────
@@ -76,23 +104,68 @@ public final class LuckPermsIntegration {
 
     private static final class LuckPermsDelegate {
 
+        private final JavaPlugin plugin;
         // Imports here — safe because this class is only instantiated after LP is found
         private net.luckperms.api.LuckPerms api;
+        private final List<net.luckperms.api.event.EventSubscription<?>> subscriptions = new ArrayList<>();
+        /**
+         * In-flight loads are shared, so a burst of lookups for one player costs one load. Entries
+         * expire a fixed time after loading: changes made on another server to a player who is not
+         * loaded here fire no event, and a busy player must not keep a stale group for good.
+         */
+        private final AsyncCache<UUID, String> primaryGroups = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .maximumSize(10_000)
+                .buildAsync();
+
+        LuckPermsDelegate(JavaPlugin plugin) {
+            this.plugin = plugin;
+        }
 
         void init() {
             api = net.luckperms.api.LuckPermsProvider.get();
+            var events = api.getEventBus();
+            // Recalculation covers inherited changes (parent groups, contexts) for loaded users
+            subscriptions.add(events.subscribe(plugin, net.luckperms.api.event.user.UserDataRecalculateEvent.class,
+                    e -> primaryGroups.synchronous().invalidate(e.getUser().getUniqueId())));
+            subscriptions.add(events.subscribe(plugin, net.luckperms.api.event.node.NodeMutateEvent.class, e -> {
+                if (e.getTarget() instanceof net.luckperms.api.model.user.User user)
+                    primaryGroups.synchronous().invalidate(user.getUniqueId());
+                else
+                    primaryGroups.synchronous().invalidateAll(); // a group's weight or parents changed
+            }));
         }
 
         CompletableFuture<String> getPrimaryGroup(UUID uuid) {
-            return api.getUserManager().loadUser(uuid).thenApply(net.luckperms.api.model.user.User::getPrimaryGroup);
+            return primaryGroups.get(uuid, (key, executor) -> {
+                // Online players are already loaded — no storage round trip
+                net.luckperms.api.model.user.User loaded = api.getUserManager().getUser(key);
+                if (loaded != null)
+                    return CompletableFuture.completedFuture(loaded.getPrimaryGroup());
+                return api.getUserManager().loadUser(key).thenApply(net.luckperms.api.model.user.User::getPrimaryGroup);
+            });
         }
 
-        CompletableFuture<Void> grantPermissionTemporary(UUID uuid, String permission, Duration duration) {
-            return api.getUserManager().loadUser(uuid).thenAccept(user -> {
-                user.data().add(net.luckperms.api.node.types.PermissionNode.builder(permission)
-                        .expiry(java.time.Instant.now().plus(duration)).build());
-                api.getUserManager().saveUser(user);
-            });
+        CompletableFuture<Void> grantPermissionsTemporary(Collection<UUID> users, Map<String, Duration> permissions) {
+            java.time.Instant now = java.time.Instant.now();
+            List<net.luckperms.api.node.Node> nodes = new ArrayList<>(permissions.size());
+            permissions.forEach((permission, duration) -> nodes.add(net.luckperms.api.node.types.PermissionNode
+                    .builder(permission).expiry(now.plus(duration)).build()));
+            CompletableFuture<?>[] saves = new CompletableFuture<?>[users.size()];
+            int i = 0;
+            for (UUID uuid : users) {
+                // modifyUser = loadUser + apply + saveUser, once per user for the whole batch
+                saves[i++] = api.getUserManager().modifyUser(uuid, user -> {
+                    for (net.luckperms.api.node.Node node : nodes)
+                        user.data().add(node);
+                });
+            }
+            return CompletableFuture.allOf(saves);
+        }
+
+        void close() {
+            subscriptions.forEach(net.luckperms.api.event.EventSubscription::close);
+            subscriptions.clear();
         }
     }
 }
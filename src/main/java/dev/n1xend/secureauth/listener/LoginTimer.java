@@ -0,0 +1,144 @@
+package dev.n1xend.secureauth.listener;
+
+import dev.n1xend.secureauth.player.UnauthenticatedPlayers;
+import dev.n1xend.secureauth.util.TimingWheel;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Server;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Login timeout and reminder messages for players who have not logged in, driven by the shared
+ * {@link TimingWheel}.
+ *
+ * <p>A join costs two wheel timers, a timeout and a reminder, instead of two scheduler tasks.
+ * Logging in or leaving cancels both. The wheel ticks on the main thread, so
+ * {@link Actions} run there.
+ *
+ * <p>By default a timeout kicks with the configured message and reminders go to the action bar.
+ * {@link #setActions} replaces both, e.g. for {@code AuthListener} to send its own reminders once
+ * it drops its per-player tasks; until then its kick finds the player already gone, and its
+ * reminders and these land on separate channels.
+ */
+public final class LoginTimer implements Listener {
+
+    /** What happens when a timer fires; main thread. */
+    public interface Actions {
+        /** @param secondsLeft until the timeout, or {@code -1} if there is none */
+        void remind(Player player, long secondsLeft);
+
+        void timeOut(Player player);
+    }
+
+    private final Server server;
+    private final UnauthenticatedPlayers unauthenticated;
+    private final TimingWheel wheel;
+    private final Settings settings;
+    private final TimingWheel.Expiry timeout = this::timedOut;
+    private final TimingWheel.Expiry reminder = this::remind;
+    private volatile Actions actions;
+
+    /**
+     * @param timeoutMessage  kick message on timeout
+     * @param reminderMessage action bar reminder for the seconds left, {@code -1} without a timeout
+     *                        (both are read per message, so reloads apply)
+     */
+    public LoginTimer(Server server, UnauthenticatedPlayers unauthenticated, TimingWheel wheel, Settings settings,
+            Supplier<Component> timeoutMessage, LongFunction<Component> reminderMessage) {
+        this.server = server;
+        this.unauthenticated = unauthenticated;
+        this.wheel = wheel;
+        this.settings = settings;
+        this.actions = new Actions() {
+            @Override
+            public void remind(Player player, long secondsLeft) {
+                player.sendActionBar(reminderMessage.apply(secondsLeft));
+            }
+
+            @Override
+            public void timeOut(Player player) {
+                player.kick(timeoutMessage.get());
+            }
+        };
+    }
+
+    /** Replaces what a timeout and a reminder do; timers already running use the new actions. */
+    public void setActions(Actions actions) {
+        this.actions = actions;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        start(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        stop(event.getPlayer().getUniqueId());
+    }
+
+    /** Auth stage change, as reported by {@code AuthApi} listeners. */
+    public void onStage(UUID uuid, String from, String to) {
+        if ("AUTHENTICATED".equals(to))
+            stop(uuid);
+        else if ("AUTHENTICATED".equals(from) && server.getPlayer(uuid) != null)
+            start(uuid); // logged out while online
+    }
+
+    /** Starts the timeout and reminders for {@code uuid}; the first reminder goes out on the next tick. */
+    public void start(UUID uuid) {
+        if (settings.timeout().isPositive())
+            wheel.schedule(timeout, uuid, settings.timeout().toMillis());
+        if (settings.reminderInterval().isPositive())
+            wheel.schedule(reminder, uuid, 0);
+    }
+
+    public void stop(UUID uuid) {
+        wheel.cancel(timeout, uuid);
+        wheel.cancel(reminder, uuid);
+    }
+
+    private void timedOut(UUID uuid) {
+        wheel.cancel(reminder, uuid);
+        Player player = server.getPlayer(uuid);
+        if (player != null && unauthenticated.contains(uuid))
+            actions.timeOut(player);
+    }
+
+    private void remind(UUID uuid) {
+        Player player = server.getPlayer(uuid);
+        if (player == null || !unauthenticated.contains(uuid))
+            return;
+        long left = settings.timeout().isPositive() ? (wheel.remainingMillis(timeout, uuid) + 999) / 1000 : -1;
+        actions.remind(player, left);
+        wheel.schedule(reminder, uuid, settings.reminderInterval().toMillis());
+        // A login on another thread may have run stop() just before the reschedule
+        if (!unauthenticated.contains(uuid))
+            wheel.cancel(reminder, uuid);
+    }
+
+    /**
+     * @param timeout          time to log in before being kicked; zero disables the kick
+     * @param reminderInterval time between reminders; zero disables them
+     */
+    public record Settings(Duration timeout, Duration reminderInterval) {
+
+        /** Reads the {@code auth} section; {@code null} = defaults. */
+        public static Settings fromConfig(ConfigurationSection section) {
+            if (section == null)
+                return new Settings(Duration.ofSeconds(60), Duration.ofSeconds(3));
+            return new Settings(Duration.ofSeconds(Math.max(0, section.getLong("login-timeout-seconds", 60))),
+                    Duration.ofSeconds(Math.max(0, section.getLong("reminder-interval-seconds", 3))));
+        }
+    }
+}
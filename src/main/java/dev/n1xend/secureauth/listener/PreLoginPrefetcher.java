@@ -0,0 +1,213 @@
+package dev.n1xend.secureauth.listener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.n1xend.secureauth.antibot.IpBanService;
+import dev.n1xend.secureauth.geoip.GeoIpLookup;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import dev.n1xend.secureauth.player.RegistrationIndex;
+import dev.n1xend.secureauth.session.SessionIndex;
+import dev.n1xend.secureauth.twofa.TotpService;
+import net.kyori.adventure.text.Component;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.slf4j.Logger;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves everything the join path needs while the player is still in
+ * {@link AsyncPlayerPreLoginEvent} (an async thread Paper lets us block).
+ *
+ * <p>The ban check and the country check ({@code geoip.blocked-countries} and
+ * {@code allowed-countries}, through {@link GeoIpLookup}) are memory-only and run first; refused
+ * connections never reach the database. Then {@link RegistrationIndex} answers whether the UUID
+ * has an account, so a flood of unknown names costs no queries. Only for registered players are
+ * the account and the TOTP flag loaded, in parallel on virtual threads; the account goes through
+ * the {@link AccountLoader}, which caches it for the reads that follow the join. The result is
+ * parked, together with the (in-memory) session validity, in a short-lived cache. Loads still
+ * running at the timeout are cancelled.
+ *
+ * <p>{@code AuthListener} picks the result up on {@code PlayerJoinEvent} via {@link #take} — a
+ * plain map read on the main thread; if the prefetch timed out it gets {@code null} and falls
+ * back to its normal async path.
+ */
+public final class PreLoginPrefetcher implements Listener {
+
+    private static final Duration PREFETCH_TIMEOUT = Duration.ofSeconds(3);
+
+    /** Loads a registered account into an account cache. */
+    @FunctionalInterface
+    public interface AccountLoader {
+        /** @return whether the account exists */
+        boolean load(UUID uuid) throws SQLException;
+    }
+
+    private final RegistrationIndex registrations;
+    private final AccountLoader accounts;
+    private final TotpService totp;
+    private final SessionIndex sessions;
+    private final IpBanService ipBans;
+    private final GeoIpLookup geoIp;
+    private final CountryRules countries;
+    private final Supplier<Component> bannedMessage;
+    private final Supplier<Component> countryBlockedMessage;
+    private final Logger log;
+    private final LatencyHistogram prefetchTimer;
+    private final ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Cache<UUID, Prefetched> results = Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(30))
+            .maximumSize(10_000).build();
+
+    /**
+     * @param geoIp                 country lookup; {@code null} when GeoIP is disabled
+     * @param bannedMessage         kick message for banned IPs
+     * @param countryBlockedMessage kick message for refused countries (both read per event, so reloads apply)
+     */
+    public PreLoginPrefetcher(RegistrationIndex registrations, AccountLoader accounts, TotpService totp,
+            SessionIndex sessions, IpBanService ipBans, GeoIpLookup geoIp, CountryRules countries,
+            Supplier<Component> bannedMessage, Supplier<Component> countryBlockedMessage, MetricsRegistry metrics,
+            Logger log) {
+        this.registrations = registrations;
+        this.accounts = accounts;
+        this.prefetchTimer = metrics.timer(MetricsRegistry.PRELOGIN_PREFETCH);
+        this.totp = totp;
+        this.sessions = sessions;
+        this.ipBans = ipBans;
+        this.geoIp = geoIp;
+        this.countries = countries;
+        this.bannedMessage = bannedMessage;
+        this.countryBlockedMessage = countryBlockedMessage;
+        this.log = log;
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+            return;
+
+        UUID uuid = event.getUniqueId();
+        String ip = event.getAddress().getHostAddress();
+
+        if (ipBans.isBanned(event.getAddress())) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED, bannedMessage.get());
+            return;
+        }
+        if (geoIp != null && countries.refuses(geoIp.countryCode(event.getAddress()))) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, countryBlockedMessage.get());
+            return;
+        }
+
+        long start = System.nanoTime();
+        Future<Boolean> known = loaders.submit(() -> registrations.isRegistered(uuid));
+        Future<Boolean> registered = CompletableFuture.completedFuture(false);
+        Future<Boolean> totpEnabled = CompletableFuture.completedFuture(false);
+        boolean session = sessions.hasValidSession(uuid, ip);
+
+        long deadline = start + PREFETCH_TIMEOUT.toNanos();
+        try {
+            if (known.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                registered = loaders.submit(() -> accounts.load(uuid));
+                totpEnabled = loaders.submit(() -> totp.isEnabled(uuid));
+            }
+            boolean isRegistered = registered.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            boolean has2fa = isRegistered && totpEnabled.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            long elapsed = System.nanoTime() - start;
+            prefetchTimer.record(elapsed);
+            results.put(uuid, new Prefetched(isRegistered, has2fa, session, elapsed));
+        } catch (TimeoutException e) {
+            log.warn("[SecureAuth] Pre-login prefetch for {} timed out after {}ms.", event.getName(),
+                    PREFETCH_TIMEOUT.toMillis());
+        } catch (ExecutionException e) {
+            log.warn("[SecureAuth] Pre-login prefetch for {} failed: {}", event.getName(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // No-op for finished loads; interrupts the query of one that is still running
+            known.cancel(true);
+            registered.cancel(true);
+            totpEnabled.cancel(true);
+        }
+    }
+
+    /** A player who registered just before leaving may join again before the filter has heard of it. */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        registrations.onLeft(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Returns and removes the prefetched auth state for {@code uuid}. Never blocks.
+     *
+     * @return the state, or {@code null} if the prefetch did not complete
+     */
+    public Prefetched take(UUID uuid) {
+        return results.asMap().remove(uuid);
+    }
+
+    /** Like {@link #take} but leaves the state for the auth listener; for read-only consumers. */
+    public Prefetched peek(UUID uuid) {
+        return results.getIfPresent(uuid);
+    }
+
+    public void shutdown() {
+        loaders.shutdownNow();
+    }
+
+    /**
+     * Countries refused at pre-login. Addresses without a known country are let through, so
+     * players on private networks or with GeoIP data missing are not locked out.
+     *
+     * @param blocked countries always refused
+     * @param allowed if not empty, the only countries accepted
+     */
+    public record CountryRules(Set<String> blocked, Set<String> allowed) {
+
+        /** Reads the {@code geoip} section of {@code config.yml}; {@code null} refuses nothing. */
+        public static CountryRules fromConfig(ConfigurationSection geoip) {
+            if (geoip == null)
+                return new CountryRules(Set.of(), Set.of());
+            return new CountryRules(codes(geoip, "blocked-countries"), codes(geoip, "allowed-countries"));
+        }
+
+        private static Set<String> codes(ConfigurationSection geoip, String key) {
+            return geoip.getStringList(key).stream().map(c -> c.trim().toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+
+        /** @param country ISO 3166-1 alpha-2 code, or {@code null} if unknown */
+        public boolean refuses(String country) {
+            if (country == null)
+                return false;
+            return blocked.contains(country) || !allowed.isEmpty() && !allowed.contains(country);
+        }
+    }
+
+    /**
+     * Auth state resolved before join.
+     *
+     * @param registered    an {@code sa_players} row exists
+     * @param totpEnabled   2FA is enabled for the account
+     * @param validSession  a session bound to this IP is still valid (auto-login)
+     * @param prefetchNanos time spent loading
+     */
+    public record Prefetched(boolean registered, boolean totpEnabled, boolean validSession, long prefetchNanos) {
+    }
+}
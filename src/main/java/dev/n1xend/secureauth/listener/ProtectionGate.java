@@ -0,0 +1,143 @@
+package dev.n1xend.secureauth.listener;
+
+import dev.n1xend.secureauth.player.UnauthenticatedPlayers;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the protection listeners registered only while someone is unauthenticated.
+ *
+ * <p>Move, interaction and chat handlers used to run for every event of every player, though
+ * on a busy server almost everyone is logged in. This listener handles only join and quit. It
+ * tracks {@link UnauthenticatedPlayers} and registers the guard listeners with Bukkit when the
+ * first unauthenticated player appears, then unregisters them once nobody has needed protecting
+ * for {@value #UNREGISTER_DELAY_TICKS} ticks. While nobody needs protecting, Bukkit does not
+ * dispatch those events to SecureAuth. The delay keeps a steady trickle of joins and logins from
+ * rebuilding the handler lists on every transition; registering is never delayed.
+ *
+ * <p>Registration happens on the main thread. A join is already there, so the guards are in place
+ * before the player's first move. Auth-stage changes reported from other threads are applied on
+ * the next tick. Guards must not rely on {@link PlayerJoinEvent}: the join that activates them
+ * has already been dispatched.
+ */
+public final class ProtectionGate implements Listener {
+
+    /** How long the set must stay empty before the guards are unregistered: 5 seconds. */
+    static final long UNREGISTER_DELAY_TICKS = 100;
+
+    private final Plugin plugin;
+    private final UnauthenticatedPlayers players;
+    private final Executor mainThread;
+    private final Logger log;
+    private final List<Listener> guards = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean reconcileQueued = new AtomicBoolean();
+    /** Main thread only. */
+    private boolean active;
+    /** Pending delayed unregister, or {@code null}. Main thread only. */
+    private BukkitTask pendingUnregister;
+
+    public ProtectionGate(Plugin plugin, UnauthenticatedPlayers players, Executor mainThread, Logger log) {
+        this.plugin = plugin;
+        this.players = players;
+        this.mainThread = mainThread;
+        this.log = log;
+        players.setOccupancyListener(this::requestReconcile);
+    }
+
+    /** Adds a listener that should only receive events while someone is unauthenticated. Main thread only. */
+    public void addGuard(Listener guard) {
+        guards.add(guard);
+        if (active)
+            plugin.getServer().getPluginManager().registerEvents(guard, plugin);
+    }
+
+    /**
+     * Treats everyone already online as unauthenticated until their stage says otherwise, e.g.
+     * after a plugin reload. Main thread only.
+     */
+    public void seedOnline() {
+        for (Player p : plugin.getServer().getOnlinePlayers())
+            players.add(p.getUniqueId());
+        reconcile();
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        players.add(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        players.remove(event.getPlayer().getUniqueId());
+    }
+
+    /** Auth stage change, as reported by {@code AuthApi} listeners. */
+    public void onStage(UUID uuid, String stage) {
+        if ("AUTHENTICATED".equals(stage))
+            players.remove(uuid);
+        else if (plugin.getServer().getPlayer(uuid) != null)
+            players.add(uuid); // logged out while online; stages after quit are ignored
+    }
+
+    private void requestReconcile() {
+        if (plugin.getServer().isPrimaryThread())
+            reconcile();
+        else if (plugin.isEnabled() && reconcileQueued.compareAndSet(false, true))
+            mainThread.execute(() -> {
+                reconcileQueued.set(false);
+                reconcile();
+            });
+    }
+
+    /**
+     * Brings the registration in line with the set; re-reads it, so out-of-order requests are
+     * harmless. Registers at once, but only schedules the unregister.
+     */
+    private void reconcile() {
+        if (!players.isEmpty()) {
+            cancelUnregister();
+            if (!active)
+                setRegistered(true);
+        } else if (active && pendingUnregister == null && plugin.isEnabled()) {
+            pendingUnregister = plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+                pendingUnregister = null;
+                if (active && players.isEmpty())
+                    setRegistered(false);
+            }, UNREGISTER_DELAY_TICKS);
+        }
+    }
+
+    private void cancelUnregister() {
+        if (pendingUnregister != null) {
+            pendingUnregister.cancel();
+            pendingUnregister = null;
+        }
+    }
+
+    private void setRegistered(boolean wanted) {
+        var pm = plugin.getServer().getPluginManager();
+        for (Listener guard : guards) {
+            if (wanted)
+                pm.registerEvents(guard, plugin);
+            else
+                HandlerList.unregisterAll(guard);
+        }
+        active = wanted;
+        log.debug("[SecureAuth] Protection listeners {} ({} unauthenticated).", wanted ? "registered" : "unregistered",
+                players.size());
+    }
+}
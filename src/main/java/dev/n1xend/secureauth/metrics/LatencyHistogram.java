@@ -0,0 +1,130 @@
+package dev.n1xend.secureauth.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear latency histogram in nanoseconds.
+ *
+ * <p>Each power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so any recorded
+ * value is reported within 12.5% across the whole range from 1ns to ~292 years in 488 buckets.
+ * {@link #record} is a bucket-index computation and two atomic adds — cheap enough for every
+ * login, hash and query.
+ *
+ * <p>Percentiles and the maximum cover a sliding window: buckets live in two generations that
+ * {@link #rotate} (called once a minute by {@link MetricsRegistry}) shifts, so a snapshot
+ * describes the last one to two minutes. Count and sum are cumulative, as Prometheus expects.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private volatile Window current = new Window();
+    private volatile Window previous = new Window();
+
+    // ── Recording ─────────────────────────────────────────────────────────────
+
+    public void record(long nanos) {
+        long v = Math.max(1, nanos);
+        Window w = current;
+        w.buckets.getAndIncrement(index(v));
+        if (v > w.max.get())
+            w.max.accumulateAndGet(v, Math::max);
+        count.increment();
+        sumNanos.add(v);
+    }
+
+    /** Records the time since {@code startNanos} ({@link System#nanoTime()}). */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /** Starts a new window; the one before the previous is discarded. */
+    void rotate() {
+        previous = current;
+        current = new Window();
+    }
+
+    // ── Reading ───────────────────────────────────────────────────────────────
+
+    public Snapshot snapshot() {
+        Window cur = current;
+        Window prev = previous;
+        long[] merged = new long[BUCKETS];
+        long windowCount = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            merged[i] = cur.buckets.get(i) + prev.buckets.get(i);
+            windowCount += merged[i];
+        }
+        long max = Math.max(cur.max.get(), prev.max.get());
+        return new Snapshot(count.sum(), sumNanos.sum(), windowCount, percentile(merged, windowCount, 0.50, max),
+                percentile(merged, windowCount, 0.99, max), max);
+    }
+
+    private static long percentile(long[] buckets, long total, double q, long max) {
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank)
+                return Math.min(max, midpoint(i));
+        }
+        return max;
+    }
+
+    // ── Buckets ───────────────────────────────────────────────────────────────
+
+    static int index(long v) {
+        if (v < SUB_BUCKETS)
+            return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long midpoint(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int exp = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long width = 1L << (exp - SUB_BITS);
+        return ((long) (SUB_BUCKETS + sub) << (exp - SUB_BITS)) + width / 2;
+    }
+
+    private static final class Window {
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        final AtomicLong max = new AtomicLong();
+    }
+
+    /**
+     * @param count       values recorded since start
+     * @param sumNanos    their total, since start
+     * @param windowCount values in the current window
+     * @param p50Nanos    median of the window
+     * @param p99Nanos    99th percentile of the window
+     * @param maxNanos    largest value in the window
+     */
+    public record Snapshot(long count, long sumNanos, long windowCount, long p50Nanos, long p99Nanos,
+            long maxNanos) {
+
+        public double p50Millis() {
+            return p50Nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double p99Millis() {
+            return p99Nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double maxMillis() {
+            return maxNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dev.n1xend.secureauth.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link MetricsRegistry} in the Prometheus text exposition format on {@code /metrics}.
+ *
+ * <p>Timers are exported as summaries in seconds ({@code secureauth_<name>_seconds} with
+ * 0.5/0.99 quantiles, {@code _sum} and {@code _count}) plus a {@code _max} gauge; counters as
+ * {@code secureauth_<name>}. Binds to loopback by default — put a reverse proxy or the
+ * Prometheus agent on the same host rather than exposing it.
+ */
+public final class PrometheusEndpoint {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final MetricsRegistry registry;
+    private final Logger log;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PrometheusEndpoint(MetricsRegistry registry, Logger log) {
+        this.registry = registry;
+        this.log = log;
+    }
+
+    /** Starts the listener described by the {@code metrics.http} section. */
+    public void start(ConfigurationSection http) {
+        String bind = http.getString("bind", "127.0.0.1");
+        int port = http.getInt("port", 9225);
+        try {
+            server = HttpServer.create(new InetSocketAddress(bind, port), 0);
+        } catch (IOException e) {
+            log.error("[SecureAuth] Metrics endpoint could not bind {}:{}: {}", bind, port, e.getMessage());
+            return;
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+        log.info("[SecureAuth] Metrics endpoint listening on http://{}:{}/metrics", bind, port);
+    }
+
+    public void stop() {
+        if (server == null)
+            return;
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    String render() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Map.Entry<String, LatencyHistogram.Snapshot> e : registry.timerSnapshots().entrySet()) {
+            String name = "secureauth_" + e.getKey() + "_seconds";
+            LatencyHistogram.Snapshot s = e.getValue();
+            sb.append("# TYPE ").append(name).append(" summary\n");
+            sb.append(name).append("{quantile=\"0.5\"} ").append(s.p50Nanos() / NANOS_PER_SECOND).append('\n');
+            sb.append(name).append("{quantile=\"0.99\"} ").append(s.p99Nanos() / NANOS_PER_SECOND).append('\n');
+            sb.append(name).append("_sum ").append(s.sumNanos() / NANOS_PER_SECOND).append('\n');
+            sb.append(name).append("_count ").append(s.count()).append('\n');
+            sb.append("# TYPE ").append(name).append("_max gauge\n");
+            sb.append(name).append("_max ").append(s.maxNanos() / NANOS_PER_SECOND).append('\n');
+        }
+        for (Map.Entry<String, Long> e : registry.counterValues().entrySet()) {
+            String name = "secureauth_" + e.getKey();
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            sb.append(name).append(' ').append(e.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+}
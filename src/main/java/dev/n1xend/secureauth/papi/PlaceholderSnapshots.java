@@ -0,0 +1,260 @@
+package dev.n1xend.secureauth.papi;
+
+import dev.n1xend.secureauth.audit.AuditEvent;
+import dev.n1xend.secureauth.session.SessionIndex;
+import dev.n1xend.secureauth.twofa.TotpService;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.slf4j.Logger;
+
+import java.net.InetSocketAddress;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Pre-rendered PlaceholderAPI values for online players.
+ *
+ * <p>Scoreboard and tab plugins ask for {@code %secureauth_*%} several times per second per
+ * player on the main thread. Each online player has an immutable {@link Snapshot} whose values
+ * are already formatted strings; {@link #resolve} is one {@link ConcurrentHashMap} read and a
+ * switch, with no allocation and no database access. Snapshots are replaced — never mutated —
+ * when something changes: join (account row loaded on a virtual thread), auth stage changes,
+ * registration, failed logins, 2FA enable/disable and session create/invalidate. Audit events
+ * arrive by polling {@code sa_audit_log}, so those values trail the event by a few seconds.
+ * {@code has_session} compares a stored deadline with {@link System#nanoTime()}, so expiry needs
+ * no rebuild.
+ *
+ * <p>Until the account row arrives, {@code is_registered} comes from the pre-login prefetch
+ * (see {@link #setRegistrationHint}). Dates are ISO-8601 local date-times to the second; IPs
+ * keep their first two parts ({@code 192.168.*.*}, {@code 2001:db8:*}).
+ */
+public final class PlaceholderSnapshots implements Listener {
+
+    static final String TRUE = "true";
+    static final String FALSE = "false";
+    static final String NA = "N/A";
+    static final String NEVER = "Never";
+    static final String OFFLINE = "OFFLINE";
+
+    private static final String[] SMALL_COUNTS = new String[64];
+
+    static {
+        for (int i = 0; i < SMALL_COUNTS.length; i++)
+            SMALL_COUNTS[i] = Integer.toString(i);
+    }
+
+    /** Loads the placeholder columns of one account, e.g. through {@code PlayerBulkLookup}. */
+    @FunctionalInterface
+    public interface AccountSource {
+        /** @return the account of {@code uuid}, or {@code null} if it has none */
+        Account find(UUID uuid) throws SQLException;
+    }
+
+    private final Map<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final AccountSource accounts;
+    private final TotpService totp;
+    private final SessionIndex sessions;
+    private final Logger log;
+    private volatile Predicate<UUID> registrationHint = uuid -> false;
+
+    public PlaceholderSnapshots(AccountSource accounts, TotpService totp, SessionIndex sessions, Logger log) {
+        this.accounts = accounts;
+        this.totp = totp;
+        this.sessions = sessions;
+        this.log = log;
+    }
+
+    /**
+     * Registration state already known at join, e.g. from {@code PreLoginPrefetcher}; must not
+     * block. Players it reports as unregistered show {@code false} until their row is loaded.
+     */
+    public void setRegistrationHint(Predicate<UUID> hint) {
+        this.registrationHint = hint;
+    }
+
+    /**
+     * Answers {@code %secureauth_<params>%} for {@code uuid}. Offline players get the
+     * {@code OFFLINE}/{@code N/A} values.
+     *
+     * @return the value, or {@code null} for an unknown placeholder
+     */
+    public String resolve(UUID uuid, String params) {
+        Snapshot s = snapshots.get(uuid);
+        return (s != null ? s : Snapshot.OFFLINE_SNAPSHOT).get(params);
+    }
+
+    // ── Change sources ────────────────────────────────────────────────────────
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        UUID uuid = player.getUniqueId();
+        InetSocketAddress address = player.getAddress();
+        String ip = address != null ? address.getAddress().getHostAddress() : "";
+        Snapshot joined = Snapshot.joined(ip, registrationHint.test(uuid));
+        snapshots.put(uuid, joined.withSession(sessions.expiresAtNanos(uuid, ip)));
+        Thread.startVirtualThread(() -> loadAccount(uuid));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        snapshots.remove(event.getPlayer().getUniqueId());
+    }
+
+    /** Auth stage change, as reported by {@code AuthApi} listeners. */
+    public void onStage(UUID uuid, String stage) {
+        boolean authenticated = "AUTHENTICATED".equals(stage);
+        snapshots.computeIfPresent(uuid, (k, s) -> {
+            Snapshot next = s.withStage(stage);
+            return authenticated ? next.withLogin(LocalDateTime.now()) : next;
+        });
+    }
+
+    /**
+     * Audit events that change a placeholder; called for every row of {@code sa_audit_log}
+     * (see {@code AuthStats}), whichever code path wrote it.
+     */
+    public void onAudit(AuditEvent event, UUID uuid) {
+        if (uuid == null)
+            return;
+        switch (event) {
+            case REGISTER -> snapshots.computeIfPresent(uuid, (k, s) -> s.withRegistered(LocalDateTime.now()));
+            case LOGIN_FAIL -> snapshots.computeIfPresent(uuid, (k, s) -> s.withFailedAttempt());
+            case TOTP_ENABLE, TOTP_DISABLE -> snapshots.computeIfPresent(uuid,
+                    (k, s) -> s.withTwoFactor(event == AuditEvent.TOTP_ENABLE));
+            default -> {
+            }
+        }
+    }
+
+    /** Session created, invalidated or reloaded for {@code uuid}. */
+    public void onSessionChanged(UUID uuid) {
+        snapshots.computeIfPresent(uuid, (k, s) -> s.withSession(sessions.expiresAtNanos(uuid, s.ip())));
+    }
+
+    private void loadAccount(UUID uuid) {
+        try {
+            Account account = accounts.find(uuid);
+            boolean has2fa = account != null && totp.isEnabled(uuid);
+            snapshots.computeIfPresent(uuid, (k, s) -> s.withAccount(account, has2fa));
+        } catch (SQLException | RuntimeException e) {
+            log.warn("[SecureAuth] Could not load placeholder data for {}: {}", uuid, e.getMessage());
+        }
+    }
+
+    // ── Formatting ────────────────────────────────────────────────────────────
+
+    static String count(int n) {
+        return n < SMALL_COUNTS.length ? SMALL_COUNTS[n] : Integer.toString(n);
+    }
+
+    static String formatDate(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    static String maskIp(String ip) {
+        if (ip == null || ip.isEmpty())
+            return NA;
+        char separator = ip.indexOf(':') >= 0 ? ':' : '.';
+        int first = ip.indexOf(separator);
+        int second = first < 0 ? -1 : ip.indexOf(separator, first + 1);
+        if (second < 0)
+            return NA;
+        return ip.substring(0, second) + (separator == '.' ? ".*.*" : ":*");
+    }
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    /** The account fields shown by placeholders; {@code null} where the account has no value. */
+    public record Account(LocalDateTime registeredAt, LocalDateTime lastLogin, String lastIp) {
+    }
+
+    /**
+     * Placeholder values of one player, rendered once. {@code ip} (the current connection) and
+     * {@code failedCount} are kept only to derive the next snapshot.
+     */
+    record Snapshot(String ip, String authStatus, String isAuthenticated, String isRegistered, String has2fa,
+            boolean session, long sessionExpiresNanos, String registeredAt, String lastLogin, String lastLoginIp,
+            int failedCount, String failedAttempts) {
+
+        static final Snapshot OFFLINE_SNAPSHOT = new Snapshot("", OFFLINE, FALSE, FALSE, FALSE, false, 0, NA, NA, NA,
+                0, "0");
+
+        static Snapshot joined(String ip, boolean registered) {
+            return new Snapshot(ip, "PENDING", FALSE, registered ? TRUE : FALSE, FALSE, false, 0, NA, NA, NA, 0, "0");
+        }
+
+        String get(String params) {
+            return switch (params) {
+                case "is_authenticated" -> isAuthenticated;
+                case "is_registered" -> isRegistered;
+                case "auth_status" -> authStatus;
+                case "has_2fa" -> has2fa;
+                case "has_session" -> session && System.nanoTime() - sessionExpiresNanos < 0 ? TRUE : FALSE;
+                case "registered_at" -> registeredAt;
+                case "last_login" -> lastLogin;
+                case "last_login_ip" -> lastLoginIp;
+                case "failed_attempts" -> failedAttempts;
+                default -> null;
+            };
+        }
+
+        Snapshot withStage(String stage) {
+            return new Snapshot(ip, stage, "AUTHENTICATED".equals(stage) ? TRUE : FALSE, isRegistered, has2fa,
+                    session, sessionExpiresNanos, registeredAt, lastLogin, lastLoginIp, failedCount, failedAttempts);
+        }
+
+        /** A successful login: failed attempts start counting from zero again. */
+        Snapshot withLogin(LocalDateTime now) {
+            return new Snapshot(ip, authStatus, isAuthenticated, TRUE, has2fa, session, sessionExpiresNanos,
+                    registeredAt, formatDate(now), maskIp(ip), 0, count(0));
+        }
+
+        Snapshot withRegistered(LocalDateTime now) {
+            return new Snapshot(ip, authStatus, isAuthenticated, TRUE, has2fa, session, sessionExpiresNanos,
+                    formatDate(now), formatDate(now), maskIp(ip), failedCount, failedAttempts);
+        }
+
+        Snapshot withTwoFactor(boolean enabled) {
+            return new Snapshot(ip, authStatus, isAuthenticated, isRegistered, enabled ? TRUE : FALSE, session,
+                    sessionExpiresNanos, registeredAt, lastLogin, lastLoginIp, failedCount, failedAttempts);
+        }
+
+        Snapshot withFailedAttempt() {
+            int n = failedCount + 1;
+            return new Snapshot(ip, authStatus, isAuthenticated, isRegistered, has2fa, session, sessionExpiresNanos,
+                    registeredAt, lastLogin, lastLoginIp, n, count(n));
+        }
+
+        Snapshot withSession(OptionalLong expiresAtNanos) {
+            return new Snapshot(ip, authStatus, isAuthenticated, isRegistered, has2fa, expiresAtNanos.isPresent(),
+                    expiresAtNanos.orElse(0), registeredAt, lastLogin, lastLoginIp, failedCount, failedAttempts);
+        }
+
+        /** @param account the row, or {@code null} if the player has no account */
+        Snapshot withAccount(Account account, boolean twoFactor) {
+            if (account == null)
+                return new Snapshot(ip, authStatus, isAuthenticated, FALSE, FALSE, session, sessionExpiresNanos, NA,
+                        NA, NA, failedCount, failedAttempts);
+            // A login seen before the row arrived is newer than the row
+            boolean loggedInMeanwhile = !NA.equals(lastLogin);
+            return new Snapshot(ip, authStatus, isAuthenticated, TRUE, twoFactor ? TRUE : FALSE, session,
+                    sessionExpiresNanos,
+                    account.registeredAt() != null ? formatDate(account.registeredAt()) : NA,
+                    loggedInMeanwhile ? lastLogin
+                            : account.lastLogin() != null ? formatDate(account.lastLogin()) : NEVER,
+                    loggedInMeanwhile ? lastLoginIp : maskIp(account.lastIp()), failedCount, failedAttempts);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package dev.n1xend.secureauth.papi;
+
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.OfflinePlayer;
+
+/**
+ * The {@code %secureauth_*%} expansion, answered from {@link PlaceholderSnapshots}.
+ *
+ * <p>Replaces {@code SecureAuthExpansion}, which read the account, TOTP and session services on
+ * every request. The identifier and the placeholder names are unchanged.
+ */
+public final class SnapshotExpansion extends PlaceholderExpansion {
+
+    private final String version;
+    private final PlaceholderSnapshots snapshots;
+
+    public SnapshotExpansion(String version, PlaceholderSnapshots snapshots) {
+        this.version = version;
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "secureauth";
+    }
+
+    @Override
+    public String getAuthor() {
+        return "Nixend-creator";
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    /** Kept across {@code /papi reload}: the snapshots belong to the plugin, not to PlaceholderAPI. */
+    @Override
+    public boolean persist() {
+        return true;
+    }
+
+    @Override
+    public String onRequest(OfflinePlayer player, String params) {
+        if (player == null)
+            return null;
+        return snapshots.resolve(player.getUniqueId(), params);
+    }
+}
@@ -0,0 +1,30 @@
+package dev.n1xend.secureauth.player;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The {@code sa_players} columns read by {@link PlayerBulkLookup}: enough to answer "is this
+ * player registered" and to render the account placeholders. The password hash is not read.
+ *
+ * @param registeredAt {@code null} if the row has none
+ * @param lastLogin    {@code null} if the player never logged in
+ * @param lastIp       {@code null} if the player never logged in
+ */
+public record AccountRow(UUID uuid, String name, LocalDateTime registeredAt, LocalDateTime lastLogin,
+        String lastIp) {
+
+    /** {@link PlayerBulkLookup.RowMapper} for a {@code SELECT * FROM sa_players} result. */
+    public static AccountRow map(ResultSet rs) throws SQLException {
+        return new AccountRow(UUID.fromString(rs.getString("uuid")), rs.getString("name"),
+                toLocal(rs.getTimestamp("registered_at")), toLocal(rs.getTimestamp("last_login")),
+                rs.getString("last_ip"));
+    }
+
+    private static LocalDateTime toLocal(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
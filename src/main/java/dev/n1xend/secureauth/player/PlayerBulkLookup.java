@@ -0,0 +1,155 @@
+package dev.n1xend.secureauth.player;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Many-player reads against {@code sa_players}: one {@code IN (...)} query per
+ * {@value #CHUNK_SIZE} UUIDs instead of one round trip per player.
+ *
+ * <p>Chunks stay below SQLite's historical limit of 999 bound parameters and keep MySQL
+ * statements small; all chunks of a call share one connection. Mapped rows are kept in the
+ * account cache passed in, so a scoreboard refreshing 200 online players costs a single query
+ * the first time and none afterwards. The owner of that cache invalidates it on changes it
+ * learns of and bounds the rest with an expiry. Only existing accounts are cached — negative
+ * answers come from {@link RegistrationIndex}, which sees every registration.
+ *
+ * @param <T> the account model, e.g. {@link AccountRow}
+ */
+public final class PlayerBulkLookup<T> {
+
+    static final int CHUNK_SIZE = 500;
+
+    /** Maps the current row of a {@code SELECT * FROM sa_players} result. */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private final SqlStore database;
+    private final Cache<UUID, T> accounts;
+    private final RowMapper<T> mapper;
+    private final Executor executor;
+    private final LatencyHistogram queryTimer;
+
+    /**
+     * @param accounts cache of existing accounts; bulk loads fill it
+     * @param mapper   maps one {@code sa_players} row, e.g. {@link AccountRow#map}
+     * @param executor runs the {@code *Async} variants
+     */
+    public PlayerBulkLookup(SqlStore database, Cache<UUID, T> accounts, RowMapper<T> mapper, Executor executor,
+            MetricsRegistry metrics) {
+        this.database = database;
+        this.accounts = accounts;
+        this.mapper = mapper;
+        this.executor = executor;
+        this.queryTimer = metrics.timer(MetricsRegistry.QUERY_PREFIX + "players_bulk");
+    }
+
+    /**
+     * @return an entry for every UUID in {@code uuids}; {@code true} if an account exists
+     * @throws SQLException if the database could not be read
+     */
+    public Map<UUID, Boolean> isRegisteredAll(Collection<? extends UUID> uuids) throws SQLException {
+        Map<UUID, T> found = findAllByUuid(uuids);
+        Map<UUID, Boolean> out = new HashMap<>();
+        for (UUID uuid : uuids)
+            out.put(uuid, found.containsKey(uuid));
+        return out;
+    }
+
+    /**
+     * Returns the accounts of {@code uuids}, loading the ones not cached in one chunked query
+     * and caching them. Players without an account are absent from the result.
+     *
+     * @throws SQLException if the database could not be read
+     */
+    public Map<UUID, T> findAllByUuid(Collection<? extends UUID> uuids) throws SQLException {
+        try {
+            return accounts.getAll(uuids, this::load);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sql)
+                throw sql;
+            throw e;
+        }
+    }
+
+    /** {@link #findAllByUuid} on the lookup's executor; fails with the {@link SQLException} as cause. */
+    public CompletableFuture<Map<UUID, T>> findAllByUuidAsync(Collection<? extends UUID> uuids) {
+        List<UUID> copy = List.copyOf(uuids);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return findAllByUuid(copy);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /** Drops the cached account of {@code uuid}, after an unregister or a change on another server. */
+    public void invalidate(UUID uuid) {
+        accounts.invalidate(uuid);
+    }
+
+    /** Caffeine bulk loader: the rows of {@code keys} that exist. */
+    private Map<UUID, T> load(Set<? extends UUID> keys) {
+        Map<UUID, T> out = new HashMap<>();
+        try {
+            query(new ArrayList<>(keys), rs -> out.put(UUID.fromString(rs.getString("uuid")), mapper.map(rs)));
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+        return out;
+    }
+
+    // ── Chunked IN query ──────────────────────────────────────────────────────
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private void query(List<UUID> uuids, RowConsumer consumer) throws SQLException {
+        if (uuids.isEmpty())
+            return;
+        long start = System.nanoTime();
+        try (Connection c = database.read()) {
+            for (int from = 0; from < uuids.size(); from += CHUNK_SIZE) {
+                List<UUID> chunk = uuids.subList(from, Math.min(uuids.size(), from + CHUNK_SIZE));
+                try (PreparedStatement ps = c.prepareStatement(inQuery(chunk.size()))) {
+                    for (int i = 0; i < chunk.size(); i++)
+                        ps.setString(i + 1, chunk.get(i).toString());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next())
+                            consumer.accept(rs);
+                    }
+                }
+            }
+        }
+        queryTimer.recordSince(start);
+    }
+
+    private static String inQuery(int params) {
+        StringBuilder sb = new StringBuilder(48 + params * 2).append("SELECT * FROM sa_players WHERE uuid IN (");
+        for (int i = 0; i < params; i++)
+            sb.append(i == 0 ? "?" : ",?");
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,259 @@
+package dev.n1xend.secureauth.player;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.n1xend.secureauth.audit.AuditEvent;
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * "Is this UUID registered?" without a database query for names that have no account.
+ *
+ * <p>Bot floods join with random names; every one used to miss the account cache and cost a
+ * {@code sa_players} lookup just to learn it does not exist. A {@link UuidBloomFilter} over all
+ * registered UUIDs answers "definitely not registered" from memory. Its false positives fall
+ * through to a bounded negative cache and then to {@link PlayerBulkLookup}, which answers
+ * registered players from the account cache.
+ *
+ * <p>The filter can only grow: registrations (locally, from other servers and from imports)
+ * are added as they happen; deleted accounts stay in it as harmless false positives. It is
+ * rebuilt in the background once deletions or growth degrade it. Until the first build
+ * completes every lookup goes to the database.
+ *
+ * <p>A registration the filter does not hear about would be answered "not registered", so
+ * negatives (from the filter and the negative cache) are only trusted once the feed that
+ * carries every registration has taken {@link #registrationHook()}. Until then every lookup that
+ * is not a cached account goes to the database. That feed may trail the commit by a few seconds,
+ * so players who {@link #onLeft left} within the last {@value #RECHECK_AFTER_LEAVING_SECONDS}
+ * seconds — the only ones who can have just registered here and be joining again — are looked
+ * up in the database too.
+ */
+public final class RegistrationIndex {
+
+    private static final double FPP = 0.01;
+    private static final long MIN_EXPECTED = 10_000;
+    private static final long RECHECK_AFTER_LEAVING_SECONDS = 60;
+
+    private final SqlStore database;
+    private final PlayerBulkLookup<?> lookup;
+    private final Logger log;
+    private final Cache<UUID, Boolean> notRegistered = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .maximumSize(20_000)
+            .build();
+    private final Cache<UUID, Boolean> recentlyLeft = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(RECHECK_AFTER_LEAVING_SECONDS))
+            .maximumSize(20_000)
+            .build();
+
+    private final LongAdder filterNegatives;
+    private final LongAdder negativeCacheHits;
+    private final LongAdder databaseLookups;
+    private final LongAdder falsePositives;
+
+    private volatile UuidBloomFilter filter;
+    /** Filter being built; adds go to both. Guarded by {@code this}. */
+    private UuidBloomFilter building;
+    /** Bumped on every registration, before the negative cache is invalidated. */
+    private final AtomicLong registrations = new AtomicLong();
+    private final AtomicLong addedSinceBuild = new AtomicLong();
+    private final AtomicLong removedSinceBuild = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean hooked;
+    private volatile long builtFrom;
+
+    public RegistrationIndex(SqlStore database, PlayerBulkLookup<?> lookup, MetricsRegistry metrics, Logger log) {
+        this.database = database;
+        this.lookup = lookup;
+        this.log = log;
+        this.filterNegatives = metrics.counter(MetricsRegistry.REGISTRATION_FILTER_NEGATIVE);
+        this.negativeCacheHits = metrics.counter(MetricsRegistry.REGISTRATION_NEGATIVE_CACHE_HIT);
+        this.databaseLookups = metrics.counter(MetricsRegistry.REGISTRATION_DB_LOOKUP);
+        this.falsePositives = metrics.counter(MetricsRegistry.REGISTRATION_FALSE_POSITIVE);
+    }
+
+    /**
+     * @return whether {@code uuid} has an account
+     * @throws SQLException if the answer needed the database and it could not be read
+     */
+    public boolean isRegistered(UUID uuid) throws SQLException {
+        if (!hooked || recentlyLeft.getIfPresent(uuid) != null) {
+            databaseLookups.increment();
+            return lookup.isRegisteredAll(List.of(uuid)).get(uuid);
+        }
+        UuidBloomFilter f = filter;
+        if (f != null && !f.mightContain(uuid)) {
+            filterNegatives.increment();
+            return false;
+        }
+        if (notRegistered.getIfPresent(uuid) != null) {
+            negativeCacheHits.increment();
+            return false;
+        }
+        databaseLookups.increment();
+        long generation = registrations.get();
+        boolean registered = lookup.isRegisteredAll(List.of(uuid)).get(uuid);
+        if (!registered) {
+            if (f != null)
+                falsePositives.increment();
+            // A registration during the query may have invalidated already; do not cache over it
+            if (registrations.get() == generation)
+                notRegistered.put(uuid, Boolean.TRUE);
+        }
+        return registered;
+    }
+
+    // ── Change sources ────────────────────────────────────────────────────────
+
+    /**
+     * The callback for a feed that reports every committed registration, e.g. the audit rows
+     * polled by {@code AuthStats}. Taking it switches negative answers on.
+     */
+    public Consumer<UUID> registrationHook() {
+        hooked = true;
+        return this::onRegistered;
+    }
+
+    /** {@code uuid} now has an account (registered here, on another server, or imported). */
+    public void onRegistered(UUID uuid) {
+        synchronized (this) {
+            UuidBloomFilter f = filter;
+            if (f != null)
+                f.put(uuid);
+            if (building != null)
+                building.put(uuid);
+        }
+        registrations.incrementAndGet();
+        notRegistered.invalidate(uuid);
+        UuidBloomFilter f = filter;
+        if (f != null && addedSinceBuild.incrementAndGet() + builtFrom > f.expected())
+            rebuildAsync("grown past its capacity");
+    }
+
+    /**
+     * {@code uuid} left the server. A registration made just before may not have reached the
+     * filter yet, so the next lookups for it go to the database for a while.
+     */
+    public void onLeft(UUID uuid) {
+        recentlyLeft.put(uuid, Boolean.TRUE);
+    }
+
+    /** The account of {@code uuid} was deleted. */
+    public void onUnregistered(UUID uuid) {
+        lookup.invalidate(uuid);
+        UuidBloomFilter f = filter;
+        if (f != null && removedSinceBuild.incrementAndGet() > Math.max(1000, builtFrom / 10))
+            rebuildAsync("many accounts deleted");
+    }
+
+    /** Audit hook: registrations grow the filter (in addition to {@link #registrationHook()}). */
+    public void onAudit(AuditEvent event, UUID uuid) {
+        if (event == AuditEvent.REGISTER && uuid != null)
+            onRegistered(uuid);
+    }
+
+    // ── Building ──────────────────────────────────────────────────────────────
+
+    /**
+     * Builds or rebuilds the filter from {@code sa_players} on a virtual thread unless a build is
+     * already running. Until the first build completes every lookup goes to the database.
+     */
+    public void rebuildAsync(String reason) {
+        if (!rebuilding.compareAndSet(false, true))
+            return;
+        Thread.startVirtualThread(() -> {
+            try {
+                log.info("[SecureAuth] Building the registration filter ({}).", reason);
+                build();
+            } catch (SQLException | RuntimeException e) {
+                log.warn("[SecureAuth] Registration filter build failed, lookups keep using the database: {}",
+                        e.getMessage());
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    private void build() throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Connection c = database.read()) {
+            long count;
+            try (PreparedStatement ps = c.prepareStatement("SELECT COUNT(*) FROM sa_players");
+                    ResultSet rs = ps.executeQuery()) {
+                count = rs.next() ? rs.getLong(1) : 0;
+            }
+            // Room to grow before the false-positive rate degrades
+            UuidBloomFilter fresh = new UuidBloomFilter(Math.max(MIN_EXPECTED, count * 2), FPP);
+            // Registrations from here on reach the new filter even if the scan misses them
+            synchronized (this) {
+                building = fresh;
+            }
+            long loaded = 0;
+            try (PreparedStatement ps = c.prepareStatement("SELECT uuid FROM sa_players",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(database.isMysql() ? Integer.MIN_VALUE : 1000);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        fresh.put(UUID.fromString(rs.getString(1)));
+                        loaded++;
+                    }
+                }
+            }
+            synchronized (this) {
+                filter = fresh;
+                building = null;
+            }
+            builtFrom = loaded;
+            addedSinceBuild.set(0);
+            removedSinceBuild.set(0);
+            log.info("[SecureAuth] Registration filter: {} account(s), {} KB, built in {}ms.", loaded,
+                    fresh.sizeBytes() / 1024, System.currentTimeMillis() - start);
+        } finally {
+            synchronized (this) {
+                building = null;
+            }
+        }
+    }
+
+    // ── Stats ─────────────────────────────────────────────────────────────────
+
+    public Stats stats() {
+        return new Stats(filter != null && hooked, builtFrom + addedSinceBuild.get(), filterNegatives.sum(),
+                negativeCacheHits.sum(), databaseLookups.sum(), falsePositives.sum());
+    }
+
+    /**
+     * @param ready             the filter has been built and negatives are trusted
+     * @param accounts          accounts in the filter (approximate)
+     * @param filterNegatives   lookups answered "not registered" by the filter
+     * @param negativeCacheHits filter false positives answered by the negative cache
+     * @param databaseLookups   lookups that reached the database
+     * @param falsePositives    database lookups the filter let through for unregistered UUIDs
+     */
+    public record Stats(boolean ready, long accounts, long filterNegatives, long negativeCacheHits,
+            long databaseLookups, long falsePositives) {
+
+        public long lookups() {
+            return filterNegatives + negativeCacheHits + databaseLookups;
+        }
+
+        /** Share of lookups answered from memory, 0..1. */
+        public double hitRatio() {
+            long total = lookups();
+            return total == 0 ? 0 : (double) (filterNegatives + negativeCacheHits) / total;
+        }
+    }
+}
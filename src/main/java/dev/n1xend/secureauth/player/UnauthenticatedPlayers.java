@@ -0,0 +1,53 @@
+package dev.n1xend.secureauth.player;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Online players who have not logged in yet — the only players protection handlers care about.
+ *
+ * <p>A movement or chat check is a single concurrent-set lookup, with no auth-state object to
+ * resolve. With a few hundred players online the set is usually empty or tiny. Whenever it
+ * changes between empty and non-empty the occupancy listener runs, so callers can keep per-event
+ * handlers registered only while someone needs protecting. Transitions from different threads
+ * may be reported out of order; the listener must re-read {@link #isEmpty} rather than trust
+ * the order of calls.
+ */
+public final class UnauthenticatedPlayers {
+
+    private final Set<UUID> players = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile Runnable occupancyListener = () -> {};
+
+    /** Called after the set became empty or non-empty, on the thread that changed it. */
+    public void setOccupancyListener(Runnable listener) {
+        this.occupancyListener = listener;
+    }
+
+    /** Marks {@code uuid} as joined but not logged in. */
+    public void add(UUID uuid) {
+        if (players.add(uuid) && size.getAndIncrement() == 0)
+            occupancyListener.run();
+    }
+
+    /** {@code uuid} logged in or left. */
+    public void remove(UUID uuid) {
+        if (players.remove(uuid) && size.decrementAndGet() == 0)
+            occupancyListener.run();
+    }
+
+    /** @return {@code true} if {@code uuid} is online and must be restricted */
+    public boolean contains(UUID uuid) {
+        return players.contains(uuid);
+    }
+
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    public int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,67 @@
+package dev.n1xend.secureauth.player;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over UUIDs: {@link #mightContain} never returns {@code false} for an
+ * added UUID, and returns {@code true} for an absent one with probability about
+ * {@code fpp} while no more than {@code expected} UUIDs were added.
+ *
+ * <p>Bits live in an {@link AtomicLongArray}, so adds are lock-free and reads never block.
+ * Probe positions use double hashing over a 64-bit mix of both UUID halves.
+ */
+final class UuidBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final long expected;
+
+    UuidBloomFilter(long expected, double fpp) {
+        this.expected = Math.max(1, expected);
+        long m = (long) Math.ceil(-this.expected * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.max(1, (m + 63) >>> 6));
+        this.bits = (long) words.length() << 6;
+        this.hashes = (int) Math.max(1, Math.round((double) bits / this.expected * Math.log(2)));
+    }
+
+    void put(UUID uuid) {
+        long h1 = mix(uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits()));
+        long h2 = mix(uuid.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.weakCompareAndSetVolatile(word, current, current | mask))
+                current = words.get(word);
+        }
+    }
+
+    boolean mightContain(UUID uuid) {
+        long h1 = mix(uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits()));
+        long h2 = mix(uuid.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    long expected() {
+        return expected;
+    }
+
+    long sizeBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    /** SplitMix64 finaliser. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
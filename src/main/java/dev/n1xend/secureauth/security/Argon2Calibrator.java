@@ -0,0 +1,238 @@
+package dev.n1xend.secureauth.security;
+
+import de.mkammerer.argon2.Argon2;
+import de.mkammerer.argon2.Argon2Factory;
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Picks Argon2id parameters for this host by measuring them.
+ *
+ * <p>Candidates are every memory cost from {@code max-memory-mb} halving down to
+ * {@code min-memory-mb}, combined with {@code min-iterations..max-iterations}, tried strongest
+ * first (memory × iterations). A candidate is measured the way production runs it: on the
+ * {@link HashingEngine} pool itself ({@link HashingEngine#runTrial}), as many hashes at once as
+ * the pool allows for that memory cost, so memory-bandwidth contention is part of the number and
+ * trial hashes never add to the logins' memory beyond the budget. The first candidate
+ * whose p99 meets {@code target-p99-ms} wins. Candidates the previous measurements predict to be
+ * far too slow are skipped, which keeps a calibration to a handful of trials. Parallelism is
+ * taken from {@code security.argon2.parallelism} and not searched. Only one calibration runs at
+ * a time.
+ */
+public final class Argon2Calibrator {
+
+    private static final int MAX_TRIALS = 8;
+    /** A candidate predicted above target × this factor is not measured. */
+    private static final double SKIP_FACTOR = 1.25;
+
+    private final Settings settings;
+    private final Logger log;
+    private final Argon2 argon2 = Argon2Factory.create(Argon2Factory.Argon2Types.ARGON2id);
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public Argon2Calibrator(Settings settings, Logger log) {
+        this.settings = settings;
+        this.log = log;
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    /** {@code true} while a calibration is running. */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Measures candidates, blocking the calling thread for seconds (never the main thread). The
+     * caller decides whether to {@link HashingEngine#apply} the result.
+     *
+     * @param engine the engine whose pool and parallelism the candidates are run with
+     * @throws IllegalStateException if another calibration is running
+     */
+    public Result calibrate(HashingEngine engine) {
+        if (!running.compareAndSet(false, true))
+            throw new IllegalStateException("An Argon2 calibration is already running");
+        try {
+            return report(search(engine));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Result report(Result result) {
+        Trial t = result.trial();
+        if (result.metTarget())
+            log.info("[SecureAuth] Argon2 calibrated in {}ms: {} (p99 {}ms with {} concurrent, target {}ms).",
+                    result.elapsedMillis(), result.chosen(), Math.round(t.p99Millis()), t.concurrency(),
+                    settings.targetP99().toMillis());
+        else
+            log.warn("[SecureAuth] Argon2 calibration: no candidate meets p99 {}ms on this host; using the cheapest,"
+                    + " {} (p99 {}ms with {} concurrent).", settings.targetP99().toMillis(), result.chosen(),
+                    Math.round(t.p99Millis()), t.concurrency());
+        return result;
+    }
+
+    private Result search(HashingEngine engine) {
+        int parallelism = engine.params().parallelism();
+        long start = System.nanoTime();
+        long targetNanos = settings.targetP99().toNanos();
+        List<Trial> trials = new ArrayList<>();
+        double nanosPerUnit = 0;
+
+        for (Argon2Params candidate : candidates(parallelism)) {
+            if (trials.size() >= MAX_TRIALS)
+                break;
+            if (nanosPerUnit > 0 && nanosPerUnit * candidate.strength() > targetNanos * SKIP_FACTOR)
+                continue;
+            Trial trial = measure(engine, candidate, targetNanos);
+            trials.add(trial);
+            nanosPerUnit = (double) trial.p99Nanos() / candidate.strength();
+            log.debug("[SecureAuth] Argon2 calibration: {} x{} -> p99 {}ms", candidate, trial.concurrency(),
+                    trial.p99Millis());
+            if (trial.p99Nanos() <= targetNanos)
+                return new Result(candidate, trial, true, trials, elapsedMillis(start));
+        }
+
+        // Nothing met the target: fall back to the cheapest candidate, measured
+        List<Argon2Params> all = candidates(parallelism);
+        Argon2Params weakest = all.get(all.size() - 1);
+        Trial trial = trials.stream().filter(t -> t.params().equals(weakest)).findFirst()
+                .orElseGet(() -> measure(engine, weakest, targetNanos));
+        return new Result(weakest, trial, false, trials, elapsedMillis(start));
+    }
+
+    List<Argon2Params> candidates(int parallelism) {
+        List<Argon2Params> out = new ArrayList<>();
+        List<Integer> memories = new ArrayList<>();
+        for (int m = settings.maxMemoryKb(); m > settings.minMemoryKb(); m /= 2)
+            memories.add(m);
+        memories.add(settings.minMemoryKb());
+        for (int m : memories) {
+            for (int t = settings.maxIterations(); t >= settings.minIterations(); t--)
+                out.add(new Argon2Params(m, t, parallelism));
+        }
+        out.sort(Comparator.comparingLong(Argon2Params::strength).thenComparingInt(Argon2Params::memoryKb)
+                .reversed());
+        return out;
+    }
+
+    /**
+     * Hashes {@code samples} times through the engine, {@code concurrency} at a time, after one
+     * warm-up hash per slot. Latencies exclude queue waits behind logins. Stops early once a
+     * sample is far above target — the candidate cannot pass — or the engine refuses a hash.
+     */
+    private Trial measure(HashingEngine engine, Argon2Params p, long targetNanos) {
+        return engine.runTrial(p, concurrency -> {
+            int samples = Math.max(settings.samples(), concurrency * 3);
+            long[] latencies = new long[samples];
+            AtomicInteger next = new AtomicInteger();
+            long abortAbove = targetNanos * 3;
+            char[] password = "calibration-password".toCharArray();
+            Supplier<Long> hash = () -> {
+                long t0 = System.nanoTime();
+                argon2.hash(p.iterations(), p.memoryKb(), p.parallelism(), password);
+                return System.nanoTime() - t0;
+            };
+
+            List<Thread> drivers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                drivers.add(Thread.ofVirtual().name("SecureAuth-Calibrate-" + (i + 1)).start(() -> {
+                    try {
+                        engine.submit(hash).join();
+                        int slot;
+                        while ((slot = next.getAndIncrement()) < samples) {
+                            long took = engine.submit(hash).join();
+                            latencies[slot] = took;
+                            if (took > abortAbove)
+                                next.set(samples);
+                        }
+                    } catch (CompletionException | CancellationException e) {
+                        next.set(samples);
+                        log.debug("[SecureAuth] Argon2 calibration: {} stopped: {}", p, e.getMessage());
+                    }
+                }));
+            }
+            for (Thread t : drivers) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    next.set(samples);
+                    break;
+                }
+            }
+            long[] taken = Arrays.stream(latencies).filter(l -> l > 0).sorted().toArray();
+            long p99 = taken.length == 0 ? Long.MAX_VALUE : taken[(int) Math.ceil(taken.length * 0.99) - 1];
+            long p50 = taken.length == 0 ? Long.MAX_VALUE : taken[(taken.length - 1) / 2];
+            return new Trial(p, concurrency, taken.length, p50, p99);
+        });
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    /** One measured candidate; with few samples p99 is effectively the maximum. */
+    public record Trial(Argon2Params params, int concurrency, int samples, long p50Nanos, long p99Nanos) {
+
+        public double p50Millis() {
+            return p50Nanos / 1_000_000.0;
+        }
+
+        public double p99Millis() {
+            return p99Nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * @param chosen    parameters to use
+     * @param trial     measurement of {@code chosen}
+     * @param metTarget {@code false} if even the cheapest candidate missed the target
+     * @param trials    every candidate measured, strongest first
+     */
+    public record Result(Argon2Params chosen, Trial trial, boolean metTarget, List<Trial> trials,
+            long elapsedMillis) {
+    }
+
+    /**
+     * @param enabled       calibrate at startup
+     * @param targetP99     latency one hash may take at the 99th percentile under full concurrency
+     * @param minMemoryKb   lowest memory cost considered (OWASP recommends at least 19 MiB)
+     * @param maxMemoryKb   highest memory cost considered, i.e. the per-hash memory budget
+     * @param minIterations lowest time cost considered
+     * @param maxIterations highest time cost considered
+     * @param samples       hashes per measured candidate (at least 3 per concurrent slot)
+     */
+    public record Settings(boolean enabled, Duration targetP99, int minMemoryKb, int maxMemoryKb, int minIterations,
+            int maxIterations, int samples) {
+
+        /** Reads {@code security.argon2.calibration}; {@code null} = disabled with defaults. */
+        public static Settings fromConfig(ConfigurationSection section) {
+            if (section == null)
+                return new Settings(false, Duration.ofMillis(250), 19 * 1024, 256 * 1024, 2, 6, 40);
+            int minMemory = Math.max(8, section.getInt("min-memory-mb", 19)) * 1024;
+            int minIterations = Math.max(1, section.getInt("min-iterations", 2));
+            return new Settings(section.getBoolean("enabled", false),
+                    Duration.ofMillis(Math.max(10, section.getLong("target-p99-ms", 250))), minMemory,
+                    Math.max(minMemory, section.getInt("max-memory-mb", 256) * 1024), minIterations,
+                    Math.max(minIterations, section.getInt("max-iterations", 6)),
+                    Math.max(10, section.getInt("samples", 40)));
+        }
+    }
+}
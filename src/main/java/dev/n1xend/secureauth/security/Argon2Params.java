@@ -0,0 +1,75 @@
+package dev.n1xend.secureauth.security;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Argon2id cost parameters.
+ *
+ * <p>Every hash we store is a PHC string ({@code $argon2id$v=19$m=65536,t=3,p=4$salt$hash}),
+ * so it carries the parameters it was made with; {@link #parse} reads them back to decide
+ * whether a hash is outdated.
+ *
+ * @param memoryKb    memory cost in KiB
+ * @param iterations  time cost
+ * @param parallelism lanes
+ */
+public record Argon2Params(int memoryKb, int iterations, int parallelism) {
+
+    /** Reads {@code security.argon2.memory/iterations/parallelism}. */
+    public static Argon2Params fromConfig(ConfigurationSection argon2) {
+        return new Argon2Params(Math.max(8 * 1024, argon2.getInt("memory", 65536)),
+                Math.max(1, argon2.getInt("iterations", 3)), Math.max(1, argon2.getInt("parallelism", 4)));
+    }
+
+    /**
+     * @return the parameters encoded in an Argon2 PHC string, or {@code null} if {@code hash}
+     *         is not one
+     */
+    public static Argon2Params parse(String hash) {
+        if (hash == null || !hash.startsWith("$argon2"))
+            return null;
+        for (String part : hash.split("\\$")) {
+            if (!part.startsWith("m="))
+                continue;
+            int m = -1;
+            int t = -1;
+            int p = -1;
+            try {
+                for (String kv : part.split(",")) {
+                    int v = Integer.parseInt(kv.substring(2));
+                    switch (kv.charAt(0)) {
+                        case 'm' -> m = v;
+                        case 't' -> t = v;
+                        case 'p' -> p = v;
+                        default -> {
+                        }
+                    }
+                }
+            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                return null;
+            }
+            return m > 0 && t > 0 && p > 0 ? new Argon2Params(m, t, p) : null;
+        }
+        return null;
+    }
+
+    /** Relative cost used to rank candidates: memory × iterations. */
+    public long strength() {
+        return (long) memoryKb * iterations;
+    }
+
+    /**
+     * {@code true} if a hash made with these parameters should be replaced by one made with
+     * {@code target}: its {@link #strength} is lower. A different split of the same cost
+     * ({@code m=128M,t=2} against {@code m=64M,t=4}) is not weaker, so hosts that calibrate
+     * slightly differently do not rehash each other's accounts back and forth.
+     */
+    public boolean isWeakerThan(Argon2Params target) {
+        return strength() < target.strength();
+    }
+
+    @Override
+    public String toString() {
+        return "m=" + memoryKb + ",t=" + iterations + ",p=" + parallelism;
+    }
+}
@@ -0,0 +1,135 @@
+package dev.n1xend.secureauth.security;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Password hash formats found in {@code sa_players.password_hash}.
+ *
+ * <p>Accounts imported from other auth plugins keep their original hash; nothing is rehashed
+ * during an import. On the player's next successful login the password is verified with
+ * {@link #verify} and the row is rewritten with an Argon2id hash, after which the legacy hash
+ * is gone. The format is recognised from the hash string itself, so no extra column is needed.
+ */
+public enum HashFormat {
+
+    /** Our own format; parameters are encoded in the hash ({@link Argon2Params#parse}). */
+    ARGON2,
+    /** {@code $2a$}/{@code $2b$}/{@code $2y$} — AuthMe BCRYPT/BCRYPT2Y, nLogin BCRYPT2A. */
+    BCRYPT,
+    /** {@code $SHA$salt$hex} — AuthMe SHA256: {@code sha256(sha256(password) + salt)}. */
+    SHA256_SALTED,
+    /** {@code $SHA512$hex$salt} — nLogin SHA512: {@code sha512(sha512(password) + salt)}. */
+    SHA512_SALTED,
+    /**
+     * {@code pbkdf2_sha256$iterations$salt$hash} — AuthMe PBKDF2 (64-byte key, upper-case hex) and
+     * PBKDF2DJANGO (32-byte key, Base64).
+     */
+    PBKDF2_SHA256,
+    /** Anything else; such rows are not imported. */
+    UNKNOWN;
+
+    /** PBKDF2 rounds above this would stall a login; Django 5.2 uses 1,000,000. */
+    static final int MAX_PBKDF2_ITERATIONS = 10_000_000;
+
+    public static HashFormat detect(String hash) {
+        if (hash == null || hash.isEmpty())
+            return UNKNOWN;
+        if (hash.startsWith("$argon2"))
+            return ARGON2;
+        if (hash.length() == 60 && (hash.startsWith("$2a$") || hash.startsWith("$2b$") || hash.startsWith("$2y$")))
+            return BCRYPT;
+        if (hash.startsWith("$SHA$") && hash.split("\\$").length == 4)
+            return SHA256_SALTED;
+        if (hash.startsWith("$SHA512$") && hash.split("\\$").length == 4)
+            return SHA512_SALTED;
+        if (hash.startsWith("pbkdf2_sha256$") && isUsablePbkdf2(hash.split("\\$")))
+            return PBKDF2_SHA256;
+        return UNKNOWN;
+    }
+
+    /** "pbkdf2_sha256", iterations, salt, key — with a round count and key that {@link #verify} accepts. */
+    private static boolean isUsablePbkdf2(String[] parts) {
+        if (parts.length != 4 || parts[1].isEmpty() || parts[1].length() > 9 || parts[2].isEmpty()
+                || !parts[1].chars().allMatch(c -> c >= '0' && c <= '9'))
+            return false;
+        int iterations = Integer.parseInt(parts[1]);
+        if (iterations < 1 || iterations > MAX_PBKDF2_ITERATIONS)
+            return false;
+        try {
+            return pbkdf2Key(parts[3]).length > 0;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** {@code true} for formats that should be replaced by Argon2id on the next login. */
+    public boolean isLegacy() {
+        return this != ARGON2 && this != UNKNOWN;
+    }
+
+    /**
+     * Checks {@code password} against a legacy {@code hash} of this format, in constant time.
+     *
+     * @throws UnsupportedOperationException for {@link #ARGON2} (use {@link HashingEngine#verify}) and
+     *                                       {@link #UNKNOWN}
+     */
+    public boolean verify(String hash, String password) {
+        String[] parts = hash.split("\\$");
+        return switch (this) {
+            case BCRYPT -> BCrypt.verifyer().verify(password.toCharArray(), hash.toCharArray()).verified;
+            // "", "SHA", salt, hash
+            case SHA256_SALTED -> equalsHex(parts[3], saltedDouble("SHA-256", password, parts[2]));
+            // "", "SHA512", hash, salt
+            case SHA512_SALTED -> equalsHex(parts[2], saltedDouble("SHA-512", password, parts[3]));
+            // "pbkdf2_sha256", iterations, salt, hash
+            case PBKDF2_SHA256 -> verifyPbkdf2(password, Integer.parseInt(parts[1]), parts[2], parts[3]);
+            case ARGON2, UNKNOWN -> throw new UnsupportedOperationException("Not a legacy format: " + this);
+        };
+    }
+
+    private static String saltedDouble(String algorithm, String password, String salt) {
+        HexFormat hex = HexFormat.of();
+        String inner = hex.formatHex(digest(algorithm).digest(password.getBytes(StandardCharsets.UTF_8)));
+        return hex.formatHex(digest(algorithm).digest((inner + salt).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static boolean verifyPbkdf2(String password, int iterations, String salt, String expected) {
+        byte[] want = pbkdf2Key(expected);
+        try {
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8),
+                    iterations, want.length * 8);
+            byte[] got = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+            return MessageDigest.isEqual(got, want);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] pbkdf2Key(String encoded) {
+        // Base64 of the 32-byte Django key always ends in '=', so an all-hex string is AuthMe's
+        boolean isHex = encoded.length() % 2 == 0 && encoded.chars().allMatch(ch -> Character.digit(ch, 16) >= 0);
+        return isHex ? HexFormat.of().parseHex(encoded) : Base64.getDecoder().decode(encoded);
+    }
+
+    private static boolean equalsHex(String expected, String actual) {
+        return MessageDigest.isEqual(expected.toLowerCase().getBytes(StandardCharsets.US_ASCII),
+                actual.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static MessageDigest digest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package dev.n1xend.secureauth.security;
+
+import de.mkammerer.argon2.Argon2;
+import de.mkammerer.argon2.Argon2Factory;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor for Argon2 hash/verify work.
+ *
+ * <p>Every Argon2id call allocates {@code security.argon2.memory} KiB of native memory,
+ * so running one per login on unbounded virtual threads lets a join storm allocate
+ * hundreds of those blocks at once. This engine runs them on a fixed pool whose size is
+ * derived from the memory budget and the CPU count; excess requests wait in a FIFO queue.
+ * A request still queued when the configured timeout elapses is removed from the queue and its
+ * future fails with {@link TimeoutException} at that moment, so callers never wait past it.
+ *
+ * <p>Platform threads are used on purpose: Argon2 runs through JNI, which pins the carrier
+ * of a virtual thread for the whole hash anyway.
+ *
+ * <p>New hashes use the engine's current {@link Argon2Params}, which start from
+ * {@code security.argon2} and can be replaced at runtime by {@link Argon2Calibrator} results
+ * ({@link #apply}); the pool is resized to the new memory cost. Verification reads the
+ * parameters from the stored hash, so hashes made with older parameters keep working.
+ */
+public final class HashingEngine {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+
+    private final Settings settings;
+    private final Logger log;
+    private final Argon2 argon2 = Argon2Factory.create(Argon2Factory.Argon2Types.ARGON2id);
+    private volatile Argon2Params params;
+    private volatile int permits;
+    private final long queueTimeoutNanos;
+    private final ThreadPoolExecutor executor;
+    /** Fails requests still queued at their deadline; cancelled deadlines are removed at once. */
+    private final ScheduledThreadPoolExecutor deadlines;
+    private final LatencyHistogram hashTimer;
+    private final LatencyHistogram verifyTimer;
+    private final LatencyHistogram waitTimer;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public HashingEngine(Settings settings, MetricsRegistry metrics, Logger log) {
+        this.settings = settings;
+        this.log = log;
+        this.hashTimer = metrics.timer(MetricsRegistry.PASSWORD_HASH);
+        this.verifyTimer = metrics.timer(MetricsRegistry.PASSWORD_VERIFY);
+        this.waitTimer = metrics.timer(MetricsRegistry.HASH_QUEUE_WAIT);
+        this.params = settings.params();
+        this.permits = settings.permitsFor(params.memoryKb());
+        this.queueTimeoutNanos = settings.queueTimeout().toNanos();
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(permits, permits, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity()), r -> {
+                    Thread t = new Thread(r, "SecureAuth-Argon2-" + threadId.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.deadlines = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "SecureAuth-Argon2-Deadline");
+            t.setDaemon(true);
+            return t;
+        });
+        deadlines.setRemoveOnCancelPolicy(true);
+
+        log.info("[SecureAuth] Argon2 engine: {} concurrent hash(es) x {} MB, queue {} (timeout {}s).", permits,
+                params.memoryKb() / 1024, settings.queueCapacity(), settings.queueTimeout().toSeconds());
+    }
+
+    // ── Public API ────────────────────────────────────────────────────────────
+
+    /** Hashes {@code password} with the current Argon2id parameters. */
+    public CompletableFuture<String> hash(String password) {
+        Argon2Params p = params;
+        return submit(() -> argon2.hash(p.iterations(), p.memoryKb(), p.parallelism(), password.toCharArray()),
+                hashTimer);
+    }
+
+    /**
+     * Checks {@code password} against a stored hash of any {@link HashFormat}: Argon2 with the
+     * parameters encoded in the hash, legacy formats of imported accounts with
+     * {@link HashFormat#verify}. Unknown formats never match.
+     */
+    public CompletableFuture<Boolean> verify(String storedHash, String password) {
+        HashFormat format = HashFormat.detect(storedHash);
+        return switch (format) {
+            case ARGON2 -> submit(() -> argon2.verify(storedHash, password.toCharArray()), verifyTimer);
+            case UNKNOWN -> CompletableFuture.completedFuture(false);
+            default -> submit(() -> format.verify(storedHash, password), verifyTimer);
+        };
+    }
+
+    /**
+     * {@code true} if {@code storedHash} should be replaced after the next successful login: a
+     * legacy format, or Argon2 parameters weaker than the current ones.
+     */
+    public boolean needsRehash(String storedHash) {
+        HashFormat format = HashFormat.detect(storedHash);
+        if (format != HashFormat.ARGON2)
+            return format.isLegacy();
+        Argon2Params stored = Argon2Params.parse(storedHash);
+        return stored == null || stored.isWeakerThan(params);
+    }
+
+    public Argon2Params params() {
+        return params;
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    /** Switches new hashes to {@code next} and resizes the pool for its memory cost. */
+    public synchronized void apply(Argon2Params next) {
+        int size = settings.permitsFor(next.memoryKb());
+        resize(size);
+        params = next;
+        permits = size;
+        log.info("[SecureAuth] Argon2 engine: now {} with {} concurrent hash(es).", next, size);
+    }
+
+    /**
+     * Runs a calibration trial of {@code candidate}. For its duration the pool is sized for the
+     * larger of the current and the candidate memory cost, so trial hashes {@link #submit submitted}
+     * by {@code trial} and login hashes together stay within the memory budget. Calls to
+     * {@link #apply} wait until the trial has finished.
+     *
+     * @param trial receives the number of hashes that can run at once
+     */
+    public synchronized <T> T runTrial(Argon2Params candidate, IntFunction<T> trial) {
+        int size = settings.permitsFor(Math.max(params.memoryKb(), candidate.memoryKb()));
+        resize(size);
+        try {
+            return trial.apply(size);
+        } finally {
+            resize(permits);
+        }
+    }
+
+    private void resize(int size) {
+        // Grow the maximum first / shrink the core first, so core <= max holds throughout
+        if (size > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Runs arbitrary {@link PasswordService} work (e.g. a verify call) under the engine's
+     * concurrency limit. The future completes exceptionally with {@link TimeoutException}
+     * as soon as the task has been queued for longer than the timeout, or {@link RejectedExecutionException}
+     * when the queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return submit(task, null);
+    }
+
+    /**
+     * Same as {@link #submit(Supplier)}, recording the task's run time (queue wait excluded)
+     * in {@code timer}, e.g. {@code metrics.timer(MetricsRegistry.PASSWORD_VERIFY)}.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task, LatencyHistogram timer) {
+        Queued<T> queued = new Queued<>(task, timer);
+        try {
+            executor.execute(queued);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            queued.future.completeExceptionally(e);
+            return queued.future;
+        }
+        try {
+            queued.deadline = deadlines.schedule(queued::expire, queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the task still runs or is dropped by the executor's own shutdown
+        }
+        // A worker may have started it before the deadline was set
+        if (queued.claimed.get())
+            queued.cancelDeadline();
+        return queued.future;
+    }
+
+    public Stats stats() {
+        long done = completed.get();
+        double avgWaitMs = done == 0 ? 0 : (double) totalWaitNanos.get() / done / NANOS_PER_MS;
+        return new Stats(permits, active.get(), executor.getQueue().size(), done, timedOut.get(), rejected.get(),
+                avgWaitMs, (double) maxWaitNanos.get() / NANOS_PER_MS);
+    }
+
+    /** Stops accepting work and waits briefly for in-flight hashes to finish. */
+    public void shutdown() {
+        deadlines.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("[SecureAuth] Argon2 engine: dropped {} queued task(s) at shutdown.",
+                        executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    /**
+     * A queued request. The worker and the deadline race for {@link #claimed}: the worker runs
+     * the task only if it wins, the deadline fails the future and drops the task only if it does.
+     */
+    private final class Queued<T> implements Runnable {
+        final Supplier<T> task;
+        final LatencyHistogram timer;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long enqueuedAt = System.nanoTime();
+        final AtomicBoolean claimed = new AtomicBoolean();
+        volatile ScheduledFuture<?> deadline;
+
+        Queued(Supplier<T> task, LatencyHistogram timer) {
+            this.task = task;
+            this.timer = timer;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true))
+                return;
+            cancelDeadline();
+            long started = System.nanoTime();
+            long waited = started - enqueuedAt;
+            waitTimer.record(waited);
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+            active.incrementAndGet();
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                if (timer != null)
+                    timer.recordSince(started);
+                active.decrementAndGet();
+                completed.incrementAndGet();
+            }
+        }
+
+        void expire() {
+            if (!claimed.compareAndSet(false, true))
+                return;
+            executor.remove(this);
+            long waited = System.nanoTime() - enqueuedAt;
+            waitTimer.record(waited);
+            timedOut.incrementAndGet();
+            future.completeExceptionally(
+                    new TimeoutException("Argon2 queue wait exceeded " + waited / NANOS_PER_MS + "ms"));
+        }
+
+        void cancelDeadline() {
+            ScheduledFuture<?> d = deadline;
+            if (d != null)
+                d.cancel(false);
+        }
+    }
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Engine sizing.
+     *
+     * @param params         initial Argon2id parameters ({@code security.argon2})
+     * @param memoryBudgetMb total memory all concurrent hashes may use; {@code 0} = a quarter of max heap
+     * @param maxConcurrent  hard cap on concurrent hashes; {@code 0} = number of CPU cores
+     * @param queueCapacity  maximum number of waiting requests
+     * @param queueTimeout   maximum time a request may wait before it is failed
+     */
+    public record Settings(Argon2Params params, int memoryBudgetMb, int maxConcurrent, int queueCapacity,
+            Duration queueTimeout) {
+
+        /** Reads the {@code security.argon2} section of {@code config.yml}. */
+        public static Settings fromConfig(ConfigurationSection argon2) {
+            return new Settings(Argon2Params.fromConfig(argon2), argon2.getInt("memory-budget-mb", 0),
+                    argon2.getInt("max-concurrent", 0), Math.max(1, argon2.getInt("queue-capacity", 1024)),
+                    Duration.ofSeconds(Math.max(1, argon2.getInt("queue-timeout-seconds", 10))));
+        }
+
+        /** Concurrent hashes for a memory cost of {@code memoryKb}: CPU cores, capped by the budget. */
+        int permitsFor(int memoryKb) {
+            int cpuCap = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+            long budgetMb = memoryBudgetMb > 0 ? memoryBudgetMb : Runtime.getRuntime().maxMemory() / 4 / 1024 / 1024;
+            long perHashMb = Math.max(1, memoryKb / 1024);
+            return (int) Math.max(1, Math.min(cpuCap, budgetMb / perHashMb));
+        }
+    }
+
+    /**
+     * Point-in-time engine metrics.
+     *
+     * @param permits   concurrent hashes allowed
+     * @param active    hashes currently running
+     * @param queued    requests waiting for a slot
+     * @param completed requests that ran (successfully or not)
+     * @param timedOut  requests failed because they waited past the timeout
+     * @param rejected  requests refused because the queue was full
+     * @param avgWaitMs mean queue wait of completed requests
+     * @param maxWaitMs longest queue wait observed
+     */
+    public record Stats(int permits, int active, int queued, long completed, long timedOut, long rejected,
+            double avgWaitMs, double maxWaitMs) {
+    }
+}
@@ -0,0 +1,113 @@
+package dev.n1xend.secureauth.security;
+
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Login-time password check that also upgrades outdated hashes.
+ *
+ * <p>After a successful verification, a hash that {@link HashingEngine#needsRehash} flags —
+ * an imported legacy format, or Argon2 weaker than the current (possibly calibrated)
+ * parameters — is rehashed from the plaintext the player just typed. The new hash is computed
+ * on the engine's pool and written from a virtual thread; the login result does not wait for
+ * either. The update only applies while the row still holds the hash that was verified, so a
+ * password change in the meantime is never overwritten.
+ *
+ * <p>Imported legacy hashes can only be checked here. The login path takes {@link #loginVerifier()}
+ * once it verifies through this class; until then {@link #isLoginWired()} is {@code false} and
+ * anything that would leave players with a hash only this class understands (an import, a
+ * calibration of the engine) must not run.
+ */
+public final class PasswordUpgrader {
+
+    private static final Executor VIRTUAL = Thread::startVirtualThread;
+
+    private final HashingEngine engine;
+    private final SqlStore database;
+    private final Logger log;
+    private final LongAdder upgraded;
+    private volatile Consumer<UUID> upgradeListener = uuid -> {};
+    private volatile boolean loginWired;
+
+    /** Password check of the login path. */
+    @FunctionalInterface
+    public interface Verifier {
+        /** @return whether the password matches; completes before any upgrade is written */
+        CompletableFuture<Boolean> verify(UUID uuid, String password, String storedHash);
+    }
+
+    public PasswordUpgrader(HashingEngine engine, SqlStore database, MetricsRegistry metrics, Logger log) {
+        this.engine = engine;
+        this.database = database;
+        this.log = log;
+        this.upgraded = metrics.counter(MetricsRegistry.PASSWORD_REHASHED);
+    }
+
+    /** Called with the player's UUID after their hash was replaced, e.g. to drop cached account data. */
+    public void setUpgradeListener(Consumer<UUID> listener) {
+        this.upgradeListener = listener;
+    }
+
+    /**
+     * The verifier the login path must use for stored hashes. Taking it marks every format
+     * {@link HashFormat} knows as one players can log in with.
+     */
+    public Verifier loginVerifier() {
+        loginWired = true;
+        return this::verifyAndUpgrade;
+    }
+
+    /** @return whether the login path verifies through {@link #loginVerifier()} */
+    public boolean isLoginWired() {
+        return loginWired;
+    }
+
+    /**
+     * Verifies {@code password} against {@code storedHash} and, on success, schedules an
+     * upgrade of the stored hash if it is outdated.
+     */
+    private CompletableFuture<Boolean> verifyAndUpgrade(UUID uuid, String password, String storedHash) {
+        return engine.verify(storedHash, password).thenApply(ok -> {
+            if (ok && engine.needsRehash(storedHash))
+                upgrade(uuid, password, storedHash);
+            return ok;
+        });
+    }
+
+    private void upgrade(UUID uuid, String password, String oldHash) {
+        engine.hash(password).thenAcceptAsync(newHash -> {
+            try {
+                int rows = database.write(c -> {
+                    try (PreparedStatement ps = c.prepareStatement(
+                            "UPDATE sa_players SET password_hash = ? WHERE uuid = ? AND password_hash = ?")) {
+                        ps.setString(1, newHash);
+                        ps.setString(2, uuid.toString());
+                        ps.setString(3, oldHash);
+                        return ps.executeUpdate();
+                    }
+                });
+                if (rows == 1) {
+                    upgraded.increment();
+                    upgradeListener.accept(uuid);
+                    log.debug("[SecureAuth] Upgraded password hash of {} ({} -> {}).", uuid,
+                            HashFormat.detect(oldHash), engine.params());
+                }
+            } catch (SQLException e) {
+                log.warn("[SecureAuth] Could not upgrade password hash of {}: {}", uuid, e.getMessage());
+            }
+        }, VIRTUAL).exceptionally(e -> {
+            // Queue full or timed out: the next login tries again
+            log.debug("[SecureAuth] Password hash upgrade of {} skipped: {}", uuid, e.getMessage());
+            return null;
+        });
+    }
+}
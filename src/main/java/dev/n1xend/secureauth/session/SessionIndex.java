@@ -0,0 +1,318 @@
+package dev.n1xend.secureauth.session;
+
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Authoritative in-memory session store with write-behind persistence to {@code sa_sessions}.
+ *
+ * <p>Every session check ({@code SessionApi.hasValidSession}, {@code %secureauth_has_session%},
+ * the join path) is a map lookup; expiry uses {@link System#nanoTime()}, so it is immune to
+ * wall-clock jumps and timezone mismatches. Creates and invalidations are coalesced per player
+ * and written by a single background thread in one transaction per flush, every
+ * {@value #FLUSH_INTERVAL_MS} ms. {@link #load} rebuilds the index from the table at startup and
+ * {@link #shutdown} flushes pending writes, so a restart loses nothing.
+ *
+ * <p>The database keeps computing {@code expires_at} itself (as since 1.3.2); only the remaining
+ * TTL in seconds crosses the JDBC boundary. It is taken from the session's fixed deadline when the
+ * row is written, so a delayed or retried write never extends a session.
+ *
+ * <p>A player's in-memory change and its queued write happen together inside
+ * {@link ConcurrentHashMap#compute}, so concurrent create/invalidate calls for the same player
+ * reach the database in the order they took effect in memory.
+ */
+public final class SessionIndex {
+
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    private final SqlStore database;
+    private final Logger log;
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+    /** Pending writes, last operation per player wins. Guarded by {@code this}. */
+    private Map<UUID, Session> pending = new LinkedHashMap<>();
+    private final Thread writerThread;
+    private final LatencyHistogram flushTimer;
+    private volatile boolean running = true;
+    private volatile Consumer<UUID> persistListener = uuid -> {
+    };
+    private volatile Consumer<UUID> changeListener = uuid -> {
+    };
+
+    public SessionIndex(SqlStore database, MetricsRegistry metrics, Logger log) {
+        this.database = database;
+        this.log = log;
+        this.flushTimer = metrics.timer(MetricsRegistry.SESSION_FLUSH);
+        this.writerThread = Thread.ofPlatform().name("SecureAuth-SessionWriter").daemon(true).start(this::flushLoop);
+    }
+
+    // ── Lookups (memory only) ─────────────────────────────────────────────────
+
+    /** @return {@code true} if {@code uuid} has an unexpired session, regardless of IP */
+    public boolean hasValidSession(UUID uuid) {
+        Session s = sessions.get(uuid);
+        return s != null && s.isValid(System.nanoTime());
+    }
+
+    /** @return {@code true} if {@code uuid} has an unexpired session bound to {@code ip} */
+    public boolean hasValidSession(UUID uuid, String ip) {
+        Session s = sessions.get(uuid);
+        return s != null && s.isValid(System.nanoTime()) && s.ipHash().equals(hashIp(ip));
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} deadline of {@code uuid}'s session if it is valid and
+     *         bound to {@code ip}, otherwise empty
+     */
+    public OptionalLong expiresAtNanos(UUID uuid, String ip) {
+        Session s = sessions.get(uuid);
+        if (s == null || !s.isValid(System.nanoTime()) || !s.ipHash().equals(hashIp(ip)))
+            return OptionalLong.empty();
+        return OptionalLong.of(s.expiresAtNanos());
+    }
+
+    /** @return number of sessions currently held (expired ones are evicted once per flush) */
+    public int size() {
+        return sessions.size();
+    }
+
+    // ── Mutations (memory now, database later) ────────────────────────────────
+
+    public void create(UUID uuid, String ip, Duration ttl) {
+        Session s = new Session(hashIp(ip), System.nanoTime() + ttl.toNanos());
+        sessions.compute(uuid, (k, old) -> {
+            enqueue(k, s);
+            return s;
+        });
+        changeListener.accept(uuid);
+    }
+
+    public void invalidate(UUID uuid) {
+        boolean[] removed = new boolean[1];
+        sessions.computeIfPresent(uuid, (k, old) -> {
+            enqueue(k, Session.DELETED);
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0])
+            changeListener.accept(uuid);
+    }
+
+    private synchronized void enqueue(UUID uuid, Session op) {
+        pending.put(uuid, op);
+    }
+
+    /**
+     * Re-reads {@code uuid}'s session from {@code sa_sessions} after another server changed it.
+     * Memory only — nothing is written back. Skipped while a local change for the player is still
+     * pending, since that one is newer.
+     */
+    public void reload(UUID uuid) {
+        synchronized (this) {
+            if (pending.containsKey(uuid))
+                return;
+        }
+        String sql = "SELECT ip_hash, " + remainingSeconds() + " FROM sa_sessions WHERE uuid = ? AND expires_at > "
+                + now();
+        long base = System.nanoTime();
+        Session loaded = null;
+        try (Connection c = database.read(); PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, uuid.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next())
+                    loaded = new Session(rs.getString(1), base + TimeUnit.SECONDS.toNanos(rs.getLong(2)));
+            }
+        } catch (SQLException e) {
+            // Fail closed: a session we cannot confirm is dropped
+            log.warn("[SecureAuth] Could not reload session of {}: {}", uuid, e.getMessage());
+        }
+        Session result = loaded;
+        sessions.compute(uuid, (k, old) -> {
+            // A local change made while the row was read is newer than the row
+            synchronized (this) {
+                return pending.containsKey(k) ? old : result;
+            }
+        });
+        changeListener.accept(uuid);
+    }
+
+    /**
+     * Registers a callback run on the writer thread for every player whose session change was
+     * just committed — used to notify other servers only once the row is visible to them.
+     */
+    public void setPersistListener(Consumer<UUID> listener) {
+        this.persistListener = listener;
+    }
+
+    /** Registers a callback run on the caller's thread after a session is created, invalidated or reloaded. */
+    public void setChangeListener(Consumer<UUID> listener) {
+        this.changeListener = listener;
+    }
+
+    // ── Startup / shutdown ────────────────────────────────────────────────────
+
+    /** Rebuilds the index from {@code sa_sessions}. Call once at startup, before players can join. */
+    public void load() {
+        String sql = "SELECT uuid, ip_hash, " + remainingSeconds() + " FROM sa_sessions WHERE expires_at > " + now();
+        long base = System.nanoTime();
+        try (Connection c = database.read();
+                PreparedStatement ps = c.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                sessions.put(UUID.fromString(rs.getString(1)),
+                        new Session(rs.getString(2), base + TimeUnit.SECONDS.toNanos(rs.getLong(3))));
+            }
+            log.info("[SecureAuth] Restored {} session(s).", sessions.size());
+        } catch (SQLException e) {
+            log.error("[SecureAuth] Could not restore sessions: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Stops the writer after a final flush. Call before the connection pool closes. */
+    public void shutdown() {
+        running = false;
+        // Unpark rather than interrupt: an interrupt could abort the final JDBC flush
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ── Writer thread ─────────────────────────────────────────────────────────
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS));
+            try {
+                evictExpired();
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("[SecureAuth] Session writer iteration failed: {}", e.getMessage(), e);
+            }
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("[SecureAuth] Final session flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        sessions.values().removeIf(s -> !s.isValid(now));
+    }
+
+    private void flush() {
+        Map<UUID, Session> batch;
+        synchronized (this) {
+            if (pending.isEmpty())
+                return;
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        String insert = "INSERT INTO sa_sessions (uuid, ip_hash, expires_at) VALUES (?, ?, " + (database.isMysql()
+                ? "DATE_ADD(NOW(), INTERVAL ? SECOND)"
+                : "datetime('now', '+' || ? || ' seconds')") + ")";
+        long start = System.nanoTime();
+        try {
+            database.write(c -> {
+                try (PreparedStatement del = c.prepareStatement("DELETE FROM sa_sessions WHERE uuid = ?");
+                        PreparedStatement ins = c.prepareStatement(insert);
+                        PreparedStatement expired = c
+                                .prepareStatement("DELETE FROM sa_sessions WHERE expires_at <= " + now())) {
+                    long now = System.nanoTime();
+                    for (var e : batch.entrySet()) {
+                        del.setString(1, e.getKey().toString());
+                        del.addBatch();
+                        Session s = e.getValue();
+                        // Remaining time at this write, rounded down; an expired session is only deleted
+                        long seconds = TimeUnit.NANOSECONDS.toSeconds(s.expiresAtNanos() - now);
+                        if (s != Session.DELETED && seconds > 0) {
+                            ins.setString(1, e.getKey().toString());
+                            ins.setString(2, s.ipHash());
+                            ins.setLong(3, seconds);
+                            ins.addBatch();
+                        }
+                    }
+                    del.executeBatch();
+                    ins.executeBatch();
+                    expired.executeUpdate();
+                }
+                return null;
+            });
+            flushTimer.recordSince(start);
+        } catch (SQLException | RuntimeException e) {
+            log.warn("[SecureAuth] Session write-behind failed ({} change(s) re-queued): {}", batch.size(),
+                    e.getMessage());
+            synchronized (this) {
+                // Newer operations for the same player take precedence over the failed ones
+                batch.putAll(pending);
+                pending = batch;
+            }
+            return;
+        }
+        // Committed: a failing listener must neither re-queue the batch nor skip the other players
+        for (UUID uuid : batch.keySet()) {
+            try {
+                persistListener.accept(uuid);
+            } catch (RuntimeException e) {
+                log.warn("[SecureAuth] Session persist listener failed for {}: {}", uuid, e.getMessage());
+            }
+        }
+    }
+
+    private String now() {
+        return database.isMysql() ? "NOW()" : "datetime('now')";
+    }
+
+    private String remainingSeconds() {
+        return database.isMysql()
+                ? "TIMESTAMPDIFF(SECOND, NOW(), expires_at)"
+                : "CAST(strftime('%s', expires_at) - strftime('%s', 'now') AS INTEGER)";
+    }
+
+    /** SHA-256 of the IP, hex-encoded — raw addresses are never stored. */
+    public static String hashIp(String ip) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(ip.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * @param expiresAtNanos deadline on the {@link System#nanoTime()} clock
+     */
+    private record Session(String ipHash, long expiresAtNanos) {
+
+        /** Marker for a pending delete. */
+        static final Session DELETED = new Session("", 0);
+
+        boolean isValid(long now) {
+            return now - expiresAtNanos < 0;
+        }
+    }
+}
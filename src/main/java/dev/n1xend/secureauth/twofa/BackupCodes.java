@@ -0,0 +1,145 @@
+package dev.n1xend.secureauth.twofa;
+
+import dev.n1xend.secureauth.database.SqlStore;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One-time 2FA backup codes in {@code sa_totp_backup_codes}, one row per unused code.
+ *
+ * <p>A row is keyed by {@code (uuid, code_hash)}. Checking a code is one indexed
+ * {@code DELETE}: it finds and consumes the code in a single statement, and two concurrent uses
+ * of the same code cannot both succeed. Scanning and verifying every stored code is no longer
+ * needed. The hash is SHA-256 over the player's UUID and the normalised code. A fast hash is
+ * enough here: unlike a password, each code carries 80 random bits ({@value #SYMBOLS} Base32
+ * symbols), which puts an offline search out of reach.
+ */
+public final class BackupCodes {
+
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+    private static final int SYMBOLS = 16;
+
+    private final SqlStore database;
+    private final SecureRandom random = new SecureRandom();
+
+    public BackupCodes(SqlStore database) {
+        this.database = database;
+    }
+
+    public void createTable() throws SQLException {
+        database.write(c -> {
+            try (Statement st = c.createStatement()) {
+                return st.executeUpdate(database.isMysql()
+                        ? "CREATE TABLE IF NOT EXISTS sa_totp_backup_codes (uuid VARCHAR(36) NOT NULL,"
+                                + " code_hash CHAR(64) NOT NULL, PRIMARY KEY (uuid, code_hash))"
+                        : "CREATE TABLE IF NOT EXISTS sa_totp_backup_codes (uuid TEXT NOT NULL,"
+                                + " code_hash TEXT NOT NULL, PRIMARY KEY (uuid, code_hash))");
+            }
+        });
+    }
+
+    /**
+     * Replaces all codes of {@code uuid} with {@code count} new ones.
+     *
+     * @return the new codes as {@code XXXX-XXXX-XXXX-XXXX}; shown to the player once, never stored
+     */
+    public List<String> regenerate(UUID uuid, int count) throws SQLException {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            codes.add(generate());
+        database.write(c -> {
+            delete(c, uuid);
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO sa_totp_backup_codes (uuid, code_hash) VALUES (?, ?)")) {
+                for (String code : codes) {
+                    ps.setString(1, uuid.toString());
+                    ps.setString(2, hash(uuid, code));
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        });
+        return codes;
+    }
+
+    /** @return {@code true} if {@code code} was an unused backup code of {@code uuid}; it is now used */
+    public boolean consume(UUID uuid, String code) throws SQLException {
+        String normalised = normalise(code);
+        if (normalised.length() != SYMBOLS)
+            return false;
+        return database.write(c -> {
+            try (PreparedStatement ps = c.prepareStatement(
+                    "DELETE FROM sa_totp_backup_codes WHERE uuid = ? AND code_hash = ?")) {
+                ps.setString(1, uuid.toString());
+                ps.setString(2, hash(uuid, normalised));
+                return ps.executeUpdate() == 1;
+            }
+        });
+    }
+
+    public int remaining(UUID uuid) throws SQLException {
+        try (Connection c = database.read();
+                PreparedStatement ps = c.prepareStatement("SELECT COUNT(*) FROM sa_totp_backup_codes WHERE uuid = ?")) {
+            ps.setString(1, uuid.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /** Removes every code of {@code uuid}, e.g. when 2FA is disabled. */
+    public void clear(UUID uuid) throws SQLException {
+        database.write(c -> delete(c, uuid));
+    }
+
+    private static int delete(Connection c, UUID uuid) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("DELETE FROM sa_totp_backup_codes WHERE uuid = ?")) {
+            ps.setString(1, uuid.toString());
+            return ps.executeUpdate();
+        }
+    }
+
+    private String generate() {
+        StringBuilder sb = new StringBuilder(SYMBOLS + 3);
+        for (int i = 0; i < SYMBOLS; i++) {
+            if (i > 0 && i % 4 == 0)
+                sb.append('-');
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    /** Upper case without separators, so "abcd efgh-…" and "ABCD-EFGH-…" match. */
+    private static String normalise(String code) {
+        StringBuilder sb = new StringBuilder(SYMBOLS);
+        for (int i = 0; i < code.length(); i++) {
+            char c = Character.toUpperCase(code.charAt(i));
+            if (c != '-' && c != ' ')
+                sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static String hash(UUID uuid, String code) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(uuid.toString().getBytes(StandardCharsets.US_ASCII));
+            sha.update((byte) ':');
+            return HexFormat.of().formatHex(sha.digest(normalise(code).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package dev.n1xend.secureauth.twofa;
+
+/** RFC 4648 Base32 decoding for TOTP secrets: case-insensitive, padding and spaces ignored. */
+final class Base32 {
+
+    private Base32() {
+    }
+
+    static byte[] decode(String text) {
+        int symbols = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '=' && c != ' ' && c != '-')
+                symbols++;
+        }
+        byte[] out = new byte[symbols * 5 / 8];
+        int buffer = 0;
+        int bits = 0;
+        int n = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '=' || c == ' ' || c == '-')
+                continue;
+            int value = valueOf(c);
+            if (value < 0)
+                throw new IllegalArgumentException("Not a Base32 character: '" + c + "'");
+            buffer = buffer << 5 | value;
+            bits += 5;
+            if (bits >= 8) {
+                bits -= 8;
+                out[n++] = (byte) (buffer >>> bits);
+            }
+        }
+        return out;
+    }
+
+    private static int valueOf(char c) {
+        if (c >= 'A' && c <= 'Z')
+            return c - 'A';
+        if (c >= 'a' && c <= 'z')
+            return c - 'a';
+        if (c >= '2' && c <= '7')
+            return c - '2' + 26;
+        return -1;
+    }
+}
@@ -0,0 +1,196 @@
+package dev.n1xend.secureauth.twofa;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RFC 6238 code check (HMAC-SHA1, 6 digits, 30 s steps, ±{@value #WINDOW} step) without
+ * per-call allocation, with replay protection.
+ *
+ * <p>{@code DefaultCodeVerifier} built a generator, a {@link Mac} and a decoded secret for every
+ * candidate step. Here the decoded key is cached per player (re-decoded only when the stored
+ * secret changes). Each thread keeps one {@code Mac} with its input and output buffers, re-keyed
+ * only when it checks a different player, and a code is compared as an int. All window steps
+ * are computed and compared with no early exit, so timing does not reveal which step matched.
+ *
+ * <p>A time step can be used once: the highest accepted step per player is kept for as long as
+ * a code from it could still be valid. A code from that step or an earlier one is rejected, so
+ * an observed code cannot be replayed within its window. The check and the update are one
+ * atomic {@code compute} on the cache entry, which also restarts its expiry.
+ *
+ * <p>A secret that is empty or not Base32 matches no code; it does not throw.
+ */
+public final class TotpVerifier {
+
+    static final int WINDOW = 1;
+    private static final long PERIOD_SECONDS = 30;
+    private static final int DIGITS = 6;
+    private static final int MODULUS = 1_000_000;
+
+    /** Per-thread HMAC state; {@code key} is the key {@code mac} was last initialised with. */
+    private static final class Hmac {
+        final Mac mac;
+        final byte[] counter = new byte[8];
+        final byte[] out = new byte[20];
+        Key key;
+
+        Hmac() {
+            try {
+                mac = Mac.getInstance("HmacSHA1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /** A decoded secret and the Base32 text it came from. */
+    private record Key(String base32, SecretKeySpec spec) {
+    }
+
+    private static final ThreadLocal<Hmac> HMAC = ThreadLocal.withInitial(Hmac::new);
+
+    private final Cache<UUID, Key> keys = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .maximumSize(10_000)
+            .build();
+    /** Highest accepted time step per player; written on every accept, so it outlives the window it guards. */
+    private final Cache<UUID, Long> usedSteps = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(PERIOD_SECONDS * (2 * WINDOW + 2)))
+            .maximumSize(10_000)
+            .build();
+    private final LongAdder replays;
+    private final LatencyHistogram verifyTimer;
+
+    public TotpVerifier(MetricsRegistry metrics) {
+        this.replays = metrics.counter(MetricsRegistry.TOTP_REPLAY_REJECTED);
+        this.verifyTimer = metrics.timer(MetricsRegistry.TOTP_VERIFY);
+    }
+
+    /**
+     * Checks {@code code} against {@code base32Secret} and consumes its time step.
+     *
+     * @return {@code true} if the code is valid and its step (or a later one) was not used before
+     */
+    public boolean verify(UUID uuid, String base32Secret, String code) {
+        return verify(uuid, base32Secret, code, System.currentTimeMillis());
+    }
+
+    boolean verify(UUID uuid, String base32Secret, String code, long nowMillis) {
+        long start = System.nanoTime();
+        long step = matchStep(uuid, base32Secret, code, nowMillis);
+        verifyTimer.recordSince(start);
+        if (step < 0)
+            return false;
+        boolean[] fresh = new boolean[1];
+        usedSteps.asMap().compute(uuid, (k, seen) -> {
+            if (seen != null && step <= seen)
+                return seen;
+            fresh[0] = true;
+            return step;
+        });
+        if (!fresh[0])
+            replays.increment();
+        return fresh[0];
+    }
+
+    /**
+     * The code check alone, without replay bookkeeping.
+     *
+     * @return the matching time step, or {@code -1}, also when the secret is empty or not Base32
+     */
+    public long matchStep(UUID uuid, String base32Secret, String code, long nowMillis) {
+        int given = parse(code);
+        if (given < 0)
+            return -1;
+        Key key = key(uuid, base32Secret);
+        if (key == null)
+            return -1;
+        Hmac hmac = HMAC.get();
+        long now = nowMillis / 1000 / PERIOD_SECONDS;
+        long matched = -1;
+        for (long step = now - WINDOW; step <= now + WINDOW; step++) {
+            // Branch-free select: no early exit, no data-dependent branch on the code
+            int diff = generate(hmac, key, step) ^ given;
+            long miss = (diff | -diff) >> 31; // 0 if equal, -1 otherwise
+            matched = (matched & miss) | (step & ~miss);
+        }
+        return matched;
+    }
+
+    /** Forgets the cached key and used steps, e.g. when 2FA is disabled or the secret is replaced. */
+    public void invalidate(UUID uuid) {
+        keys.invalidate(uuid);
+        usedSteps.invalidate(uuid);
+    }
+
+    /** The cached key for {@code base32Secret}, decoding it if it changed; {@code null} if it is unusable. */
+    private Key key(UUID uuid, String base32Secret) {
+        Key key = keys.getIfPresent(uuid);
+        if (key != null && key.base32().equals(base32Secret))
+            return key;
+        if (base32Secret == null)
+            return null;
+        byte[] secret;
+        try {
+            secret = Base32.decode(base32Secret);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (secret.length == 0)
+            return null;
+        key = new Key(base32Secret, new SecretKeySpec(secret, "HmacSHA1"));
+        keys.put(uuid, key);
+        return key;
+    }
+
+    private static int generate(Hmac h, Key key, long step) {
+        try {
+            if (h.key != key) {
+                h.mac.init(key.spec());
+                h.key = key;
+            }
+            for (int i = 7; i >= 0; i--) {
+                h.counter[i] = (byte) step;
+                step >>>= 8;
+            }
+            h.mac.update(h.counter);
+            h.mac.doFinal(h.out, 0);
+        } catch (InvalidKeyException | ShortBufferException e) {
+            h.key = null;
+            throw new IllegalStateException(e);
+        }
+        byte[] hash = h.out;
+        int offset = hash[hash.length - 1] & 0xF;
+        int binary = (hash[offset] & 0x7F) << 24 | (hash[offset + 1] & 0xFF) << 16 | (hash[offset + 2] & 0xFF) << 8
+                | (hash[offset + 3] & 0xFF);
+        return binary % MODULUS;
+    }
+
+    /** Parses exactly {@value #DIGITS} ASCII digits (spaces allowed); {@code -1} otherwise. */
+    private static int parse(String code) {
+        if (code == null)
+            return -1;
+        int value = 0;
+        int digits = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == ' ')
+                continue;
+            if (c < '0' || c > '9' || ++digits > DIGITS)
+                return -1;
+            value = value * 10 + (c - '0');
+        }
+        return digits == DIGITS ? value : -1;
+    }
+}
@@ -1,18 +1,21 @@
 package dev.n1xend.secureauth.util;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-
 import java.time.Duration;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
 /**
- * Per-player cooldown manager backed by Caffeine.
+ * Per-player cooldown manager backed by the shared {@link TimingWheel}.
+ *
+ * <p>A cooldown is a timer in the wheel, so its deadline is a primitive {@code long} there and
+ * expiry is part of the wheel's tick; the manager itself holds no map. Each manager is a
+ * separate timer owner, so several cooldowns per player do not collide.
+ *
+ * <p>A manager built with {@link #CooldownManager(Duration)} owns a private wheel instead and
+ * advances it on every {@link #set}; expiry checks stay exact either way.
  *
  * <p>Usage:
  * <pre>{@code
- * private final CooldownManager loginCooldown = new CooldownManager(Duration.ofSeconds(5));
+ * private final CooldownManager loginCooldown = new CooldownManager(plugin.getTimingWheel(), Duration.ofSeconds(5));
  *
  * if (loginCooldown.isOnCooldown(uuid)) {
  *     lang.send(player, "login.cooldown", "seconds",
@@ -24,33 +27,43 @@ import java.util.concurrent.TimeUnit;
  */
 public final class CooldownManager {
 
-    private final Duration duration;
-    /** Stores the timestamp (ms) when the cooldown expires. */
-    private final Cache<UUID, Long> cache;
+    private final TimingWheel wheel;
+    private final long durationMs;
+    /** Timer owner; nothing to do when a cooldown runs out. */
+    private final TimingWheel.Expiry owner = uuid -> {};
+    /** Set when this manager owns an un-ticked wheel and must tick it itself. */
+    private final boolean selfTicking;
 
+    public CooldownManager(TimingWheel wheel, Duration duration) {
+        this(wheel, duration, false);
+    }
+
+    /** Cooldowns on a private wheel, for callers without access to the plugin's. */
     public CooldownManager(Duration duration) {
-        this.duration = duration;
-        this.cache = Caffeine.newBuilder().expireAfterWrite(duration.toMillis() + 1000, TimeUnit.MILLISECONDS).build();
+        this(new TimingWheel(), duration, true);
+    }
+
+    private CooldownManager(TimingWheel wheel, Duration duration, boolean selfTicking) {
+        this.wheel = wheel;
+        this.durationMs = duration.toMillis();
+        this.selfTicking = selfTicking;
     }
 
     public boolean isOnCooldown(UUID uuid) {
-        Long expires = cache.getIfPresent(uuid);
-        return expires != null && System.currentTimeMillis() < expires;
+        return wheel.remainingMillis(owner, uuid) > 0;
     }
 
     public long remainingSeconds(UUID uuid) {
-        Long expires = cache.getIfPresent(uuid);
-        if (expires == null)
-            return 0;
-        long remaining = (expires - System.currentTimeMillis()) / 1000;
-        return Math.max(0, remaining);
+        return wheel.remainingMillis(owner, uuid) / 1000;
     }
 
     public void set(UUID uuid) {
-        cache.put(uuid, System.currentTimeMillis() + duration.toMillis());
+        if (selfTicking)
+            wheel.tick();
+        wheel.schedule(owner, uuid, durationMs);
     }
 
     public void clear(UUID uuid) {
-        cache.invalidate(uuid);
+        wheel.cancel(owner, uuid);
     }
 }
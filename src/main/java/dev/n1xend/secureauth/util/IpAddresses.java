@@ -0,0 +1,214 @@
+package dev.n1xend.secureauth.util;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Allocation-free parsing of textual IP addresses into primitives.
+ *
+ * <p>IPv4 addresses become an unsigned 32-bit value, IPv6 addresses two 64-bit halves
+ * (network byte order). IPv4-mapped IPv6 addresses ({@code ::ffff:1.2.3.4}) are reported as
+ * IPv4, matching what {@link InetAddress} does.
+ */
+public final class IpAddresses {
+
+    /** Result of {@link #parse}: not an IP literal. */
+    public static final int INVALID = 0;
+    /** Result of {@link #parse}: IPv4, address in {@code out[1]} (unsigned, low 32 bits). */
+    public static final int IPV4 = 4;
+    /** Result of {@link #parse}: IPv6, high half in {@code out[0]}, low half in {@code out[1]}. */
+    public static final int IPV6 = 6;
+
+    private IpAddresses() {
+    }
+
+    /**
+     * Parses {@code s} into {@code out} (length &gt;= 2) without allocating.
+     *
+     * @return {@link #IPV4}, {@link #IPV6} or {@link #INVALID}
+     */
+    public static int parse(CharSequence s, long[] out) {
+        return parse(s, 0, s.length(), out);
+    }
+
+    /** Same as {@link #parse(CharSequence, long[])} for {@code s[from, to)}. */
+    public static int parse(CharSequence s, int from, int to, long[] out) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == ':') {
+                if (!parseIpv6(s, from, to, out))
+                    return INVALID;
+                if (out[0] == 0 && (out[1] >>> 32) == 0xFFFFL) {
+                    out[1] &= 0xFFFFFFFFL;
+                    return IPV4;
+                }
+                return IPV6;
+            }
+        }
+        long v4 = parseIpv4(s, from, to);
+        if (v4 < 0)
+            return INVALID;
+        out[0] = 0;
+        out[1] = v4;
+        return IPV4;
+    }
+
+    /** Same as {@link #parse(CharSequence, long[])} for a resolved address. */
+    public static int parse(InetAddress address, long[] out) {
+        if (address instanceof Inet4Address) {
+            out[0] = 0;
+            out[1] = address.hashCode() & 0xFFFFFFFFL; // Inet4Address#hashCode is the raw address
+            return IPV4;
+        }
+        byte[] b = address.getAddress();
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = high << 8 | (b[i] & 0xFF);
+            low = low << 8 | (b[i + 8] & 0xFF);
+        }
+        out[0] = high;
+        out[1] = low;
+        return IPV6;
+    }
+
+    /** Formats an address produced by {@link #parse} in its canonical textual form. */
+    public static String format(int family, long high, long low) {
+        if (family == IPV4) {
+            return ((low >>> 24) & 0xFF) + "." + ((low >>> 16) & 0xFF) + "." + ((low >>> 8) & 0xFF) + "."
+                    + (low & 0xFF);
+        }
+        byte[] b = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            b[i] = (byte) (high >>> (56 - 8 * i));
+            b[i + 8] = (byte) (low >>> (56 - 8 * i));
+        }
+        try {
+            return InetAddress.getByAddress(b).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e); // unreachable for a 16-byte array
+        }
+    }
+
+    // ── Parsers ───────────────────────────────────────────────────────────────
+
+    /** @return the address as an unsigned 32-bit value, or {@code -1} if malformed */
+    private static long parseIpv4(CharSequence s, int from, int to) {
+        long result = 0;
+        int parts = 0;
+        int i = from;
+        while (i <= to) {
+            int value = 0;
+            int digits = 0;
+            while (i < to && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+                value = value * 10 + (s.charAt(i) - '0');
+                if (++digits > 3)
+                    return -1;
+                i++;
+            }
+            if (digits == 0 || value > 255 || ++parts > 4)
+                return -1;
+            result = result << 8 | value;
+            if (i == to)
+                break;
+            if (s.charAt(i) != '.')
+                return -1;
+            i++;
+        }
+        return parts == 4 ? result : -1;
+    }
+
+    private static boolean parseIpv6(CharSequence s, int from, int to, long[] out) {
+        // Groups before "::" accumulate in (headHi, headLo), groups after it in (tailHi, tailLo)
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        int headGroups = 0, tailGroups = 0;
+        boolean compressed = false;
+
+        int i = from;
+        if (to - from >= 2 && s.charAt(i) == ':' && s.charAt(i + 1) == ':') {
+            compressed = true;
+            i += 2;
+        } else if (i < to && s.charAt(i) == ':') {
+            return false;
+        }
+
+        while (i < to) {
+            int start = i;
+            int value = 0;
+            while (i < to && i - start < 5) {
+                int d = hexDigit(s.charAt(i));
+                if (d < 0)
+                    break;
+                value = value << 4 | d;
+                i++;
+            }
+            int groups = 1;
+            if (i < to && s.charAt(i) == '.') {
+                // Embedded IPv4 tail, e.g. ::ffff:10.0.0.1 — counts as two groups
+                long v4 = parseIpv4(s, start, to);
+                if (v4 < 0)
+                    return false;
+                value = (int) v4;
+                groups = 2;
+                i = to;
+            } else if (i == start || i - start > 4) {
+                return false;
+            }
+
+            int bits = 16 * groups;
+            long bitsValue = value & ((1L << bits) - 1);
+            if (compressed) {
+                tailHi = shl(tailHi, tailLo, bits, true);
+                tailLo = shl(0, tailLo, bits, false) | bitsValue;
+                tailGroups += groups;
+            } else {
+                headHi = shl(headHi, headLo, bits, true);
+                headLo = shl(0, headLo, bits, false) | bitsValue;
+                headGroups += groups;
+            }
+            if (headGroups + tailGroups > 8)
+                return false;
+
+            if (i == to)
+                break;
+            if (s.charAt(i) != ':' || ++i == to)
+                return false;
+            if (s.charAt(i) == ':') {
+                if (compressed)
+                    return false;
+                compressed = true;
+                i++;
+            }
+        }
+
+        if (compressed ? headGroups + tailGroups > 7 : headGroups != 8)
+            return false;
+
+        // Move the head groups to the top of the 128-bit value; tail groups stay at the bottom
+        int shift = 16 * (8 - headGroups);
+        out[0] = shl(headHi, headLo, shift, true) | tailHi;
+        out[1] = shl(headHi, headLo, shift, false) | tailLo;
+        return true;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= 'a' && c <= 'f')
+            return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F')
+            return c - 'A' + 10;
+        return -1;
+    }
+
+    /** Returns the high ({@code high=true}) or low half of the 128-bit value (hi, lo) shifted left. */
+    private static long shl(long hi, long lo, int shift, boolean high) {
+        if (shift == 0)
+            return high ? hi : lo;
+        if (shift >= 128)
+            return 0;
+        if (shift >= 64)
+            return high ? lo << (shift - 64) : 0;
+        return high ? hi << shift | lo >>> (64 - shift) : lo << shift;
+    }
+}
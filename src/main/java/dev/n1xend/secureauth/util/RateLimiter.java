@@ -1,39 +1,200 @@
 package dev.n1xend.secureauth.util;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-
+import java.net.Inet4Address;
+import java.net.InetAddress;
 import java.time.Duration;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Sliding-window rate limiter per player.
+ * Lock-free rate limiter: at most N attempts per rolling window, keyed by player UUID or IP.
+ *
+ * <p>Implemented as GCRA (a token bucket that stores one timestamp instead of a counter).
+ * Every key owns a single {@code long} in a fixed open-addressed table: 24 bits of key
+ * fingerprint plus a 40-bit "theoretical arrival time" in milliseconds. An attempt is allowed
+ * when that time is no more than {@code window - window/N} ahead of now, and moves it
+ * {@code window/N} forward. Rejected attempts do not touch the state, so a client that keeps
+ * retrying is let back in as soon as its oldest attempt leaves the window.
+ *
+ * <p>The hot path is one CAS on a primitive array — no boxing, no per-key objects, no locks.
+ * Slots are grouped in stripes of 8 (one cache line). An entry whose time has passed carries
+ * no information and is simply overwritten; if a stripe is full of live entries, the one
+ * closest to expiry is evicted, which errs on the side of letting a request through.
  *
  * <p>Usage: max N attempts within a time window.
  */
 public final class RateLimiter {
 
-    private final int maxAttempts;
-    private final Cache<UUID, AtomicInteger> counters;
+    /** Default table size: 16384 keys in 128 KB. Size up for per-IP limiters. */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    private static final int STRIPE = 8;
+    private static final int TIME_BITS = 40;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private final long intervalMs;
+    private final long toleranceMs;
+    private final int mask;
+    private final AtomicLongArray table;
+    private final LongAdder rejected;
+    private final long originNanos = System.nanoTime();
 
     public RateLimiter(int maxAttempts, Duration window) {
-        this.maxAttempts = maxAttempts;
-        this.counters = Caffeine.newBuilder().expireAfterWrite(window).build();
+        this(maxAttempts, window, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of tracked keys, rounded up to a power of two
+     */
+    public RateLimiter(int maxAttempts, Duration window, int capacity) {
+        this(maxAttempts, window, capacity, new LongAdder());
+    }
+
+    /**
+     * @param capacity number of tracked keys, rounded up to a power of two
+     * @param rejected incremented for every attempt refused, e.g. the shared
+     *                 {@code rate_limited_total} counter
+     */
+    public RateLimiter(int maxAttempts, Duration window, int capacity, LongAdder rejected) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("maxAttempts must be >= 1");
+        long windowMs = Math.max(1, window.toMillis());
+        this.intervalMs = Math.max(1, windowMs / maxAttempts);
+        this.toleranceMs = windowMs - intervalMs;
+        int size = Integer.highestOneBit(Math.max(STRIPE, capacity - 1) << 1);
+        this.mask = size - 1;
+        this.table = new AtomicLongArray(size);
+        this.rejected = rejected;
     }
 
+    // ── Public API ────────────────────────────────────────────────────────────
+
     /**
      * Attempts to acquire a permit.
      *
      * @return {@code true} if allowed (under limit), {@code false} if rate-limited
      */
     public boolean tryAcquire(UUID uuid) {
-        int count = counters.get(uuid, k -> new AtomicInteger(0)).incrementAndGet();
-        return count <= maxAttempts;
+        return tryAcquireKey(keyOf(uuid));
+    }
+
+    /** IPv4 address as a 32-bit int (network byte order). */
+    public boolean tryAcquireIpv4(int address) {
+        return tryAcquireKey(keyOf(address));
+    }
+
+    /** IPv6 address as two 64-bit halves (network byte order). */
+    public boolean tryAcquireIpv6(long high, long low) {
+        return tryAcquireKey(keyOf(high, low));
+    }
+
+    /**
+     * Convenience overload for socket addresses. Allocation-free for IPv4; IPv6 goes through
+     * {@link InetAddress#getAddress()}, which copies 16 bytes.
+     */
+    public boolean tryAcquire(InetAddress address) {
+        return tryAcquireKey(keyOf(address));
     }
 
     public void reset(UUID uuid) {
-        counters.invalidate(uuid);
+        resetKey(keyOf(uuid));
+    }
+
+    public void reset(InetAddress address) {
+        resetKey(keyOf(address));
+    }
+
+    // ── Core ──────────────────────────────────────────────────────────────────
+
+    private boolean tryAcquireKey(long key) {
+        int base = (int) key & mask & -STRIPE;
+        long fingerprint = fingerprint(key);
+
+        while (true) {
+            long now = nowMs();
+            int victim = base;
+            long victimSlot = 0;
+            long victimTime = Long.MAX_VALUE;
+
+            for (int i = base; i < base + STRIPE; i++) {
+                long slot = table.get(i);
+                if (slot != 0 && (slot & ~TIME_MASK) == fingerprint) {
+                    long tat = Math.max(slot & TIME_MASK, now);
+                    if (tat - now > toleranceMs) {
+                        rejected.increment();
+                        return false;
+                    }
+                    if (table.compareAndSet(i, slot, fingerprint | (tat + intervalMs)))
+                        return true;
+                    victim = -1;
+                    break;
+                }
+                long time = slot & TIME_MASK;
+                if (time < victimTime) {
+                    victim = i;
+                    victimSlot = slot;
+                    victimTime = time;
+                }
+            }
+
+            // Key not tracked (or its entry expired and was reused): first attempt is always allowed
+            if (victim >= 0 && table.compareAndSet(victim, victimSlot, fingerprint | (now + intervalMs)))
+                return true;
+        }
+    }
+
+    private void resetKey(long key) {
+        int base = (int) key & mask & -STRIPE;
+        long fingerprint = fingerprint(key);
+        for (int i = base; i < base + STRIPE; i++) {
+            long slot = table.get(i);
+            if (slot != 0 && (slot & ~TIME_MASK) == fingerprint)
+                table.compareAndSet(i, slot, 0);
+        }
+    }
+
+    /** Milliseconds since construction, from the monotonic clock; always >= 1. */
+    private long nowMs() {
+        return (System.nanoTime() - originNanos) / 1_000_000L + 1;
+    }
+
+    // ── Key hashing ───────────────────────────────────────────────────────────
+
+    private static long fingerprint(long key) {
+        // Top 24 bits of the key, never zero so that an occupied slot is never 0
+        return ((key >>> TIME_BITS) | 1L) << TIME_BITS;
+    }
+
+    private static long keyOf(UUID uuid) {
+        return mix(uuid.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ uuid.getLeastSignificantBits());
+    }
+
+    private static long keyOf(int ipv4) {
+        return mix(ipv4 & 0xFFFFFFFFL);
+    }
+
+    private static long keyOf(long high, long low) {
+        return mix(high * 0x9E3779B97F4A7C15L ^ low ^ 0x6A09E667F3BCC909L);
+    }
+
+    private static long keyOf(InetAddress address) {
+        if (address instanceof Inet4Address)
+            return keyOf(address.hashCode()); // Inet4Address#hashCode is the raw address
+        byte[] b = address.getAddress();
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = high << 8 | (b[i] & 0xFF);
+            low = low << 8 | (b[i + 8] & 0xFF);
+        }
+        return keyOf(high, low);
+    }
+
+    /** Stafford variant 13 of the MurmurHash3 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 }
@@ -0,0 +1,71 @@
+package dev.n1xend.secureauth.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free event counter over a rolling time window, e.g. "failed logins in the last hour".
+ *
+ * <p>The window is split into {@code buckets} slots. Each slot is one {@code long} packing the
+ * bucket's epoch (upper 32 bits) and its count (lower 32 bits), so rolling a stale slot over
+ * and incrementing it is a single CAS. Epochs are {@code epochMillis / bucketMillis}, which
+ * fits 32 bits for any bucket of one second or longer. {@link #sum()} is O(buckets) and never
+ * blocks writers.
+ */
+public final class RollingCounter {
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final AtomicLongArray slots;
+
+    /**
+     * @param window  total window length
+     * @param buckets resolution; the window slides in steps of {@code window / buckets}
+     */
+    public RollingCounter(Duration window, int buckets) {
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+        this.slots = new AtomicLongArray(buckets);
+    }
+
+    public void increment() {
+        add(System.currentTimeMillis(), 1);
+    }
+
+    /** Adds {@code delta} events that happened at {@code epochMillis} (ignored if outside the window). */
+    public void add(long epochMillis, int delta) {
+        long epoch = epochMillis / bucketMillis;
+        if (epoch <= currentEpoch() - buckets)
+            return;
+        int i = (int) (epoch % buckets);
+        while (true) {
+            long slot = slots.get(i);
+            long slotEpoch = slot >>> 32;
+            long next;
+            if (slotEpoch == epoch)
+                next = slot + delta;
+            else if (slotEpoch < epoch)
+                next = (epoch << 32) | (delta & 0xFFFFFFFFL);
+            else
+                return; // slot already holds a newer bucket; the event fell out of the window
+            if (slots.compareAndSet(i, slot, next))
+                return;
+        }
+    }
+
+    /** @return number of events inside the window ending now */
+    public long sum() {
+        long oldest = currentEpoch() - buckets + 1;
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long slot = slots.get(i);
+            if ((slot >>> 32) >= oldest)
+                total += slot & 0xFFFFFFFFL;
+        }
+        return total;
+    }
+
+    private long currentEpoch() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+}
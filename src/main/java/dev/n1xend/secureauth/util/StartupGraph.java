@@ -0,0 +1,111 @@
+package dev.n1xend.secureauth.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs startup stages as a small dependency graph: every stage starts on its own virtual thread
+ * as soon as the stages it depends on have finished, so independent work (language files,
+ * the connection pool, the GeoIP database) overlaps instead of queueing.
+ *
+ * <p>Dependencies must be declared before the stages that use them, which also rules out
+ * cycles. If a stage fails, the stages that depend on it are skipped; {@link #run} waits for
+ * everything else and then throws a {@link StageFailedException} naming the first failure.
+ * Stages must not touch the Bukkit API — do that on the main thread after {@link #run}.
+ */
+public final class StartupGraph {
+
+    /** A stage body; may throw to abort startup. */
+    @FunctionalInterface
+    public interface Stage {
+        void run() throws Exception;
+    }
+
+    private final StartupTimer timer;
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    public StartupGraph(StartupTimer timer) {
+        this.timer = timer;
+    }
+
+    /**
+     * Adds a stage.
+     *
+     * @param after names of stages that must finish first; must already be added
+     * @throws IllegalArgumentException on a duplicate name or an unknown dependency
+     */
+    public StartupGraph stage(String name, Stage body, String... after) {
+        if (nodes.containsKey(name))
+            throw new IllegalArgumentException("Duplicate startup stage: " + name);
+        for (String dep : after) {
+            if (!nodes.containsKey(dep))
+                throw new IllegalArgumentException("Stage " + name + " depends on unknown stage " + dep);
+        }
+        nodes.put(name, new Node(name, body, after));
+        return this;
+    }
+
+    /** Runs all stages and blocks until they are done. */
+    public void run() throws StageFailedException {
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Node node : nodes.values()) {
+                List<CompletableFuture<Void>> deps = new ArrayList<>();
+                for (String dep : node.after())
+                    deps.add(futures.get(dep));
+                CompletableFuture<Void> ready = CompletableFuture.allOf(deps.toArray(CompletableFuture[]::new));
+                futures.put(node.name(), ready.thenRunAsync(() -> execute(node), executor));
+            }
+            try {
+                CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                // Reported below, in declaration order
+            }
+        }
+        for (CompletableFuture<Void> f : futures.values()) {
+            if (f.isCompletedExceptionally()) {
+                Throwable cause = f.exceptionNow();
+                while (cause instanceof CompletionException && cause.getCause() != null)
+                    cause = cause.getCause();
+                if (cause instanceof StageFailedException sfe)
+                    throw sfe;
+                throw new StageFailedException("?", cause);
+            }
+        }
+    }
+
+    private void execute(Node node) {
+        timer.stage(node.name(), node.after());
+        try {
+            node.body().run();
+        } catch (Exception e) {
+            throw new CompletionException(new StageFailedException(node.name(), e));
+        } finally {
+            timer.end(node.name());
+        }
+    }
+
+    private record Node(String name, Stage body, String[] after) {
+    }
+
+    /** A startup stage threw; {@link #getCause()} is what it threw. */
+    public static final class StageFailedException extends Exception {
+
+        private final String stage;
+
+        StageFailedException(String stage, Throwable cause) {
+            super("Startup stage '" + stage + "' failed: " + cause.getMessage(), cause);
+            this.stage = stage;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+    }
+}
@@ -2,46 +2,105 @@ package dev.n1xend.secureauth.util;
 
 import org.slf4j.Logger;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Measures startup stage durations and logs a summary table.
+ *
+ * <p>Stages may overlap: {@link #stage} and {@link #end} are keyed by name, thread-safe and use
+ * {@link System#nanoTime()}. The summary lists stages in start order with their offset from
+ * startup, and the critical path — the chain of stages that actually determined how long
+ * startup took. A stage's predecessor on that chain is the dependency (as declared to
+ * {@link #stage(String, String...)}) that finished last, or, for a stage without declared
+ * dependencies, whichever stage finished last before it started.
  */
 public final class StartupTimer {
 
-    private static final long SLOW_THRESHOLD_MS = 200;
+    private static final long SLOW_THRESHOLD_NANOS = 200_000_000L;
     private static final int PAD_WIDTH = 30;
 
     private final Logger log;
+    private final Map<String, Running> running = new ConcurrentHashMap<>();
     private final List<StageTiming> stages = new ArrayList<>();
-    private long currentStageStart;
-    private final long overallStart = System.currentTimeMillis();
+    private final long overallStart = System.nanoTime();
 
     public StartupTimer(Logger log) {
         this.log = log;
     }
 
     /** Marks the start of a named stage. The {@code name} is echoed by {@link #end}. */
-    @SuppressWarnings("unused")
     public void stage(String name) {
-        currentStageStart = System.currentTimeMillis();
+        stage(name, new String[0]);
+    }
+
+    /** Marks the start of a stage that waited for the stages named in {@code after}. */
+    public void stage(String name, String... after) {
+        running.put(name, new Running(System.nanoTime(), after));
     }
 
     public void end(String name) {
-        long elapsed = System.currentTimeMillis() - currentStageStart;
-        stages.add(new StageTiming(name, elapsed));
+        long now = System.nanoTime();
+        Running r = running.remove(name);
+        if (r == null)
+            return;
+        synchronized (stages) {
+            stages.add(new StageTiming(name, r.start - overallStart, now - overallStart, r.after));
+        }
     }
 
     public void printSummary() {
-        long total = System.currentTimeMillis() - overallStart;
+        long total = System.nanoTime() - overallStart;
+        List<StageTiming> sorted;
+        synchronized (stages) {
+            sorted = new ArrayList<>(stages);
+        }
+        sorted.sort(Comparator.comparingLong(StageTiming::startNanos));
+
         log.info("[Startup] ─────────────────────────────");
-        for (StageTiming s : stages) {
-            String marker = s.ms() > SLOW_THRESHOLD_MS ? " <- SLOW" : "";
-            log.info("[Startup] {} {}ms{}", pad(s.name()), s.ms(), marker);
+        for (StageTiming s : sorted) {
+            String marker = s.nanos() > SLOW_THRESHOLD_NANOS ? " <- SLOW" : "";
+            log.info("[Startup] {} {}ms (at +{}ms){}", pad(s.name()), ms(s.nanos()), ms(s.startNanos()), marker);
         }
         log.info("[Startup] ─────────────────────────────");
-        log.info("[Startup] {} {}ms", pad("TOTAL"), total);
+        Deque<StageTiming> path = criticalPath(sorted);
+        if (!path.isEmpty()) {
+            long pathNanos = path.stream().mapToLong(StageTiming::nanos).sum();
+            log.info("[Startup] Critical path {}ms: {}", ms(pathNanos),
+                    String.join(" → ", path.stream().map(StageTiming::name).toList()));
+        }
+        log.info("[Startup] {} {}ms", pad("TOTAL"), ms(total));
+    }
+
+    private static Deque<StageTiming> criticalPath(List<StageTiming> sorted) {
+        Deque<StageTiming> path = new ArrayDeque<>();
+        StageTiming cur = sorted.stream().max(Comparator.comparingLong(StageTiming::endNanos)).orElse(null);
+        while (cur != null) {
+            path.addFirst(cur);
+            cur = predecessor(cur, sorted);
+        }
+        return path;
+    }
+
+    private static StageTiming predecessor(StageTiming stage, List<StageTiming> all) {
+        StageTiming best = null;
+        for (StageTiming s : all) {
+            boolean candidate = stage.after().length > 0
+                    ? List.of(stage.after()).contains(s.name())
+                    : s != stage && s.endNanos() <= stage.startNanos();
+            if (candidate && (best == null || s.endNanos() > best.endNanos()))
+                best = s;
+        }
+        return best;
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
     }
 
     private static String pad(String s) {
@@ -50,6 +109,14 @@ public final class StartupTimer {
         return s + ".".repeat(PAD_WIDTH - s.length());
     }
 
-    private record StageTiming(String name, long ms) {
+    private record Running(long start, String[] after) {
+    }
+
+    /** Offsets are relative to the creation of the timer. */
+    private record StageTiming(String name, long startNanos, long endNanos, String[] after) {
+
+        long nanos() {
+            return endNanos - startNanos;
+        }
     }
 }
@@ -0,0 +1,373 @@
+package dev.n1xend.secureauth.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * One hierarchical timing wheel for every per-player deadline: login timeouts, reminders and
+ * cooldowns.
+ *
+ * <p>A timer is identified by its {@link Expiry} owner and a player UUID. Scheduling the same
+ * pair again moves the existing timer. Scheduling, cancelling and looking up are O(1). Timers
+ * live in parallel primitive arrays (deadline, list links, owner, key), found through an
+ * open-addressed index, so a timer allocates nothing once the pool has grown to its working size.
+ *
+ * <p>{@link #tick} is called once per server tick. It walks four levels of 64 slots of
+ * {@value #TICK_MILLIS} ms each, which covers about 9.7 days; anything further is parked in the
+ * next top-level slot and re-placed every 3.6 hours until it is in range. A level-0 slot holds
+ * timers due on that tick; higher levels are cascaded down when the lower level wraps. Ticks are derived from the
+ * monotonic clock, not counted, so a lagging server fires late timers on its next tick instead
+ * of stretching them. Deadlines are kept in milliseconds, so {@link #remainingMillis} is exact
+ * between ticks. It takes an optimistic read and does not block behind writers.
+ *
+ * <p>Callbacks run on the thread calling {@link #tick}, outside the wheel's lock, and may
+ * schedule again.
+ */
+public final class TimingWheel {
+
+    public static final long TICK_MILLIS = 50;
+
+    /** Called when a timer fires; the timer is already gone. */
+    @FunctionalInterface
+    public interface Expiry {
+        void expired(UUID key);
+    }
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final int NONE = -1;
+
+    private final StampedLock lock = new StampedLock();
+    private final Object tickLock = new Object();
+    private final long originNanos = System.nanoTime();
+    private final int[] heads = new int[LEVELS * SLOTS];
+
+    // Timer pool; a free entry has a null owner and is chained through next[]
+    private Expiry[] owners;
+    private UUID[] keys;
+    private long[] deadlines;
+    private int[] next;
+    private int[] prev;
+    private int[] bucket;
+    private int free = NONE;
+    private int used;
+    private int size;
+    /** (owner, key) → timer + 1, linear probing; 0 = empty. Twice the pool capacity. */
+    private int[] index;
+    /** Next tick to process. */
+    private long nextTick;
+
+    // Reused by tick() to run callbacks outside the lock; guarded by tickLock
+    private Expiry[] firedOwners = new Expiry[64];
+    private UUID[] firedKeys = new UUID[64];
+    private int fired;
+
+    public TimingWheel() {
+        this(256);
+    }
+
+    /** @param capacity initial number of timers; the pool doubles when full */
+    public TimingWheel(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity - 1) << 1);
+        owners = new Expiry[size];
+        keys = new UUID[size];
+        deadlines = new long[size];
+        next = new int[size];
+        prev = new int[size];
+        bucket = new int[size];
+        index = new int[size * 2];
+        Arrays.fill(heads, NONE);
+        nextTick = nowMillis() / TICK_MILLIS;
+    }
+
+    // ── Public API ────────────────────────────────────────────────────────────
+
+    /** Starts or moves the timer of {@code owner} for {@code key}; it fires {@code delayMillis} from now. */
+    public void schedule(Expiry owner, UUID key, long delayMillis) {
+        long deadline = nowMillis() + Math.max(0, delayMillis);
+        long stamp = lock.writeLock();
+        try {
+            int t = find(owner, key);
+            if (t == NONE) {
+                t = allocate();
+                owners[t] = owner;
+                keys[t] = key;
+                indexPut(t);
+                size++;
+            } else {
+                unlink(t);
+            }
+            deadlines[t] = deadline;
+            link(t);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** @return {@code true} if a pending timer was removed */
+    public boolean cancel(Expiry owner, UUID key) {
+        long stamp = lock.writeLock();
+        try {
+            int t = find(owner, key);
+            if (t == NONE)
+                return false;
+            unlink(t);
+            indexRemove(t);
+            release(t);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** @return milliseconds until the timer fires; 0 if there is none or it is due */
+    public long remainingMillis(Expiry owner, UUID key) {
+        long stamp = lock.tryOptimisticRead();
+        long deadline = stamp != 0 ? deadlineOf(owner, key) : 0;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                deadline = deadlineOf(owner, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return deadline == 0 ? 0 : Math.max(0, deadline - nowMillis());
+    }
+
+    /** Pending timers. */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Fires every timer due by now and runs the callbacks. Call once per server tick; concurrent
+     * calls are serialised.
+     */
+    public void tick() {
+        synchronized (tickLock) {
+            long stamp = lock.writeLock();
+            try {
+                advance(nowMillis() / TICK_MILLIS);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            runCallbacks();
+        }
+    }
+
+    // ── Wheel ─────────────────────────────────────────────────────────────────
+
+    private void advance(long toTick) {
+        for (long t = nextTick; t <= toTick; t++) {
+            // Higher levels first: a cascade may refill the slot of the level below it
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((t & ((1L << (SLOT_BITS * level)) - 1)) == 0)
+                    relinkAll(level * SLOTS + (int) (t >>> (SLOT_BITS * level) & (SLOTS - 1)));
+            }
+            int b = (int) (t & (SLOTS - 1));
+            int e = heads[b];
+            heads[b] = NONE;
+            nextTick = t + 1;
+            while (e != NONE) {
+                int n = next[e];
+                if (tickOf(deadlines[e]) > t) {
+                    link(e); // not due yet
+                } else {
+                    addFired(owners[e], keys[e]);
+                    indexRemove(e);
+                    release(e);
+                }
+                e = n;
+            }
+        }
+    }
+
+    private void relinkAll(int b) {
+        int e = heads[b];
+        heads[b] = NONE;
+        while (e != NONE) {
+            int n = next[e];
+            link(e);
+            e = n;
+        }
+    }
+
+    /** Places timer {@code t} by the highest 6-bit group in which its tick differs from {@link #nextTick}. */
+    private void link(int t) {
+        long due = Math.max(tickOf(deadlines[t]), nextTick);
+        long diff = due ^ nextTick;
+        int b;
+        if (diff >>> (SLOT_BITS * LEVELS) != 0) {
+            // Beyond the top level: park in the next top-level slot and look again when it cascades
+            b = (LEVELS - 1) * SLOTS + (int) ((nextTick >>> (SLOT_BITS * (LEVELS - 1))) + 1 & (SLOTS - 1));
+        } else {
+            int level = diff == 0 ? 0 : (63 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+            b = level * SLOTS + (int) (due >>> (SLOT_BITS * level) & (SLOTS - 1));
+        }
+        int head = heads[b];
+        next[t] = head;
+        prev[t] = NONE;
+        if (head != NONE)
+            prev[head] = t;
+        heads[b] = t;
+        bucket[t] = b;
+    }
+
+    private void unlink(int t) {
+        if (prev[t] != NONE)
+            next[prev[t]] = next[t];
+        else
+            heads[bucket[t]] = next[t];
+        if (next[t] != NONE)
+            prev[next[t]] = prev[t];
+    }
+
+    private void addFired(Expiry owner, UUID key) {
+        if (fired == firedOwners.length) {
+            firedOwners = Arrays.copyOf(firedOwners, fired * 2);
+            firedKeys = Arrays.copyOf(firedKeys, fired * 2);
+        }
+        firedOwners[fired] = owner;
+        firedKeys[fired] = key;
+        fired++;
+    }
+
+    private void runCallbacks() {
+        RuntimeException failure = null;
+        for (int i = 0; i < fired; i++) {
+            try {
+                firedOwners[i].expired(firedKeys[i]);
+            } catch (RuntimeException e) {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+            firedOwners[i] = null;
+            firedKeys[i] = null;
+        }
+        fired = 0;
+        if (failure != null)
+            throw failure;
+    }
+
+    // ── Pool and index ────────────────────────────────────────────────────────
+
+    private int allocate() {
+        if (free != NONE) {
+            int t = free;
+            free = next[t];
+            return t;
+        }
+        if (used == owners.length)
+            grow();
+        return used++;
+    }
+
+    private void release(int t) {
+        owners[t] = null;
+        keys[t] = null;
+        deadlines[t] = 0;
+        next[t] = free;
+        free = t;
+        size--;
+    }
+
+    private void grow() {
+        int capacity = owners.length * 2;
+        owners = Arrays.copyOf(owners, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        bucket = Arrays.copyOf(bucket, capacity);
+        index = new int[capacity * 2];
+        for (int t = 0; t < used; t++) {
+            if (owners[t] != null)
+                indexPut(t);
+        }
+    }
+
+    private int find(Expiry owner, UUID key) {
+        int mask = index.length - 1;
+        for (int i = hash(owner, key) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int t = index[i] - 1;
+            if (owners[t] == owner && key.equals(keys[t]))
+                return t;
+        }
+        return NONE;
+    }
+
+    /** Deadline of the timer, or 0. Only reads; survives the torn state an optimistic read may see. */
+    private long deadlineOf(Expiry owner, UUID key) {
+        int[] idx = index;
+        Expiry[] o = owners;
+        UUID[] k = keys;
+        long[] d = deadlines;
+        int mask = idx.length - 1;
+        int i = hash(owner, key) & mask;
+        for (int probes = 0; probes <= mask; probes++, i = (i + 1) & mask) {
+            int t = idx[i] - 1;
+            if (t < 0)
+                return 0;
+            if (t < o.length && t < k.length && t < d.length && o[t] == owner && key.equals(k[t]))
+                return d[t];
+        }
+        return 0;
+    }
+
+    private void indexPut(int t) {
+        int mask = index.length - 1;
+        int i = hash(owners[t], keys[t]) & mask;
+        while (index[i] != 0)
+            i = (i + 1) & mask;
+        index[i] = t + 1;
+    }
+
+    /** Backward-shift deletion: no tombstones, so probe chains stay short. */
+    private void indexRemove(int t) {
+        int mask = index.length - 1;
+        int i = hash(owners[t], keys[t]) & mask;
+        while (index[i] != t + 1)
+            i = (i + 1) & mask;
+        for (int j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+            int e = index[j] - 1;
+            int home = hash(owners[e], keys[e]) & mask;
+            // Move e into the hole unless its home lies cyclically in (i, j]
+            boolean stays = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!stays) {
+                index[i] = index[j];
+                i = j;
+            }
+        }
+        index[i] = 0;
+    }
+
+    private static int hash(Expiry owner, UUID key) {
+        long z = key.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ key.getLeastSignificantBits()
+                ^ System.identityHashCode(owner);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31));
+    }
+
+    // ── Clock ─────────────────────────────────────────────────────────────────
+
+    /** Milliseconds since construction, from the monotonic clock. */
+    private long nowMillis() {
+        return (System.nanoTime() - originNanos) / 1_000_000L;
+    }
+
+    /** First tick at or after {@code millis}. */
+    private static long tickOf(long millis) {
+        return (millis + TICK_MILLIS - 1) / TICK_MILLIS;
+    }
+}
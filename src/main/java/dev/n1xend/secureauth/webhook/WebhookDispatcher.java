@@ -0,0 +1,487 @@
+package dev.n1xend.secureauth.webhook;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import dev.n1xend.secureauth.metrics.LatencyHistogram;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import dev.n1xend.secureauth.util.IpAddresses;
+import org.bukkit.configuration.ConfigurationSection;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivery pipeline for one webhook target: a bounded, coalescing queue drained by a single
+ * sender thread.
+ *
+ * <p>Events are grouped before they are sent. Events listed in {@code merge-events} (by default
+ * {@code LOGIN_FAIL} and {@code IP_BAN}) collapse per event type and source network — IPv4 /24,
+ * IPv6 /64 — into one counted embed ("37 × LOGIN_FAIL from 1.2.3.0/24"); other events stay one
+ * embed each. The sender waits up to {@code linger-ms} for a batch to fill, then posts up to ten
+ * embeds per request (Discord's limit).
+ *
+ * <p>Discord rate limits are honoured rather than retried into: on 429 the batch goes back to
+ * the front of the queue and the sender sleeps for {@code Retry-After}; when
+ * {@code X-RateLimit-Remaining} hits zero it waits {@code X-RateLimit-Reset-After} before the
+ * next request. While it waits, new events keep merging into the queued groups, so a flood costs
+ * a handful of requests. When the queue is full, events that cannot merge are dropped and
+ * counted.
+ */
+public final class WebhookDispatcher {
+
+    /** Discord accepts at most this many embeds per message. */
+    public static final int MAX_EMBEDS = 10;
+
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    private final URI url;
+    private final Settings settings;
+    private final String version;
+    private final HttpClient http;
+    private final Logger log;
+    private final Thread sender;
+    private final LatencyHistogram deliveryTimer;
+
+    /** Pending groups in arrival order. Guarded by {@code this}. */
+    private final LinkedHashMap<String, Group> queue = new LinkedHashMap<>();
+    private long uniqueSeq;
+    private boolean closing;
+    private long deadlineNanos;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    public WebhookDispatcher(URI url, Settings settings, String version, HttpClient http, MetricsRegistry metrics,
+            Logger log) {
+        this.url = url;
+        this.deliveryTimer = metrics.timer(MetricsRegistry.WEBHOOK_DELIVERY);
+        this.settings = settings;
+        this.version = version;
+        this.http = http;
+        this.log = log;
+        this.sender = Thread.ofPlatform().name("SecureAuth-Webhook-" + THREAD_IDS.incrementAndGet()).daemon(true)
+                .start(this::sendLoop);
+    }
+
+    // ── Public API ────────────────────────────────────────────────────────────
+
+    /**
+     * Queues an event for delivery. Never blocks and never does I/O on the caller's thread.
+     *
+     * @return {@code false} if the queue was full and the event was dropped
+     */
+    public boolean offer(String event, String player, UUID uuid, String ip) {
+        Instant now = Instant.now();
+        synchronized (this) {
+            if (closing)
+                return false;
+            accepted.incrementAndGet();
+            if (settings.mergeEvents().contains(event)) {
+                String network = network(ip);
+                String key = event + '|' + network;
+                Group g = queue.get(key);
+                if (g != null) {
+                    g.add(player, now);
+                    merged.incrementAndGet();
+                    return true;
+                }
+                if (!hasRoom())
+                    return drop(event);
+                queue.put(key, new Group(key, event, player, uuid, network, true, now));
+            } else {
+                if (!hasRoom())
+                    return drop(event);
+                String key = event + '#' + uniqueSeq++;
+                queue.put(key, new Group(key, event, player, uuid, ip, false, now));
+            }
+            // Wake the sender to start the linger clock, or to send a full batch right away
+            if (queue.size() == 1 || queue.size() >= MAX_EMBEDS)
+                notifyAll();
+            return true;
+        }
+    }
+
+    public Stats stats() {
+        synchronized (this) {
+            return new Stats(accepted.get(), merged.get(), dropped.get(), failed.get(), requests.get(),
+                    rateLimited.get(), queue.size());
+        }
+    }
+
+    /**
+     * Stops accepting events and sends what is queued, ignoring the linger time, until the queue
+     * is empty or {@code timeoutMillis} have passed. Whatever is left then is counted as dropped.
+     */
+    public void shutdown(long timeoutMillis) {
+        synchronized (this) {
+            closing = true;
+            deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            notifyAll();
+        }
+        try {
+            sender.join(timeoutMillis + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (sender.isAlive())
+            sender.interrupt();
+    }
+
+    private boolean hasRoom() {
+        return queue.size() < settings.queueCapacity();
+    }
+
+    private boolean drop(String event) {
+        if (dropped.incrementAndGet() % 100 == 1)
+            log.warn("[SecureAuth] Webhook queue full ({} groups) — dropping {} ({} dropped so far).",
+                    settings.queueCapacity(), event, dropped.get());
+        return false;
+    }
+
+    // ── Sender thread ─────────────────────────────────────────────────────────
+
+    private void sendLoop() {
+        try {
+            while (true) {
+                List<Group> batch = nextBatch();
+                if (batch == null)
+                    return;
+                try {
+                    deliver(batch);
+                } catch (RuntimeException e) {
+                    // A bad payload or a client bug costs this batch, not the sender thread
+                    failed.addAndGet(batch.size());
+                    log.warn("[SecureAuth] Webhook delivery of {} embed(s) failed: {}", batch.size(), e.getMessage(),
+                            e);
+                }
+            }
+        } catch (InterruptedException e) {
+            // shutdown deadline passed
+        } finally {
+            synchronized (this) {
+                if (!queue.isEmpty()) {
+                    dropped.addAndGet(queue.size());
+                    log.warn("[SecureAuth] Webhook shutdown: {} queued notification(s) not delivered.", queue.size());
+                    queue.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until a batch is due — ten groups queued, the oldest older than the linger time, or
+     * shutting down — and removes up to ten groups from the head of the queue.
+     *
+     * @return the batch, or {@code null} once closing with an empty queue or past the deadline
+     */
+    private synchronized List<Group> nextBatch() throws InterruptedException {
+        while (true) {
+            if (closing && (queue.isEmpty() || System.nanoTime() - deadlineNanos >= 0))
+                return null;
+            if (!queue.isEmpty()) {
+                long waitMillis = closing ? 0
+                        : settings.linger().toMillis()
+                                - Duration.between(queue.values().iterator().next().first, Instant.now()).toMillis();
+                if (queue.size() >= MAX_EMBEDS || waitMillis <= 0)
+                    break;
+                wait(waitMillis);
+            } else {
+                wait();
+            }
+        }
+        List<Group> batch = new ArrayList<>(MAX_EMBEDS);
+        for (Iterator<Group> it = queue.values().iterator(); it.hasNext() && batch.size() < MAX_EMBEDS;) {
+            batch.add(it.next());
+            it.remove();
+        }
+        return batch;
+    }
+
+    private void deliver(List<Group> batch) throws InterruptedException {
+        String body = payload(batch);
+        for (int attempt = 0;; attempt++) {
+            HttpResponse<String> response;
+            try {
+                requests.incrementAndGet();
+                long start = System.nanoTime();
+                response = http.send(HttpRequest.newBuilder(url).timeout(settings.requestTimeout())
+                        .header("Content-Type", "application/json")
+                        .header("User-Agent", "SecureAuth/" + version)
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+                deliveryTimer.recordSince(start);
+            } catch (IOException e) {
+                if (!retry(batch, attempt, "I/O error: " + e.getMessage()))
+                    return;
+                continue;
+            }
+
+            int status = response.statusCode();
+            if (status == 429) {
+                rateLimited.incrementAndGet();
+                requeue(batch);
+                pause(retryAfter(response).orElse(1.0));
+                return;
+            }
+            if (status >= 500) {
+                if (!retry(batch, attempt, "HTTP " + status))
+                    return;
+                continue;
+            }
+            if (status >= 300) {
+                failed.addAndGet(batch.size());
+                log.warn("[SecureAuth] Webhook rejected {} embed(s): HTTP {} {}", batch.size(), status,
+                        response.body().length() > 200 ? response.body().substring(0, 200) : response.body());
+                return;
+            }
+            // Bucket exhausted: wait for it to refill instead of collecting a 429
+            if ("0".equals(response.headers().firstValue("X-RateLimit-Remaining").orElse(null)))
+                pause(parseSeconds(response.headers().firstValue("X-RateLimit-Reset-After").orElse(null)).orElse(1.0));
+            return;
+        }
+    }
+
+    /** Backs off before another attempt. @return {@code false} if the batch was given up on */
+    private boolean retry(List<Group> batch, int attempt, String reason) throws InterruptedException {
+        if (attempt >= settings.maxRetries() || isPastDeadline()) {
+            failed.addAndGet(batch.size());
+            log.warn("[SecureAuth] Webhook delivery of {} embed(s) failed after {} attempt(s): {}", batch.size(),
+                    attempt + 1, reason);
+            return false;
+        }
+        pause(0.5 * (1 << attempt));
+        return true;
+    }
+
+    /** Puts a rate-limited batch back at the head of the queue, merging with groups queued since. */
+    private synchronized void requeue(List<Group> batch) {
+        LinkedHashMap<String, Group> rest = new LinkedHashMap<>(queue);
+        queue.clear();
+        for (Group g : batch)
+            queue.put(g.key, g);
+        for (var e : rest.entrySet()) {
+            Group head = queue.get(e.getKey());
+            if (head != null)
+                head.absorb(e.getValue());
+            else
+                queue.put(e.getKey(), e.getValue());
+        }
+    }
+
+    /** Sleeps, but never past the shutdown deadline. */
+    private void pause(double seconds) throws InterruptedException {
+        long millis = (long) Math.ceil(seconds * 1000);
+        synchronized (this) {
+            if (closing)
+                millis = Math.min(millis, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+        }
+        if (millis > 0)
+            Thread.sleep(millis);
+    }
+
+    private synchronized boolean isPastDeadline() {
+        return closing && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    // ── Payload ───────────────────────────────────────────────────────────────
+
+    private String payload(List<Group> batch) {
+        JsonArray embeds = new JsonArray();
+        for (Group g : batch) {
+            JsonObject embed = new JsonObject();
+            embed.addProperty("color", color(g.event));
+            embed.addProperty("timestamp", g.last.toString());
+            JsonArray fields = new JsonArray();
+            if (g.count > 1) {
+                embed.addProperty("title", g.count + " × " + g.event);
+                embed.addProperty("description", g.count + " × " + g.event + " from " + g.source);
+                fields.add(field("Players", String.join(", ", g.players) + (g.truncated ? ", …" : "")));
+                fields.add(field("Window", g.first + " — " + g.last));
+            } else {
+                embed.addProperty("title", g.event);
+                fields.add(field("Player", g.players.isEmpty() ? "—" : g.players.iterator().next()));
+                if (g.uuid != null)
+                    fields.add(field("UUID", g.uuid.toString()));
+                fields.add(field(g.merged ? "Network" : "IP", g.source));
+            }
+            embed.add("fields", fields);
+            JsonObject footer = new JsonObject();
+            footer.addProperty("text", "SecureAuth " + version);
+            embed.add("footer", footer);
+            embeds.add(embed);
+        }
+        JsonObject root = new JsonObject();
+        root.addProperty("username", "SecureAuth");
+        root.add("embeds", embeds);
+        return root.toString();
+    }
+
+    private static JsonObject field(String name, String value) {
+        JsonObject f = new JsonObject();
+        f.addProperty("name", name);
+        f.addProperty("value", value.length() > 1024 ? value.substring(0, 1023) + "…" : value);
+        f.addProperty("inline", true);
+        return f;
+    }
+
+    private static int color(String event) {
+        return switch (event) {
+            case "REGISTER", "TOTP_ENABLE" -> 0x2ECC71;
+            case "LOGIN", "SESSION_RESTORE" -> 0x3498DB;
+            case "LOGIN_FAIL", "IP_BAN" -> 0xE74C3C;
+            case "TOTP_DISABLE" -> 0xF1C40F;
+            default -> 0x95A5A6;
+        };
+    }
+
+    /** {@code Retry-After} header, falling back to the {@code retry_after} field Discord puts in the body. */
+    private static OptionalDouble retryAfter(HttpResponse<String> response) {
+        OptionalDouble header = parseSeconds(response.headers().firstValue("Retry-After").orElse(null));
+        if (header.isPresent())
+            return header;
+        String body = response.body();
+        int i = body.indexOf("\"retry_after\"");
+        if (i < 0)
+            return OptionalDouble.empty();
+        int start = body.indexOf(':', i) + 1;
+        int end = start;
+        while (end < body.length() && (Character.isDigit(body.charAt(end)) || body.charAt(end) == '.'
+                || body.charAt(end) == ' '))
+            end++;
+        return parseSeconds(body.substring(start, end).trim());
+    }
+
+    private static OptionalDouble parseSeconds(String s) {
+        if (s == null || s.isBlank())
+            return OptionalDouble.empty();
+        try {
+            return OptionalDouble.of(Math.min(60, Math.max(0, Double.parseDouble(s))));
+        } catch (NumberFormatException e) {
+            return OptionalDouble.empty();
+        }
+    }
+
+    /** IPv4 /24 or IPv6 /64 containing {@code ip}; the input itself if it is not an address. */
+    static String network(String ip) {
+        if (ip == null)
+            return "?";
+        long[] addr = new long[2];
+        return switch (IpAddresses.parse(ip, addr)) {
+            case IpAddresses.IPV4 -> IpAddresses.format(IpAddresses.IPV4, 0, addr[1] & 0xFFFFFF00L) + "/24";
+            case IpAddresses.IPV6 -> IpAddresses.format(IpAddresses.IPV6, addr[0], 0) + "/64";
+            default -> ip;
+        };
+    }
+
+    // ── Types ─────────────────────────────────────────────────────────────────
+
+    /** One embed-to-be: a single event, or a counted run of merged events from one network. */
+    private static final class Group {
+
+        private static final int MAX_NAMES = 10;
+
+        final String key;
+        final String event;
+        final UUID uuid;
+        final String source;
+        final boolean merged;
+        final Set<String> players = new LinkedHashSet<>();
+        final Instant first;
+        Instant last;
+        int count = 1;
+        boolean truncated;
+
+        Group(String key, String event, String player, UUID uuid, String source, boolean merged, Instant at) {
+            this.key = key;
+            this.event = event;
+            this.uuid = uuid;
+            this.source = source;
+            this.merged = merged;
+            this.first = at;
+            this.last = at;
+            if (player != null)
+                players.add(player);
+        }
+
+        void add(String player, Instant at) {
+            count++;
+            last = at;
+            addName(player);
+        }
+
+        private void addName(String player) {
+            if (player == null || players.contains(player))
+                return;
+            if (players.size() < MAX_NAMES)
+                players.add(player);
+            else
+                truncated = true;
+        }
+
+        void absorb(Group newer) {
+            count += newer.count;
+            last = newer.last;
+            truncated |= newer.truncated;
+            for (String p : newer.players)
+                addName(p);
+        }
+    }
+
+    /**
+     * @param queueCapacity  pending groups before unmergeable events are dropped
+     * @param linger         how long the first queued event may wait for others to batch with
+     * @param maxRetries     attempts after the first on I/O errors and 5xx
+     * @param requestTimeout per-request HTTP timeout
+     * @param mergeEvents    event types coalesced per source network
+     */
+    public record Settings(int queueCapacity, Duration linger, int maxRetries, Duration requestTimeout,
+            Set<String> mergeEvents) {
+
+        /** Reads the {@code webhook-delivery} section of {@code config.yml}; {@code null} yields defaults. */
+        public static Settings fromConfig(ConfigurationSection delivery) {
+            if (delivery == null)
+                return new Settings(256, Duration.ofSeconds(2), 3, Duration.ofSeconds(10),
+                        Set.of("LOGIN_FAIL", "IP_BAN"));
+            List<String> merge = delivery.isList("merge-events") ? delivery.getStringList("merge-events")
+                    : List.of("LOGIN_FAIL", "IP_BAN");
+            return new Settings(Math.max(MAX_EMBEDS, delivery.getInt("queue-capacity", 256)),
+                    Duration.ofMillis(Math.max(0, delivery.getLong("linger-ms", 2000))),
+                    Math.max(0, delivery.getInt("max-retries", 3)),
+                    Duration.ofSeconds(Math.max(1, delivery.getLong("request-timeout-seconds", 10))),
+                    Set.copyOf(merge));
+        }
+    }
+
+    /**
+     * @param accepted    events offered while open
+     * @param merged      events folded into an already queued group
+     * @param dropped     events discarded because the queue was full or shutdown ran out of time
+     * @param failed      embeds lost to rejected requests or exhausted retries
+     * @param requests    HTTP requests made
+     * @param rateLimited 429 responses received
+     * @param queued      groups currently waiting
+     */
+    public record Stats(long accepted, long merged, long dropped, long failed, long requests, long rateLimited,
+            int queued) {
+    }
+}
@@ -0,0 +1,91 @@
+package dev.n1xend.secureauth.webhook;
+
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Fans auth events out to the configured webhook targets, one {@link WebhookDispatcher} queue
+ * per target.
+ *
+ * <p>Unlike the per-event sends of {@code WebhookService}, {@link #notify} only filters by each
+ * target's {@code events} list and offers to its queue, so it is safe on any thread. All targets
+ * share one {@link HttpClient}.
+ *
+ * <p>Only events logged through {@code AuditLogWriter} arrive here. The auth paths still log
+ * through {@code AuditLogService} and notify {@code WebhookService} themselves; each event takes
+ * exactly one of the two routes, so nothing is delivered twice.
+ */
+public final class WebhookRelay {
+
+    private final List<Target> targets = new ArrayList<>();
+
+    /**
+     * @param targets the {@code webhooks} list of {@code config.yml}; disabled or malformed
+     *                entries are skipped
+     */
+    public WebhookRelay(Collection<WebhookTarget> targets, WebhookDispatcher.Settings settings, String version,
+            MetricsRegistry metrics, Logger log) {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        for (WebhookTarget t : targets) {
+            if (!t.enabled())
+                continue;
+            URI url;
+            try {
+                url = URI.create(t.url());
+            } catch (IllegalArgumentException e) {
+                log.warn("[SecureAuth] Ignoring webhook with invalid URL: {}", e.getMessage());
+                continue;
+            }
+            this.targets.add(new Target(Set.copyOf(t.events()),
+                    new WebhookDispatcher(url, settings, version, http, metrics, log)));
+        }
+    }
+
+    /** Queues {@code event} for every target that subscribes to it. Never blocks. */
+    public void notify(String event, String player, UUID uuid, String ip) {
+        for (Target t : targets) {
+            if (t.events.isEmpty() || t.events.contains(event))
+                t.dispatcher.offer(event, player, uuid, ip);
+        }
+    }
+
+    /** @return the number of active targets */
+    public int size() {
+        return targets.size();
+    }
+
+    /** Delivery counters of each active target, in config order. */
+    public List<WebhookDispatcher.Stats> stats() {
+        List<WebhookDispatcher.Stats> out = new ArrayList<>(targets.size());
+        for (Target t : targets)
+            out.add(t.dispatcher.stats());
+        return out;
+    }
+
+    /** Drains all targets in parallel; returns after at most {@code timeoutMillis} plus a second. */
+    public void shutdown(long timeoutMillis) {
+        List<Thread> drains = new ArrayList<>(targets.size());
+        for (Target t : targets)
+            drains.add(Thread.startVirtualThread(() -> t.dispatcher.shutdown(timeoutMillis)));
+        for (Thread d : drains) {
+            try {
+                d.join(timeoutMillis + 2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private record Target(Set<String> events, WebhookDispatcher dispatcher) {
+    }
+}
@@ -0,0 +1,161 @@
+package dev.n1xend.secureauth.antibot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IpBanIndexTest {
+
+    private final IpBanIndex index = new IpBanIndex();
+
+    private static IpBanIndex.Ban ban(String cidr) {
+        return IpBanIndex.Ban.of(cidr, null, IpBanIndex.PERMANENT);
+    }
+
+    // ── CIDR parsing ──────────────────────────────────────────────────────────
+
+    @ParameterizedTest
+    @CsvSource({
+            "1.2.3.4, 1.2.3.4, 32",
+            "1.2.3.4/32, 1.2.3.4, 32",
+            "1.2.3.77/24, 1.2.3.0/24, 24",
+            "10.200.3.4/8, 10.0.0.0/8, 8",
+            "203.0.113.5/0, 0.0.0.0/0, 0",
+            "' 192.0.2.1/31 ', 192.0.2.0/31, 31",
+            "2001:db8::1, 2001:db8:0:0:0:0:0:1, 128",
+            "2001:db8:abcd:12::/48, 2001:db8:abcd:0:0:0:0:0/48, 48",
+            "2001:db8:abcd:12:ffff::/64, 2001:db8:abcd:12:0:0:0:0/64, 64",
+            "2001:db8::8000:0:0:1/65, 2001:db8:0:0:8000:0:0:0/65, 65",
+            "::ffff:10.1.2.3/24, 10.1.2.0/24, 24",
+    })
+    void canonicalisesCidr(String input, String cidr, int prefix) {
+        IpBanIndex.Ban ban = ban(input);
+        assertEquals(cidr, ban.cidr());
+        assertEquals(prefix, ban.prefix());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1.2.3", "1.2.3.4/33", "1.2.3.4/-1", "1.2.3.4/", "1.2.3.4/x", "2001:db8::/129",
+            "example.com", "1.2.3.4/24/8"})
+    void rejectsMalformedCidr(String input) {
+        assertThrows(IllegalArgumentException.class, () -> ban(input));
+    }
+
+    // ── Lookups ───────────────────────────────────────────────────────────────
+
+    @Test
+    void matchesAddressesInsideIpv4Range() {
+        index.put(ban("10.1.2.0/24"));
+        assertTrue(index.isBanned("10.1.2.0"));
+        assertTrue(index.isBanned("10.1.2.255"));
+        assertFalse(index.isBanned("10.1.3.0"));
+        assertFalse(index.isBanned("10.1.1.255"));
+    }
+
+    @Test
+    void matchesSingleAddressesAndRangesTogether() {
+        index.put(ban("192.0.2.7"));
+        index.put(ban("198.51.100.0/22"));
+        index.put(ban("0.0.0.0/1"));
+        assertTrue(index.isBanned("192.0.2.7"));
+        assertFalse(index.isBanned("192.0.2.8"));
+        assertTrue(index.isBanned("198.51.103.200"));
+        assertFalse(index.isBanned("198.51.104.1"));
+        assertTrue(index.isBanned("127.0.0.1"));
+    }
+
+    @Test
+    void matchesIpv6Ranges() {
+        index.put(ban("2001:db8:1::/48"));
+        index.put(ban("2001:db8:2::5"));
+        assertTrue(index.isBanned("2001:db8:1:ffff::1"));
+        assertFalse(index.isBanned("2001:db8:3::1"));
+        assertTrue(index.isBanned("2001:db8:2::5"));
+        assertFalse(index.isBanned("2001:db8:2::6"));
+        assertFalse(index.isBanned("10.0.0.1"));
+    }
+
+    @Test
+    void mappedAddressesHitIpv4Bans() throws Exception {
+        index.put(ban("10.0.0.0/8"));
+        assertTrue(index.isBanned("::ffff:10.9.8.7"));
+        assertTrue(index.isBanned(InetAddress.getByName("10.9.8.7")));
+    }
+
+    @Test
+    void malformedInputIsNotBanned() {
+        index.put(ban("0.0.0.0/0"));
+        assertFalse(index.isBanned("not an ip"));
+    }
+
+    @Test
+    void expiredBansAreIgnoredAndPurged() {
+        index.put(IpBanIndex.Ban.of("192.0.2.1", null, System.currentTimeMillis() - 1));
+        index.put(ban("192.0.2.2"));
+        assertFalse(index.isBanned("192.0.2.1"));
+        assertEquals(1, index.purgeExpired());
+        assertEquals(1, index.size());
+        assertEquals(List.of(ban("192.0.2.2")), index.list());
+    }
+
+    @Test
+    void removeAcceptsAnySpellingOfTheRange() {
+        index.put(ban("10.1.2.0/24"));
+        assertEquals("10.1.2.0/24", index.remove("10.1.2.99/24").cidr());
+        assertNull(index.remove("10.1.2.0/24"));
+        assertFalse(index.isBanned("10.1.2.3"));
+    }
+
+    // ── Merging database reloads ──────────────────────────────────────────────
+
+    @Test
+    void mergeTakesDatabaseStateForUntouchedKeys() {
+        index.put(ban("192.0.2.1"));
+        index.put(ban("192.0.2.2"));
+        long stamp = index.version();
+        assertEquals(1, index.merge(List.of(ban("192.0.2.2"), ban("192.0.2.3")), stamp));
+        assertFalse(index.isBanned("192.0.2.1"));
+        assertTrue(index.isBanned("192.0.2.2"));
+        assertTrue(index.isBanned("192.0.2.3"));
+    }
+
+    @Test
+    void banMadeDuringReloadSurvivesIt() {
+        long stamp = index.version();
+        index.put(ban("192.0.2.1")); // not yet in the database the reload read
+        index.merge(List.of(), stamp);
+        assertTrue(index.isBanned("192.0.2.1"));
+        // The next reload sees it persisted
+        long next = index.version();
+        assertEquals(0, index.merge(List.of(ban("192.0.2.1")), next));
+        assertTrue(index.isBanned("192.0.2.1"));
+    }
+
+    @Test
+    void unbanMadeDuringReloadIsNotUndone() {
+        index.put(ban("192.0.2.1"));
+        long stamp = index.version();
+        index.remove("192.0.2.1"); // the reload still read the row
+        index.merge(List.of(ban("192.0.2.1")), stamp);
+        assertFalse(index.isBanned("192.0.2.1"));
+    }
+
+    @Test
+    void olderLocalChangesDoNotOverrideLaterReloads() {
+        index.put(ban("192.0.2.1"));
+        index.merge(List.of(ban("192.0.2.1")), index.version());
+        // Lifted on another server: the next reload must drop it
+        index.merge(List.of(), index.version());
+        assertFalse(index.isBanned("192.0.2.1"));
+    }
+}
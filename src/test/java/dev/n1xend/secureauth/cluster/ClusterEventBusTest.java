@@ -0,0 +1,135 @@
+package dev.n1xend.secureauth.cluster;
+
+import dev.n1xend.secureauth.cluster.ClusterEventBus.Type;
+import dev.n1xend.secureauth.database.SqlStore;
+import dev.n1xend.secureauth.database.SqliteEngine;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.helpers.NOPLogger;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Two nodes on one database file, each with its own origin id. */
+class ClusterEventBusTest {
+
+    @TempDir
+    Path dir;
+
+    private SqliteEngine engine;
+    private final List<ClusterEventBus> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void open() throws SQLException {
+        engine = new SqliteEngine(dir.resolve("events.db"), SqliteEngine.Settings.fromConfig(null),
+                new MetricsRegistry(), NOPLogger.NOP_LOGGER);
+    }
+
+    @AfterEach
+    void close() {
+        nodes.forEach(ClusterEventBus::shutdown);
+        engine.close();
+    }
+
+    @Test
+    void deliversToTheOtherNodeOnly() throws InterruptedException {
+        Queue<UUID> atA = new ConcurrentLinkedQueue<>();
+        Queue<UUID> atB = new ConcurrentLinkedQueue<>();
+        ClusterEventBus a = node("a", engine, atA);
+        node("b", engine, atB);
+        UUID uuid = UUID.randomUUID();
+
+        a.publish(Type.PLAYER_CHANGED, uuid);
+
+        assertTrue(await(() -> !atB.isEmpty()), "node b never saw the notice");
+        assertEquals(uuid, atB.poll());
+        Thread.sleep(300);
+        assertTrue(atA.isEmpty(), "own notices must be skipped");
+        assertTrue(atB.isEmpty(), "delivered twice");
+        assertEquals(1, a.published());
+    }
+
+    @Test
+    void retriesNoticesWhoseInsertFailed() throws InterruptedException {
+        FlakyStore flaky = new FlakyStore(engine);
+        Queue<UUID> atB = new ConcurrentLinkedQueue<>();
+        ClusterEventBus a = node("a", flaky, new ConcurrentLinkedQueue<>());
+        node("b", engine, atB);
+        UUID uuid = UUID.randomUUID();
+
+        flaky.failing = true;
+        a.publish(Type.PLAYER_CHANGED, uuid);
+        assertTrue(await(() -> flaky.failures > 0), "insert was never attempted");
+        assertTrue(atB.isEmpty());
+
+        flaky.failing = false;
+        assertTrue(await(() -> !atB.isEmpty()), "notice was lost with the failed batch");
+        assertEquals(uuid, atB.poll());
+    }
+
+    private ClusterEventBus node(String id, SqlStore store, Queue<UUID> received) {
+        ClusterEventBus bus = new ClusterEventBus(store,
+                new ClusterEventBus.Settings(true, id, Duration.ofMillis(50), Duration.ofMinutes(10)),
+                new MetricsRegistry(), NOPLogger.NOP_LOGGER);
+        bus.on(Type.PLAYER_CHANGED, e -> received.add(e.uuid()));
+        bus.start();
+        assertTrue(bus.isEnabled());
+        nodes.add(bus);
+        return bus;
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                return false;
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    /** Rejects every write while {@link #failing} is set. */
+    private static final class FlakyStore implements SqlStore {
+
+        private final SqlStore delegate;
+        volatile boolean failing;
+        volatile int failures;
+
+        FlakyStore(SqlStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Connection read() throws SQLException {
+            return delegate.read();
+        }
+
+        @Override
+        public <T> T write(Transaction<T> tx) throws SQLException {
+            if (failing) {
+                failures++;
+                throw new SQLException("database is locked");
+            }
+            return delegate.write(tx);
+        }
+
+        @Override
+        public boolean isMysql() {
+            return false;
+        }
+    }
+}
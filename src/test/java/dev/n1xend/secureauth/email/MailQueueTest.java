@@ -0,0 +1,216 @@
+package dev.n1xend.secureauth.email;
+
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Delivers against a minimal plain-text SMTP server on loopback. */
+class MailQueueTest {
+
+    private SmtpStub smtp;
+    private MailQueue queue;
+
+    @BeforeEach
+    void start() throws IOException {
+        smtp = new SmtpStub();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        if (queue != null)
+            queue.shutdown(2000);
+        smtp.close();
+    }
+
+    private MailQueue queue(int capacity) throws IOException {
+        queue = new MailQueue(new MailQueue.Settings("127.0.0.1", smtp.port(), "", "", "noreply@example.com",
+                "SecureAuth", false, 1, capacity, 2, Duration.ofMillis(100), Duration.ofSeconds(60),
+                Duration.ofSeconds(5)), new MetricsRegistry(), NOPLogger.NOP_LOGGER);
+        return queue;
+    }
+
+    @Test
+    void reusesOneConnectionForSeveralMails() throws Exception {
+        MailQueue q = queue(16);
+        List<CompletableFuture<MailQueue.Delivery>> futures = List.of(
+                q.submit("a@example.com", "Recovery", "<p>one</p>"),
+                q.submit("b@example.com", "Recovery", "<p>two</p>"),
+                q.submit("c@example.com", "Recovery", "<p>three</p>"));
+
+        for (CompletableFuture<MailQueue.Delivery> f : futures)
+            assertEquals(1, f.get(10, TimeUnit.SECONDS).attempts());
+        assertEquals(3, smtp.messages.size());
+        assertTrue(smtp.messages.get(1).contains("<p>two</p>"));
+        assertEquals(1, smtp.connections.get(), "connection was not kept open between mails");
+        assertEquals(3, q.stats().sent());
+    }
+
+    @Test
+    void retriesTransientFailuresOnAFreshConnection() throws Exception {
+        smtp.failNextMailFrom.set(1);
+        MailQueue q = queue(16);
+
+        MailQueue.Delivery delivery = q.submit("a@example.com", "Recovery", "<p>hi</p>").get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, delivery.attempts());
+        assertEquals(1, smtp.messages.size());
+        assertEquals(2, smtp.connections.get());
+        assertEquals(1, q.stats().retries());
+    }
+
+    @Test
+    void givesUpAfterMaxRetries() throws Exception {
+        smtp.failNextMailFrom.set(Integer.MAX_VALUE);
+        MailQueue q = queue(16);
+
+        CompletableFuture<MailQueue.Delivery> f = q.submit("a@example.com", "Recovery", "<p>hi</p>");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(jakarta.mail.MessagingException.class, e.getCause());
+        assertEquals(1, q.stats().failed());
+        assertTrue(smtp.messages.isEmpty());
+    }
+
+    @Test
+    void rejectsWhenTheQueueIsFull() throws IOException, InterruptedException, TimeoutException {
+        smtp.stall();
+        MailQueue q = queue(1);
+        // The single worker takes the first mail and stalls on it; the second fills the queue
+        q.submit("a@example.com", "s", "x");
+        Thread.sleep(200);
+        q.submit("b@example.com", "s", "x");
+
+        CompletableFuture<MailQueue.Delivery> third = q.submit("c@example.com", "s", "x");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> third.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(java.util.concurrent.RejectedExecutionException.class, e.getCause());
+        assertEquals(1, q.stats().rejected());
+        smtp.release();
+    }
+
+    /** Just enough SMTP for jakarta.mail: no AUTH, no STARTTLS, every command accepted unless told otherwise. */
+    private static final class SmtpStub implements AutoCloseable {
+
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger failNextMailFrom = new AtomicInteger();
+        private final ServerSocket server;
+        private final Object gate = new Object();
+        private boolean stalled;
+
+        SmtpStub() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread.ofPlatform().daemon(true).start(this::acceptLoop);
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        void stall() {
+            synchronized (gate) {
+                stalled = true;
+            }
+        }
+
+        void release() {
+            synchronized (gate) {
+                stalled = false;
+                gate.notifyAll();
+            }
+        }
+
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.incrementAndGet();
+                    Thread.ofPlatform().daemon(true).start(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost ESMTP stub");
+                for (String line; (line = in.readLine()) != null;) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO", "HELO" -> reply(out, "250 localhost");
+                        case "MAIL" -> {
+                            if (failNextMailFrom.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+                                reply(out, "421 try again later");
+                                return;
+                            }
+                            awaitRelease();
+                            reply(out, "250 OK");
+                        }
+                        case "DATA" -> {
+                            reply(out, "354 end with <CRLF>.<CRLF>");
+                            StringBuilder message = new StringBuilder();
+                            for (String data; (data = in.readLine()) != null && !data.equals(".");)
+                                message.append(data).append('\n');
+                            messages.add(message.toString());
+                            reply(out, "250 queued");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // client went away or the test ended
+            }
+        }
+
+        private void awaitRelease() throws InterruptedException {
+            synchronized (gate) {
+                while (stalled)
+                    gate.wait();
+            }
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            release();
+            server.close();
+        }
+    }
+}
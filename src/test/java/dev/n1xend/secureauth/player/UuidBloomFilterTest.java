@@ -0,0 +1,121 @@
+package dev.n1xend.secureauth.player;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidBloomFilterTest {
+
+    private static final int EXPECTED = 20_000;
+    private static final double FPP = 0.01;
+
+    /** Seeded so a failure can be reproduced. */
+    private static List<UUID> uuids(long seed, int n) {
+        Random random = new Random(seed);
+        List<UUID> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            out.add(new UUID(random.nextLong(), random.nextLong()));
+        return out;
+    }
+
+    private static UUID offline(String name) {
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void neverForgetsAnAddedUuid() {
+        UuidBloomFilter filter = new UuidBloomFilter(EXPECTED, FPP);
+        List<UUID> added = uuids(1, EXPECTED);
+        added.forEach(filter::put);
+
+        for (UUID uuid : added)
+            assertTrue(filter.mightContain(uuid), uuid + " was added but reported absent");
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTargetAtCapacity() {
+        UuidBloomFilter filter = new UuidBloomFilter(EXPECTED, FPP);
+        uuids(2, EXPECTED).forEach(filter::put);
+
+        int probes = 100_000;
+        int positives = 0;
+        for (UUID uuid : uuids(3, probes)) {
+            if (filter.mightContain(uuid))
+                positives++;
+        }
+        double rate = (double) positives / probes;
+        assertTrue(rate < FPP * 2, "false-positive rate " + rate);
+    }
+
+    @Test
+    void offlineModeUuidsAreSpreadToo() {
+        // Version-3 name UUIDs share their version and variant bits
+        UuidBloomFilter filter = new UuidBloomFilter(EXPECTED, FPP);
+        for (int i = 0; i < EXPECTED; i++)
+            filter.put(offline("player" + i));
+
+        int positives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (filter.mightContain(offline("bot" + i)))
+                positives++;
+        }
+        assertTrue(positives < 20_000 * FPP * 2, positives + " false positives");
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        UuidBloomFilter filter = new UuidBloomFilter(EXPECTED, FPP);
+
+        for (UUID uuid : uuids(4, 1000))
+            assertFalse(filter.mightContain(uuid));
+    }
+
+    @Test
+    void sizedFromExpectedCountAndRate() {
+        UuidBloomFilter filter = new UuidBloomFilter(EXPECTED, FPP);
+
+        assertEquals(EXPECTED, filter.expected());
+        // About 9.6 bits per entry at 1 %
+        long bits = filter.sizeBytes() * 8;
+        assertTrue(bits >= EXPECTED * 9L && bits <= EXPECTED * 10L + 64, bits + " bits");
+    }
+
+    @Test
+    void concurrentAddsAreAllKept() throws InterruptedException {
+        UuidBloomFilter filter = new UuidBloomFilter(EXPECTED, FPP);
+        int threads = 4;
+        List<List<UUID>> batches = new ArrayList<>();
+        for (int t = 0; t < threads; t++)
+            batches.add(uuids(10 + t, EXPECTED / threads));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (List<UUID> batch : batches) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                batch.forEach(filter::put);
+            }));
+        }
+        start.countDown();
+        for (Thread w : workers)
+            w.join();
+
+        for (List<UUID> batch : batches) {
+            for (UUID uuid : batch)
+                assertTrue(filter.mightContain(uuid));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package dev.n1xend.secureauth.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Hashes as AuthMe stores them, taken from AuthMe's own encryption tests. */
+class HashFormatTest {
+
+    /** AuthMe PBKDF2: 10000 rounds, 64-byte key, upper-case hex. */
+    private static final String AUTHME_PBKDF2 = "pbkdf2_sha256$10000$b25801311edf$093E38B16DFF13FCE5CD64D5D888EE6E"
+            + "0376A3E572FE5DA6749515EA0F384413223A21C464B0BE899E64084D1FFEFD44F2AC768453C87F41B42CC6954C416900";
+    private static final String AUTHME_PBKDF2_2 = "pbkdf2_sha256$10000$fe705da06c57$A41527BD58FED9C9E6F452FC1BA8B0C4"
+            + "C4224ECC63E37F71EB1A0865D2AB81BBFEBCA9B7B6A6E8AEF4717B43F8EB6FB4EDEFFBB399D9D991EF7E23013595BAF0";
+    /** AuthMe PBKDF2DJANGO: 32-byte key, Base64. */
+    private static final String AUTHME_DJANGO =
+            "pbkdf2_sha256$15000$50a7ff2d7e00$t7Qx2CfzMhGEbyCa3Wk5nJvNjj3N+FdxhpwJDerl4Fs=";
+    /** AuthMe SHA256. */
+    private static final String AUTHME_SHA256 =
+            "$SHA$11aa0706173d7272$dbba96681c2ae4e0bfdf226d70fbbc5e4ee3d8071faa613bc533fe8a64817d10";
+
+    @Test
+    void detectsImportedFormats() {
+        assertEquals(HashFormat.PBKDF2_SHA256, HashFormat.detect(AUTHME_PBKDF2));
+        assertEquals(HashFormat.PBKDF2_SHA256, HashFormat.detect(AUTHME_DJANGO));
+        assertEquals(HashFormat.SHA256_SALTED, HashFormat.detect(AUTHME_SHA256));
+        assertEquals(HashFormat.ARGON2, HashFormat.detect("$argon2id$v=19$m=65536,t=3,p=1$c2FsdA$aGFzaA"));
+        assertEquals(HashFormat.UNKNOWN, HashFormat.detect("5f4dcc3b5aa765d61d8327deb882cf99"));
+        assertEquals(HashFormat.UNKNOWN, HashFormat.detect(null));
+    }
+
+    @Test
+    void rejectsPbkdf2RowsThatCouldNotBeVerified() {
+        String tail = "$b25801311edf$093E38B16DFF13FCE5CD64D5D888EE6E";
+        assertEquals(HashFormat.PBKDF2_SHA256, HashFormat.detect("pbkdf2_sha256$1" + tail));
+        assertEquals(HashFormat.UNKNOWN, HashFormat.detect("pbkdf2_sha256$0" + tail));
+        assertEquals(HashFormat.UNKNOWN, HashFormat.detect("pbkdf2_sha256$" + tail));
+        assertEquals(HashFormat.UNKNOWN, HashFormat.detect("pbkdf2_sha256$ten" + tail));
+        assertEquals(HashFormat.UNKNOWN, HashFormat.detect("pbkdf2_sha256$-100" + tail));
+        assertEquals(HashFormat.UNKNOWN, HashFormat.detect("pbkdf2_sha256$99999999999" + tail));
+        assertEquals(HashFormat.UNKNOWN,
+                HashFormat.detect("pbkdf2_sha256$" + (HashFormat.MAX_PBKDF2_ITERATIONS + 1) + tail));
+        assertEquals(HashFormat.UNKNOWN, HashFormat.detect("pbkdf2_sha256$10000$$093E38B1"));
+        assertEquals(HashFormat.UNKNOWN, HashFormat.detect("pbkdf2_sha256$10000$b25801311edf$not base64!"));
+    }
+
+    @Test
+    void verifiesAuthMePbkdf2() {
+        assertTrue(HashFormat.PBKDF2_SHA256.verify(AUTHME_PBKDF2, "password"));
+        assertTrue(HashFormat.PBKDF2_SHA256.verify(AUTHME_PBKDF2_2, "PassWord1"));
+        assertFalse(HashFormat.PBKDF2_SHA256.verify(AUTHME_PBKDF2, "Password"));
+        assertFalse(HashFormat.PBKDF2_SHA256.verify(AUTHME_PBKDF2_2, "password"));
+    }
+
+    @Test
+    void verifiesAuthMePbkdf2Django() {
+        assertTrue(HashFormat.PBKDF2_SHA256.verify(AUTHME_DJANGO, "password"));
+        assertFalse(HashFormat.PBKDF2_SHA256.verify(AUTHME_DJANGO, "password1"));
+    }
+
+    @Test
+    void verifiesAuthMeSha256() {
+        assertTrue(HashFormat.SHA256_SALTED.verify(AUTHME_SHA256, "password"));
+        assertFalse(HashFormat.SHA256_SALTED.verify(AUTHME_SHA256, "passwort"));
+    }
+
+    @Test
+    void onlyLegacyFormatsAreUpgraded() {
+        assertTrue(HashFormat.PBKDF2_SHA256.isLegacy());
+        assertFalse(HashFormat.ARGON2.isLegacy());
+        assertFalse(HashFormat.UNKNOWN.isLegacy());
+    }
+}
@@ -0,0 +1,100 @@
+package dev.n1xend.secureauth.twofa;
+
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TotpVerifierTest {
+
+    /** The RFC 6238 SHA-1 seed, ASCII "12345678901234567890", in Base32. */
+    private static final String RFC_SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+    private static final long PERIOD_MILLIS = 30_000;
+
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final TotpVerifier verifier = new TotpVerifier(metrics);
+    private final UUID player = UUID.randomUUID();
+
+    /** RFC 6238 appendix B, SHA-1, truncated to the last six digits. */
+    @Test
+    void matchesTheRfc6238Vectors() {
+        long[] seconds = {59L, 1_111_111_109L, 1_111_111_111L, 1_234_567_890L, 2_000_000_000L, 20_000_000_000L};
+        String[] codes = {"287082", "081804", "050471", "005924", "279037", "353130"};
+
+        for (int i = 0; i < seconds.length; i++) {
+            long millis = seconds[i] * 1000;
+            assertEquals(millis / PERIOD_MILLIS, verifier.matchStep(player, RFC_SECRET, codes[i], millis),
+                    "T=" + seconds[i]);
+        }
+    }
+
+    @Test
+    void acceptsOneStepEitherSide() {
+        long now = 59_000 + PERIOD_MILLIS;
+
+        assertEquals(1, verifier.matchStep(player, RFC_SECRET, "287082", now));
+        assertEquals(1, verifier.matchStep(player, RFC_SECRET, "287082", now - 2 * PERIOD_MILLIS));
+        assertEquals(-1, verifier.matchStep(player, RFC_SECRET, "287082", now + PERIOD_MILLIS));
+    }
+
+    @Test
+    void rejectsMalformedCodes() {
+        assertEquals(-1, verifier.matchStep(player, RFC_SECRET, "28708", 59_000));
+        assertEquals(-1, verifier.matchStep(player, RFC_SECRET, "2870820", 59_000));
+        assertEquals(-1, verifier.matchStep(player, RFC_SECRET, "28708a", 59_000));
+        assertEquals(-1, verifier.matchStep(player, RFC_SECRET, null, 59_000));
+        assertEquals(1, verifier.matchStep(player, RFC_SECRET, "287 082", 59_000));
+    }
+
+    @Test
+    void unusableSecretsMatchNothing() {
+        assertEquals(-1, verifier.matchStep(player, "", "287082", 59_000));
+        assertEquals(-1, verifier.matchStep(player, "====", "287082", 59_000));
+        assertEquals(-1, verifier.matchStep(player, "GEZDGNBV!", "287082", 59_000));
+        assertEquals(-1, verifier.matchStep(player, null, "287082", 59_000));
+        assertFalse(verifier.verify(player, "not base32 at all 1890", "287082"));
+    }
+
+    @Test
+    void followsAChangedSecret() {
+        assertEquals(1, verifier.matchStep(player, RFC_SECRET, "287082", 59_000));
+
+        assertEquals(-1, verifier.matchStep(player, "JBSWY3DPEHPK3PXP", "287082", 59_000));
+        assertEquals(1, verifier.matchStep(player, RFC_SECRET, "287082", 59_000));
+    }
+
+    @Test
+    void aStepCanBeUsedOnlyOnce() {
+        long now = 59_000;
+
+        assertTrue(verifier.verify(player, RFC_SECRET, "287082", now));
+        assertFalse(verifier.verify(player, RFC_SECRET, "287082", now));
+        // Still inside the window a step later, but that step was used
+        assertFalse(verifier.verify(player, RFC_SECRET, "287082", now + PERIOD_MILLIS));
+        assertEquals(2, metrics.counter(MetricsRegistry.TOTP_REPLAY_REJECTED).sum());
+    }
+
+    @Test
+    void earlierStepsAreRejectedAfterALaterOne() {
+        long t1 = 1_111_111_109_000L;
+        long t2 = 1_111_111_111_000L;
+
+        assertTrue(verifier.verify(player, RFC_SECRET, "050471", t2));
+        assertFalse(verifier.verify(player, RFC_SECRET, "081804", t2));
+        assertFalse(verifier.verify(player, RFC_SECRET, "081804", t1));
+    }
+
+    @Test
+    void replayStateIsPerPlayerAndClearedByInvalidate() {
+        UUID other = UUID.randomUUID();
+        assertTrue(verifier.verify(player, RFC_SECRET, "287082", 59_000));
+
+        assertTrue(verifier.verify(other, RFC_SECRET, "287082", 59_000));
+        verifier.invalidate(player);
+        assertTrue(verifier.verify(player, RFC_SECRET, "287082", 59_000));
+    }
+}
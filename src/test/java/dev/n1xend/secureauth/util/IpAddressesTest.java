@@ -0,0 +1,108 @@
+package dev.n1xend.secureauth.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IpAddressesTest {
+
+    private final long[] out = new long[2];
+
+    @Test
+    void parsesIpv4() {
+        assertEquals(IpAddresses.IPV4, IpAddresses.parse("192.168.1.20", out));
+        assertEquals(0, out[0]);
+        assertEquals(0xC0A80114L, out[1]);
+        assertEquals(IpAddresses.IPV4, IpAddresses.parse("255.255.255.255", out));
+        assertEquals(0xFFFFFFFFL, out[1]);
+        assertEquals(IpAddresses.IPV4, IpAddresses.parse("0.0.0.0", out));
+        assertEquals(0, out[1]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1.2.3", "1.2.3.4.5", "256.0.0.1", "1.2.3.", ".1.2.3", "1..2.3", "1.2.3.4a",
+            "1234.1.1.1", "a.b.c.d", " 1.2.3.4"})
+    void rejectsMalformedIpv4(String s) {
+        assertEquals(IpAddresses.INVALID, IpAddresses.parse(s, out));
+    }
+
+    @Test
+    void parsesFullIpv6() {
+        assertEquals(IpAddresses.IPV6, IpAddresses.parse("2001:0db8:0000:0000:0000:ff00:0042:8329", out));
+        assertEquals(0x20010DB800000000L, out[0]);
+        assertEquals(0x0000FF0000428329L, out[1]);
+    }
+
+    @Test
+    void parsesCompressedIpv6() {
+        assertEquals(IpAddresses.IPV6, IpAddresses.parse("2001:db8::ff00:42:8329", out));
+        assertEquals(0x20010DB800000000L, out[0]);
+        assertEquals(0x0000FF0000428329L, out[1]);
+
+        assertEquals(IpAddresses.IPV6, IpAddresses.parse("::1", out));
+        assertEquals(0, out[0]);
+        assertEquals(1, out[1]);
+
+        assertEquals(IpAddresses.IPV6, IpAddresses.parse("::", out));
+        assertEquals(0, out[0]);
+        assertEquals(0, out[1]);
+
+        assertEquals(IpAddresses.IPV6, IpAddresses.parse("fe80::", out));
+        assertEquals(0xFE80000000000000L, out[0]);
+        assertEquals(0, out[1]);
+
+        assertEquals(IpAddresses.IPV6, IpAddresses.parse("FE80::ABCD", out));
+        assertEquals(0xFE80000000000000L, out[0]);
+        assertEquals(0xABCDL, out[1]);
+    }
+
+    @Test
+    void ipv4MappedIpv6IsReportedAsIpv4() {
+        assertEquals(IpAddresses.IPV4, IpAddresses.parse("::ffff:10.0.0.1", out));
+        assertEquals(0x0A000001L, out[1]);
+        assertEquals(IpAddresses.IPV4, IpAddresses.parse("::ffff:a00:1", out));
+        assertEquals(0x0A000001L, out[1]);
+    }
+
+    @Test
+    void embeddedIpv4InOtherPrefixStaysIpv6() {
+        assertEquals(IpAddresses.IPV6, IpAddresses.parse("64:ff9b::192.0.2.33", out));
+        assertEquals(0x0064FF9B00000000L, out[0]);
+        assertEquals(0xC0000221L, out[1]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {":", ":::", "1::2::3", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7", "12345::", "g::1", ":1::",
+            "1:2:3:4:5:6:7::8", "::ffff:1.2.3", "1:"})
+    void rejectsMalformedIpv6(String s) {
+        assertEquals(IpAddresses.INVALID, IpAddresses.parse(s, out));
+    }
+
+    @Test
+    void parsesSubrange() {
+        String s = "10.1.2.0/24";
+        assertEquals(IpAddresses.IPV4, IpAddresses.parse(s, 0, s.indexOf('/'), out));
+        assertEquals(0x0A010200L, out[1]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"203.0.113.9", "2001:db8::1", "::1", "fe80::1:2:3:4", "2001:db8:85a3::8a2e:370:7334"})
+    void matchesInetAddress(String s) throws Exception {
+        long[] fromInet = new long[2];
+        int family = IpAddresses.parse(InetAddress.getByName(s), fromInet);
+        assertEquals(family, IpAddresses.parse(s, out));
+        assertEquals(fromInet[0], out[0]);
+        assertEquals(fromInet[1], out[1]);
+    }
+
+    @Test
+    void formatsCanonically() {
+        assertEquals("192.0.2.1", IpAddresses.format(IpAddresses.IPV4, 0, 0xC0000201L));
+        IpAddresses.parse("2001:0db8:0:0:0:0:0:1", out);
+        assertEquals("2001:db8:0:0:0:0:0:1", IpAddresses.format(IpAddresses.IPV6, out[0], out[1]));
+    }
+}
@@ -0,0 +1,127 @@
+package dev.n1xend.secureauth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    @Test
+    void allowsMaxAttemptsThenRejects() {
+        RateLimiter limiter = new RateLimiter(5, Duration.ofMinutes(1));
+        UUID uuid = UUID.randomUUID();
+        for (int i = 0; i < 5; i++)
+            assertTrue(limiter.tryAcquire(uuid), "attempt " + (i + 1));
+        assertFalse(limiter.tryAcquire(uuid));
+        assertFalse(limiter.tryAcquire(uuid));
+    }
+
+    @Test
+    void keysAreIndependent() {
+        RateLimiter limiter = new RateLimiter(1, Duration.ofMinutes(1));
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        assertTrue(limiter.tryAcquire(a));
+        assertFalse(limiter.tryAcquire(a));
+        assertTrue(limiter.tryAcquire(b));
+    }
+
+    @Test
+    void emissionIntervalLetsOneAttemptBackIn() throws InterruptedException {
+        // 4 per 2 s: one attempt is freed every 500 ms
+        RateLimiter limiter = new RateLimiter(4, Duration.ofSeconds(2));
+        UUID uuid = UUID.randomUUID();
+        for (int i = 0; i < 4; i++)
+            assertTrue(limiter.tryAcquire(uuid));
+        assertFalse(limiter.tryAcquire(uuid));
+        Thread.sleep(600);
+        assertTrue(limiter.tryAcquire(uuid));
+        assertFalse(limiter.tryAcquire(uuid));
+    }
+
+    @Test
+    void rejectedAttemptsDoNotExtendTheBlock() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(2, Duration.ofMillis(200));
+        UUID uuid = UUID.randomUUID();
+        assertTrue(limiter.tryAcquire(uuid));
+        assertTrue(limiter.tryAcquire(uuid));
+        for (int i = 0; i < 50; i++)
+            assertFalse(limiter.tryAcquire(uuid));
+        Thread.sleep(250);
+        assertTrue(limiter.tryAcquire(uuid));
+    }
+
+    @Test
+    void resetClearsTheKey() {
+        RateLimiter limiter = new RateLimiter(1, Duration.ofMinutes(1));
+        UUID uuid = UUID.randomUUID();
+        assertTrue(limiter.tryAcquire(uuid));
+        assertFalse(limiter.tryAcquire(uuid));
+        limiter.reset(uuid);
+        assertTrue(limiter.tryAcquire(uuid));
+    }
+
+    @Test
+    void ipv4AddressAndIntKeyAreTheSameKey() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, Duration.ofMinutes(1));
+        assertTrue(limiter.tryAcquire(InetAddress.getByName("192.0.2.7")));
+        assertFalse(limiter.tryAcquireIpv4(0xC0000207));
+        assertTrue(limiter.tryAcquireIpv4(0xC0000208));
+    }
+
+    @Test
+    void ipv6AddressAndHalvesAreTheSameKey() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, Duration.ofMinutes(1));
+        assertTrue(limiter.tryAcquire(InetAddress.getByName("2001:db8::1")));
+        assertFalse(limiter.tryAcquireIpv6(0x20010DB800000000L, 1L));
+        assertTrue(limiter.tryAcquireIpv6(0x20010DB800000000L, 2L));
+    }
+
+    @Test
+    void fullTableStillAdmitsNewKeys() {
+        // 8 slots: every new key evicts the entry closest to expiry instead of being refused
+        RateLimiter limiter = new RateLimiter(1, Duration.ofMinutes(1), 8);
+        for (int i = 0; i < 1000; i++)
+            assertTrue(limiter.tryAcquire(UUID.randomUUID()));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheLimit() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(100, Duration.ofMinutes(1));
+        UUID uuid = UUID.randomUUID();
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++)
+                    if (limiter.tryAcquire(uuid))
+                        allowed.incrementAndGet();
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread t : threads)
+            t.join();
+        assertEquals(100, allowed.get());
+    }
+
+    @Test
+    void rejectsNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, Duration.ofMinutes(1)));
+    }
+}
@@ -0,0 +1,150 @@
+package dev.n1xend.secureauth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Ticks the wheel by hand against the real clock, as the server task would. */
+class TimingWheelTest {
+
+    private final TimingWheel wheel = new TimingWheel(16);
+    private final List<UUID> fired = new CopyOnWriteArrayList<>();
+    private final TimingWheel.Expiry owner = fired::add;
+
+    /** Ticks until {@code n} timers have fired or a second has passed. */
+    private void tickUntil(int n) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (fired.size() < n && System.nanoTime() < deadline) {
+            wheel.tick();
+            Thread.sleep(TimingWheel.TICK_MILLIS / 5);
+        }
+    }
+
+    @Test
+    void firesOnceWhenDue() throws InterruptedException {
+        UUID key = UUID.randomUUID();
+        wheel.schedule(owner, key, 150);
+
+        wheel.tick();
+        assertTrue(fired.isEmpty(), "fired before its deadline");
+        tickUntil(1);
+
+        assertEquals(List.of(key), fired);
+        assertEquals(0, wheel.size());
+        wheel.tick();
+        assertEquals(1, fired.size());
+    }
+
+    @Test
+    void schedulingAgainMovesTheTimer() throws InterruptedException {
+        UUID key = UUID.randomUUID();
+        wheel.schedule(owner, key, 50);
+        wheel.schedule(owner, key, 400);
+
+        assertEquals(1, wheel.size());
+        Thread.sleep(150);
+        wheel.tick();
+        assertTrue(fired.isEmpty(), "the earlier deadline was kept");
+        assertTrue(wheel.remainingMillis(owner, key) > 150);
+    }
+
+    @Test
+    void cancelledTimersDoNotFire() throws InterruptedException {
+        UUID key = UUID.randomUUID();
+        wheel.schedule(owner, key, 0);
+
+        assertTrue(wheel.cancel(owner, key));
+        assertFalse(wheel.cancel(owner, key));
+        Thread.sleep(TimingWheel.TICK_MILLIS * 2);
+        wheel.tick();
+        assertTrue(fired.isEmpty());
+        assertEquals(0, wheel.remainingMillis(owner, key));
+    }
+
+    @Test
+    void ownersHaveSeparateTimersForTheSameKey() throws InterruptedException {
+        UUID key = UUID.randomUUID();
+        List<UUID> other = new ArrayList<>();
+        TimingWheel.Expiry second = other::add;
+        wheel.schedule(owner, key, 0);
+        wheel.schedule(second, key, 60_000);
+
+        tickUntil(1);
+
+        assertEquals(List.of(key), fired);
+        assertTrue(other.isEmpty());
+        assertTrue(wheel.remainingMillis(second, key) > 59_000);
+    }
+
+    @Test
+    void distantDeadlinesAreKeptExactly() {
+        UUID key = UUID.randomUUID();
+        long twentyDays = Duration.ofDays(20).toMillis();
+        wheel.schedule(owner, key, twentyDays);
+
+        wheel.tick();
+        long remaining = wheel.remainingMillis(owner, key);
+        assertTrue(remaining > twentyDays - 1000 && remaining <= twentyDays, remaining + " ms");
+        assertTrue(fired.isEmpty());
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() throws InterruptedException {
+        int n = 1_000;
+        for (int i = 0; i < n; i++)
+            wheel.schedule(owner, UUID.randomUUID(), i % 100);
+        assertEquals(n, wheel.size());
+
+        tickUntil(n);
+
+        assertEquals(n, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void callbacksMayScheduleAgain() throws InterruptedException {
+        UUID key = UUID.randomUUID();
+        List<UUID> runs = new CopyOnWriteArrayList<>();
+        TimingWheel.Expiry repeating = new TimingWheel.Expiry() {
+            @Override
+            public void expired(UUID k) {
+                runs.add(k);
+                if (runs.size() < 3)
+                    wheel.schedule(this, k, 0);
+            }
+        };
+        wheel.schedule(repeating, key, 0);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (runs.size() < 3 && System.nanoTime() < deadline) {
+            wheel.tick();
+            Thread.sleep(TimingWheel.TICK_MILLIS);
+        }
+
+        assertEquals(3, runs.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void aFailingCallbackDoesNotStopTheOthers() throws InterruptedException {
+        UUID good = UUID.randomUUID();
+        wheel.schedule(k -> {
+            throw new IllegalStateException("boom");
+        }, UUID.randomUUID(), 0);
+        wheel.schedule(owner, good, 0);
+        Thread.sleep(TimingWheel.TICK_MILLIS * 2);
+
+        assertThrows(IllegalStateException.class, wheel::tick);
+        assertEquals(List.of(good), fired);
+        assertEquals(0, wheel.size());
+    }
+}
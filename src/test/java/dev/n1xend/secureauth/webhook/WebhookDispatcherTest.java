@@ -0,0 +1,145 @@
+package dev.n1xend.secureauth.webhook;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.n1xend.secureauth.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Delivers against a local {@link HttpServer} that records bodies and replays scripted statuses. */
+class WebhookDispatcherTest {
+
+    private static final WebhookDispatcher.Settings SETTINGS = new WebhookDispatcher.Settings(64,
+            Duration.ofMillis(100), 2, Duration.ofSeconds(5), Set.of("LOGIN_FAIL", "IP_BAN"));
+
+    private HttpServer server;
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    /** Status for each upcoming request; 204 once empty. Guarded by itself. */
+    private final Deque<Integer> script = new ArrayDeque<>();
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/hook", this::handle);
+        server.start();
+        URI url = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/hook");
+        dispatcher = new WebhookDispatcher(url, SETTINGS, "test", HttpClient.newHttpClient(), new MetricsRegistry(),
+                NOPLogger.NOP_LOGGER);
+    }
+
+    @AfterEach
+    void stop() {
+        dispatcher.shutdown(1000);
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Integer status;
+        synchronized (script) {
+            status = script.poll();
+        }
+        int code = status == null ? 204 : status;
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (code == 429) {
+            exchange.getResponseHeaders().add("Retry-After", "0.2");
+            exchange.sendResponseHeaders(429, -1);
+        } else {
+            if (code < 300)
+                bodies.add(new String(body, StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(code, -1);
+        }
+        exchange.close();
+    }
+
+    @Test
+    void mergesOneNetworkIntoACountedEmbed() throws InterruptedException {
+        for (int i = 0; i < 5; i++)
+            assertTrue(dispatcher.offer("LOGIN_FAIL", "bot" + i, UUID.randomUUID(), "203.0.113." + (10 + i)));
+        dispatcher.offer("LOGIN", "Steve", UUID.randomUUID(), "198.51.100.7");
+
+        awaitRequests(1);
+        JsonArray embeds = embeds(bodies.get(0));
+        assertEquals(2, embeds.size());
+        assertEquals("5 × LOGIN_FAIL", embeds.get(0).getAsJsonObject().get("title").getAsString());
+        assertTrue(embeds.get(0).getAsJsonObject().get("description").getAsString().endsWith("203.0.113.0/24"));
+        assertEquals("LOGIN", embeds.get(1).getAsJsonObject().get("title").getAsString());
+        assertEquals(4, dispatcher.stats().merged());
+    }
+
+    @Test
+    void sendsAtMostTenEmbedsPerRequest() throws InterruptedException {
+        for (int i = 0; i < 13; i++)
+            dispatcher.offer("LOGIN", "p" + i, UUID.randomUUID(), "198.51.100." + i);
+
+        awaitRequests(2);
+        assertEquals(WebhookDispatcher.MAX_EMBEDS, embeds(bodies.get(0)).size());
+        assertEquals(3, embeds(bodies.get(1)).size());
+    }
+
+    @Test
+    void waitsOutRateLimitsAndRedelivers() throws InterruptedException {
+        synchronized (script) {
+            script.add(429);
+        }
+        dispatcher.offer("REGISTER", "Alex", UUID.randomUUID(), "198.51.100.1");
+
+        awaitRequests(1);
+        assertEquals(1, embeds(bodies.get(0)).size());
+        WebhookDispatcher.Stats stats = dispatcher.stats();
+        assertEquals(1, stats.rateLimited());
+        assertEquals(2, stats.requests());
+        assertEquals(0, stats.failed());
+    }
+
+    @Test
+    void retriesServerErrorsThenGivesUp() throws InterruptedException {
+        synchronized (script) {
+            for (int i = 0; i <= SETTINGS.maxRetries(); i++)
+                script.add(503);
+        }
+        dispatcher.offer("REGISTER", "Alex", UUID.randomUUID(), "198.51.100.1");
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (dispatcher.stats().failed() == 0 && System.nanoTime() < deadline)
+            Thread.sleep(20);
+        assertEquals(1, dispatcher.stats().failed());
+        assertEquals(SETTINGS.maxRetries() + 1, dispatcher.stats().requests());
+        assertTrue(bodies.isEmpty());
+    }
+
+    private void awaitRequests(int n) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (bodies.size() < n) {
+            assertTrue(System.nanoTime() < deadline, "only " + bodies.size() + " of " + n + " deliveries arrived");
+            Thread.sleep(20);
+        }
+    }
+
+    private static JsonArray embeds(String body) {
+        JsonObject root = JsonParser.parseString(body).getAsJsonObject();
+        return root.getAsJsonArray("embeds");
+    }
+}